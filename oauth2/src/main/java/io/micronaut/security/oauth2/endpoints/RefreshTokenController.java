@@ -0,0 +1,272 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.endpoints;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.cookie.Cookie;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenConfiguration;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenManager;
+import io.micronaut.security.oauth2.handlers.CookieSuccessfulIdTokenAccessTokenResponseHandler;
+import io.micronaut.security.oauth2.openid.endpoints.userinfo.UserInfoEndpointClient;
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponseValidator;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStore;
+import io.micronaut.security.rules.SecurityRule;
+import io.micronaut.security.token.jwt.validator.JwtAuthenticationFactory;
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Renews the ID token cookie of a browser with the refresh token of its refresh session, without a redirect to the
+ * authorization server.
+ *
+ * The refresh session cookie is sent by the browser whichever site triggers the request, so requests are only accepted
+ * if their {@link HttpHeaders#ORIGIN} header, or {@link HttpHeaders#REFERER} header when absent, matches an allowed origin.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Secured(SecurityRule.IS_ANONYMOUS)
+@Requires(property = RefreshTokenControllerConfigurationProperties.PREFIX + ".enabled", notEquals = StringUtils.FALSE)
+@Requires(beans = {RefreshTokenManager.class, IdTokenAccessTokenResponseValidator.class, CookieSuccessfulIdTokenAccessTokenResponseHandler.class})
+@Controller("${" + RefreshTokenControllerConfigurationProperties.PREFIX + ".path:/authcode/refresh}")
+public class RefreshTokenController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshTokenController.class);
+
+    private final RefreshTokenManager refreshTokenManager;
+    private final RefreshTokenConfiguration refreshTokenConfiguration;
+    private final RefreshTokenControllerConfiguration refreshTokenControllerConfiguration;
+    private final IdTokenAccessTokenResponseValidator idTokenAccessTokenResponseValidator;
+    private final CookieSuccessfulIdTokenAccessTokenResponseHandler cookieSuccessfulIdTokenAccessTokenResponseHandler;
+    private final JwtAuthenticationFactory jwtAuthenticationFactory;
+    private final JwksKeyStore jwksKeyStore;
+    private final UserInfoEndpointClient userInfoEndpointClient;
+
+    /**
+     *
+     * @param refreshTokenManager Refresh token manager
+     * @param refreshTokenConfiguration Refresh token configuration
+     * @param refreshTokenControllerConfiguration Refresh token controller configuration
+     * @param idTokenAccessTokenResponseValidator ID Token Access token response validator
+     * @param cookieSuccessfulIdTokenAccessTokenResponseHandler Cookie Successful IdToken-AccessToken Handler
+     * @param jwtAuthenticationFactory JWT Authentication factory
+     * @param jwksKeyStore JSON Web Key Set key store, present if an OpenID configuration is available
+     * @param userInfoEndpointClient Userinfo endpoint client, present if the userinfo claims are fetched
+     */
+    public RefreshTokenController(RefreshTokenManager refreshTokenManager,
+                                  RefreshTokenConfiguration refreshTokenConfiguration,
+                                  RefreshTokenControllerConfiguration refreshTokenControllerConfiguration,
+                                  IdTokenAccessTokenResponseValidator idTokenAccessTokenResponseValidator,
+                                  CookieSuccessfulIdTokenAccessTokenResponseHandler cookieSuccessfulIdTokenAccessTokenResponseHandler,
+                                  JwtAuthenticationFactory jwtAuthenticationFactory,
+                                  @Nullable JwksKeyStore jwksKeyStore,
+                                  @Nullable UserInfoEndpointClient userInfoEndpointClient) {
+        this.refreshTokenManager = refreshTokenManager;
+        this.refreshTokenConfiguration = refreshTokenConfiguration;
+        this.refreshTokenControllerConfiguration = refreshTokenControllerConfiguration;
+        this.idTokenAccessTokenResponseValidator = idTokenAccessTokenResponseValidator;
+        this.cookieSuccessfulIdTokenAccessTokenResponseHandler = cookieSuccessfulIdTokenAccessTokenResponseHandler;
+        this.jwtAuthenticationFactory = jwtAuthenticationFactory;
+        this.jwksKeyStore = jwksKeyStore;
+        this.userInfoEndpointClient = userInfoEndpointClient;
+    }
+
+    /**
+     *
+     * @param request The HTTP Request
+     * @return 204 with a renewed ID token cookie, 403 if the request comes from an origin which is not allowed, or 401 and the refresh session cookie cleared if the session cannot be renewed.
+     */
+    @Post
+    public Single<HttpResponse<?>> refresh(HttpRequest<?> request) {
+        if (!isAllowedOrigin(request)) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Rejecting refresh request from origin {}", request.getHeaders().get(HttpHeaders.ORIGIN));
+            }
+            return Single.just(HttpResponse.status(HttpStatus.FORBIDDEN));
+        }
+        Optional<Cookie> sessionCookie = request.getCookies().findCookie(refreshTokenConfiguration.getCookieName());
+        if (!sessionCookie.isPresent()) {
+            return Single.just(HttpResponse.unauthorized());
+        }
+        String sessionId = sessionCookie.get().getValue();
+        return refreshTokenManager.refresh(sessionId)
+                .flatMap(response -> response.getIdToken() != null ?
+                        Completable.mergeArray(awaitKeys(response.getIdToken()), fetchUserInfo(request, sessionId, response))
+                                .andThen(Maybe.fromCallable(() -> renew(request, response))) :
+                        fetchUserInfo(request, sessionId, response)
+                                .andThen(Maybe.fromCallable(() -> renewWithoutIdToken(request, sessionId, response))))
+                .toSingle(unauthorized(request));
+    }
+
+    /**
+     * @param request The HTTP Request
+     * @return Whether the request comes from an allowed origin.
+     */
+    protected boolean isAllowedOrigin(HttpRequest<?> request) {
+        String origin = request.getHeaders().get(HttpHeaders.ORIGIN);
+        if (origin == null) {
+            origin = request.getHeaders().get(HttpHeaders.REFERER);
+        }
+        URI uri = parseUri(origin);
+        if (uri == null || uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return false;
+        }
+        List<String> allowedOrigins = refreshTokenControllerConfiguration.getAllowedOrigins();
+        if (!allowedOrigins.isEmpty()) {
+            return allowedOrigins.contains(uri.getScheme() + "://" + uri.getRawAuthority());
+        }
+        return uri.getRawAuthority().equalsIgnoreCase(request.getHeaders().get(HttpHeaders.HOST));
+    }
+
+    /**
+     * The claims of the ID token of the refresh session are kept, with the lifetime of the new access token or else
+     * the lifetime of the previous ID token.
+     *
+     * @param sessionId The refresh session identifier
+     * @param response The refresh response, without an ID token
+     * @return The authentication of the refresh session or an empty optional if the session has no ID token.
+     */
+    protected Optional<Authentication> renewedAuthentication(String sessionId, IdTokenAccessTokenResponse response) {
+        Optional<String> idToken = refreshTokenManager.findIdToken(sessionId);
+        if (!idToken.isPresent()) {
+            return Optional.empty();
+        }
+        JWTClaimsSet claimsSet;
+        try {
+            claimsSet = JWTParser.parse(idToken.get()).getJWTClaimsSet();
+        } catch (ParseException e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error("Failed to parse the ID token of the refresh session", e);
+            }
+            return Optional.empty();
+        }
+        long lifetime;
+        if (response.getExpiresIn() != null && response.getExpiresIn() > 0) {
+            lifetime = Duration.ofSeconds(response.getExpiresIn()).toMillis();
+        } else if (claimsSet.getExpirationTime() != null && claimsSet.getIssueTime() != null) {
+            lifetime = claimsSet.getExpirationTime().getTime() - claimsSet.getIssueTime().getTime();
+        } else {
+            return Optional.empty();
+        }
+        Date now = new Date();
+        JWTClaimsSet renewed = new JWTClaimsSet.Builder(claimsSet)
+                .issueTime(now)
+                .expirationTime(new Date(now.getTime() + lifetime))
+                .build();
+        return jwtAuthenticationFactory.createAuthentication(new PlainJWT(renewed));
+    }
+
+    /**
+     * Fetches the userinfo claims with the renewed access token, so that the renewed ID token cookie carries them like
+     * the cookie set at login. Failures are logged and do not fail the refresh.
+     *
+     * @param request The HTTP Request
+     * @param sessionId The refresh session identifier
+     * @param response The refresh response
+     * @return Completes once the claims are stored in the {@value UserInfoEndpointClient#CLAIMS_ATTRIBUTE} request attribute or could not be fetched.
+     */
+    protected Completable fetchUserInfo(HttpRequest<?> request, String sessionId, IdTokenAccessTokenResponse response) {
+        if (userInfoEndpointClient == null || response.getAccessToken() == null) {
+            return Completable.complete();
+        }
+        String idToken = response.getIdToken() != null ? response.getIdToken() : refreshTokenManager.findIdToken(sessionId).orElse(null);
+        if (idToken == null) {
+            return Completable.complete();
+        }
+        return userInfoEndpointClient.fetch(response.getAccessToken(), idToken)
+                .doOnSuccess(claims -> {
+                    if (!claims.isEmpty()) {
+                        request.setAttribute(UserInfoEndpointClient.CLAIMS_ATTRIBUTE, claims);
+                    }
+                })
+                .ignoreElement()
+                .doOnError(e -> {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("could not fetch userinfo claims", e);
+                    }
+                })
+                .onErrorComplete();
+    }
+
+    private Completable awaitKeys(String idToken) {
+        return jwksKeyStore != null ? jwksKeyStore.awaitKeys(idToken) : Completable.complete();
+    }
+
+    private HttpResponse<?> renew(HttpRequest<?> request, IdTokenAccessTokenResponse response) {
+        return idTokenAccessTokenResponseValidator.validate(response)
+                .<HttpResponse<?>>map(authentication -> HttpResponse.noContent()
+                        .cookie(cookieSuccessfulIdTokenAccessTokenResponseHandler.createCookie(request, response, authentication)))
+                .orElseGet(() -> unauthorized(request));
+    }
+
+    private HttpResponse<?> renewWithoutIdToken(HttpRequest<?> request, String sessionId, IdTokenAccessTokenResponse response) {
+        Optional<Authentication> authentication = renewedAuthentication(sessionId, response);
+        if (!authentication.isPresent()) {
+            return unauthorized(request);
+        }
+        Optional<Cookie> cookie = cookieSuccessfulIdTokenAccessTokenResponseHandler.createRenewedCookie(request, response, authentication.get());
+        if (!cookie.isPresent()) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("The refresh response contains no ID token and no JWT signature generator is configured, the ID token cookie is not renewed");
+            }
+            return HttpResponse.noContent();
+        }
+        return HttpResponse.noContent().cookie(cookie.get());
+    }
+
+    private HttpResponse<?> unauthorized(HttpRequest<?> request) {
+        return HttpResponse.unauthorized()
+                .cookie(cookieSuccessfulIdTokenAccessTokenResponseHandler.createRefreshSessionCookie(request, "", Duration.ZERO));
+    }
+
+    @Nullable
+    private static URI parseUri(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new URI(value);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.endpoints;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Configuration for {@link RefreshTokenController}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface RefreshTokenControllerConfiguration extends Toggleable {
+
+    /**
+     * @return The path the refresh token controller responds to.
+     */
+    @Nonnull
+    String getPath();
+
+    /**
+     * @return The origins allowed to call the refresh token controller. If empty, only the origin of the host the request is sent to.
+     */
+    @Nonnull
+    List<String> getAllowedOrigins();
+}
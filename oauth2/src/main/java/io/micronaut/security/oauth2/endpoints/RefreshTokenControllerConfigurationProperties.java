@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.endpoints;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.config.SecurityConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link RefreshTokenControllerConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(RefreshTokenControllerConfigurationProperties.PREFIX)
+public class RefreshTokenControllerConfigurationProperties implements RefreshTokenControllerConfiguration {
+    public static final String PREFIX = SecurityConfigurationProperties.PREFIX + ".endpoints.refresh-token";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = true;
+
+    /**
+     * The default path.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String DEFAULT_PATH = "/authcode/refresh";
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private String path = DEFAULT_PATH;
+    private List<String> allowedOrigins = new ArrayList<>();
+
+    /**
+     * @return true if you want to enable the {@link RefreshTokenController}
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the {@link RefreshTokenController} is enabled. It requires refresh sessions to be enabled as well. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * The path of the {@link RefreshTokenController}. Default value ({@value #DEFAULT_PATH}).
+     *
+     * @param path The controller path
+     */
+    public void setPath(@Nonnull String path) {
+        this.path = path;
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getAllowedOrigins() {
+        return allowedOrigins;
+    }
+
+    /**
+     * The origins, such as https://app.example.com, allowed to call the {@link RefreshTokenController}. Requests from other origins are rejected. Default value: only the origin of the host the request is sent to.
+     *
+     * @param allowedOrigins The allowed origins
+     */
+    public void setAllowedOrigins(@Nonnull List<String> allowedOrigins) {
+        this.allowedOrigins = allowedOrigins;
+    }
+}
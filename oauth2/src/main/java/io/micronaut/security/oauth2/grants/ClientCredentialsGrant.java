@@ -37,9 +37,19 @@ import java.util.Map;
 public class ClientCredentialsGrant implements AsMap {
 
     public static final String KEY_GRANT_TYPE = "grant_type";
+    public static final String KEY_CLIENT_ID = "client_id";
+    public static final String KEY_CLIENT_SECRET = "client_secret";
+    public static final String KEY_SCOPE = "scope";
+
+    /**
+     * @deprecated The token request parameter is named {@link #KEY_SCOPE}.
+     */
+    @Deprecated
     public static final String KEY_SCOPES = "scopes";
 
     private String grantType = GrantType.CLIENT_CREDENTIALS.getGrantType();
+    private String clientId;
+    private String clientSecret;
     private String scope;
 
     /**
@@ -58,6 +68,40 @@ public class ClientCredentialsGrant implements AsMap {
         return grantType;
     }
 
+    /**
+     *
+     * @return The application's Client identifier, if the client authenticates in the request body.
+     */
+    @Nullable
+    public String getClientId() {
+        return clientId;
+    }
+
+    /**
+     *
+     * @param clientId Application's Client identifier.
+     */
+    public void setClientId(@Nullable String clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     *
+     * @return The application's Client secret, if the client authenticates in the request body.
+     */
+    @Nullable
+    public String getClientSecret() {
+        return clientSecret;
+    }
+
+    /**
+     *
+     * @param clientSecret Application's Client secret.
+     */
+    public void setClientSecret(@Nullable String clientSecret) {
+        this.clientSecret = clientSecret;
+    }
+
     /**
      *
      * @return Requested scope values for the access token.
@@ -81,9 +125,17 @@ public class ClientCredentialsGrant implements AsMap {
      */
     @Override
     public Map<String, String> toMap() {
-        Map<String, String> m = new HashMap<>(2);
+        Map<String, String> m = new HashMap<>(4);
         m.put(KEY_GRANT_TYPE, getGrantType());
-        m.put(KEY_SCOPES, getScope());
+        if (getClientId() != null) {
+            m.put(KEY_CLIENT_ID, getClientId());
+        }
+        if (getClientSecret() != null) {
+            m.put(KEY_CLIENT_SECRET, getClientSecret());
+        }
+        if (getScope() != null) {
+            m.put(KEY_SCOPE, getScope());
+        }
         return m;
     }
 }
@@ -22,6 +22,8 @@ import io.micronaut.core.annotation.Introspected;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Refresh Token Grant.
@@ -32,11 +34,19 @@ import javax.annotation.Nullable;
  */
 @Introspected
 @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
-public class RefreshTokenGrant {
+public class RefreshTokenGrant implements AsMap {
+
+    public static final String KEY_GRANT_TYPE = "grant_type";
+    public static final String KEY_REFRESH_TOKEN = "refresh_token";
+    public static final String KEY_SCOPE = "scope";
+    public static final String KEY_CLIENT_ID = "client_id";
+    public static final String KEY_CLIENT_SECRET = "client_secret";
 
     private String grantType = GrantType.REFRESH_TOKEN.getGrantType();
     private String refreshToken;
     private String scope;
+    private String clientId;
+    private String clientSecret;
 
     /**
      * Instantiates a RefreshTokenGrant.
@@ -87,4 +97,59 @@ public class RefreshTokenGrant {
     public void setRefreshToken(@Nonnull String refreshToken) {
         this.refreshToken = refreshToken;
     }
+
+    /**
+     *
+     * @return The application's Client identifier, if the client authenticates in the request body.
+     */
+    @Nullable
+    public String getClientId() {
+        return clientId;
+    }
+
+    /**
+     *
+     * @param clientId Application's Client identifier.
+     */
+    public void setClientId(@Nullable String clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     *
+     * @return The application's Client secret, if the client authenticates in the request body.
+     */
+    @Nullable
+    public String getClientSecret() {
+        return clientSecret;
+    }
+
+    /**
+     *
+     * @param clientSecret Application's Client secret.
+     */
+    public void setClientSecret(@Nullable String clientSecret) {
+        this.clientSecret = clientSecret;
+    }
+
+    /**
+     *
+     * @return this object as a Map
+     */
+    @Override
+    public Map<String, String> toMap() {
+        Map<String, String> m = new HashMap<>(5);
+        m.put(KEY_GRANT_TYPE, getGrantType());
+        m.put(KEY_REFRESH_TOKEN, getRefreshToken());
+        if (getScope() != null) {
+            m.put(KEY_SCOPE, getScope());
+        }
+        if (getClientId() != null) {
+            m.put(KEY_CLIENT_ID, getClientId());
+        }
+        if (getClientSecret() != null) {
+            m.put(KEY_CLIENT_SECRET, getClientSecret());
+        }
+        return m;
+    }
 }
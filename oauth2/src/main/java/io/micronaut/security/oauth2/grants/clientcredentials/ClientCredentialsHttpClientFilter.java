@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpAttributes;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.filter.ClientFilterChain;
+import io.micronaut.http.filter.HttpClientFilter;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Provider;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Attaches an access token obtained with the client credentials grant to the outgoing requests of the configured
+ * services. If the request is rejected with 401, the token is discarded and the request is sent once more with a new token.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = ClientCredentialsHttpClientFilterConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Filter("/**")
+public class ClientCredentialsHttpClientFilter implements HttpClientFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClientCredentialsHttpClientFilter.class);
+
+    private final Provider<ClientCredentialsTokenManager> clientCredentialsTokenManager;
+    private final List<String> serviceIds;
+    private final List<Pattern> uriPatterns;
+    private final List<String> scopes;
+
+    /**
+     * The token manager is resolved lazily, since it depends on HTTP clients which are filtered as well.
+     *
+     * @param clientCredentialsTokenManager Client credentials token manager provider
+     * @param clientCredentialsHttpClientFilterConfiguration Client credentials HTTP client filter configuration
+     */
+    public ClientCredentialsHttpClientFilter(Provider<ClientCredentialsTokenManager> clientCredentialsTokenManager,
+                                             ClientCredentialsHttpClientFilterConfiguration clientCredentialsHttpClientFilterConfiguration) {
+        this.clientCredentialsTokenManager = clientCredentialsTokenManager;
+        this.serviceIds = clientCredentialsHttpClientFilterConfiguration.getServiceIds();
+        this.uriPatterns = clientCredentialsHttpClientFilterConfiguration.getUriPatterns().stream()
+                .map(Pattern::compile)
+                .collect(Collectors.toList());
+        this.scopes = clientCredentialsHttpClientFilterConfiguration.getScopes();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Publisher<? extends HttpResponse<?>> doFilter(MutableHttpRequest<?> request, ClientFilterChain chain) {
+        if (!matches(request)) {
+            return chain.proceed(request);
+        }
+        ClientCredentialsTokenManager tokenManager = clientCredentialsTokenManager.get();
+        return tokenManager.getToken(scopes).toFlowable().switchMap(token -> {
+            setBearerAuth(request, token.getAccessToken());
+            Flowable<HttpResponse<?>> response = Flowable.fromPublisher((Publisher<HttpResponse<?>>) chain.proceed(request));
+            return response.onErrorResumeNext((Throwable throwable) -> {
+                if (!isUnauthorized(throwable)) {
+                    return Flowable.error(throwable);
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("access token rejected by {}, retrying with a new token", request.getUri());
+                }
+                tokenManager.invalidate(scopes, token.getAccessToken());
+                return tokenManager.getToken(scopes).toFlowable().switchMap(newToken -> {
+                    setBearerAuth(request, newToken.getAccessToken());
+                    // the chain may only be proceeded once per filter execution; subscribing to its publisher
+                    // again sends the request once more, without the retry handler, so it is retried only once
+                    return response;
+                });
+            });
+        });
+    }
+
+    /**
+     * Requests which already carry an Authorization header, such as token requests with client secret basic authentication, are not modified.
+     *
+     * @param request The outgoing request
+     * @return Whether an access token should be attached to the request.
+     */
+    protected boolean matches(MutableHttpRequest<?> request) {
+        if (request.getHeaders().contains(HttpHeaders.AUTHORIZATION)) {
+            return false;
+        }
+        Optional<String> serviceId = request.getAttribute(HttpAttributes.SERVICE_ID, String.class);
+        if (serviceId.isPresent() && serviceIds.contains(serviceId.get())) {
+            return true;
+        }
+        if (uriPatterns.isEmpty()) {
+            return false;
+        }
+        String uri = request.getUri().toString();
+        return uriPatterns.stream().anyMatch(pattern -> pattern.matcher(uri).matches());
+    }
+
+    /**
+     * {@link MutableHttpRequest#bearerAuth(CharSequence)} adds a header, thus the previous token is removed first.
+     */
+    private static void setBearerAuth(MutableHttpRequest<?> request, String accessToken) {
+        request.getHeaders().remove(HttpHeaders.AUTHORIZATION);
+        request.bearerAuth(accessToken);
+    }
+
+    private static boolean isUnauthorized(Throwable throwable) {
+        return throwable instanceof HttpClientResponseException &&
+                ((HttpClientResponseException) throwable).getStatus() == HttpStatus.UNAUTHORIZED;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Configuration for {@link ClientCredentialsHttpClientFilter}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface ClientCredentialsHttpClientFilterConfiguration extends Toggleable {
+
+    /**
+     * Service ids of the declarative clients whose requests get an access token.
+     * @return The service ids.
+     */
+    @Nonnull
+    List<String> getServiceIds();
+
+    /**
+     * Regular expressions matched against the URI of outgoing requests. Matching requests get an access token.
+     * @return The URI patterns.
+     */
+    @Nonnull
+    List<String> getUriPatterns();
+
+    /**
+     * Scopes of the access tokens attached to the outgoing requests.
+     * @return The scopes.
+     */
+    @Nonnull
+    List<String> getScopes();
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link ClientCredentialsHttpClientFilterConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(ClientCredentialsHttpClientFilterConfigurationProperties.PREFIX)
+public class ClientCredentialsHttpClientFilterConfigurationProperties implements ClientCredentialsHttpClientFilterConfiguration {
+
+    public static final String PREFIX = ClientCredentialsTokenManagerConfigurationProperties.PREFIX + ".filter";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private List<String> serviceIds = new ArrayList<>();
+    private List<String> uriPatterns = new ArrayList<>();
+    private List<String> scopes = new ArrayList<>();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Attaches client credentials access tokens to the matching outgoing requests. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getServiceIds() {
+        return serviceIds;
+    }
+
+    /**
+     * Service ids of the declarative clients whose requests get an access token.
+     * @param serviceIds The service ids
+     */
+    public void setServiceIds(@Nonnull List<String> serviceIds) {
+        this.serviceIds = serviceIds;
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getUriPatterns() {
+        return uriPatterns;
+    }
+
+    /**
+     * Regular expressions matched against the URI of outgoing requests. They must not match the token endpoint.
+     * @param uriPatterns The URI patterns
+     */
+    public void setUriPatterns(@Nonnull List<String> uriPatterns) {
+        this.uriPatterns = uriPatterns;
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getScopes() {
+        return scopes;
+    }
+
+    /**
+     * Scopes of the access tokens attached to the outgoing requests.
+     * @param scopes The scopes
+     */
+    public void setScopes(@Nonnull List<String> scopes) {
+        this.scopes = scopes;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import io.micronaut.security.oauth2.responses.AccessTokenResponse;
+import io.reactivex.Single;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * Obtains access tokens with the client credentials grant and caches them per client and set of scopes.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc6749#section-4.4">Client Credentials Grant</a>
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface ClientCredentialsTokenManager {
+
+    /**
+     * Returns an access token of the application's client.
+     *
+     * @param scopes The requested scopes
+     * @return A cached access token, or a fetched one if none is cached or the cached one expired.
+     */
+    @Nonnull
+    Single<AccessTokenResponse> getToken(@Nonnull Collection<String> scopes);
+
+    /**
+     * Returns an access token of a client.
+     *
+     * @param clientId The client identifier
+     * @param clientSecret The client secret
+     * @param scopes The requested scopes
+     * @return A cached access token, or a fetched one if none is cached or the cached one expired.
+     */
+    @Nonnull
+    Single<AccessTokenResponse> getToken(@Nonnull String clientId, @Nullable String clientSecret, @Nonnull Collection<String> scopes);
+
+    /**
+     * Discards a cached access token of the application's client, for example after it was rejected.
+     *
+     * @param scopes The requested scopes
+     * @param accessToken The rejected access token. The cached token is only discarded if it is this one.
+     */
+    void invalidate(@Nonnull Collection<String> scopes, @Nonnull String accessToken);
+
+    /**
+     * Discards a cached access token of a client, for example after it was rejected.
+     *
+     * @param clientId The client identifier
+     * @param scopes The requested scopes
+     * @param accessToken The rejected access token. The cached token is only discarded if it is this one.
+     */
+    void invalidate(@Nonnull String clientId, @Nonnull Collection<String> scopes, @Nonnull String accessToken);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link DefaultClientCredentialsTokenManager}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface ClientCredentialsTokenManagerConfiguration {
+
+    /**
+     * Time before the expiration of an access token at which it is refreshed in the background.
+     * @return The refresh ahead time.
+     */
+    @Nonnull
+    Duration getRefreshAhead();
+
+    /**
+     * Maximum random time added to the refresh ahead time, so that tokens fetched together are not refreshed together.
+     * @return The refresh jitter.
+     */
+    @Nonnull
+    Duration getRefreshJitter();
+
+    /**
+     * Lifetime of the access tokens whose response does not include {@code expires_in}.
+     * @return The default lifetime.
+     */
+    @Nonnull
+    Duration getDefaultExpiresIn();
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.configuration.OauthConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link ClientCredentialsTokenManagerConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(ClientCredentialsTokenManagerConfigurationProperties.PREFIX)
+public class ClientCredentialsTokenManagerConfigurationProperties implements ClientCredentialsTokenManagerConfiguration {
+
+    public static final String PREFIX = OauthConfigurationProperties.PREFIX + ".client-credentials";
+
+    /**
+     * The default refresh ahead time.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofMinutes(1);
+
+    /**
+     * The default refresh jitter.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_REFRESH_JITTER = Duration.ofSeconds(30);
+
+    /**
+     * The default lifetime of access tokens without expires_in.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_EXPIRES_IN = Duration.ofMinutes(5);
+
+    private Duration refreshAhead = DEFAULT_REFRESH_AHEAD;
+    private Duration refreshJitter = DEFAULT_REFRESH_JITTER;
+    private Duration defaultExpiresIn = DEFAULT_EXPIRES_IN;
+
+    @Nonnull
+    @Override
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    /**
+     * Time before the expiration of an access token at which it is refreshed in the background. Default value (1 minute).
+     * @param refreshAhead The refresh ahead time
+     */
+    public void setRefreshAhead(@Nonnull Duration refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getRefreshJitter() {
+        return refreshJitter;
+    }
+
+    /**
+     * Maximum random time added to the refresh ahead time. Default value (30 seconds).
+     * @param refreshJitter The refresh jitter
+     */
+    public void setRefreshJitter(@Nonnull Duration refreshJitter) {
+        this.refreshJitter = refreshJitter;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getDefaultExpiresIn() {
+        return defaultExpiresIn;
+    }
+
+    /**
+     * Lifetime of the access tokens whose response does not include expires_in. Default value (5 minutes).
+     * @param defaultExpiresIn The default lifetime
+     */
+    public void setDefaultExpiresIn(@Nonnull Duration defaultExpiresIn) {
+        this.defaultExpiresIn = defaultExpiresIn;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.clientcredentials;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.security.oauth2.configuration.OauthConfiguration;
+import io.micronaut.security.oauth2.grants.ClientCredentialsGrant;
+import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpoint;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointAuthMethod;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointClient;
+import io.micronaut.security.oauth2.responses.AccessTokenResponse;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Default implementation of {@link ClientCredentialsTokenManager}.
+ *
+ * Reading a cached access token does not lock. Once a token gets close to its expiration, it is still returned while a
+ * new one is fetched in the background. Concurrent fetches for the same client and scopes share a single request.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = {OauthConfiguration.class, OpenIdEndpoints.class, TokenEndpoint.class, TokenEndpointClient.class})
+@Singleton
+public class DefaultClientCredentialsTokenManager implements ClientCredentialsTokenManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultClientCredentialsTokenManager.class);
+
+    private final OauthConfiguration oauthConfiguration;
+    private final OpenIdEndpoints openIdEndpoints;
+    private final TokenEndpoint tokenEndpoint;
+    private final TokenEndpointClient tokenEndpointClient;
+    private final ClientCredentialsTokenManagerConfiguration clientCredentialsTokenManagerConfiguration;
+    private final Map<TokenKey, TokenEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * @param oauthConfiguration OAuth 2.0 Configuration
+     * @param openIdEndpoints Open ID endpoints
+     * @param tokenEndpoint Token endpoint configuration
+     * @param tokenEndpointClient Token endpoint client
+     * @param clientCredentialsTokenManagerConfiguration Client credentials token manager configuration
+     */
+    public DefaultClientCredentialsTokenManager(OauthConfiguration oauthConfiguration,
+                                                OpenIdEndpoints openIdEndpoints,
+                                                TokenEndpoint tokenEndpoint,
+                                                TokenEndpointClient tokenEndpointClient,
+                                                ClientCredentialsTokenManagerConfiguration clientCredentialsTokenManagerConfiguration) {
+        this.oauthConfiguration = oauthConfiguration;
+        this.openIdEndpoints = openIdEndpoints;
+        this.tokenEndpoint = tokenEndpoint;
+        this.tokenEndpointClient = tokenEndpointClient;
+        this.clientCredentialsTokenManagerConfiguration = clientCredentialsTokenManagerConfiguration;
+    }
+
+    @Nonnull
+    @Override
+    public Single<AccessTokenResponse> getToken(@Nonnull Collection<String> scopes) {
+        return getToken(oauthConfiguration.getClientId(), oauthConfiguration.getClientSecret(), scopes);
+    }
+
+    @Nonnull
+    @Override
+    public Single<AccessTokenResponse> getToken(@Nonnull String clientId, @Nullable String clientSecret, @Nonnull Collection<String> scopes) {
+        TokenKey key = new TokenKey(clientId, scopes);
+        TokenEntry entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, k -> new TokenEntry());
+        }
+        CachedToken token = entry.token;
+        long now = System.currentTimeMillis();
+        if (token != null && now < token.expiresAt) {
+            if (now >= token.refreshAt) {
+                fetch(entry, key, clientSecret);
+            }
+            return Single.just(token.response);
+        }
+        return fetch(entry, key, clientSecret);
+    }
+
+    @Override
+    public void invalidate(@Nonnull Collection<String> scopes, @Nonnull String accessToken) {
+        invalidate(oauthConfiguration.getClientId(), scopes, accessToken);
+    }
+
+    @Override
+    public void invalidate(@Nonnull String clientId, @Nonnull Collection<String> scopes, @Nonnull String accessToken) {
+        TokenEntry entry = entries.get(new TokenKey(clientId, scopes));
+        if (entry != null) {
+            synchronized (entry) {
+                CachedToken token = entry.token;
+                if (token != null && accessToken.equals(token.response.getAccessToken())) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("discarding client credentials access token for client {} and scopes {}", clientId, scopes);
+                    }
+                    entry.token = null;
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @param clientId The client identifier
+     * @param clientSecret The client secret
+     * @param scopes The requested scopes
+     * @return An HTTP request to the token endpoint with a client credentials grant payload.
+     */
+    protected HttpRequest<?> generateRequest(@Nonnull String clientId, @Nullable String clientSecret, @Nonnull Set<String> scopes) {
+        ClientCredentialsGrant grant = new ClientCredentialsGrant();
+        if (!scopes.isEmpty()) {
+            grant.setScope(String.join(" ", scopes));
+        }
+        boolean basicAuth = TokenEndpointAuthMethod.CLIENT_SECRET_BASIC.getAuthMethod().equals(tokenEndpoint.getAuthMethod());
+        if (!basicAuth) {
+            grant.setClientId(clientId);
+            grant.setClientSecret(clientSecret);
+        }
+        MutableHttpRequest<?> request = HttpRequest.POST(Objects.requireNonNull(openIdEndpoints.getToken()), grant.toMap())
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED_TYPE);
+        return basicAuth ? request.basicAuth(clientId, clientSecret != null ? clientSecret : "") : request;
+    }
+
+    private Single<AccessTokenResponse> fetch(TokenEntry entry, TokenKey key, @Nullable String clientSecret) {
+        synchronized (entry) {
+            Single<AccessTokenResponse> pending = entry.inFlight;
+            if (pending == null) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("fetching client credentials access token for client {} and scopes {}", key.clientId, key.scopes);
+                }
+                pending = tokenEndpointClient.exchange(generateRequest(key.clientId, clientSecret, key.scopes), AccessTokenResponse.class)
+                        .firstOrError()
+                        .map(response -> response.getBody()
+                                .orElseThrow(() -> new IllegalStateException("token endpoint response without body")))
+                        .doOnSuccess(response -> entry.token = cache(response))
+                        .doOnError(throwable -> {
+                            if (LOG.isErrorEnabled()) {
+                                LOG.error("could not fetch client credentials access token for client {}", key.clientId, throwable);
+                            }
+                        })
+                        .doOnEvent((response, throwable) -> clearInFlight(entry))
+                        .cache();
+                entry.inFlight = pending;
+                pending.subscribe((response, throwable) -> { });
+            }
+            return pending;
+        }
+    }
+
+    private void clearInFlight(TokenEntry entry) {
+        synchronized (entry) {
+            entry.inFlight = null;
+        }
+    }
+
+    private CachedToken cache(AccessTokenResponse response) {
+        long now = System.currentTimeMillis();
+        long lifetime = response.getExpiresIn() != null ?
+                response.getExpiresIn() * 1000L :
+                clientCredentialsTokenManagerConfiguration.getDefaultExpiresIn().toMillis();
+        long jitter = clientCredentialsTokenManagerConfiguration.getRefreshJitter().toMillis();
+        long ahead = clientCredentialsTokenManagerConfiguration.getRefreshAhead().toMillis() +
+                (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0);
+        return new CachedToken(response, now + lifetime, now + lifetime - Math.min(ahead, lifetime / 2));
+    }
+
+    /**
+     * Identifies the cached token of a client and set of scopes. The order of the scopes is irrelevant.
+     */
+    private static final class TokenKey {
+        private final String clientId;
+        private final Set<String> scopes;
+
+        TokenKey(String clientId, Collection<String> scopes) {
+            this.clientId = clientId;
+            this.scopes = Collections.unmodifiableSet(new TreeSet<>(scopes));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TokenKey tokenKey = (TokenKey) o;
+            return clientId.equals(tokenKey.clientId) && scopes.equals(tokenKey.scopes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clientId, scopes);
+        }
+    }
+
+    /**
+     * The cached token of a key and the fetch in progress, if any.
+     */
+    private static final class TokenEntry {
+        private volatile CachedToken token;
+        private Single<AccessTokenResponse> inFlight;
+    }
+
+    /**
+     * An access token response with its expiration and refresh times.
+     */
+    private static final class CachedToken {
+        private final AccessTokenResponse response;
+        private final long expiresAt;
+        private final long refreshAt;
+
+        CachedToken(AccessTokenResponse response, long expiresAt, long refreshAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
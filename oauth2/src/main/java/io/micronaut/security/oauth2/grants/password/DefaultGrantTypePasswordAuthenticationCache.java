@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.password;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.security.authentication.UserDetails;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default implementation of {@link GrantTypePasswordAuthenticationCache}.
+ *
+ * Entries are keyed by an HMAC-SHA256 of the credentials, computed with a random key generated at startup, so
+ * neither the password nor an unsalted hash of it is kept in memory. The cache evicts the least recently used entry
+ * once it is full.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = GrantTypePasswordAuthenticationCacheConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Singleton
+public class DefaultGrantTypePasswordAuthenticationCache implements GrantTypePasswordAuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SALT_BYTES = 32;
+
+    private final SecretKeySpec salt;
+    private final long timeToLive;
+    private final Map<String, CachedUserDetails> entries;
+
+    /**
+     *
+     * @param cacheConfiguration Password grant authentication cache configuration
+     */
+    public DefaultGrantTypePasswordAuthenticationCache(GrantTypePasswordAuthenticationCacheConfiguration cacheConfiguration) {
+        byte[] bytes = new byte[SALT_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        this.salt = new SecretKeySpec(bytes, HMAC_ALGORITHM);
+        this.timeToLive = cacheConfiguration.getTimeToLive().toMillis();
+        int maximumSize = cacheConfiguration.getMaximumSize();
+        this.entries = new LinkedHashMap<String, CachedUserDetails>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUserDetails> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Nonnull
+    @Override
+    public Optional<UserDetails> get(@Nonnull String identity, @Nonnull String secret) {
+        String key = key(identity, secret);
+        synchronized (entries) {
+            CachedUserDetails cached = entries.get(key);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            if (cached.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(cached.userDetails);
+        }
+    }
+
+    @Override
+    public void put(@Nonnull String identity, @Nonnull String secret, @Nonnull UserDetails userDetails, @Nullable Instant expiration) {
+        long expiresAt = System.currentTimeMillis() + timeToLive;
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.toEpochMilli());
+        }
+        String key = key(identity, secret);
+        synchronized (entries) {
+            entries.put(key, new CachedUserDetails(userDetails, expiresAt));
+        }
+    }
+
+    /**
+     *
+     * @param identity The username
+     * @param secret The password
+     * @return A salted hash of the credentials.
+     */
+    protected String key(String identity, String secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(salt);
+            mac.update(identity.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * User details with the time at which they expire.
+     */
+    private static final class CachedUserDetails {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        CachedUserDetails(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.password;
+
+import io.micronaut.security.authentication.UserDetails;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Caches the result of successful password grant authentications.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface GrantTypePasswordAuthenticationCache {
+
+    /**
+     *
+     * @param identity The username
+     * @param secret The password
+     * @return The cached user details or an empty optional if none is cached for these credentials.
+     */
+    @Nonnull
+    Optional<UserDetails> get(@Nonnull String identity, @Nonnull String secret);
+
+    /**
+     *
+     * @param identity The username
+     * @param secret The password
+     * @param userDetails The user details obtained with these credentials
+     * @param expiration The expiration of the ID token the user details were obtained from, if known
+     */
+    void put(@Nonnull String identity, @Nonnull String secret, @Nonnull UserDetails userDetails, @Nullable Instant expiration);
+}
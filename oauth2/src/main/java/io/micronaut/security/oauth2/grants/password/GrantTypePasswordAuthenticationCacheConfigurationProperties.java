@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.password;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link GrantTypePasswordAuthenticationCacheConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(GrantTypePasswordAuthenticationCacheConfigurationProperties.PREFIX)
+public class GrantTypePasswordAuthenticationCacheConfigurationProperties implements GrantTypePasswordAuthenticationCacheConfiguration {
+
+    public static final String PREFIX = GrantTypePasswordRequestProviderConfigurationProperties.PREFIX + ".cache";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default maximum size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Caches the result of password grant authentications. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * The maximum number of cached authentications. The least recently used ones are evicted first. Default value ({@value #DEFAULT_MAXIMUM_SIZE}).
+     * @param maximumSize The maximum size
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * The maximum time an authentication is cached. It is never cached beyond the expiration of its ID token. Default value (1 minute).
+     * @param timeToLive The time to live
+     */
+    public void setTimeToLive(@Nonnull Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
@@ -29,16 +29,23 @@ import io.micronaut.security.authentication.AuthenticationResponse;
 import io.micronaut.security.authentication.UserDetails;
 import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
 import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponseValidator;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStore;
 import io.micronaut.security.token.config.TokenConfiguration;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Single;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -62,6 +69,8 @@ public class GrantTypePasswordAuthenticationProvider implements AuthenticationPr
     private final IdTokenAccessTokenResponseValidator idTokenAccessTokenResponseValidator;
     private final TokenConfiguration tokenConfiguration;
     private final RxHttpClient tokenClient;
+    private final @Nullable GrantTypePasswordAuthenticationCache authenticationCache;
+    private final @Nullable JwksKeyStore jwksKeyStore;
 
     /**
      *
@@ -69,43 +78,89 @@ public class GrantTypePasswordAuthenticationProvider implements AuthenticationPr
      * @param idTokenAccessTokenResponseValidator IDToken/AccessToken response validator
      * @param tokenConfiguration Token Configuration
      * @param tokenClient RxHttpClient pointing to the token endpoint
+     * @param authenticationCache Cache of successful authentications, present if enabled
+     * @param jwksKeyStore JSON Web Key Set key store, present if an OpenID configuration is available
      */
     public GrantTypePasswordAuthenticationProvider(GrantTypePasswordRequestProvider grantTypePasswordRequestProvider,
                                                    IdTokenAccessTokenResponseValidator idTokenAccessTokenResponseValidator,
                                                    TokenConfiguration tokenConfiguration,
-                                                   @Named("oauth2tokenendpoint") RxHttpClient tokenClient) {
+                                                   @Named("oauth2tokenendpoint") RxHttpClient tokenClient,
+                                                   @Nullable GrantTypePasswordAuthenticationCache authenticationCache,
+                                                   @Nullable JwksKeyStore jwksKeyStore) {
         this.grantTypePasswordRequestProvider = grantTypePasswordRequestProvider;
         this.idTokenAccessTokenResponseValidator = idTokenAccessTokenResponseValidator;
         this.tokenConfiguration = tokenConfiguration;
         this.tokenClient = tokenClient;
+        this.authenticationCache = authenticationCache;
+        this.jwksKeyStore = jwksKeyStore;
     }
 
     @Override
     public Publisher<AuthenticationResponse> authenticate(AuthenticationRequest authenticationRequest) {
 
         if (authenticationRequest.getIdentity() instanceof String && authenticationRequest.getSecret() instanceof String) {
-            HttpRequest request = grantTypePasswordRequestProvider.generateRequest((String) authenticationRequest.getIdentity(), (String) authenticationRequest.getSecret());
+            String identity = (String) authenticationRequest.getIdentity();
+            String secret = (String) authenticationRequest.getSecret();
+            if (authenticationCache != null) {
+                Optional<UserDetails> cached = authenticationCache.get(identity, secret);
+                if (cached.isPresent()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("password grant authentication of {} found in cache", identity);
+                    }
+                    return Flowable.just(cached.get());
+                }
+            }
+            HttpRequest<?> request = grantTypePasswordRequestProvider.generateRequest(identity, secret);
 
             Flowable<HttpResponse<IdTokenAccessTokenResponse>> flowable = tokenClient.exchange(request, IdTokenAccessTokenResponse.class);
-            return flowable.map(response -> {
-                if (response.getBody().isPresent()) {
-                    Optional<IdTokenAccessTokenResponse> idTokenAccessTokenResponseOpt = response.getBody();
-                    if (idTokenAccessTokenResponseOpt.isPresent()) {
-                        IdTokenAccessTokenResponse idTokenAccessTokenResponse = idTokenAccessTokenResponseOpt.get();
-                        Optional<Authentication> authenticationOpt = idTokenAccessTokenResponseValidator.validate(idTokenAccessTokenResponse);
-                        if (authenticationOpt.isPresent()) {
-                            Authentication authentication = authenticationOpt.get();
-                            return getUserDetails(authentication);
-                        }
-                    }
+            return flowable.flatMapSingle(response -> {
+                Optional<IdTokenAccessTokenResponse> idTokenAccessTokenResponseOpt = response.getBody();
+                if (idTokenAccessTokenResponseOpt.isPresent()) {
+                    IdTokenAccessTokenResponse idTokenAccessTokenResponse = idTokenAccessTokenResponseOpt.get();
+                    return awaitKeys(idTokenAccessTokenResponse)
+                            .andThen(Single.fromCallable(() -> authenticationResponse(identity, secret, idTokenAccessTokenResponse)));
                 }
-                return new AuthenticationFailed();
+                return Single.<AuthenticationResponse>just(new AuthenticationFailed());
             });
         } else {
             return Flowable.just(new AuthenticationFailed());
         }
     }
 
+    /**
+     * Validates the ID token of the token endpoint response.
+     *
+     * @param identity The username
+     * @param secret The password
+     * @param idTokenAccessTokenResponse The token endpoint response
+     * @return The user details if the ID token is valid, a failed authentication otherwise.
+     */
+    private AuthenticationResponse authenticationResponse(String identity, String secret, IdTokenAccessTokenResponse idTokenAccessTokenResponse) {
+        Optional<Authentication> authenticationOpt = idTokenAccessTokenResponseValidator.validate(idTokenAccessTokenResponse);
+        if (authenticationOpt.isPresent()) {
+            Authentication authentication = authenticationOpt.get();
+            UserDetails userDetails = getUserDetails(authentication);
+            if (authenticationCache != null) {
+                authenticationCache.put(identity, secret, userDetails, getExpiration(authentication));
+            }
+            return userDetails;
+        }
+        return new AuthenticationFailed();
+    }
+
+    /**
+     * Waits for the signing key of the ID token, which is verified synchronously.
+     *
+     * @param idTokenAccessTokenResponse The token endpoint response
+     * @return Completes once the key store knows the key of the ID token or could not fetch it.
+     */
+    protected Completable awaitKeys(IdTokenAccessTokenResponse idTokenAccessTokenResponse) {
+        if (jwksKeyStore == null || idTokenAccessTokenResponse.getIdToken() == null) {
+            return Completable.complete();
+        }
+        return jwksKeyStore.awaitKeys(idTokenAccessTokenResponse.getIdToken());
+    }
+
     /**
      *
      * @param authentication Authentication
@@ -116,6 +171,17 @@ public class GrantTypePasswordAuthenticationProvider implements AuthenticationPr
                 getRoles(authentication, tokenConfiguration.getRolesName()));
     }
 
+    /**
+     *
+     * @param authentication Authentication
+     * @return The expiration time of the ID token, if present.
+     */
+    @Nullable
+    protected Instant getExpiration(Authentication authentication) {
+        Object exp = authentication.getAttributes().get(JwtClaims.EXPIRATION_TIME);
+        return exp instanceof Date ? ((Date) exp).toInstant() : null;
+    }
+
     /**
      *
      * @param authentication Authentication
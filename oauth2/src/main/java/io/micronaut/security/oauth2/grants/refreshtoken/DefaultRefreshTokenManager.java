@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.refreshtoken;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.security.oauth2.configuration.OauthConfiguration;
+import io.micronaut.security.oauth2.grants.RefreshTokenGrant;
+import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpoint;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointAuthMethod;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointClient;
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+import io.micronaut.security.oauth2.responses.AccessTokenResponse;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default implementation of {@link RefreshTokenManager}.
+ *
+ * Concurrent refreshes of the same session share a single request to the token endpoint, so a rotated refresh token
+ * is never used twice. A refresh token rejected by the authorization server ends its session.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = RefreshTokenConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = {OauthConfiguration.class, OpenIdEndpoints.class, TokenEndpoint.class, TokenEndpointClient.class, RefreshTokenStore.class})
+@Singleton
+public class DefaultRefreshTokenManager implements RefreshTokenManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultRefreshTokenManager.class);
+    private static final int SESSION_ID_BYTES = 32;
+
+    private final OauthConfiguration oauthConfiguration;
+    private final OpenIdEndpoints openIdEndpoints;
+    private final TokenEndpoint tokenEndpoint;
+    private final TokenEndpointClient tokenEndpointClient;
+    private final RefreshTokenStore refreshTokenStore;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, Single<Optional<IdTokenAccessTokenResponse>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * @param oauthConfiguration OAuth 2.0 Configuration
+     * @param openIdEndpoints Open ID endpoints
+     * @param tokenEndpoint Token endpoint configuration
+     * @param tokenEndpointClient Token endpoint client
+     * @param refreshTokenStore Refresh token store
+     */
+    public DefaultRefreshTokenManager(OauthConfiguration oauthConfiguration,
+                                      OpenIdEndpoints openIdEndpoints,
+                                      TokenEndpoint tokenEndpoint,
+                                      TokenEndpointClient tokenEndpointClient,
+                                      RefreshTokenStore refreshTokenStore) {
+        this.oauthConfiguration = oauthConfiguration;
+        this.openIdEndpoints = openIdEndpoints;
+        this.tokenEndpoint = tokenEndpoint;
+        this.tokenEndpointClient = tokenEndpointClient;
+        this.refreshTokenStore = refreshTokenStore;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> register(@Nonnull AccessTokenResponse response) {
+        if (response.getRefreshToken() == null) {
+            return Optional.empty();
+        }
+        String sessionId = generateSessionId();
+        refreshTokenStore.save(sessionId, response.getRefreshToken());
+        if (response instanceof IdTokenAccessTokenResponse && ((IdTokenAccessTokenResponse) response).getIdToken() != null) {
+            refreshTokenStore.saveIdToken(sessionId, ((IdTokenAccessTokenResponse) response).getIdToken());
+        }
+        if (response.getAccessToken() != null) {
+            refreshTokenStore.saveAccessToken(sessionId, response.getAccessToken());
+        }
+        return Optional.of(sessionId);
+    }
+
+    @Nonnull
+    @Override
+    public Maybe<IdTokenAccessTokenResponse> refresh(@Nonnull String sessionId) {
+        Single<Optional<IdTokenAccessTokenResponse>> pending = inFlight.computeIfAbsent(sessionId, this::exchange);
+        return pending.flatMapMaybe(response -> response.map(Maybe::just).orElseGet(Maybe::empty));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> findIdToken(@Nonnull String sessionId) {
+        return refreshTokenStore.findIdToken(sessionId);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> findAccessToken(@Nonnull String sessionId) {
+        return refreshTokenStore.findAccessToken(sessionId);
+    }
+
+    @Override
+    public void remove(@Nonnull String sessionId) {
+        refreshTokenStore.remove(sessionId);
+    }
+
+    /**
+     *
+     * @param refreshToken The refresh token
+     * @return An HTTP request to the token endpoint with a refresh token grant payload.
+     */
+    protected HttpRequest<?> generateRequest(@Nonnull String refreshToken) {
+        RefreshTokenGrant grant = new RefreshTokenGrant();
+        grant.setRefreshToken(refreshToken);
+        boolean basicAuth = TokenEndpointAuthMethod.CLIENT_SECRET_BASIC.getAuthMethod().equals(tokenEndpoint.getAuthMethod());
+        if (!basicAuth) {
+            grant.setClientId(oauthConfiguration.getClientId());
+            grant.setClientSecret(oauthConfiguration.getClientSecret());
+        }
+        MutableHttpRequest<?> request = HttpRequest.POST(Objects.requireNonNull(openIdEndpoints.getToken()), grant.toMap())
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED_TYPE);
+        return basicAuth ? request.basicAuth(oauthConfiguration.getClientId(), oauthConfiguration.getClientSecret()) : request;
+    }
+
+    /**
+     *
+     * @return A new unguessable refresh session identifier.
+     */
+    protected String generateSessionId() {
+        byte[] bytes = new byte[SESSION_ID_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Creates the shared refresh of a session. It is removed from the in flight map before its result is emitted, so callers which receive the result start a new one.
+     */
+    private Single<Optional<IdTokenAccessTokenResponse>> exchange(String sessionId) {
+        return Single.defer(() -> {
+            Optional<String> refreshToken = refreshTokenStore.find(sessionId);
+            if (!refreshToken.isPresent()) {
+                return Single.just(Optional.<IdTokenAccessTokenResponse>empty());
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("refreshing tokens of refresh session");
+            }
+            return tokenEndpointClient.exchange(generateRequest(refreshToken.get()), IdTokenAccessTokenResponse.class)
+                    .firstOrError()
+                    .map(response -> {
+                        IdTokenAccessTokenResponse body = response.getBody()
+                                .orElseThrow(() -> new IllegalStateException("token endpoint response without body"));
+                        if (body.getRefreshToken() != null && !body.getRefreshToken().equals(refreshToken.get())) {
+                            refreshTokenStore.save(sessionId, body.getRefreshToken());
+                        }
+                        if (body.getIdToken() != null) {
+                            refreshTokenStore.saveIdToken(sessionId, body.getIdToken());
+                        }
+                        if (body.getAccessToken() != null) {
+                            refreshTokenStore.saveAccessToken(sessionId, body.getAccessToken());
+                        }
+                        return Optional.of(body);
+                    })
+                    .onErrorResumeNext(throwable -> {
+                        if (isRejected(throwable)) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("refresh token rejected by the token endpoint, ending refresh session");
+                            }
+                            refreshTokenStore.remove(sessionId);
+                            return Single.just(Optional.empty());
+                        }
+                        return Single.error(throwable);
+                    });
+        }).doOnEvent((response, throwable) -> inFlight.remove(sessionId)).cache();
+    }
+
+    /**
+     * The token endpoint answers invalid_grant, with status 400, for expired, revoked or already used refresh tokens.
+     */
+    private static boolean isRejected(Throwable throwable) {
+        return throwable instanceof HttpClientResponseException &&
+                ((HttpClientResponseException) throwable).getStatus() == HttpStatus.BAD_REQUEST;
+    }
+}
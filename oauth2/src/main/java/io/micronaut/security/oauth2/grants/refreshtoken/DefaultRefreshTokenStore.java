@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.refreshtoken;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory implementation of {@link RefreshTokenStore}. Sessions expire once they have not been used for the
+ * configured time to live. Replace this bean to share refresh sessions between several instances.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = RefreshTokenConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Singleton
+public class DefaultRefreshTokenStore implements RefreshTokenStore {
+
+    private final Map<String, StoredRefreshToken> refreshTokens = new ConcurrentHashMap<>();
+    private final long timeToLive;
+
+    /**
+     *
+     * @param refreshTokenConfiguration Refresh token configuration
+     */
+    public DefaultRefreshTokenStore(RefreshTokenConfiguration refreshTokenConfiguration) {
+        this.timeToLive = refreshTokenConfiguration.getTimeToLive().toMillis();
+    }
+
+    @Override
+    public void save(@Nonnull String sessionId, @Nonnull String refreshToken) {
+        long now = System.currentTimeMillis();
+        refreshTokens.values().removeIf(stored -> stored.expiresAt <= now);
+        refreshTokens.compute(sessionId, (key, stored) ->
+                new StoredRefreshToken(refreshToken,
+                        stored != null ? stored.idToken : null,
+                        stored != null ? stored.accessToken : null,
+                        now + timeToLive));
+    }
+
+    @Override
+    public void saveIdToken(@Nonnull String sessionId, @Nonnull String idToken) {
+        refreshTokens.computeIfPresent(sessionId, (key, stored) ->
+                new StoredRefreshToken(stored.refreshToken, idToken, stored.accessToken, stored.expiresAt));
+    }
+
+    @Override
+    public void saveAccessToken(@Nonnull String sessionId, @Nonnull String accessToken) {
+        refreshTokens.computeIfPresent(sessionId, (key, stored) ->
+                new StoredRefreshToken(stored.refreshToken, stored.idToken, accessToken, stored.expiresAt));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> find(@Nonnull String sessionId) {
+        StoredRefreshToken stored = refreshTokens.get(sessionId);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        if (stored.expiresAt <= System.currentTimeMillis()) {
+            refreshTokens.remove(sessionId, stored);
+            return Optional.empty();
+        }
+        return Optional.of(stored.refreshToken);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> findIdToken(@Nonnull String sessionId) {
+        StoredRefreshToken stored = refreshTokens.get(sessionId);
+        if (stored == null || stored.expiresAt <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(stored.idToken);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> findAccessToken(@Nonnull String sessionId) {
+        StoredRefreshToken stored = refreshTokens.get(sessionId);
+        if (stored == null || stored.expiresAt <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(stored.accessToken);
+    }
+
+    @Override
+    public void remove(@Nonnull String sessionId) {
+        refreshTokens.remove(sessionId);
+    }
+
+    /**
+     * A refresh token, the latest ID and access tokens of its session and the time at which its session expires.
+     */
+    private static final class StoredRefreshToken {
+        private final String refreshToken;
+        private final String idToken;
+        private final String accessToken;
+        private final long expiresAt;
+
+        StoredRefreshToken(String refreshToken, String idToken, String accessToken, long expiresAt) {
+            this.refreshToken = refreshToken;
+            this.idToken = idToken;
+            this.accessToken = accessToken;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.refreshtoken;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.configuration.OauthConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link RefreshTokenConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(RefreshTokenConfigurationProperties.PREFIX)
+public class RefreshTokenConfigurationProperties implements RefreshTokenConfiguration {
+
+    public static final String PREFIX = OauthConfigurationProperties.PREFIX + ".refresh-token";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default cookie name.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String DEFAULT_COOKIENAME = "OAUTH2_REFRESH_SESSION";
+
+    /**
+     * The default time to live of a refresh session.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofDays(30);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private String cookieName = DEFAULT_COOKIENAME;
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Keeps the refresh tokens of logged-in users to renew their ID tokens. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    /**
+     * Name of the cookie which identifies the refresh session of a browser. Default value ({@value #DEFAULT_COOKIENAME}).
+     * @param cookieName Cookie name
+     */
+    public void setCookieName(@Nonnull String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * How long a refresh session is kept after it was last used. It should not exceed the lifetime of the refresh tokens. Default value (30 days).
+     * @param timeToLive The time to live
+     */
+    public void setTimeToLive(@Nonnull Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.refreshtoken;
+
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+import io.micronaut.security.oauth2.responses.AccessTokenResponse;
+import io.reactivex.Maybe;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+/**
+ * Keeps the refresh tokens of logged-in users and uses them to renew their tokens without a new authorization round trip.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface RefreshTokenManager {
+
+    /**
+     * Starts a refresh session for the refresh token of a token endpoint response.
+     *
+     * @param response The token endpoint response obtained during login
+     * @return The identifier of the new refresh session or an empty optional if the response contains no refresh token.
+     */
+    @Nonnull
+    Optional<String> register(@Nonnull AccessTokenResponse response);
+
+    /**
+     * Renews the tokens of a refresh session with the refresh token grant. If the authorization server rotates the
+     * refresh token, the new one replaces the previous one.
+     *
+     * @param sessionId The refresh session identifier
+     * @return The token endpoint response or an empty Maybe if the session is unknown or its refresh token was rejected.
+     */
+    @Nonnull
+    Maybe<IdTokenAccessTokenResponse> refresh(@Nonnull String sessionId);
+
+    /**
+     * The claims of this ID token are kept when a refresh response contains no ID token.
+     *
+     * @param sessionId The refresh session identifier
+     * @return The ID token obtained at login or by the latest refresh of the session, or an empty optional if unknown.
+     */
+    @Nonnull
+    default Optional<String> findIdToken(@Nonnull String sessionId) {
+        return Optional.empty();
+    }
+
+    /**
+     *
+     * @param sessionId The refresh session identifier
+     * @return The access token obtained at login or by the latest refresh of the session, or an empty optional if unknown.
+     */
+    @Nonnull
+    default Optional<String> findAccessToken(@Nonnull String sessionId) {
+        return Optional.empty();
+    }
+
+    /**
+     * Ends a refresh session.
+     *
+     * @param sessionId The refresh session identifier
+     */
+    void remove(@Nonnull String sessionId);
+}
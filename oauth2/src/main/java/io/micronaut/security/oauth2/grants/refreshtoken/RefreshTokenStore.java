@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.grants.refreshtoken;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+/**
+ * Keeps the current refresh token of each refresh session.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Stores the refresh token of a session, replacing the previous one.
+     *
+     * @param sessionId The refresh session identifier
+     * @param refreshToken The refresh token
+     */
+    void save(@Nonnull String sessionId, @Nonnull String refreshToken);
+
+    /**
+     *
+     * @param sessionId The refresh session identifier
+     * @return The refresh token of the session or an empty optional if the session is unknown or expired.
+     */
+    @Nonnull
+    Optional<String> find(@Nonnull String sessionId);
+
+    /**
+     * Stores the latest ID token of a session, whose claims are kept if a refresh response contains no ID token.
+     * Stores which do not implement it end those sessions instead.
+     *
+     * @param sessionId The refresh session identifier
+     * @param idToken The ID token
+     */
+    default void saveIdToken(@Nonnull String sessionId, @Nonnull String idToken) {
+    }
+
+    /**
+     *
+     * @param sessionId The refresh session identifier
+     * @return The latest ID token of the session or an empty optional if none is stored.
+     */
+    @Nonnull
+    default Optional<String> findIdToken(@Nonnull String sessionId) {
+        return Optional.empty();
+    }
+
+    /**
+     * Stores the latest access token of a session, which is revoked when the session ends on logout.
+     *
+     * @param sessionId The refresh session identifier
+     * @param accessToken The access token
+     */
+    default void saveAccessToken(@Nonnull String sessionId, @Nonnull String accessToken) {
+    }
+
+    /**
+     *
+     * @param sessionId The refresh session identifier
+     * @return The latest access token of the session or an empty optional if none is stored.
+     */
+    @Nonnull
+    default Optional<String> findAccessToken(@Nonnull String sessionId) {
+        return Optional.empty();
+    }
+
+    /**
+     * Removes a refresh session.
+     *
+     * @param sessionId The refresh session identifier
+     */
+    void remove(@Nonnull String sessionId);
+}
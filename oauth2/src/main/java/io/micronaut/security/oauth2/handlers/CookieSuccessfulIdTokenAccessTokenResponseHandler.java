@@ -16,21 +16,40 @@
 
 package io.micronaut.security.oauth2.handlers;
 
+import com.nimbusds.jwt.JWTParser;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.cookie.Cookie;
 import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenConfiguration;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenManager;
+import io.micronaut.security.oauth2.openid.endpoints.userinfo.UserInfoEndpointClient;
 import io.micronaut.security.oauth2.openid.endpoints.authorization.state.State;
+import io.micronaut.security.oauth2.openid.idtoken.IdToken;
 import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
 import io.micronaut.security.oauth2.responses.AuthenticationResponse;
+import io.micronaut.security.token.generator.TokenGenerator;
 import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -44,15 +63,36 @@ import java.util.concurrent.TimeUnit;
 @Singleton
 public class CookieSuccessfulIdTokenAccessTokenResponseHandler implements SuccessfulIdTokenAccessTokenResponseHandler {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CookieSuccessfulIdTokenAccessTokenResponseHandler.class);
+
+    private static final List<String> COMPACT_REQUIRED_CLAIMS = Arrays.asList(JwtClaims.ISSUER, JwtClaims.SUBJECT,
+            JwtClaims.AUDIENCE, IdToken.CLAIMS_AZP, JwtClaims.EXPIRATION_TIME, JwtClaims.ISSUED_AT, JwtClaims.NOT_BEFORE,
+            JwtClaims.JWT_ID);
+
     private final CookieSuccessfulIdTokenAccessTokenResponseHandlerConfiguration configuration;
+    private final RefreshTokenConfiguration refreshTokenConfiguration;
+    private final @Nullable RefreshTokenManager refreshTokenManager;
+    private final @Nullable TokenGenerator tokenGenerator;
 
     /**
      *
      * @param configuration Cookie Successful IdToken-AccessToken Handler
+     * @param refreshTokenConfiguration Refresh token configuration
+     * @param refreshTokenManager Refresh token manager, present if refresh sessions are enabled
+     * @param tokenGenerator Token generator, present if a JWT signature generator is configured
      */
     public CookieSuccessfulIdTokenAccessTokenResponseHandler(
-            CookieSuccessfulIdTokenAccessTokenResponseHandlerConfiguration configuration) {
+            CookieSuccessfulIdTokenAccessTokenResponseHandlerConfiguration configuration,
+            RefreshTokenConfiguration refreshTokenConfiguration,
+            @Nullable RefreshTokenManager refreshTokenManager,
+            @Nullable TokenGenerator tokenGenerator) {
         this.configuration = configuration;
+        this.refreshTokenConfiguration = refreshTokenConfiguration;
+        this.refreshTokenManager = refreshTokenManager;
+        this.tokenGenerator = tokenGenerator;
+        if (configuration.isCompact() && tokenGenerator == null && LOG.isWarnEnabled()) {
+            LOG.warn("Compact ID token cookies are enabled but no JWT signature generator is configured, the ID token is stored as is");
+        }
     }
 
     @Override
@@ -60,15 +100,199 @@ public class CookieSuccessfulIdTokenAccessTokenResponseHandler implements Succes
                                AuthenticationResponse authenticationResponse,
                                IdTokenAccessTokenResponse idTokenAccessTokenResponse,
                                Authentication authentication) {
-        Cookie cookie = Cookie.of(configuration.getCookieName(), idTokenAccessTokenResponse.getIdToken());
+        URI location = getRedirectUri(request, authenticationResponse, idTokenAccessTokenResponse, authentication);
+        MutableHttpResponse<?> response = HttpResponse.seeOther(location).cookie(createCookie(request, idTokenAccessTokenResponse, authentication));
+        if (refreshTokenManager != null) {
+            refreshTokenManager.register(idTokenAccessTokenResponse)
+                    .ifPresent(sessionId -> response.cookie(createRefreshSessionCookie(request, sessionId, refreshTokenConfiguration.getTimeToLive())));
+        }
+        return response;
+    }
+
+    /**
+     * The ID token of the authorization server cannot carry the userinfo claims fetched during the login or refresh, so
+     * if the request holds them the value is a compact token carrying them as well, whether compact ID token cookies are
+     * enabled or not. This keeps the userinfo claims for as long as the cookie lives.
+     *
+     * @param request The HTTP request
+     * @param idTokenAccessTokenResponse The ID Token Access Token response.
+     * @param authentication The authentication
+     * @return The cookie which holds the ID token.
+     */
+    @Nonnull
+    public Cookie createCookie(HttpRequest<?> request,
+                               IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                               Authentication authentication) {
+        Map<String, Object> userInfoClaims = userInfoClaims(request);
+        String value = userInfoClaims.isEmpty() ? null : generateCompactToken(idTokenAccessTokenResponse, userInfoClaims).orElse(null);
+        if (value == null) {
+            value = createCookieValue(idTokenAccessTokenResponse, authentication);
+        }
+        return createIdTokenCookie(request, value, authentication);
+    }
+
+    /**
+     * Creates the ID token cookie for a refresh response which contains no ID token. The authentication carries the
+     * claims of the ID token of the refresh session, with renewed expiration and issued at times.
+     *
+     * @param request The HTTP request
+     * @param idTokenAccessTokenResponse The refresh response, without an ID token.
+     * @param authentication The authentication
+     * @return The cookie which holds the renewed token or an empty optional if no token could be generated.
+     */
+    @Nonnull
+    public Optional<Cookie> createRenewedCookie(HttpRequest<?> request,
+                                                IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                                                Authentication authentication) {
+        Map<String, Object> userInfoClaims = userInfoClaims(request);
+        Optional<String> value = userInfoClaims.isEmpty() ?
+                createRenewedCookieValue(idTokenAccessTokenResponse, authentication) :
+                generateCompactToken(authentication.getAttributes(), userInfoClaims);
+        return value.map(v -> createIdTokenCookie(request, v, authentication));
+    }
+
+    /**
+     * @param request The HTTP request
+     * @return The userinfo claims fetched while handling the request or an empty map.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> userInfoClaims(HttpRequest<?> request) {
+        return request.getAttribute(UserInfoEndpointClient.CLAIMS_ATTRIBUTE, Map.class)
+                .map(claims -> (Map<String, Object>) claims)
+                .orElse(Collections.emptyMap());
+    }
+
+    private Cookie createIdTokenCookie(HttpRequest<?> request, String value, Authentication authentication) {
+        Cookie cookie = Cookie.of(configuration.getCookieName(), value);
         cookie.configure(configuration, request.isSecure());
         if (!configuration.getCookieMaxAge().isPresent()) {
             long seconds = secondsToExpirationTime(authentication);
             cookie.maxAge(seconds);
         }
+        return cookie;
+    }
 
-        URI location = getRedirectUri(request, authenticationResponse, idTokenAccessTokenResponse, authentication);
-        return HttpResponse.seeOther(location).cookie(cookie);
+    /**
+     *
+     * @param idTokenAccessTokenResponse The ID Token Access Token response.
+     * @param authentication The authentication
+     * @return The value of the cookie, the ID token or a compact token if enabled.
+     */
+    @Nonnull
+    protected String createCookieValue(IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                                       Authentication authentication) {
+        String value = idTokenAccessTokenResponse.getIdToken();
+        if (configuration.isCompact()) {
+            value = generateCompactToken(idTokenAccessTokenResponse).orElse(value);
+        }
+        return value;
+    }
+
+    /**
+     * The ID token of the authorization server cannot be renewed without it, so the value is a compact token, whether
+     * compact ID token cookies are enabled or not.
+     *
+     * @param idTokenAccessTokenResponse The refresh response, without an ID token.
+     * @param authentication The authentication
+     * @return The value of the cookie or an empty optional if it could not be generated.
+     */
+    @Nonnull
+    protected Optional<String> createRenewedCookieValue(IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                                                        Authentication authentication) {
+        return generateCompactToken(authentication.getAttributes());
+    }
+
+    /**
+     * Generates a token signed by this application which only carries the claims needed to validate it plus the
+     * configured compact claims. The token is validated on every request like the ID token, but it is much smaller
+     * and is verified with the signature configuration of this application.
+     *
+     * @param idTokenAccessTokenResponse The ID Token Access Token response.
+     * @return The compact token or an empty optional if it could not be generated
+     */
+    protected Optional<String> generateCompactToken(IdTokenAccessTokenResponse idTokenAccessTokenResponse) {
+        return generateCompactToken(idTokenAccessTokenResponse, Collections.emptyMap());
+    }
+
+    /**
+     *
+     * @param idTokenAccessTokenResponse The ID Token Access Token response.
+     * @param userInfoClaims The userinfo claims, all of them carried by the compact token
+     * @return The compact token or an empty optional if it could not be generated
+     */
+    protected Optional<String> generateCompactToken(IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                                                    Map<String, Object> userInfoClaims) {
+        if (tokenGenerator == null) {
+            return Optional.empty();
+        }
+        Map<String, Object> claims;
+        try {
+            claims = JWTParser.parse(idTokenAccessTokenResponse.getIdToken()).getJWTClaimsSet().getClaims();
+        } catch (ParseException e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error("Failed to parse the ID token to build a compact token", e);
+            }
+            return Optional.empty();
+        }
+        return generateCompactToken(claims, userInfoClaims);
+    }
+
+    /**
+     *
+     * @param claims The claims of the ID token
+     * @return The compact token or an empty optional if it could not be generated
+     */
+    protected Optional<String> generateCompactToken(Map<String, Object> claims) {
+        return generateCompactToken(claims, Collections.emptyMap());
+    }
+
+    /**
+     * Claims of the ID token take precedence over userinfo claims with the same name. If compact ID token cookies are
+     * disabled, the token only exists to carry the userinfo claims and every claim of the ID token is kept.
+     *
+     * @param claims The claims of the ID token
+     * @param userInfoClaims The userinfo claims, all of them carried by the compact token
+     * @return The compact token or an empty optional if it could not be generated
+     */
+    protected Optional<String> generateCompactToken(Map<String, Object> claims, Map<String, Object> userInfoClaims) {
+        if (tokenGenerator == null) {
+            return Optional.empty();
+        }
+        Map<String, Object> compactClaims = new HashMap<>(userInfoClaims);
+        if (!userInfoClaims.isEmpty() && !configuration.isCompact()) {
+            compactClaims.putAll(claims);
+            return tokenGenerator.generateToken(compactClaims);
+        }
+        for (String claim : COMPACT_REQUIRED_CLAIMS) {
+            copyClaim(claims, compactClaims, claim);
+        }
+        for (String claim : configuration.getCompactClaims()) {
+            copyClaim(claims, compactClaims, claim);
+        }
+        return tokenGenerator.generateToken(compactClaims);
+    }
+
+    private static void copyClaim(Map<String, Object> from, Map<String, Object> to, String claim) {
+        Object value = from.get(claim);
+        if (value != null) {
+            to.put(claim, value);
+        }
+    }
+
+    /**
+     * The refresh session cookie shares the domain, path and flags of the ID token cookie.
+     *
+     * @param request The HTTP request
+     * @param sessionId The refresh session identifier
+     * @param maxAge The maximum age of the cookie. Zero clears the cookie.
+     * @return The cookie which identifies the refresh session.
+     */
+    @Nonnull
+    public Cookie createRefreshSessionCookie(HttpRequest<?> request, String sessionId, Duration maxAge) {
+        Cookie cookie = Cookie.of(refreshTokenConfiguration.getCookieName(), sessionId);
+        cookie.configure(configuration, request.isSecure());
+        cookie.maxAge(maxAge.getSeconds());
+        return cookie;
     }
 
     /**
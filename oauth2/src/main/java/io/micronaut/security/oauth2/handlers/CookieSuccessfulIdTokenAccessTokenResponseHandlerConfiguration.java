@@ -21,6 +21,7 @@ import io.micronaut.http.cookie.CookieConfiguration;
 
 import javax.annotation.Nonnull;
 import java.net.URI;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -42,4 +43,15 @@ public interface CookieSuccessfulIdTokenAccessTokenResponseHandlerConfiguration
      */
     @Nonnull
     RedirectionStrategy getRedirectionStrategy();
+
+    /**
+     * @return Whether the cookie holds a compact token signed by this application instead of the ID token.
+     */
+    boolean isCompact();
+
+    /**
+     * @return The ID token claims copied to the compact token in addition to the ones needed to validate it.
+     */
+    @Nonnull
+    List<String> getCompactClaims();
 }
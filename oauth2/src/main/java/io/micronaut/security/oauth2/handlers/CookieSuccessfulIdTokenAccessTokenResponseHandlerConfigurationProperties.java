@@ -24,6 +24,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.URI;
 import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -61,6 +63,12 @@ public class CookieSuccessfulIdTokenAccessTokenResponseHandlerConfigurationPrope
     @SuppressWarnings("WeakerAccess")
     public static final String DEFAULT_COOKIEPATH = "/";
 
+    /**
+     * The default compact value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_COMPACT = false;
+
     private String cookieName = JwtCookieConfigurationProperties.DEFAULT_COOKIENAME;
     private String cookieDomain;
     private String cookiePath = DEFAULT_COOKIEPATH;
@@ -70,6 +78,8 @@ public class CookieSuccessfulIdTokenAccessTokenResponseHandlerConfigurationPrope
     private Boolean cookieSecure = DEFAULT_SECURE;
     private TemporalAmount cookieMaxAge;
     private boolean enabled = DEFAULT_ENABLED;
+    private boolean compact = DEFAULT_COMPACT;
+    private List<String> compactClaims = new ArrayList<>();
 
     @Override
     public boolean isEnabled() {
@@ -209,4 +219,35 @@ public class CookieSuccessfulIdTokenAccessTokenResponseHandlerConfigurationPrope
     public void setRedirectionStrategy(RedirectionStrategy redirectionStrategy) {
         this.redirectionStrategy = redirectionStrategy;
     }
+
+    @Override
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Whether the cookie holds a compact token signed by this application, with a selection of the ID token claims,
+     * instead of the ID token. Requires a JWT signature generator to be configured. Default value ({@value #DEFAULT_COMPACT}).
+     *
+     * @param compact The compact flag
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getCompactClaims() {
+        return compactClaims;
+    }
+
+    /**
+     * The ID token claims copied to the compact token. The issuer, subject, audience, authorized party, expiration,
+     * issued at, not before and JWT ID claims are always copied.
+     *
+     * @param compactClaims The names of the claims
+     */
+    public void setCompactClaims(@Nonnull List<String> compactClaims) {
+        this.compactClaims = compactClaims;
+    }
 }
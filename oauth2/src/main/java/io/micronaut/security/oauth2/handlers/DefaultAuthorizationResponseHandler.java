@@ -18,21 +18,23 @@ package io.micronaut.security.oauth2.handlers;
 
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
-import io.micronaut.http.client.RxHttpClient;
-import io.micronaut.http.client.exceptions.HttpClientResponseException;
 import io.micronaut.security.oauth2.openid.endpoints.authorization.state.State;
 import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.StateValidator;
 import io.micronaut.security.oauth2.openid.endpoints.token.AuthorizationCodeGrantRequestGenerator;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointClient;
+import io.micronaut.security.oauth2.openid.endpoints.userinfo.UserInfoEndpointClient;
 import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStore;
 import io.micronaut.security.oauth2.responses.AuthenticationResponse;
-import io.reactivex.Flowable;
+import io.reactivex.Completable;
 import io.reactivex.Single;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
-import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -49,25 +51,35 @@ public class DefaultAuthorizationResponseHandler implements AuthorizationRespons
 
     private final AuthorizationCodeGrantRequestGenerator authorizationCodeGrantRequestGenerator;
     private final IdTokenAccessTokenResponseHandler idTokenAccessTokenResponseHandler;
-    private final RxHttpClient tokenClient;
+    private final TokenEndpointClient tokenEndpointClient;
 
     private final @Nullable StateValidator stateValidator;
 
+    private final @Nullable UserInfoEndpointClient userInfoEndpointClient;
+
+    private final @Nullable JwksKeyStore jwksKeyStore;
+
     /**
      * Creates a DefaultAuthorizationResponseHandler.
      * @param authorizationCodeGrantRequestGenerator Authorization Code Grant Request Generator
      * @param idTokenAccessTokenResponseHandler ID Token Access Token response handler
-     * @param tokenClient RxHttpClient pointing to the token endpoint
+     * @param tokenEndpointClient Token endpoint client
      * @param stateValidator Authorization state parameter validator
+     * @param userInfoEndpointClient Userinfo endpoint client
+     * @param jwksKeyStore JSON Web Key Set key store, present if an OpenID configuration is available
      */
     public DefaultAuthorizationResponseHandler(AuthorizationCodeGrantRequestGenerator authorizationCodeGrantRequestGenerator,
                                                IdTokenAccessTokenResponseHandler idTokenAccessTokenResponseHandler,
-                                               @Named("oauth2tokenendpoint") RxHttpClient tokenClient,
-                                               @Nullable StateValidator stateValidator) {
+                                               TokenEndpointClient tokenEndpointClient,
+                                               @Nullable StateValidator stateValidator,
+                                               @Nullable UserInfoEndpointClient userInfoEndpointClient,
+                                               @Nullable JwksKeyStore jwksKeyStore) {
         this.authorizationCodeGrantRequestGenerator = authorizationCodeGrantRequestGenerator;
         this.idTokenAccessTokenResponseHandler = idTokenAccessTokenResponseHandler;
-        this.tokenClient = tokenClient;
+        this.tokenEndpointClient = tokenEndpointClient;
         this.stateValidator = stateValidator;
+        this.userInfoEndpointClient = userInfoEndpointClient;
+        this.jwksKeyStore = jwksKeyStore;
     }
 
     @Override
@@ -78,23 +90,57 @@ public class DefaultAuthorizationResponseHandler implements AuthorizationRespons
         }
 
         HttpRequest request = authorizationCodeGrantRequestGenerator.generateRequest(authenticationResponse.getCode());
-        try {
-            Flowable<HttpResponse<IdTokenAccessTokenResponse>> flowable = tokenClient.exchange(request, IdTokenAccessTokenResponse.class);
-            return flowable.map(response -> {
-                Optional<IdTokenAccessTokenResponse> idTokenAccessTokenResponse = response.getBody();
-                if (idTokenAccessTokenResponse.isPresent()) {
-                    return idTokenAccessTokenResponseHandler.handle(originalRequest,
-                            authenticationResponse,
-                            idTokenAccessTokenResponse.get());
-                }
-                return HttpResponse.serverError();
-            }).firstOrError();
-        } catch (HttpClientResponseException e) {
-            if (LOG.isWarnEnabled()) {
-                LOG.warn("http client exception: {}", request.getUri(), e);
+        return tokenEndpointClient.exchange(request, IdTokenAccessTokenResponse.class).firstOrError().flatMap(response -> {
+            Optional<IdTokenAccessTokenResponse> idTokenAccessTokenResponse = response.getBody();
+            if (!idTokenAccessTokenResponse.isPresent()) {
+                return Single.just(HttpResponse.serverError());
             }
+            // the userinfo claims are fetched while waiting for the signing key of the ID token
+            return Single.zip(fetchUserInfo(idTokenAccessTokenResponse.get()),
+                    awaitKeys(idTokenAccessTokenResponse.get()).toSingleDefault(Boolean.TRUE),
+                    (claims, ready) -> claims)
+                    .<HttpResponse<?>>map(claims -> {
+                        if (!claims.isEmpty()) {
+                            originalRequest.setAttribute(UserInfoEndpointClient.CLAIMS_ATTRIBUTE, claims);
+                        }
+                        return idTokenAccessTokenResponseHandler.handle(originalRequest,
+                                authenticationResponse,
+                                idTokenAccessTokenResponse.get());
+                    });
+        });
+    }
+
+    /**
+     * Waits for the signing key of the ID token, which is verified synchronously by the ID token handler.
+     *
+     * @param idTokenAccessTokenResponse The token endpoint response
+     * @return Completes once the key store knows the key of the ID token or could not fetch it.
+     */
+    protected Completable awaitKeys(IdTokenAccessTokenResponse idTokenAccessTokenResponse) {
+        if (jwksKeyStore == null || idTokenAccessTokenResponse.getIdToken() == null) {
+            return Completable.complete();
         }
+        return jwksKeyStore.awaitKeys(idTokenAccessTokenResponse.getIdToken());
+    }
 
-        return Single.just(HttpResponse.serverError()); //TODO remove this
+    /**
+     * Fetches the userinfo claims of the user the access token was issued to. They are handed to the ID token handler
+     * through the {@value UserInfoEndpointClient#CLAIMS_ATTRIBUTE} request attribute, so that they are added to the
+     * authentication and carried by the ID token cookie. Failures are logged and do not fail the login.
+     *
+     * @param idTokenAccessTokenResponse The token endpoint response
+     * @return The userinfo claims or an empty map
+     */
+    protected Single<Map<String, Object>> fetchUserInfo(IdTokenAccessTokenResponse idTokenAccessTokenResponse) {
+        if (userInfoEndpointClient == null || idTokenAccessTokenResponse.getAccessToken() == null || idTokenAccessTokenResponse.getIdToken() == null) {
+            return Single.just(Collections.emptyMap());
+        }
+        return userInfoEndpointClient.fetch(idTokenAccessTokenResponse.getAccessToken(), idTokenAccessTokenResponse.getIdToken())
+                .onErrorReturn(e -> {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("could not fetch userinfo claims", e);
+                    }
+                    return Collections.emptyMap();
+                });
     }
 }
@@ -20,11 +20,15 @@ import io.micronaut.context.annotation.Requires;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.authentication.DefaultAuthentication;
+import io.micronaut.security.oauth2.openid.endpoints.userinfo.UserInfoEndpointClient;
 import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
 import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponseValidator;
 import io.micronaut.security.oauth2.responses.AuthenticationResponse;
 
 import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -60,8 +64,27 @@ public class DefaultIdTokenAccessTokenResponseHandler implements IdTokenAccessTo
         Optional<Authentication> authenticationOptional = idTokenAccessTokenResponseValidator.validate(idTokenAccessTokenResponse);
 
         if (authenticationOptional.isPresent()) {
-            return successfulIdTokenAccessTokenResponseHandler.handle(request, authenticationResponse, idTokenAccessTokenResponse, authenticationOptional.get());
+            return successfulIdTokenAccessTokenResponseHandler.handle(request, authenticationResponse, idTokenAccessTokenResponse, withUserInfo(request, authenticationOptional.get()));
         }
         throw new InvalidIdTokenAccessTokenResponseException(idTokenAccessTokenResponse);
     }
+
+    /**
+     * Adds the userinfo claims fetched during the login, if any, to the attributes of the authentication. Claims of the
+     * ID token take precedence over userinfo claims with the same name.
+     *
+     * @param request The HTTP request
+     * @param authentication The authentication created from the ID token
+     * @return The authentication with the userinfo claims
+     */
+    @SuppressWarnings("unchecked")
+    protected Authentication withUserInfo(HttpRequest<?> request, Authentication authentication) {
+        Optional<Map> claims = request.getAttribute(UserInfoEndpointClient.CLAIMS_ATTRIBUTE, Map.class);
+        if (!claims.isPresent()) {
+            return authentication;
+        }
+        Map<String, Object> attributes = new HashMap<>((Map<String, Object>) claims.get());
+        attributes.putAll(authentication.getAttributes());
+        return new DefaultAuthentication(authentication.getName(), attributes);
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.handlers;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointUnavailableException;
+import io.micronaut.security.oauth2.responses.ErrorCode;
+import io.micronaut.security.oauth2.responses.Oauth2ErrorResponse;
+
+import javax.inject.Singleton;
+
+/**
+ * An exception handler for {@link TokenEndpointUnavailableException}. It responds with 503 Service Unavailable and a
+ * {@code temporarily_unavailable} error.
+ *
+ * @author Sergio del Amo
+ * @since 1.0
+ */
+@Singleton
+@Requires(classes = {TokenEndpointUnavailableException.class, ExceptionHandler.class})
+public class TokenEndpointUnavailableExceptionHandler implements ExceptionHandler<TokenEndpointUnavailableException, HttpResponse<?>> {
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public HttpResponse<?> handle(HttpRequest request, TokenEndpointUnavailableException exception) {
+        Oauth2ErrorResponse errorResponse = new Oauth2ErrorResponse();
+        errorResponse.setError(ErrorCode.TEMPORARILY_UNAVAILABLE.getErrorCode());
+        errorResponse.setErrorDescription(exception.getMessage());
+        long retryAfterSeconds = (exception.getRetryAfter().toMillis() + 999) / 1000;
+        return HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.configuration;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * {@link OpenIdConfiguration} which delegates to the configuration currently held by an {@link OpenIdConfigurationCache}.
+ * Beans depending on {@link OpenIdConfiguration} see the refreshed values without being re-created.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public class CachedOpenIdConfiguration extends OpenIdConfiguration {
+
+    private final OpenIdConfigurationCache openIdConfigurationCache;
+
+    /**
+     *
+     * @param openIdConfigurationCache Open ID configuration cache
+     */
+    public CachedOpenIdConfiguration(OpenIdConfigurationCache openIdConfigurationCache) {
+        this.openIdConfigurationCache = openIdConfigurationCache;
+    }
+
+    @Nullable
+    @Override
+    public Boolean getRequireRequestUriRegistration() {
+        return openIdConfigurationCache.getConfiguration().getRequireRequestUriRegistration();
+    }
+
+    @Nonnull
+    @Override
+    public String getAuthorizationEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getAuthorizationEndpoint();
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getIdTokenSigningAlgValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getIdTokenSigningAlgValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getIdTokenEncryptionEncValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getIdTokenEncryptionEncValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getUserInfoEncryptionAlgValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getUserInfoEncryptionAlgValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getUserinfoEncryptionEncValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getUserinfoEncryptionEncValuesSupported();
+    }
+
+    @Nonnull
+    @Override
+    public String getIssuer() {
+        return openIdConfigurationCache.getConfiguration().getIssuer();
+    }
+
+    @Nonnull
+    @Override
+    public String getJwksUri() {
+        return openIdConfigurationCache.getConfiguration().getJwksUri();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getResponseTypesSupported() {
+        return openIdConfigurationCache.getConfiguration().getResponseTypesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getScopesSupported() {
+        return openIdConfigurationCache.getConfiguration().getScopesSupported();
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getSubjectTypesSupported() {
+        return openIdConfigurationCache.getConfiguration().getSubjectTypesSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getTokenEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getTokenEndpoint();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getTokenEndpointAuthMethodsSupported() {
+        return openIdConfigurationCache.getConfiguration().getTokenEndpointAuthMethodsSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getTokenEndpointAuthSigningAlgValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getTokenEndpointAuthSigningAlgValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getDisplayValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getDisplayValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getClaimTypesSupported() {
+        return openIdConfigurationCache.getConfiguration().getClaimTypesSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getUserinfoEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getUserinfoEndpoint();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getResponseModesSupported() {
+        return openIdConfigurationCache.getConfiguration().getResponseModesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getGrantTypesSupported() {
+        return openIdConfigurationCache.getConfiguration().getGrantTypesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getAcrValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getAcrValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getRegistrationEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getRegistrationEndpoint();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getClaimsSupported() {
+        return openIdConfigurationCache.getConfiguration().getClaimsSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getServiceDocumentation() {
+        return openIdConfigurationCache.getConfiguration().getServiceDocumentation();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getClaimsLocalesSupported() {
+        return openIdConfigurationCache.getConfiguration().getClaimsLocalesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getUriLocalesSupported() {
+        return openIdConfigurationCache.getConfiguration().getUriLocalesSupported();
+    }
+
+    @Nullable
+    @Override
+    public Boolean getClaimsParameterSupported() {
+        return openIdConfigurationCache.getConfiguration().getClaimsParameterSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getCodeChallengeMethodsSupported() {
+        return openIdConfigurationCache.getConfiguration().getCodeChallengeMethodsSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getIntrospectionEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getIntrospectionEndpoint();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getIntrospectionEndpointAuthMethodsSupported() {
+        return openIdConfigurationCache.getConfiguration().getIntrospectionEndpointAuthMethodsSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getRevocationEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getRevocationEndpoint();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getRevocationEndpointAuthMethodsSupported() {
+        return openIdConfigurationCache.getConfiguration().getRevocationEndpointAuthMethodsSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getCheckSessionIframe() {
+        return openIdConfigurationCache.getConfiguration().getCheckSessionIframe();
+    }
+
+    @Nullable
+    @Override
+    public String getEndSessionEndpoint() {
+        return openIdConfigurationCache.getConfiguration().getEndSessionEndpoint();
+    }
+
+    @Nullable
+    @Override
+    public Boolean getRequestParameterSupported() {
+        return openIdConfigurationCache.getConfiguration().getRequestParameterSupported();
+    }
+
+    @Nullable
+    @Override
+    public Boolean getRequestUriParameterSupported() {
+        return openIdConfigurationCache.getConfiguration().getRequestUriParameterSupported();
+    }
+
+    @Nullable
+    @Override
+    public String getOpPolicyUri() {
+        return openIdConfigurationCache.getConfiguration().getOpPolicyUri();
+    }
+
+    @Nullable
+    @Override
+    public String getOpTosUri() {
+        return openIdConfigurationCache.getConfiguration().getOpTosUri();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getRequestObjectSigningAlgValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getRequestObjectSigningAlgValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getRequestObjectEncryptionAlgValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getRequestObjectEncryptionAlgValuesSupported();
+    }
+
+    @Nullable
+    @Override
+    public List<String> getRequestObjectEncryptionEncValuesSupported() {
+        return openIdConfigurationCache.getConfiguration().getRequestObjectEncryptionEncValuesSupported();
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Default implementation of {@link OpenIdConfigurationCache}.
+ *
+ * The configuration is first fetched when the application starts, without blocking the startup. Subsequent refreshes
+ * are scheduled in the background once the fetched configuration expires, as indicated by the {@code Cache-Control}
+ * max-age of the discovery endpoint response or, if absent, by the configured refresh interval.
+ *
+ * Once a configuration has been fetched, or loaded from the snapshot file, reads do not wait for the discovery endpoint:
+ * an expired configuration is served while the refresh is retried in the background, for at most the configured maximum
+ * staleness. Past it, the configuration is no longer served and reads wait for a fresh one, up to the fetch timeout,
+ * failing if the discovery endpoint does not respond. The reads issued before the first response wait for it too,
+ * since {@link OpenIdConfiguration} is read synchronously, also by bean constructors and conditions.
+ *
+ * If a snapshot file is configured, the last fetched configuration is written to it and loaded on the next startup,
+ * so the configuration is available before the discovery endpoint responds.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Requires(property = OpenIdConfigurationCacheConfigurationProperties.PREFIX + ".enabled", notEquals = StringUtils.FALSE)
+@Requires(beans = {OpenIdConfigurationClient.class, OpenIdConfigurationCacheConfiguration.class})
+@Singleton
+public class DefaultOpenIdConfigurationCache implements OpenIdConfigurationCache, ApplicationEventListener<StartupEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultOpenIdConfigurationCache.class);
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+
+    private final OpenIdConfigurationClient openIdConfigurationClient;
+    private final OpenIdConfigurationCacheConfiguration openIdConfigurationCacheConfiguration;
+    private final TaskScheduler taskScheduler;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotFile;
+
+    private volatile CachedEntry cachedEntry;
+    private Single<OpenIdConfiguration> inFlight;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * @param openIdConfigurationClient Open ID configuration Client
+     * @param openIdConfigurationCacheConfiguration Open ID configuration cache configuration
+     * @param taskScheduler Task scheduler used to schedule the background refreshes
+     * @param objectMapper Object Mapper used to read and write the snapshot file
+     */
+    public DefaultOpenIdConfigurationCache(OpenIdConfigurationClient openIdConfigurationClient,
+                                           OpenIdConfigurationCacheConfiguration openIdConfigurationCacheConfiguration,
+                                           @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler,
+                                           ObjectMapper objectMapper) {
+        this.openIdConfigurationClient = openIdConfigurationClient;
+        this.openIdConfigurationCacheConfiguration = openIdConfigurationCacheConfiguration;
+        this.taskScheduler = taskScheduler;
+        this.objectMapper = objectMapper;
+        String snapshot = openIdConfigurationCacheConfiguration.getSnapshotFile();
+        this.snapshotFile = snapshot != null ? Paths.get(snapshot) : null;
+        readSnapshot().ifPresent(openIdConfiguration ->
+                cachedEntry = new CachedEntry(openIdConfiguration, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        refresh();
+    }
+
+    @Nonnull
+    @Override
+    public OpenIdConfiguration getConfiguration() {
+        CachedEntry entry = cachedEntry;
+        if (entry == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("no OpenID configuration fetched yet, waiting for the discovery endpoint");
+            }
+        } else if (entry.isStale(openIdConfigurationCacheConfiguration.getMaxStaleness())) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("the OpenID configuration is older than the allowed staleness, waiting for the discovery endpoint");
+            }
+        } else {
+            return entry.openIdConfiguration;
+        }
+        return refresh()
+                .timeout(openIdConfigurationCacheConfiguration.getFetchTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .blockingGet();
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Single<OpenIdConfiguration> refresh() {
+        Single<OpenIdConfiguration> pending = inFlight;
+        if (pending == null) {
+            pending = openIdConfigurationClient.fetchConfigurationResponse()
+                    .firstOrError()
+                    .map(this::onResponse)
+                    .doOnError(this::onError)
+                    .doOnEvent((openIdConfiguration, throwable) -> clearInFlight())
+                    .cache();
+            inFlight = pending;
+            pending.subscribe((openIdConfiguration, throwable) -> { });
+        }
+        return pending;
+    }
+
+    /**
+     * Cancels the scheduled background refresh.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
+    /**
+     * Stores the fetched OpenID configuration and schedules the next refresh.
+     *
+     * @param response The discovery endpoint response
+     * @return The fetched OpenID configuration
+     */
+    protected OpenIdConfiguration onResponse(HttpResponse<OpenIdConfiguration> response) {
+        OpenIdConfiguration openIdConfiguration = response.getBody()
+                .orElseThrow(() -> new IllegalStateException("OpenID configuration response without body"));
+        Duration timeToLive = resolveTimeToLive(response);
+        cachedEntry = new CachedEntry(openIdConfiguration, System.currentTimeMillis() + timeToLive.toMillis());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("OpenID configuration for issuer {} cached for {}", openIdConfiguration.getIssuer(), timeToLive);
+        }
+        scheduleRefresh(timeToLive);
+        if (snapshotFile != null && openIdConfigurationCacheConfiguration.isWriteSnapshot()) {
+            taskScheduler.schedule(Duration.ZERO, () -> writeSnapshot(openIdConfiguration));
+        }
+        return openIdConfiguration;
+    }
+
+    /**
+     * Reads the OpenID configuration snapshot. The snapshot is considered expired, thus it is served while the
+     * discovery endpoint is fetched in the background.
+     *
+     * @return The OpenID configuration stored in the snapshot file or an empty optional if there is none.
+     */
+    private Optional<OpenIdConfiguration> readSnapshot() {
+        if (snapshotFile == null || !Files.isReadable(snapshotFile)) {
+            return Optional.empty();
+        }
+        try {
+            OpenIdConfiguration openIdConfiguration = objectMapper.readValue(snapshotFile.toFile(), OpenIdConfiguration.class);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("OpenID configuration for issuer {} loaded from snapshot {}", openIdConfiguration.getIssuer(), snapshotFile);
+            }
+            return Optional.of(openIdConfiguration);
+        } catch (IOException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("could not read the OpenID configuration snapshot {}", snapshotFile, e);
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the OpenID configuration to the snapshot file. The file is replaced atomically so that a concurrent
+     * startup never reads a partially written snapshot.
+     *
+     * @param openIdConfiguration The fetched OpenID configuration
+     */
+    private void writeSnapshot(OpenIdConfiguration openIdConfiguration) {
+        try {
+            Path directory = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            try {
+                objectMapper.writeValue(tmp.toFile(), openIdConfiguration);
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("could not write the OpenID configuration snapshot {}", snapshotFile, e);
+            }
+        }
+    }
+
+    /**
+     * Schedules a retry. The last cached OpenID configuration keeps being served until it exceeds the maximum staleness.
+     *
+     * @param throwable The error thrown while fetching the OpenID configuration
+     */
+    protected void onError(Throwable throwable) {
+        CachedEntry entry = cachedEntry;
+        if (entry != null && entry.isStale(openIdConfigurationCacheConfiguration.getMaxStaleness())) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error("could not refresh the OpenID configuration, which is older than the allowed staleness and no longer served, retrying in {}", openIdConfigurationCacheConfiguration.getMinRefreshInterval(), throwable);
+            }
+        } else if (LOG.isWarnEnabled()) {
+            LOG.warn("could not refresh the OpenID configuration, retrying in {}", openIdConfigurationCacheConfiguration.getMinRefreshInterval(), throwable);
+        }
+        scheduleRefresh(openIdConfigurationCacheConfiguration.getMinRefreshInterval());
+    }
+
+    /**
+     * @param response The discovery endpoint response
+     * @return The time during which the OpenID configuration is considered fresh
+     */
+    protected Duration resolveTimeToLive(HttpResponse<?> response) {
+        Duration timeToLive = parseMaxAge(response.getHeaders().get(HttpHeaders.CACHE_CONTROL))
+                .orElse(openIdConfigurationCacheConfiguration.getRefreshInterval());
+        Duration minRefreshInterval = openIdConfigurationCacheConfiguration.getMinRefreshInterval();
+        return timeToLive.compareTo(minRefreshInterval) < 0 ? minRefreshInterval : timeToLive;
+    }
+
+    private Optional<Duration> parseMaxAge(@Nullable String cacheControl) {
+        if (cacheControl == null) {
+            return Optional.empty();
+        }
+        if (cacheControl.contains("no-cache") || cacheControl.contains("no-store")) {
+            return Optional.of(Duration.ZERO);
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        if (matcher.find()) {
+            return Optional.of(Duration.ofSeconds(Long.parseLong(matcher.group(1))));
+        }
+        return Optional.empty();
+    }
+
+    private synchronized void scheduleRefresh(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduledRefresh = taskScheduler.schedule(delay, (Runnable) this::refresh);
+    }
+
+    private synchronized void clearInFlight() {
+        inFlight = null;
+    }
+
+    /**
+     * An OpenID configuration together with the instant after which it should be refreshed.
+     */
+    private static final class CachedEntry {
+        private final OpenIdConfiguration openIdConfiguration;
+        private final long expiresAt;
+
+        CachedEntry(OpenIdConfiguration openIdConfiguration, long expiresAt) {
+            this.openIdConfiguration = openIdConfiguration;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isStale(Duration maxStaleness) {
+            return System.currentTimeMillis() > expiresAt + maxStaleness.toMillis();
+        }
+    }
+}
@@ -16,20 +16,18 @@
 
 package io.micronaut.security.oauth2.openid.configuration;
 
-import com.nimbusds.jose.jwk.KeyType;
 import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.util.StringUtils;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStore;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStoreSignature;
 import io.micronaut.security.token.jwt.signature.jwks.JwkValidator;
-import io.micronaut.security.token.jwt.signature.jwks.JwksSignature;
-import io.micronaut.security.token.jwt.signature.jwks.JwksSignatureConfiguration;
 
-import javax.annotation.Nonnull;
 import javax.inject.Singleton;
 
 /**
- * {@link Factory} to create {@link JwksSignature} for an OpenID Configuration.
+ * {@link Factory} to create {@link JwksKeyStoreSignature} for an OpenID Configuration.
  *
  * @author Sergio del Amo
  * @since 1.0.0
@@ -39,42 +37,30 @@ import javax.inject.Singleton;
 @Factory
 public class JwksSignatureFactory {
 
-    private final OpenIdConfiguration openIdConfiguration;
+    private final JwksKeyStore jwksKeyStore;
     private final JwksSignatureFactoryConfiguration jwksSignatureFactoryConfiguration;
     private final JwkValidator jwkValidator;
 
     /**
      * @param jwksSignatureFactoryConfiguration JWKS Signature Factory Configuration
-     * @param openIdConfiguration Open ID Configuration
+     * @param jwksKeyStore JSON Web Key Set key store
      * @param jwkValidator JSON Web Key Validator
      */
-    public JwksSignatureFactory(OpenIdConfiguration openIdConfiguration,
+    public JwksSignatureFactory(JwksKeyStore jwksKeyStore,
                                 JwksSignatureFactoryConfiguration jwksSignatureFactoryConfiguration,
                                 JwkValidator jwkValidator) {
-        this.openIdConfiguration = openIdConfiguration;
+        this.jwksKeyStore = jwksKeyStore;
         this.jwksSignatureFactoryConfiguration = jwksSignatureFactoryConfiguration;
         this.jwkValidator = jwkValidator;
     }
 
     /**
      *
-     * @return a bean of type {@link JwksSignature}
+     * @return a bean of type {@link JwksKeyStoreSignature}
      */
     @Bean
     @Singleton
-    public JwksSignature jwsk() {
-        return new JwksSignature(new JwksSignatureConfiguration() {
-            @Nonnull
-            @Override
-            public String getUrl() {
-                return openIdConfiguration.getJwksUri();
-            }
-
-            @Nonnull
-            @Override
-            public KeyType getKeyType() {
-                return jwksSignatureFactoryConfiguration.getKeyType();
-            }
-        }, jwkValidator);
+    public JwksKeyStoreSignature jwsk() {
+        return new JwksKeyStoreSignature(jwksKeyStore, jwksSignatureFactoryConfiguration.getKeyType(), jwkValidator);
     }
 }
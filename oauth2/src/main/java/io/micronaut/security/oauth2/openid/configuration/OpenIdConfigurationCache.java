@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.configuration;
+
+import io.reactivex.Single;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps the last successfully fetched {@link OpenIdConfiguration} and refreshes it in the background.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface OpenIdConfigurationCache {
+
+    /**
+     * Returns the cached OpenID configuration, even if it has expired. It only blocks if no configuration has been
+     * fetched yet.
+     *
+     * @return The OpenID configuration
+     */
+    @Nonnull
+    OpenIdConfiguration getConfiguration();
+
+    /**
+     * Fetches the OpenID configuration from the discovery endpoint. Concurrent calls share the same in-flight request.
+     *
+     * @return a {@link Single} which emits the refreshed OpenID configuration
+     */
+    @Nonnull
+    Single<OpenIdConfiguration> refresh();
+}
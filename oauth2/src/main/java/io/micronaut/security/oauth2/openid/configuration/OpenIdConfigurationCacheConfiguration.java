@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.configuration;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link OpenIdConfigurationCache}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface OpenIdConfigurationCacheConfiguration extends Toggleable {
+
+    /**
+     * Interval used to refresh the OpenID configuration when the discovery endpoint response does not specify a {@code Cache-Control} max-age.
+     * @return The refresh interval.
+     */
+    @Nonnull
+    Duration getRefreshInterval();
+
+    /**
+     * Lower bound for the refresh interval. It is used also as the delay before retrying a failed refresh.
+     * @return The minimum refresh interval.
+     */
+    @Nonnull
+    Duration getMinRefreshInterval();
+
+    /**
+     * Time during which an expired OpenID configuration keeps being served while it cannot be refreshed. Afterwards,
+     * reads wait for the discovery endpoint and fail if it does not respond.
+     * @return The maximum staleness.
+     */
+    @Nonnull
+    Duration getMaxStaleness();
+
+    /**
+     * Maximum time to wait for the discovery endpoint when no OpenID configuration can be served.
+     * @return The fetch timeout.
+     */
+    @Nonnull
+    Duration getFetchTimeout();
+
+    /**
+     * Path of a file holding a snapshot of the OpenID configuration. If the file exists, it is loaded at startup and served until the discovery endpoint responds.
+     * @return The snapshot file path or null if no snapshot should be used.
+     */
+    @Nullable
+    String getSnapshotFile();
+
+    /**
+     * Whether every fetched OpenID configuration is written to the snapshot file.
+     * @return true if the snapshot file should be written.
+     */
+    boolean isWriteSnapshot();
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link OpenIdConfigurationCacheConfiguration}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@ConfigurationProperties(OpenIdConfigurationCacheConfigurationProperties.PREFIX)
+public class OpenIdConfigurationCacheConfigurationProperties implements OpenIdConfigurationCacheConfiguration {
+
+    public static final String PREFIX = OpenIdProviderConfigurationProperties.PREFIX + ".configuration-cache";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = true;
+
+    /**
+     * The default refresh interval.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * The default minimum refresh interval.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MIN_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The default maximum staleness.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MAX_STALENESS = Duration.ofHours(24);
+
+    /**
+     * The default fetch timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_FETCH_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * The default write snapshot value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_WRITE_SNAPSHOT = true;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private Duration minRefreshInterval = DEFAULT_MIN_REFRESH_INTERVAL;
+    private Duration maxStaleness = DEFAULT_MAX_STALENESS;
+    private Duration fetchTimeout = DEFAULT_FETCH_TIMEOUT;
+    private String snapshotFile;
+    private boolean writeSnapshot = DEFAULT_WRITE_SNAPSHOT;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables {@link DefaultOpenIdConfigurationCache}. If disabled, the OpenID configuration is fetched once, blocking, when the bean is created. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Interval used to refresh the OpenID configuration when the discovery endpoint does not send a Cache-Control max-age. Default value (1 hour).
+     * @param refreshInterval The refresh interval
+     */
+    public void setRefreshInterval(@Nonnull Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getMinRefreshInterval() {
+        return minRefreshInterval;
+    }
+
+    /**
+     * Lower bound for the refresh interval and delay before retrying a failed refresh. Default value (1 minute).
+     * @param minRefreshInterval The minimum refresh interval
+     */
+    public void setMinRefreshInterval(@Nonnull Duration minRefreshInterval) {
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * Time during which an expired OpenID configuration keeps being served while it cannot be refreshed. Afterwards, reads wait for the discovery endpoint and fail if it does not respond. Default value (24 hours).
+     * @param maxStaleness The maximum staleness
+     */
+    public void setMaxStaleness(@Nonnull Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    /**
+     * Maximum time to wait for the discovery endpoint when no OpenID configuration can be served. Default value (10 seconds).
+     * @param fetchTimeout The fetch timeout
+     */
+    public void setFetchTimeout(@Nonnull Duration fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    @Nullable
+    @Override
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Path of a file holding a snapshot of the OpenID configuration. If the file exists, it is loaded at startup and served until the discovery endpoint responds. It may be pre-baked at build time with the discovery endpoint response.
+     * @param snapshotFile The snapshot file path
+     */
+    public void setSnapshotFile(@Nullable String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    @Override
+    public boolean isWriteSnapshot() {
+        return writeSnapshot;
+    }
+
+    /**
+     * Whether every fetched OpenID configuration is written to the snapshot file. Disable it for pre-baked, read-only snapshots. Default value ({@value #DEFAULT_WRITE_SNAPSHOT}).
+     * @param writeSnapshot write snapshot flag
+     */
+    public void setWriteSnapshot(boolean writeSnapshot) {
+        this.writeSnapshot = writeSnapshot;
+    }
+}
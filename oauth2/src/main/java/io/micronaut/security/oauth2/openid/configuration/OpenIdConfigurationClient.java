@@ -17,8 +17,10 @@
 package io.micronaut.security.oauth2.openid.configuration;
 
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.Get;
 import io.micronaut.http.client.annotation.Client;
+import io.reactivex.Flowable;
 
 /**
  * Creates a HTTP Declarative client to communicate with an OpenID connect Discovery endpoint.
@@ -37,4 +39,13 @@ public interface OpenIdConfigurationClient {
      */
     @Get("${" + OpenIdProviderConfigurationProperties.PREFIX + "configuration-path:/.well-known/openid-configuration}")
     OpenIdConfiguration fetchConfiguration();
+
+    /**
+     * Fetches the OpenID Provider Metadata without blocking. The full response is exposed so that callers can
+     * honor caching headers such as {@code Cache-Control}.
+     *
+     * @return a {@link Flowable} which emits the response of the discovery endpoint
+     */
+    @Get("${" + OpenIdProviderConfigurationProperties.PREFIX + "configuration-path:/.well-known/openid-configuration}")
+    Flowable<HttpResponse<OpenIdConfiguration>> fetchConfigurationResponse();
 }
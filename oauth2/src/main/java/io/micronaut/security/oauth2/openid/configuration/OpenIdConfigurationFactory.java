@@ -20,10 +20,12 @@ import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Requires;
 
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 
 /**
  * Creates a bean {@link OpenIdConfiguration} by fetching the remote configuration of an identity provider.
+ * If an {@link OpenIdConfigurationCache} is present, the configuration is fetched without blocking and refreshed in the background.
  *
  * @author Sergio del Amo
  * @since 1.0.0
@@ -35,11 +37,16 @@ public class OpenIdConfigurationFactory {
     /**
      *
      * @param openIdConfigurationClient Open ID configuration Client
+     * @param openIdConfigurationCache Open ID configuration cache
      * @return An {@link OpenIdConfiguration} bean.
      */
     @Bean
     @Singleton
-    public OpenIdConfiguration openIdConfiguration(OpenIdConfigurationClient openIdConfigurationClient) {
-        return openIdConfigurationClient.fetchConfiguration();
+    public OpenIdConfiguration openIdConfiguration(OpenIdConfigurationClient openIdConfigurationClient,
+                                                   @Nullable OpenIdConfigurationCache openIdConfigurationCache) {
+        if (openIdConfigurationCache == null) {
+            return openIdConfigurationClient.fetchConfiguration();
+        }
+        return new CachedOpenIdConfiguration(openIdConfigurationCache);
     }
 }
@@ -296,13 +296,13 @@ public class OpenIdProviderMetadataAdapter implements OpenIdProviderMetadata {
     @Nullable
     @Override
     public String getIntrospectionEndpoint() {
-        return openIdProviderMetadata != null ? openIdProviderMetadata.getIntrospectionEndpoint() : null;
+        return getIntrospectionEndpointUrl();
     }
 
     @Nullable
     @Override
     public String getRevocationEndpoint() {
-        return openIdProviderMetadata != null ? openIdProviderMetadata.getRevocationEndpoint() : null;
+        return getRevocationEndpointUrl();
     }
 
     /**
@@ -18,6 +18,7 @@ package io.micronaut.security.oauth2.openid.endpoints.authorization.state;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.context.annotation.Requires;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +31,7 @@ import java.io.IOException;
  * @author James Kleeh
  * @since 1.0.0
  */
+@Requires(property = BinaryStateSerDes.PROPERTY, notEquals = BinaryStateSerDes.BINARY)
 @Singleton
 public class JacksonStateSerDes implements StateSerDes {
 
@@ -37,6 +37,18 @@ public interface StatePersistence {
      */
     Optional<State> retrieveState(HttpRequest<?> request);
 
+    /**
+     * Retrieves and removes the state from persistence. Implementations which store the state under its nonce
+     * override this method to look it up with the state received in the authorization response.
+     *
+     * @param request The request
+     * @param state The state received in the authorization response
+     * @return The optional state
+     */
+    default Optional<State> retrieveState(HttpRequest<?> request, State state) {
+        return retrieveState(request);
+    }
+
     /**
      * Persists the state for later retrieval to allow validation.
      *
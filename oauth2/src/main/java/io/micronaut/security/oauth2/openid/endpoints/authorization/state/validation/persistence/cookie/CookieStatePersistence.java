@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.cookie;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.cookie.Cookie;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.DefaultState;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.State;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.DefaultStateValidationConfiguration;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.StatePersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Persists the state in a cookie, without any server side session. The nonce, the original URI and the time the
+ * state was issued are encrypted with AES-GCM, which also authenticates them, using a key derived from the configured
+ * secret. Every instance sharing the secret can validate the state.
+ *
+ * The cookie is rejected once the configured maximum age has passed. The nonces of consumed cookies are remembered
+ * until then, so that a cookie cannot be replayed against the same instance.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = DefaultStateValidationConfiguration.PREFIX + ".persistence", value = "cookie")
+@Requires(property = CookieStatePersistenceConfigurationProperties.PREFIX + ".secret")
+@Singleton
+public class CookieStatePersistence implements StatePersistence {
+
+    /**
+     * Request attribute holding the state cookie to set, or to clear, in the response.
+     */
+    public static final String COOKIE_ATTRIBUTE = "micronaut.security.oauth2.state.cookie";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CookieStatePersistence.class);
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final byte VERSION = 1;
+
+    private final CookieStatePersistenceConfiguration configuration;
+    private final SecretKeySpec key;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, Long> consumedNonces;
+
+    /**
+     *
+     * @param configuration Cookie state persistence configuration
+     */
+    public CookieStatePersistence(CookieStatePersistenceConfiguration configuration) {
+        this.configuration = configuration;
+        this.key = deriveKey(Objects.requireNonNull(configuration.getSecret(), "a secret is required to encrypt the state cookie"));
+        int replayCacheSize = configuration.getReplayCacheSize();
+        this.consumedNonces = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > replayCacheSize || eldest.getValue() <= System.currentTimeMillis();
+            }
+        };
+    }
+
+    @Override
+    public Optional<State> retrieveState(HttpRequest<?> request) {
+        Optional<Cookie> cookie = request.getCookies().findCookie(configuration.getCookieName());
+        if (!cookie.isPresent()) {
+            return Optional.empty();
+        }
+        request.setAttribute(COOKIE_ATTRIBUTE, createCookie("").maxAge(0));
+        Optional<SealedState> sealedState = open(cookie.get().getValue());
+        if (!sealedState.isPresent()) {
+            return Optional.empty();
+        }
+        SealedState opened = sealedState.get();
+        long expiresAt = opened.issuedAt + configuration.getMaxAge().toMillis();
+        if (expiresAt <= System.currentTimeMillis()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("state cookie has expired");
+            }
+            return Optional.empty();
+        }
+        synchronized (consumedNonces) {
+            if (consumedNonces.putIfAbsent(opened.state.getNonce(), expiresAt) != null) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("state cookie has already been used");
+                }
+                return Optional.empty();
+            }
+        }
+        return Optional.of(opened.state);
+    }
+
+    @Override
+    public void persistState(HttpRequest<?> request, State state) {
+        request.setAttribute(COOKIE_ATTRIBUTE, createCookie(seal(state, System.currentTimeMillis()))
+                .maxAge(configuration.getMaxAge().getSeconds()));
+    }
+
+    /**
+     *
+     * @param value The cookie value
+     * @return A state cookie
+     */
+    protected Cookie createCookie(String value) {
+        return Cookie.of(configuration.getCookieName(), value)
+                .path(configuration.getCookiePath())
+                .secure(configuration.isCookieSecure())
+                .httpOnly(true);
+    }
+
+    /**
+     *
+     * @param state The state
+     * @param issuedAt The time the state was issued, in milliseconds since the epoch
+     * @return The encrypted state, encoded in base64url
+     */
+    protected String seal(State state, long issuedAt) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeLong(issuedAt);
+            out.writeUTF(state.getNonce());
+            URI originalUri = state.getOriginalUri();
+            out.writeBoolean(originalUri != null);
+            if (originalUri != null) {
+                out.writeUTF(originalUri.toString());
+            }
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(configuration.getCookieName().getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(bytes.toByteArray());
+            byte[] sealed = Arrays.copyOf(iv, IV_LENGTH + ciphertext.length);
+            System.arraycopy(ciphertext, 0, sealed, IV_LENGTH, ciphertext.length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(sealed);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("could not encrypt the state cookie", e);
+        }
+    }
+
+    /**
+     *
+     * @param value The encrypted state, encoded in base64url
+     * @return The state and the time it was issued, or an empty optional if the value was not sealed with this key
+     */
+    protected Optional<SealedState> open(String value) {
+        try {
+            byte[] sealed = Base64.getUrlDecoder().decode(value);
+            if (sealed.length <= IV_LENGTH) {
+                return Optional.empty();
+            }
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, sealed, 0, IV_LENGTH));
+            cipher.updateAAD(configuration.getCookieName().getBytes(StandardCharsets.UTF_8));
+            byte[] plaintext = cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(plaintext));
+            if (in.readByte() != VERSION) {
+                return Optional.empty();
+            }
+            long issuedAt = in.readLong();
+            DefaultState state = new DefaultState();
+            state.setNonce(in.readUTF());
+            if (in.readBoolean()) {
+                state.setOriginalUri(URI.create(in.readUTF()));
+            }
+            return Optional.of(new SealedState(state, issuedAt));
+        } catch (GeneralSecurityException | IOException | IllegalArgumentException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("could not decrypt the state cookie", e);
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static SecretKeySpec deriveKey(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A state opened from a cookie, with the time it was issued.
+     */
+    protected static final class SealedState {
+        private final State state;
+        private final long issuedAt;
+
+        /**
+         * @param state The state
+         * @param issuedAt The time the state was issued, in milliseconds since the epoch
+         */
+        SealedState(State state, long issuedAt) {
+            this.state = state;
+            this.issuedAt = issuedAt;
+        }
+
+        /**
+         * @return The state
+         */
+        @Nonnull
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return The time the state was issued, in milliseconds since the epoch
+         */
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.cookie;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link CookieStatePersistence}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface CookieStatePersistenceConfiguration {
+
+    /**
+     * @return The secret the encryption key of the state cookie is derived from.
+     */
+    @Nullable
+    String getSecret();
+
+    /**
+     * @return The name of the state cookie.
+     */
+    @Nonnull
+    String getCookieName();
+
+    /**
+     * @return The path of the state cookie.
+     */
+    @Nonnull
+    String getCookiePath();
+
+    /**
+     * @return Whether the state cookie is only sent over HTTPS.
+     */
+    boolean isCookieSecure();
+
+    /**
+     * @return How long a login may take, after which the state cookie is rejected.
+     */
+    @Nonnull
+    Duration getMaxAge();
+
+    /**
+     * @return The maximum number of consumed nonces remembered to reject replayed state cookies.
+     */
+    int getReplayCacheSize();
+}
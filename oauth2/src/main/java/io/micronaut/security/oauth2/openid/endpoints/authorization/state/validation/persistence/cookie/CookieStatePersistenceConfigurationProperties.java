@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.cookie;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.DefaultStateValidationConfiguration;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link CookieStatePersistenceConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(CookieStatePersistenceConfigurationProperties.PREFIX)
+public class CookieStatePersistenceConfigurationProperties implements CookieStatePersistenceConfiguration {
+
+    public static final String PREFIX = DefaultStateValidationConfiguration.PREFIX + ".cookie";
+
+    /**
+     * The default cookie name.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String DEFAULT_COOKIE_NAME = "OAUTH2_STATE";
+
+    /**
+     * The default cookie path.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String DEFAULT_COOKIE_PATH = "/";
+
+    /**
+     * The default secure value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_COOKIE_SECURE = false;
+
+    /**
+     * The default maximum age.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(5);
+
+    /**
+     * The default replay cache size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_REPLAY_CACHE_SIZE = 10000;
+
+    private String secret;
+    private String cookieName = DEFAULT_COOKIE_NAME;
+    private String cookiePath = DEFAULT_COOKIE_PATH;
+    private boolean cookieSecure = DEFAULT_COOKIE_SECURE;
+    private Duration maxAge = DEFAULT_MAX_AGE;
+    private int replayCacheSize = DEFAULT_REPLAY_CACHE_SIZE;
+
+    @Nullable
+    @Override
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * The secret the encryption key of the state cookie is derived from. Use the same secret on every instance.
+     * @param secret The secret
+     */
+    public void setSecret(@Nullable String secret) {
+        this.secret = secret;
+    }
+
+    @Nonnull
+    @Override
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    /**
+     * The name of the state cookie. Default value ({@value #DEFAULT_COOKIE_NAME}).
+     * @param cookieName The cookie name
+     */
+    public void setCookieName(@Nonnull String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    @Nonnull
+    @Override
+    public String getCookiePath() {
+        return cookiePath;
+    }
+
+    /**
+     * The path of the state cookie. Default value ({@value #DEFAULT_COOKIE_PATH}).
+     * @param cookiePath The cookie path
+     */
+    public void setCookiePath(@Nonnull String cookiePath) {
+        this.cookiePath = cookiePath;
+    }
+
+    @Override
+    public boolean isCookieSecure() {
+        return cookieSecure;
+    }
+
+    /**
+     * Whether the state cookie is only sent over HTTPS. Default value ({@value #DEFAULT_COOKIE_SECURE}).
+     * @param cookieSecure The secure flag
+     */
+    public void setCookieSecure(boolean cookieSecure) {
+        this.cookieSecure = cookieSecure;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * How long a login may take, after which the state cookie is rejected. Default value (5 minutes).
+     * @param maxAge The maximum age of the state cookie
+     */
+    public void setMaxAge(@Nonnull Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public int getReplayCacheSize() {
+        return replayCacheSize;
+    }
+
+    /**
+     * The maximum number of consumed nonces remembered to reject replayed state cookies. Default value ({@value #DEFAULT_REPLAY_CACHE_SIZE}).
+     * @param replayCacheSize The replay cache size
+     */
+    public void setReplayCacheSize(int replayCacheSize) {
+        this.replayCacheSize = replayCacheSize;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Classes related to state persistence in an encrypted cookie.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Configuration
+@Requires(property = DefaultStateValidationConfiguration.PREFIX + ".persistence", value = "cookie")
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.cookie;
+
+import io.micronaut.context.annotation.Configuration;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.DefaultStateValidationConfiguration;
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.State;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In memory implementation of {@link StateStore}. Keys are spread over independently locked shards, and each shard
+ * drops its expired entries while it is written to, so that abandoned logins do not accumulate.
+ *
+ * <p>The store is bounded: a full shard evicts its oldest pending login, and a client which exceeds its quota of
+ * pending logins loses its oldest one, so that a single client cannot push out the logins of others. Evictions are
+ * recorded in {@link StateStoreMetrics}.</p>
+ *
+ * <p>The pending logins of each client are tracked in a client stripe. A state stored for a client is inserted in its
+ * shard and tracked while the stripe lock of the client is held, and it is only untracked under that same lock, so that
+ * a concurrent take never leaves a key tracked after its state was removed.</p>
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Singleton
+public class DefaultStateStore implements StateStore {
+
+    private final Shard[] shards;
+    private final ClientStripe[] clientStripes;
+    private final int maxEntriesPerClient;
+    private final StateStoreMetrics metrics;
+
+    /**
+     * @param configuration The store state persistence configuration
+     * @param metrics The state store metrics
+     */
+    public DefaultStateStore(StoreStatePersistenceConfiguration configuration, StateStoreMetrics metrics) {
+        int shardCount = Math.max(1, configuration.getShards());
+        int shardCapacity = Math.max(1, (configuration.getMaxEntries() + shardCount - 1) / shardCount);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(shardCapacity);
+        }
+        this.clientStripes = new ClientStripe[shardCount];
+        for (int i = 0; i < clientStripes.length; i++) {
+            clientStripes[i] = new ClientStripe();
+        }
+        this.maxEntriesPerClient = configuration.getMaxEntriesPerClient();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void put(@Nonnull String key, @Nonnull State state, @Nonnull Duration timeToLive) {
+        put(key, state, timeToLive, null);
+    }
+
+    @Override
+    public void put(@Nonnull String key, @Nonnull State state, @Nonnull Duration timeToLive, @Nullable String client) {
+        long now = System.currentTimeMillis();
+        StoredState stored = new StoredState(key, state, maxEntriesPerClient > 0 ? client : null, now + timeToLive.toMillis());
+        List<StoredState> removed;
+        List<StoredState> untracked = new ArrayList<>(0);
+        if (stored.client == null) {
+            removed = shardFor(key).put(stored, now);
+        } else {
+            ClientStripe stripe = stripeFor(stored.client);
+            synchronized (stripe) {
+                removed = shardFor(key).put(stored, now);
+                for (StoredState existing : removed) {
+                    if (existing.client != null && stripeFor(existing.client) == stripe) {
+                        stripe.untrack(existing.client, existing.key);
+                        untracked.add(existing);
+                    }
+                }
+                for (String evictedKey : stripe.track(stored.client, key, maxEntriesPerClient)) {
+                    if (shardFor(evictedKey).remove(evictedKey) != null) {
+                        metrics.clientQuotaEviction();
+                    }
+                }
+            }
+        }
+        metrics.stateAdded();
+        for (StoredState existing : removed) {
+            if (!untracked.contains(existing)) {
+                untrack(existing);
+            }
+            recordRemoval(existing);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Optional<State> take(@Nonnull String key) {
+        StoredState stored = shardFor(key).remove(key);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        untrack(stored);
+        if (stored.expiresAt <= System.currentTimeMillis()) {
+            metrics.stateExpired();
+            return Optional.empty();
+        }
+        metrics.stateRemoved();
+        return Optional.of(stored.state);
+    }
+
+    /**
+     * @return The number of states currently stored, including expired ones not yet removed
+     */
+    protected int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of pending logins tracked for client quotas
+     */
+    protected int trackedClientKeys() {
+        int tracked = 0;
+        for (ClientStripe stripe : clientStripes) {
+            synchronized (stripe) {
+                tracked += stripe.size();
+            }
+        }
+        return tracked;
+    }
+
+    private void recordRemoval(StoredState stored) {
+        switch (stored.removal) {
+            case EXPIRED:
+                metrics.stateExpired();
+                break;
+            case EVICTED:
+                metrics.capacityEviction();
+                break;
+            default:
+                metrics.stateRemoved();
+        }
+    }
+
+    /**
+     * Untracks a state removed from its shard. It runs without holding any other lock, so that stripes are never
+     * locked in a nested way.
+     */
+    private void untrack(StoredState stored) {
+        if (stored.client != null) {
+            ClientStripe stripe = stripeFor(stored.client);
+            synchronized (stripe) {
+                stripe.untrack(stored.client, stored.key);
+            }
+        }
+    }
+
+    private ClientStripe stripeFor(String client) {
+        return clientStripes[spread(client.hashCode()) % clientStripes.length];
+    }
+
+    private Shard shardFor(String key) {
+        return shards[spread(key.hashCode()) % shards.length];
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    /**
+     * The pending logins of the clients whose identifiers hash to the same stripe, in insertion order. It is guarded by
+     * its own monitor, which callers hold.
+     */
+    private static final class ClientStripe {
+        private final Map<String, Deque<String>> clientKeys = new HashMap<>();
+
+        /**
+         * Records the key as a pending login of the client.
+         *
+         * @return The keys of the oldest pending logins of the client beyond its quota
+         */
+        List<String> track(String client, String key, int maxEntriesPerClient) {
+            Deque<String> pending = clientKeys.computeIfAbsent(client, c -> new ArrayDeque<>());
+            pending.addLast(key);
+            List<String> evicted = new ArrayList<>(1);
+            while (pending.size() > maxEntriesPerClient) {
+                evicted.add(pending.pollFirst());
+            }
+            return evicted;
+        }
+
+        int size() {
+            int size = 0;
+            for (Deque<String> pending : clientKeys.values()) {
+                size += pending.size();
+            }
+            return size;
+        }
+
+        void untrack(String client, String key) {
+            Deque<String> pending = clientKeys.get(client);
+            if (pending != null) {
+                pending.remove(key);
+                if (pending.isEmpty()) {
+                    clientKeys.remove(client);
+                }
+            }
+        }
+    }
+
+    /**
+     * A portion of the stored states guarded by its own lock. States share the same time to live and are kept in
+     * insertion order, thus the expired ones and the ones to evict first are at the head.
+     */
+    private static final class Shard {
+        private final Map<String, StoredState> states = new LinkedHashMap<>();
+        private final int capacity;
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return The states removed to make room for the new one
+         */
+        synchronized List<StoredState> put(StoredState stored, long now) {
+            List<StoredState> removed = new ArrayList<>(0);
+            Iterator<StoredState> oldest = states.values().iterator();
+            while (oldest.hasNext()) {
+                StoredState existing = oldest.next();
+                if (existing.expiresAt <= now) {
+                    existing.removal = Removal.EXPIRED;
+                } else if (states.size() >= capacity) {
+                    existing.removal = Removal.EVICTED;
+                } else {
+                    break;
+                }
+                oldest.remove();
+                removed.add(existing);
+            }
+            StoredState replaced = states.put(stored.key, stored);
+            if (replaced != null) {
+                replaced.removal = Removal.REPLACED;
+                removed.add(replaced);
+            }
+            return removed;
+        }
+
+        synchronized StoredState remove(String key) {
+            return states.remove(key);
+        }
+
+        synchronized int size() {
+            return states.size();
+        }
+    }
+
+    /**
+     * Why a state left the store before it was taken.
+     */
+    private enum Removal {
+        EXPIRED, EVICTED, REPLACED
+    }
+
+    /**
+     * A state, the client it was created for and the time at which it expires.
+     */
+    private static final class StoredState {
+        private final String key;
+        private final State state;
+        private final String client;
+        private final long expiresAt;
+        private Removal removal;
+
+        StoredState(String key, State state, String client, long expiresAt) {
+            this.key = key;
+            this.state = state;
+            this.client = client;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
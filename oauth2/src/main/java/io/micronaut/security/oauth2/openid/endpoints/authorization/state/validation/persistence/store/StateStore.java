@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.State;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A key-value store for pending authorization request states. Replace the default bean to share the states
+ * between several instances, for example with a store which expires keys natively.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface StateStore {
+
+    /**
+     * Stores the state under the given key.
+     *
+     * @param key The key
+     * @param state The state
+     * @param timeToLive How long the state is kept
+     */
+    void put(@Nonnull String key, @Nonnull State state, @Nonnull Duration timeToLive);
+
+    /**
+     * Stores the state under the given key on behalf of a client. Stores which limit the number of pending logins
+     * per client override this method.
+     *
+     * @param key The key
+     * @param state The state
+     * @param timeToLive How long the state is kept
+     * @param client The client, for example its IP address, or null if unknown
+     */
+    default void put(@Nonnull String key, @Nonnull State state, @Nonnull Duration timeToLive, @Nullable String client) {
+        put(key, state, timeToLive);
+    }
+
+    /**
+     * Atomically retrieves and removes the state stored under the given key. A state is returned at most once.
+     *
+     * @param key The key
+     * @return The state if present and not expired
+     */
+    @Nonnull
+    Optional<State> take(@Nonnull String key);
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usage of the in-memory {@link DefaultStateStore}. A growing number of evictions shows that pending logins are
+ * created faster than they complete, for example by a crawler hitting secured pages.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Singleton
+public class StateStoreMetrics {
+
+    private final AtomicInteger pendingStates = new AtomicInteger();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+    private final LongAdder clientQuotaEvictions = new LongAdder();
+
+    /**
+     *
+     * @return The number of pending logins currently stored.
+     */
+    public int getPendingStates() {
+        return pendingStates.get();
+    }
+
+    /**
+     *
+     * @return The number of pending logins removed because they expired.
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     *
+     * @return The number of pending logins evicted because the store was full.
+     */
+    public long getCapacityEvictions() {
+        return capacityEvictions.sum();
+    }
+
+    /**
+     *
+     * @return The number of pending logins evicted because their client exceeded its quota.
+     */
+    public long getClientQuotaEvictions() {
+        return clientQuotaEvictions.sum();
+    }
+
+    /**
+     * Records a stored pending login.
+     */
+    void stateAdded() {
+        pendingStates.incrementAndGet();
+    }
+
+    /**
+     * Records a pending login taken out of the store.
+     */
+    void stateRemoved() {
+        pendingStates.decrementAndGet();
+    }
+
+    /**
+     * Records an expired pending login.
+     */
+    void stateExpired() {
+        stateRemoved();
+        expirations.increment();
+    }
+
+    /**
+     * Records a pending login evicted because the store was full.
+     */
+    void capacityEviction() {
+        stateRemoved();
+        capacityEvictions.increment();
+    }
+
+    /**
+     * Records a pending login evicted because its client exceeded its quota.
+     */
+    void clientQuotaEviction() {
+        stateRemoved();
+        clientQuotaEvictions.increment();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.cookie.Cookie;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.State;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.StateSerDes;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.DefaultStateValidationConfiguration;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.StatePersistence;
+
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Persists the state in a {@link StateStore}, so that no HTTP session is needed to validate it.
+ *
+ * The state is bound to the browser which started the login: the browser gets a random binding cookie, and the state
+ * is stored under a hash of its nonce and the cookie value. The authorization response only finds the state if it
+ * carries the same cookie, so that a state issued to another browser cannot be used to log the victim in.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = DefaultStateValidationConfiguration.PREFIX + ".persistence", value = "store")
+@Singleton
+public class StoreStatePersistence implements StatePersistence {
+
+    /**
+     * Request attribute holding the browser binding cookie to set in the response.
+     */
+    public static final String COOKIE_ATTRIBUTE = "micronaut.security.oauth2.state.store.cookie";
+
+    private static final String STATE_PARAMETER = "state";
+    private static final int BINDING_LENGTH = 32;
+
+    private final StateStore stateStore;
+    private final StateSerDes stateSerDes;
+    private final StoreStatePersistenceConfiguration configuration;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * @param stateStore The state store
+     * @param stateSerDes To read the state parameter of the authorization response
+     * @param configuration The store state persistence configuration
+     */
+    public StoreStatePersistence(StateStore stateStore,
+                                 StateSerDes stateSerDes,
+                                 StoreStatePersistenceConfiguration configuration) {
+        this.stateStore = stateStore;
+        this.stateSerDes = stateSerDes;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public Optional<State> retrieveState(HttpRequest<?> request) {
+        return request.getParameters().getFirst(STATE_PARAMETER)
+                .map(stateSerDes::deserialize)
+                .flatMap(state -> retrieveState(request, state));
+    }
+
+    @Override
+    public Optional<State> retrieveState(HttpRequest<?> request, State state) {
+        if (state == null) {
+            return Optional.empty();
+        }
+        return resolveBinding(request)
+                .flatMap(binding -> stateStore.take(key(state.getNonce(), binding)));
+    }
+
+    /**
+     * Stores the state and sets the browser binding cookie. A browser which already has a binding cookie keeps it, so
+     * that concurrent logins from several tabs are all accepted.
+     *
+     * @param request The request
+     * @param state The state to persist
+     */
+    @Override
+    public void persistState(HttpRequest<?> request, State state) {
+        String binding = resolveBinding(request).orElseGet(this::generateBinding);
+        request.setAttribute(COOKIE_ATTRIBUTE, Cookie.of(configuration.getCookieName(), binding)
+                .path(configuration.getCookiePath())
+                .secure(configuration.isCookieSecure())
+                .httpOnly(true)
+                .maxAge(configuration.getTimeToLive().getSeconds()));
+        stateStore.put(key(state.getNonce(), binding), state, configuration.getTimeToLive(), resolveClient(request));
+    }
+
+    /**
+     * @param request The request
+     * @return The value of the browser binding cookie of the request, if it looks like one this class generated.
+     */
+    protected Optional<String> resolveBinding(HttpRequest<?> request) {
+        return request.getCookies().findCookie(configuration.getCookieName())
+                .map(Cookie::getValue)
+                .filter(value -> value.length() >= BINDING_LENGTH);
+    }
+
+    /**
+     * @return A new random browser binding, encoded in base64url.
+     */
+    protected String generateBinding() {
+        byte[] binding = new byte[BINDING_LENGTH];
+        secureRandom.nextBytes(binding);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(binding);
+    }
+
+    /**
+     * The binding is hashed into the key, so that a shared store does not hold the cookie values.
+     *
+     * @param nonce The nonce of the state
+     * @param binding The browser binding
+     * @return The key of the state in the store.
+     */
+    protected String key(String nonce, String binding) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest((nonce + ':' + binding).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Resolves the client a pending login is counted against: the value of the configured client header appended by
+     * the outermost trusted proxy, counting the trusted proxies from the right-most value, or, if there is none, the
+     * remote IP address of the request. The values on the left of it are sent by the client and cannot be trusted.
+     *
+     * @param request The request
+     * @return The identifier of the client or null if unknown
+     */
+    @Nullable
+    protected String resolveClient(HttpRequest<?> request) {
+        String clientHeader = configuration.getClientHeader();
+        String value = clientHeader != null ? request.getHeaders().get(clientHeader) : null;
+        if (value != null) {
+            String[] values = value.split(",");
+            int index = Math.max(0, values.length - Math.max(1, configuration.getClientHeaderTrustedProxies()));
+            String client = values[index].trim();
+            if (!client.isEmpty()) {
+                return client;
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return null;
+        }
+        InetAddress address = remoteAddress.getAddress();
+        return address != null ? address.getHostAddress() : remoteAddress.getHostString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link StoreStatePersistence}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface StoreStatePersistenceConfiguration {
+
+    /**
+     * @return How long a pending login is kept in the store.
+     */
+    @Nonnull
+    Duration getTimeToLive();
+
+    /**
+     * @return The number of shards of the in-memory store.
+     */
+    int getShards();
+
+    /**
+     * @return The maximum number of pending logins kept in the in-memory store.
+     */
+    int getMaxEntries();
+
+    /**
+     * @return The maximum number of pending logins kept per client.
+     */
+    int getMaxEntriesPerClient();
+
+    /**
+     * @return The name of the cookie which binds the pending logins to the browser which started them.
+     */
+    @Nonnull
+    String getCookieName();
+
+    /**
+     * @return The path of the browser binding cookie.
+     */
+    @Nonnull
+    String getCookiePath();
+
+    /**
+     * @return Whether the browser binding cookie is only sent over HTTPS.
+     */
+    boolean isCookieSecure();
+
+    /**
+     * @return The name of the request header which identifies the client, or null to use the remote IP address.
+     */
+    @Nullable
+    default String getClientHeader() {
+        return null;
+    }
+
+    /**
+     * @return The number of trusted proxies which append to the client header, counting from its right-most value.
+     */
+    default int getClientHeaderTrustedProxies() {
+        return 1;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.DefaultStateValidationConfiguration;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link StoreStatePersistenceConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(StoreStatePersistenceConfigurationProperties.PREFIX)
+public class StoreStatePersistenceConfigurationProperties implements StoreStatePersistenceConfiguration {
+
+    public static final String PREFIX = DefaultStateValidationConfiguration.PREFIX + ".store";
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /**
+     * The default number of shards.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_SHARDS = 16;
+
+    /**
+     * The default maximum number of pending logins.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    /**
+     * The default maximum number of pending logins per client.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_ENTRIES_PER_CLIENT = 20;
+
+    /**
+     * The default browser binding cookie name.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String DEFAULT_COOKIE_NAME = "OAUTH2_STATE_BINDING";
+
+    /**
+     * The default browser binding cookie path.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final String DEFAULT_COOKIE_PATH = "/";
+
+    /**
+     * The default browser binding cookie secure flag.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_COOKIE_SECURE = false;
+
+    /**
+     * The default number of trusted proxies which append to the client header.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_CLIENT_HEADER_TRUSTED_PROXIES = 1;
+
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+    private int shards = DEFAULT_SHARDS;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private int maxEntriesPerClient = DEFAULT_MAX_ENTRIES_PER_CLIENT;
+    private String cookieName = DEFAULT_COOKIE_NAME;
+    private String cookiePath = DEFAULT_COOKIE_PATH;
+    private boolean cookieSecure = DEFAULT_COOKIE_SECURE;
+    private String clientHeader;
+    private int clientHeaderTrustedProxies = DEFAULT_CLIENT_HEADER_TRUSTED_PROXIES;
+
+    @Nonnull
+    @Override
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * How long a login may take before its state is discarded. Default value (5 minutes).
+     * @param timeToLive The time to live of a stored state
+     */
+    public void setTimeToLive(@Nonnull Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * The number of independently locked shards of the in-memory store. Default value ({@value #DEFAULT_SHARDS}).
+     * @param shards The number of shards
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * The maximum number of pending logins kept in memory. Once reached, the oldest pending login of a shard is
+     * evicted. Default value ({@value #DEFAULT_MAX_ENTRIES}).
+     * @param maxEntries The maximum number of pending logins
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public int getMaxEntriesPerClient() {
+        return maxEntriesPerClient;
+    }
+
+    /**
+     * The maximum number of pending logins kept per client, identified by its IP address unless a client header is
+     * configured. Once reached, the oldest pending login of the client is evicted. Set it to 0 to disable the quota.
+     * Default value ({@value #DEFAULT_MAX_ENTRIES_PER_CLIENT}).
+     * @param maxEntriesPerClient The maximum number of pending logins per client
+     */
+    public void setMaxEntriesPerClient(int maxEntriesPerClient) {
+        this.maxEntriesPerClient = maxEntriesPerClient;
+    }
+
+    @Nonnull
+    @Override
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    /**
+     * The name of the cookie which binds the pending logins to the browser which started them. Default value ({@value #DEFAULT_COOKIE_NAME}).
+     * @param cookieName The browser binding cookie name
+     */
+    public void setCookieName(@Nonnull String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    @Nonnull
+    @Override
+    public String getCookiePath() {
+        return cookiePath;
+    }
+
+    /**
+     * The path of the browser binding cookie, which must include the callback path. Default value ({@value #DEFAULT_COOKIE_PATH}).
+     * @param cookiePath The browser binding cookie path
+     */
+    public void setCookiePath(@Nonnull String cookiePath) {
+        this.cookiePath = cookiePath;
+    }
+
+    @Override
+    public boolean isCookieSecure() {
+        return cookieSecure;
+    }
+
+    /**
+     * Whether the browser binding cookie is only sent over HTTPS. Default value ({@value #DEFAULT_COOKIE_SECURE}).
+     * @param cookieSecure The browser binding cookie secure flag
+     */
+    public void setCookieSecure(boolean cookieSecure) {
+        this.cookieSecure = cookieSecure;
+    }
+
+    @Nullable
+    @Override
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    /**
+     * Name of the request header which identifies the client a pending login is counted against, for example
+     * X-Forwarded-For behind a proxy. Only the values appended by trusted proxies are considered, see
+     * {@link #setClientHeaderTrustedProxies(int)}. By default, the client is identified by the remote IP address of the
+     * request, thus all the clients behind the same proxy share a quota. Default value (null).
+     * @param clientHeader The client header name
+     */
+    public void setClientHeader(@Nullable String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    public int getClientHeaderTrustedProxies() {
+        return clientHeaderTrustedProxies;
+    }
+
+    /**
+     * Number of trusted proxies in front of the application which append to the client header. The client is the value
+     * at this position counting from the right-most value of the header, since the values on its left are sent by the
+     * client itself and cannot be trusted. Default value ({@value #DEFAULT_CLIENT_HEADER_TRUSTED_PROXIES}).
+     * @param clientHeaderTrustedProxies The number of trusted proxies
+     */
+    public void setClientHeaderTrustedProxies(int clientHeaderTrustedProxies) {
+        this.clientHeaderTrustedProxies = clientHeaderTrustedProxies;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.cookie.Cookie;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+
+/**
+ * Writes the browser binding cookie set by {@link StoreStatePersistence} during a request to its response. It runs
+ * before the security filter, so that the cookie is added to the redirect of unauthorized requests as well.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = StoreStatePersistence.class)
+@Filter("/**")
+public class StoreStatePersistenceFilter implements HttpServerFilter {
+
+    /**
+     * The order of the filter.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 50;
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
+        return Flowable.fromPublisher(chain.proceed(request))
+                .map(response -> {
+                    request.getAttribute(StoreStatePersistence.COOKIE_ATTRIBUTE, Cookie.class).ifPresent(response::cookie);
+                    return response;
+                });
+    }
+}
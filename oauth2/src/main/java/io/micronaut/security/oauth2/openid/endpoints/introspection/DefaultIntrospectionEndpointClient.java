@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.introspection;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.security.oauth2.configuration.OauthConfiguration;
+import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpoint;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointAuthMethod;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default implementation of {@link IntrospectionEndpointClient}.
+ *
+ * Active responses are cached until the token expires, bounded by the configured time to live. Inactive responses are
+ * cached briefly, so that a flood of requests with the same invalid token costs a single introspection request.
+ * Concurrent introspections of the same token share a single request. Tokens are cached by their SHA-256 hash.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = IntrospectionTokenValidatorConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = {OauthConfiguration.class, OpenIdEndpoints.class, TokenEndpoint.class})
+@Singleton
+public class DefaultIntrospectionEndpointClient implements IntrospectionEndpointClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultIntrospectionEndpointClient.class);
+    private static final String KEY_TOKEN = "token";
+    private static final String KEY_TOKEN_TYPE_HINT = "token_type_hint";
+    private static final String ACCESS_TOKEN = "access_token";
+
+    private final OauthConfiguration oauthConfiguration;
+    private final OpenIdEndpoints openIdEndpoints;
+    private final TokenEndpoint tokenEndpoint;
+    private final RxHttpClient introspectionClient;
+    private final IntrospectionTokenValidatorConfiguration configuration;
+    private final Map<String, CachedResponse> cache;
+    private final Map<String, Single<IntrospectionResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * @param oauthConfiguration OAuth 2.0 Configuration
+     * @param openIdEndpoints Open ID endpoints
+     * @param tokenEndpoint Token endpoint configuration, whose authentication method is used for the introspection endpoint as well
+     * @param introspectionClient RxHttpClient pointing to the introspection endpoint
+     * @param configuration Introspection token validator configuration
+     */
+    public DefaultIntrospectionEndpointClient(OauthConfiguration oauthConfiguration,
+                                              OpenIdEndpoints openIdEndpoints,
+                                              TokenEndpoint tokenEndpoint,
+                                              @Named("oauth2introspection") RxHttpClient introspectionClient,
+                                              IntrospectionTokenValidatorConfiguration configuration) {
+        this.oauthConfiguration = oauthConfiguration;
+        this.openIdEndpoints = openIdEndpoints;
+        this.tokenEndpoint = tokenEndpoint;
+        this.introspectionClient = introspectionClient;
+        this.configuration = configuration;
+        int maximumSize = configuration.getMaximumSize();
+        this.cache = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Nonnull
+    @Override
+    public Single<IntrospectionResponse> introspect(@Nonnull String token) {
+        String key = hash(token);
+        synchronized (cache) {
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                if (cached.expiresAt > System.currentTimeMillis()) {
+                    return Single.just(cached.response);
+                }
+                cache.remove(key);
+            }
+        }
+        return inFlight.computeIfAbsent(key, k -> fetch(token, k));
+    }
+
+    /**
+     *
+     * @param token The token to introspect
+     * @return An HTTP request to the introspection endpoint.
+     */
+    protected HttpRequest<?> generateRequest(@Nonnull String token) {
+        Map<String, String> body = new HashMap<>(4);
+        body.put(KEY_TOKEN, token);
+        body.put(KEY_TOKEN_TYPE_HINT, ACCESS_TOKEN);
+        boolean postAuth = TokenEndpointAuthMethod.CLIENT_SECRET_POST.getAuthMethod().equals(tokenEndpoint.getAuthMethod());
+        if (postAuth) {
+            body.put("client_id", oauthConfiguration.getClientId());
+            if (oauthConfiguration.getClientSecret() != null) {
+                body.put("client_secret", oauthConfiguration.getClientSecret());
+            }
+        }
+        MutableHttpRequest<?> request = HttpRequest.POST(Objects.requireNonNull(openIdEndpoints.getIntrospection()), body)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED_TYPE);
+        return postAuth ? request : request.basicAuth(oauthConfiguration.getClientId(),
+                oauthConfiguration.getClientSecret() != null ? oauthConfiguration.getClientSecret() : "");
+    }
+
+    /**
+     * Creates the shared introspection of a token. It is removed from the in flight map before its result is emitted, so callers which receive the result start a new one.
+     */
+    @SuppressWarnings("unchecked")
+    private Single<IntrospectionResponse> fetch(String token, String key) {
+        return Single.defer(() -> introspectionClient.retrieve(generateRequest(token), Map.class)
+                .firstOrError()
+                .timeout(configuration.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .map(body -> new IntrospectionResponse((Map<String, Object>) body))
+                .doOnSuccess(response -> cache(key, response))
+                .doOnError(throwable -> {
+                    if (LOG.isErrorEnabled()) {
+                        LOG.error("could not introspect token", throwable);
+                    }
+                }))
+                .doOnEvent((response, throwable) -> inFlight.remove(key))
+                .cache();
+    }
+
+    private void cache(String key, IntrospectionResponse response) {
+        long now = System.currentTimeMillis();
+        long expiresAt;
+        if (response.isActive()) {
+            expiresAt = now + configuration.getActiveTimeToLive().toMillis();
+            Long exp = response.getExp();
+            if (exp != null) {
+                expiresAt = Math.min(expiresAt, TimeUnit.SECONDS.toMillis(exp));
+            }
+        } else {
+            expiresAt = now + configuration.getInactiveTimeToLive().toMillis();
+        }
+        if (expiresAt > now) {
+            synchronized (cache) {
+                cache.put(key, new CachedResponse(response, expiresAt));
+            }
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * An introspection response with the time at which it expires from the cache.
+     */
+    private static final class CachedResponse {
+        private final IntrospectionResponse response;
+        private final long expiresAt;
+
+        CachedResponse(IntrospectionResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
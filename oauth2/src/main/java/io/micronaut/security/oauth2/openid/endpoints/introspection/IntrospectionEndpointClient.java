@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.introspection;
+
+import io.reactivex.Single;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Queries the introspection endpoint about the state of a token.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface IntrospectionEndpointClient {
+
+    /**
+     *
+     * @param token The token to introspect
+     * @return The introspection response. Inactive, unknown or revoked tokens yield an inactive response.
+     */
+    @Nonnull
+    Single<IntrospectionResponse> introspect(@Nonnull String token);
+}
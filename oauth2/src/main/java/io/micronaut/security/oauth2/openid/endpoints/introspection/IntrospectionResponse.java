@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.introspection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Response of the introspection endpoint.
+ * @see <a href="https://tools.ietf.org/html/rfc7662#section-2.2">Introspection Response</a>
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public class IntrospectionResponse {
+
+    public static final String KEY_ACTIVE = "active";
+    public static final String KEY_SCOPE = "scope";
+    public static final String KEY_CLIENT_ID = "client_id";
+    public static final String KEY_USERNAME = "username";
+    public static final String KEY_EXP = "exp";
+    public static final String KEY_SUB = "sub";
+
+    /**
+     * Response of an inactive token.
+     */
+    public static final IntrospectionResponse INACTIVE = new IntrospectionResponse(Collections.singletonMap(KEY_ACTIVE, Boolean.FALSE));
+
+    private final Map<String, Object> claims;
+
+    /**
+     *
+     * @param claims The members of the introspection response
+     */
+    public IntrospectionResponse(@Nonnull Map<String, Object> claims) {
+        this.claims = Collections.unmodifiableMap(claims);
+    }
+
+    /**
+     *
+     * @return Whether the token is currently active.
+     */
+    public boolean isActive() {
+        return Boolean.TRUE.equals(claims.get(KEY_ACTIVE));
+    }
+
+    /**
+     *
+     * @return The expiration time of the token in seconds since the epoch, if present.
+     */
+    @Nullable
+    public Long getExp() {
+        Object exp = claims.get(KEY_EXP);
+        return exp instanceof Number ? ((Number) exp).longValue() : null;
+    }
+
+    /**
+     *
+     * @return The scopes of the token separated by spaces, if present.
+     */
+    @Nullable
+    public String getScope() {
+        return stringClaim(KEY_SCOPE);
+    }
+
+    /**
+     *
+     * @return The client the token was issued to, if present.
+     */
+    @Nullable
+    public String getClientId() {
+        return stringClaim(KEY_CLIENT_ID);
+    }
+
+    /**
+     *
+     * @return The username of the resource owner, if present.
+     */
+    @Nullable
+    public String getUsername() {
+        return stringClaim(KEY_USERNAME);
+    }
+
+    /**
+     *
+     * @return The subject of the token, if present.
+     */
+    @Nullable
+    public String getSub() {
+        return stringClaim(KEY_SUB);
+    }
+
+    /**
+     *
+     * @return All the members of the introspection response.
+     */
+    @Nonnull
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    private String stringClaim(String key) {
+        Object value = claims.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.introspection;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.authentication.DefaultAuthentication;
+import io.micronaut.security.token.validator.TokenValidator;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.util.Optional;
+
+/**
+ * {@link TokenValidator} which validates opaque access tokens with the introspection endpoint. It runs after the
+ * validators of self contained tokens, such as JWT.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = IntrospectionTokenValidatorConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = IntrospectionEndpointClient.class)
+@Singleton
+public class IntrospectionTokenValidator implements TokenValidator {
+
+    /**
+     * The order of the introspection token validator.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int ORDER = 100;
+
+    private static final Logger LOG = LoggerFactory.getLogger(IntrospectionTokenValidator.class);
+
+    private final IntrospectionEndpointClient introspectionEndpointClient;
+
+    /**
+     *
+     * @param introspectionEndpointClient Introspection endpoint client
+     */
+    public IntrospectionTokenValidator(IntrospectionEndpointClient introspectionEndpointClient) {
+        this.introspectionEndpointClient = introspectionEndpointClient;
+    }
+
+    @Override
+    public Publisher<Authentication> validateToken(String token) {
+        return introspectionEndpointClient.introspect(token)
+                .flatMapMaybe(response -> createAuthentication(response).map(Maybe::just).orElseGet(Maybe::empty))
+                .toFlowable()
+                .onErrorResumeNext((Throwable throwable) -> {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("token could not be introspected, it is considered invalid: {}", throwable.getMessage());
+                    }
+                    return Flowable.empty();
+                });
+    }
+
+    /**
+     * The name of the authentication is the username, the subject or the client id of the token, in this order.
+     *
+     * @param response Introspection response
+     * @return An authentication if the token is active.
+     */
+    protected Optional<Authentication> createAuthentication(IntrospectionResponse response) {
+        if (!response.isActive()) {
+            return Optional.empty();
+        }
+        String name = response.getUsername();
+        if (name == null) {
+            name = response.getSub();
+        }
+        if (name == null) {
+            name = response.getClientId();
+        }
+        if (name == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("active introspection response without username, sub or client_id");
+            }
+            return Optional.empty();
+        }
+        return Optional.of(new DefaultAuthentication(name, response.getClaims()));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.introspection;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link IntrospectionTokenValidator} and {@link DefaultIntrospectionEndpointClient}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface IntrospectionTokenValidatorConfiguration extends Toggleable {
+
+    /**
+     * @return The maximum time to wait for the introspection endpoint.
+     */
+    @Nonnull
+    Duration getTimeout();
+
+    /**
+     * @return The maximum number of cached introspection responses.
+     */
+    int getMaximumSize();
+
+    /**
+     * @return The maximum time an active response is cached, even if the token expires later.
+     */
+    @Nonnull
+    Duration getActiveTimeToLive();
+
+    /**
+     * @return The time an inactive response is cached.
+     */
+    @Nonnull
+    Duration getInactiveTimeToLive();
+}
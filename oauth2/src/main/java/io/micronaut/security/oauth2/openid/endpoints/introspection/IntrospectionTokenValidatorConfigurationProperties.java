@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.introspection;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link IntrospectionTokenValidatorConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(IntrospectionTokenValidatorConfigurationProperties.PREFIX)
+public class IntrospectionTokenValidatorConfigurationProperties implements IntrospectionTokenValidatorConfiguration {
+
+    public static final String PREFIX = IntrospectionEndpointConfigurationProperties.PREFIX + ".token-validator";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * The default maximum size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    /**
+     * The default time to live of active responses.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_ACTIVE_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /**
+     * The default time to live of inactive responses.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_INACTIVE_TIME_TO_LIVE = Duration.ofSeconds(10);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private Duration activeTimeToLive = DEFAULT_ACTIVE_TIME_TO_LIVE;
+    private Duration inactiveTimeToLive = DEFAULT_INACTIVE_TIME_TO_LIVE;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates access tokens with the introspection endpoint. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * The maximum time to wait for the introspection endpoint. Default value (5 seconds).
+     * @param timeout The timeout
+     */
+    public void setTimeout(@Nonnull Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * The maximum number of cached introspection responses. Default value ({@value #DEFAULT_MAXIMUM_SIZE}).
+     * @param maximumSize The maximum size
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getActiveTimeToLive() {
+        return activeTimeToLive;
+    }
+
+    /**
+     * The maximum time an active response is cached. Active responses are never cached beyond the token expiration. Default value (5 minutes).
+     * @param activeTimeToLive The time to live of active responses
+     */
+    public void setActiveTimeToLive(@Nonnull Duration activeTimeToLive) {
+        this.activeTimeToLive = activeTimeToLive;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getInactiveTimeToLive() {
+        return inactiveTimeToLive;
+    }
+
+    /**
+     * The time an inactive response is cached. Default value (10 seconds).
+     * @param inactiveTimeToLive The time to live of inactive responses
+     */
+    public void setInactiveTimeToLive(@Nonnull Duration inactiveTimeToLive) {
+        this.inactiveTimeToLive = inactiveTimeToLive;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.revocation;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.security.oauth2.configuration.OauthConfiguration;
+import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpoint;
+import io.micronaut.security.oauth2.openid.endpoints.token.TokenEndpointAuthMethod;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default implementation of {@link RevocationEndpointClient}.
+ *
+ * Revocations are kept in a bounded queue. A single worker takes them from the queue in batches and sends each batch
+ * with a limited number of concurrent requests over the pooled connections of the revocation HTTP client. Server errors
+ * and connection failures are retried with an exponential backoff. Revocations which still fail are logged and dropped.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = RevocationEndpointClientConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = {OauthConfiguration.class, OpenIdEndpoints.class, TokenEndpoint.class})
+@Singleton
+public class DefaultRevocationEndpointClient implements RevocationEndpointClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultRevocationEndpointClient.class);
+    private static final String KEY_TOKEN = "token";
+    private static final String KEY_TOKEN_TYPE_HINT = "token_type_hint";
+
+    private final OauthConfiguration oauthConfiguration;
+    private final OpenIdEndpoints openIdEndpoints;
+    private final TokenEndpoint tokenEndpoint;
+    private final RxHttpClient revocationClient;
+    private final RevocationEndpointClientConfiguration configuration;
+    private final BlockingQueue<Revocation> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     *
+     * @param oauthConfiguration OAuth 2.0 Configuration
+     * @param openIdEndpoints Open ID endpoints
+     * @param tokenEndpoint Token endpoint configuration, whose authentication method is used for the revocation endpoint as well
+     * @param revocationClient RxHttpClient pointing to the revocation endpoint
+     * @param configuration Revocation endpoint client configuration
+     */
+    public DefaultRevocationEndpointClient(OauthConfiguration oauthConfiguration,
+                                           OpenIdEndpoints openIdEndpoints,
+                                           TokenEndpoint tokenEndpoint,
+                                           @Named("oauth2revocation") RxHttpClient revocationClient,
+                                           RevocationEndpointClientConfiguration configuration) {
+        this.oauthConfiguration = oauthConfiguration;
+        this.openIdEndpoints = openIdEndpoints;
+        this.tokenEndpoint = tokenEndpoint;
+        this.revocationClient = revocationClient;
+        this.configuration = configuration;
+        this.queue = new ArrayBlockingQueue<>(configuration.getQueueCapacity());
+    }
+
+    @Override
+    public boolean revoke(@Nonnull String token, @Nullable String tokenTypeHint) {
+        boolean queued = queue.offer(new Revocation(token, tokenTypeHint));
+        if (!queued && LOG.isWarnEnabled()) {
+            LOG.warn("revocation queue is full, the token revocation is dropped");
+        }
+        drain();
+        return queued;
+    }
+
+    /**
+     *
+     * @param token The token to revoke
+     * @param tokenTypeHint The type of the token
+     * @return An HTTP request to the revocation endpoint.
+     */
+    protected HttpRequest<?> generateRequest(@Nonnull String token, @Nullable String tokenTypeHint) {
+        Map<String, String> body = new HashMap<>(4);
+        body.put(KEY_TOKEN, token);
+        if (tokenTypeHint != null) {
+            body.put(KEY_TOKEN_TYPE_HINT, tokenTypeHint);
+        }
+        boolean postAuth = TokenEndpointAuthMethod.CLIENT_SECRET_POST.getAuthMethod().equals(tokenEndpoint.getAuthMethod());
+        if (postAuth) {
+            body.put("client_id", oauthConfiguration.getClientId());
+            if (oauthConfiguration.getClientSecret() != null) {
+                body.put("client_secret", oauthConfiguration.getClientSecret());
+            }
+        }
+        MutableHttpRequest<?> request = HttpRequest.POST(Objects.requireNonNull(openIdEndpoints.getRevocation()), body)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED_TYPE);
+        return postAuth ? request : request.basicAuth(oauthConfiguration.getClientId(),
+                oauthConfiguration.getClientSecret() != null ? oauthConfiguration.getClientSecret() : "");
+    }
+
+    /**
+     *
+     * @param throwable The error of a revocation request
+     * @return true if the revocation should be retried
+     */
+    protected boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof HttpClientResponseException) {
+            return ((HttpClientResponseException) throwable).getStatus().getCode() >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * Sends the next batch of queued revocations, unless a batch is being sent already.
+     */
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        List<Revocation> batch = new ArrayList<>(configuration.getBatchSize());
+        queue.drainTo(batch, configuration.getBatchSize());
+        if (batch.isEmpty()) {
+            draining.set(false);
+            // a revocation may have been queued after the queue was drained but before the flag was cleared
+            if (!queue.isEmpty()) {
+                drain();
+            }
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("sending {} token revocations", batch.size());
+        }
+        Flowable.fromIterable(batch)
+                .flatMapCompletable(this::send, false, configuration.getConcurrency())
+                .subscribeOn(Schedulers.io())
+                .subscribe(this::onBatchSent, throwable -> onBatchSent());
+    }
+
+    private void onBatchSent() {
+        draining.set(false);
+        drain();
+    }
+
+    private Completable send(Revocation revocation) {
+        long retryDelay = configuration.getRetryDelay().toMillis();
+        return Completable.defer(() -> revocationClient.exchange(generateRequest(revocation.token, revocation.tokenTypeHint))
+                .ignoreElements()
+                .timeout(configuration.getTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .retryWhen(errors -> {
+                    AtomicInteger attempts = new AtomicInteger();
+                    return errors.flatMap(throwable -> {
+                        int attempt = attempts.incrementAndGet();
+                        if (attempt > configuration.getMaxRetries() || !isRetryable(throwable)) {
+                            return Flowable.<Long>error(throwable);
+                        }
+                        return Flowable.timer(retryDelay << (attempt - 1), TimeUnit.MILLISECONDS);
+                    });
+                })
+                .doOnError(throwable -> {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("could not revoke token", throwable);
+                    }
+                })
+                .onErrorComplete();
+    }
+
+    /**
+     * A queued token revocation.
+     */
+    private static final class Revocation {
+        private final String token;
+        private final String tokenTypeHint;
+
+        Revocation(String token, String tokenTypeHint) {
+            this.token = token;
+            this.tokenTypeHint = tokenTypeHint;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.revocation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * Revokes tokens with the <a href="https://tools.ietf.org/html/rfc7009">OAuth 2.0 Token Revocation</a> endpoint.
+ * Revocations are queued and sent in the background, callers never wait for the authorization server.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface RevocationEndpointClient {
+
+    String REFRESH_TOKEN = "refresh_token";
+    String ACCESS_TOKEN = "access_token";
+
+    /**
+     * Queues the revocation of a token.
+     *
+     * @param token The token to revoke
+     * @param tokenTypeHint The type of the token, {@link #REFRESH_TOKEN} or {@link #ACCESS_TOKEN}
+     * @return false if the queue is full and the revocation was dropped
+     */
+    boolean revoke(@Nonnull String token, @Nullable String tokenTypeHint);
+
+    /**
+     * Queues the revocation of several tokens of the same type.
+     *
+     * @param tokens The tokens to revoke
+     * @param tokenTypeHint The type of the tokens, {@link #REFRESH_TOKEN} or {@link #ACCESS_TOKEN}
+     * @return The number of queued revocations. It is lower than the number of tokens if the queue is full.
+     */
+    default int revokeAll(@Nonnull Collection<String> tokens, @Nullable String tokenTypeHint) {
+        int queued = 0;
+        for (String token : tokens) {
+            if (!revoke(token, tokenTypeHint)) {
+                break;
+            }
+            queued++;
+        }
+        return queued;
+    }
+}
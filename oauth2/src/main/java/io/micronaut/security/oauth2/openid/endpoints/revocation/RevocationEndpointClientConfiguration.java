@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.revocation;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link DefaultRevocationEndpointClient}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface RevocationEndpointClientConfiguration extends Toggleable {
+
+    /**
+     * @return The maximum number of revocations waiting to be sent.
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return The maximum number of revocations taken from the queue at once.
+     */
+    int getBatchSize();
+
+    /**
+     * @return The maximum number of concurrent requests to the revocation endpoint.
+     */
+    int getConcurrency();
+
+    /**
+     * @return The number of times a failed revocation is retried.
+     */
+    int getMaxRetries();
+
+    /**
+     * @return The delay before the first retry. It doubles with every retry.
+     */
+    @Nonnull
+    Duration getRetryDelay();
+
+    /**
+     * @return The maximum time to wait for the revocation endpoint.
+     */
+    @Nonnull
+    Duration getTimeout();
+}
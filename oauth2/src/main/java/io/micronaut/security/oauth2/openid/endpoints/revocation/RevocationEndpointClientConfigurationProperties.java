@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.revocation;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link RevocationEndpointClientConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(RevocationEndpointClientConfigurationProperties.PREFIX)
+public class RevocationEndpointClientConfigurationProperties implements RevocationEndpointClientConfiguration {
+
+    public static final String PREFIX = RevocationEndpointConfigurationProperties.PREFIX + ".client";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default queue capacity.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+    /**
+     * The default batch size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * The default number of concurrent requests.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    /**
+     * The default number of retries.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    /**
+     * The default delay before the first retry.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+
+    /**
+     * The default timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private Duration retryDelay = DEFAULT_RETRY_DELAY;
+    private Duration timeout = DEFAULT_TIMEOUT;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Revokes tokens with the revocation endpoint. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * The maximum number of revocations waiting to be sent. Revocations are dropped once the queue is full. Default value ({@value #DEFAULT_QUEUE_CAPACITY}).
+     * @param queueCapacity The queue capacity
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The maximum number of revocations taken from the queue at once. Default value ({@value #DEFAULT_BATCH_SIZE}).
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * The maximum number of concurrent requests to the revocation endpoint. Default value ({@value #DEFAULT_CONCURRENCY}).
+     * @param concurrency The number of concurrent requests
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * The number of times a revocation is retried after a server error or a connection failure. Default value ({@value #DEFAULT_MAX_RETRIES}).
+     * @param maxRetries The number of retries
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * The delay before the first retry. It doubles with every retry. Default value (1 second).
+     * @param retryDelay The retry delay
+     */
+    public void setRetryDelay(@Nonnull Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * The maximum time to wait for the revocation endpoint. Default value (5 seconds).
+     * @param timeout The timeout
+     */
+    public void setTimeout(@Nonnull Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.revocation;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.context.ServerRequestContext;
+import io.micronaut.http.cookie.Cookie;
+import io.micronaut.security.event.LogoutEvent;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenConfiguration;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenManager;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenStore;
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+import io.micronaut.security.oauth2.vault.TokenVault;
+import io.micronaut.security.oauth2.vault.TokenVaultEntry;
+import io.micronaut.security.token.reader.TokenResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queues the revocation of the tokens of the browser which logs out: the access and refresh tokens of its refresh
+ * session, if refresh sessions are enabled, and the access and refresh tokens held by the {@link TokenVault}, if the
+ * vault is enabled. The refresh session is ended. The logout response does not wait for the revocation endpoint.
+ *
+ * The listener runs before the other logout listeners, which remove the tokens it revokes.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = RevocationEndpointClient.class)
+@Singleton
+public class RevocationLogoutEventListener implements ApplicationEventListener<LogoutEvent>, Ordered {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RevocationLogoutEventListener.class);
+
+    private final RevocationEndpointClient revocationEndpointClient;
+    private final RefreshTokenConfiguration refreshTokenConfiguration;
+
+    @Nullable
+    private final RefreshTokenManager refreshTokenManager;
+
+    @Nullable
+    private final RefreshTokenStore refreshTokenStore;
+
+    @Nullable
+    private final TokenVault tokenVault;
+
+    @Nullable
+    private final TokenResolver tokenResolver;
+
+    /**
+     *
+     * @param revocationEndpointClient Revocation endpoint client
+     * @param refreshTokenConfiguration Refresh token configuration
+     * @param refreshTokenManager Refresh token manager, present if refresh sessions are enabled
+     * @param refreshTokenStore Refresh token store, present if refresh sessions are enabled
+     * @param tokenVault Token vault, present if the vault is enabled
+     * @param tokenResolver Token resolver
+     */
+    public RevocationLogoutEventListener(RevocationEndpointClient revocationEndpointClient,
+                                         RefreshTokenConfiguration refreshTokenConfiguration,
+                                         @Nullable RefreshTokenManager refreshTokenManager,
+                                         @Nullable RefreshTokenStore refreshTokenStore,
+                                         @Nullable TokenVault tokenVault,
+                                         @Nullable TokenResolver tokenResolver) {
+        this.revocationEndpointClient = revocationEndpointClient;
+        this.refreshTokenConfiguration = refreshTokenConfiguration;
+        this.refreshTokenManager = refreshTokenManager;
+        this.refreshTokenStore = refreshTokenStore;
+        this.tokenVault = tokenVault;
+        this.tokenResolver = tokenResolver;
+    }
+
+    @Override
+    public void onApplicationEvent(LogoutEvent event) {
+        ServerRequestContext.currentRequest().ifPresent(request -> {
+            Map<String, String> tokens = new LinkedHashMap<>();
+            collectRefreshSessionTokens(request, tokens);
+            collectTokenVaultTokens(request, tokens);
+            if (LOG.isDebugEnabled() && !tokens.isEmpty()) {
+                LOG.debug("revoking {} tokens on logout", tokens.size());
+            }
+            tokens.forEach(revocationEndpointClient::revoke);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * Collects the tokens of the refresh session of the request and ends the session.
+     *
+     * @param request The logout request
+     * @param tokens The tokens to revoke keyed by token, with their token type hint as value
+     */
+    protected void collectRefreshSessionTokens(@Nonnull HttpRequest<?> request, @Nonnull Map<String, String> tokens) {
+        if (refreshTokenManager == null || refreshTokenStore == null) {
+            return;
+        }
+        request.getCookies().findCookie(refreshTokenConfiguration.getCookieName())
+                .map(Cookie::getValue)
+                .ifPresent(sessionId -> {
+                    refreshTokenStore.findAccessToken(sessionId)
+                            .ifPresent(accessToken -> tokens.putIfAbsent(accessToken, RevocationEndpointClient.ACCESS_TOKEN));
+                    refreshTokenStore.find(sessionId)
+                            .ifPresent(refreshToken -> tokens.putIfAbsent(refreshToken, RevocationEndpointClient.REFRESH_TOKEN));
+                    refreshTokenManager.remove(sessionId);
+                });
+    }
+
+    /**
+     * Collects the tokens held by the {@link TokenVault} for the login of the request.
+     *
+     * @param request The logout request
+     * @param tokens The tokens to revoke keyed by token, with their token type hint as value
+     */
+    protected void collectTokenVaultTokens(@Nonnull HttpRequest<?> request, @Nonnull Map<String, String> tokens) {
+        if (tokenVault == null || tokenResolver == null) {
+            return;
+        }
+        tokenResolver.resolveToken(request)
+                .flatMap(tokenVault::find)
+                .map(TokenVaultEntry::getIdTokenAccessTokenResponse)
+                .ifPresent(response -> addTokens(response, tokens));
+    }
+
+    private static void addTokens(IdTokenAccessTokenResponse response, Map<String, String> tokens) {
+        if (response.getAccessToken() != null) {
+            tokens.putIfAbsent(response.getAccessToken(), RevocationEndpointClient.ACCESS_TOKEN);
+        }
+        if (response.getRefreshToken() != null) {
+            tokens.putIfAbsent(response.getRefreshToken(), RevocationEndpointClient.REFRESH_TOKEN);
+        }
+    }
+}
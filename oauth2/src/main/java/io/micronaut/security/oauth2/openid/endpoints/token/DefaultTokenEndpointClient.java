@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.http.client.exceptions.HttpClientException;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.client.exceptions.ReadTimeoutException;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Default implementation of {@link TokenEndpointClient}.
+ *
+ * Every attempt has a deadline. Connection errors and 503 responses, which mean the request was not processed, are
+ * retried with an exponential, jittered delay. After a number of consecutive failures the circuit opens and requests
+ * fail fast with {@link TokenEndpointUnavailableException} until a trial request succeeds.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Singleton
+public class DefaultTokenEndpointClient implements TokenEndpointClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultTokenEndpointClient.class);
+
+    private final RxHttpClient tokenClient;
+    private final TokenEndpointResilienceConfiguration tokenEndpointResilienceConfiguration;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     *
+     * @param tokenClient RxHttpClient pointing to the token endpoint
+     * @param tokenEndpointResilienceConfiguration Token endpoint resilience configuration
+     */
+    public DefaultTokenEndpointClient(@Named("oauth2tokenendpoint") RxHttpClient tokenClient,
+                                      TokenEndpointResilienceConfiguration tokenEndpointResilienceConfiguration) {
+        this.tokenClient = tokenClient;
+        this.tokenEndpointResilienceConfiguration = tokenEndpointResilienceConfiguration;
+        this.circuitBreaker = new CircuitBreaker(tokenEndpointResilienceConfiguration.getFailureThreshold(),
+                tokenEndpointResilienceConfiguration.getOpenDuration());
+    }
+
+    @Nonnull
+    @Override
+    public <O> Flowable<HttpResponse<O>> exchange(@Nonnull HttpRequest<?> request, @Nonnull Class<O> bodyType) {
+        return Flowable.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("circuit open, not sending request to the token endpoint {}", request.getUri());
+                }
+                return Flowable.error(new TokenEndpointUnavailableException(circuitBreaker.getRetryAfter()));
+            }
+            return tokenClient.exchange(request, bodyType)
+                    .timeout(tokenEndpointResilienceConfiguration.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .retryWhen(this::retries)
+                    .doOnNext(response -> circuitBreaker.onSuccess())
+                    .doOnError(throwable -> {
+                        if (isProviderFailure(throwable)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    /**
+     * @param throwable The error of an attempt
+     * @return Whether the request can be sent again safely, because the token endpoint did not process it.
+     */
+    protected boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof HttpClientResponseException) {
+            return ((HttpClientResponseException) throwable).getStatus() == HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        if (throwable instanceof ReadTimeoutException) {
+            return false;
+        }
+        return throwable instanceof HttpClientException || throwable instanceof IOException;
+    }
+
+    /**
+     * @param throwable The error of a request
+     * @return Whether the error counts as a failure of the token endpoint for the circuit breaker.
+     */
+    protected boolean isProviderFailure(Throwable throwable) {
+        if (throwable instanceof HttpClientResponseException) {
+            return ((HttpClientResponseException) throwable).getStatus().getCode() >= HttpStatus.INTERNAL_SERVER_ERROR.getCode();
+        }
+        return true;
+    }
+
+    private Publisher<?> retries(Flowable<Throwable> errors) {
+        AtomicInteger retries = new AtomicInteger();
+        return errors.flatMap(throwable -> {
+            int retry = retries.incrementAndGet();
+            if (retry > tokenEndpointResilienceConfiguration.getMaxRetries() || !isRetryable(throwable)) {
+                return Flowable.error(throwable);
+            }
+            long delay = retryDelay(retry);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("retrying token endpoint request in {} ms after: {}", delay, throwable.getMessage());
+            }
+            return Flowable.timer(delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private long retryDelay(int retry) {
+        long delay = tokenEndpointResilienceConfiguration.getRetryDelay().toMillis() << Math.min(retry - 1, 30);
+        delay = Math.min(delay, tokenEndpointResilienceConfiguration.getMaxRetryDelay().toMillis());
+        double jitter = Math.max(0, Math.min(tokenEndpointResilienceConfiguration.getRetryJitter(), 1));
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Counts consecutive failures and rejects requests while open. Once the open duration elapses, a single trial
+     * request is let through and its outcome closes or opens the circuit again.
+     */
+    private static final class CircuitBreaker {
+
+        /**
+         * Circuit breaker states.
+         */
+        private enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final int failureThreshold;
+        private final long openMillis;
+        private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long openedAt;
+
+        CircuitBreaker(int failureThreshold, Duration openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.openMillis = openDuration.toMillis();
+        }
+
+        boolean tryAcquire() {
+            State current = state.get();
+            if (current == State.CLOSED || failureThreshold < 1) {
+                return true;
+            }
+            return current == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis &&
+                    state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+
+        Duration getRetryAfter() {
+            return Duration.ofMillis(Math.max(openedAt + openMillis - System.currentTimeMillis(), 0));
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            state.set(State.CLOSED);
+        }
+
+        void onFailure() {
+            if (failureThreshold < 1) {
+                return;
+            }
+            if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                openedAt = System.currentTimeMillis();
+                if (state.getAndSet(State.OPEN) != State.OPEN && LOG.isWarnEnabled()) {
+                    LOG.warn("token endpoint failed {} times in a row, failing fast for {} ms", consecutiveFailures.get(), openMillis);
+                }
+            }
+        }
+
+        void onCancel() {
+            if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+                openedAt = System.currentTimeMillis() - openMillis;
+            }
+        }
+    }
+}
@@ -19,14 +19,13 @@ package io.micronaut.security.oauth2.openid.endpoints.token;
 import io.micronaut.context.BeanContext;
 import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
-import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.http.client.DefaultHttpClient;
 import io.micronaut.http.client.RxHttpClient;
 import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import javax.inject.Named;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -40,27 +39,36 @@ import java.net.URL;
 @Factory
 public class TokenClientFactory {
 
+    /**
+     * The name and client identifier of the token endpoint RxHttpClient.
+     */
+    public static final String SERVICE_ID = "oauth2tokenendpoint";
+
     private static final Logger LOG = LoggerFactory.getLogger(TokenClientFactory.class);
 
     private final OpenIdEndpoints openIdEndpoints;
+    private final TokenEndpointClientMetrics tokenEndpointClientMetrics;
 
     /**
      *
      * @param openIdEndpoints Open ID endpoints
+     * @param tokenEndpointClientMetrics Token endpoint client metrics
      */
-    public TokenClientFactory(OpenIdEndpoints openIdEndpoints) {
+    public TokenClientFactory(OpenIdEndpoints openIdEndpoints,
+                              TokenEndpointClientMetrics tokenEndpointClientMetrics) {
         this.openIdEndpoints = openIdEndpoints;
+        this.tokenEndpointClientMetrics = tokenEndpointClientMetrics;
     }
 
     /**
      *
      * @param context Bean Context
-     * @param configuration HttpClient configuration
+     * @param configuration Token endpoint HttpClient configuration
      * @return An RxHttpClient bean named oauth2tokenendpoint using the Token URL
      */
-    @Named("oauth2tokenendpoint")
+    @Named(SERVICE_ID)
     @Bean(preDestroy = "close")
-    public RxHttpClient tokenClient(@Nonnull BeanContext context, @Nullable HttpClientConfiguration configuration) {
+    public RxHttpClient tokenClient(@Nonnull BeanContext context, @Nonnull TokenEndpointHttpClientConfiguration configuration) {
         URL url;
         try {
             url = new URL(openIdEndpoints.getToken());
@@ -70,6 +78,11 @@ public class TokenClientFactory {
             }
             return null;
         }
-        return context.createBean(RxHttpClient.class, url, configuration);
+        tokenEndpointClientMetrics.monitor(url);
+        RxHttpClient tokenClient = context.createBean(RxHttpClient.class, url, configuration);
+        if (tokenClient instanceof DefaultHttpClient) {
+            ((DefaultHttpClient) tokenClient).setClientIdentifiers(SERVICE_ID);
+        }
+        return tokenClient;
     }
 }
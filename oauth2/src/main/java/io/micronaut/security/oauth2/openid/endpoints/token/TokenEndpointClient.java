@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.reactivex.Flowable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends requests to the token endpoint.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface TokenEndpointClient {
+
+    /**
+     * Sends a request to the token endpoint.
+     *
+     * @param request The token request
+     * @param bodyType The type of the response body
+     * @param <O> The type of the response body
+     * @return A Flowable emitting the token endpoint response, or {@link TokenEndpointUnavailableException} if the token endpoint is considered unavailable.
+     */
+    @Nonnull
+    <O> Flowable<HttpResponse<O>> exchange(@Nonnull HttpRequest<?> request, @Nonnull Class<O> bodyType);
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClientConfiguration;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usage of the token endpoint RxHttpClient connection pool. Every request in progress holds a pooled connection, thus
+ * the number of requests in progress over the maximum number of connections gives the pool utilization.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Singleton
+public class TokenEndpointClientMetrics {
+
+    private final HttpClientConfiguration.ConnectionPoolConfiguration connectionPoolConfiguration;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger peakActiveRequests = new AtomicInteger();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+
+    @Nullable
+    private volatile URI tokenEndpoint;
+
+    /**
+     *
+     * @param tokenEndpointHttpClientConfiguration Token endpoint HTTP client configuration
+     */
+    public TokenEndpointClientMetrics(TokenEndpointHttpClientConfiguration tokenEndpointHttpClientConfiguration) {
+        this.connectionPoolConfiguration = tokenEndpointHttpClientConfiguration.getConnectionPoolConfiguration();
+    }
+
+    /**
+     *
+     * @return The number of token endpoint requests in progress.
+     */
+    public int getActiveRequests() {
+        return activeRequests.get();
+    }
+
+    /**
+     *
+     * @return The highest number of token endpoint requests in progress at the same time.
+     */
+    public int getPeakActiveRequests() {
+        return peakActiveRequests.get();
+    }
+
+    /**
+     *
+     * @return The number of token endpoint requests sent.
+     */
+    public long getTotalRequests() {
+        return totalRequests.sum();
+    }
+
+    /**
+     *
+     * @return The number of token endpoint requests which failed.
+     */
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    /**
+     *
+     * @return The maximum number of pooled connections or -1 if unbounded.
+     */
+    public int getMaxConnections() {
+        return connectionPoolConfiguration.isEnabled() ? connectionPoolConfiguration.getMaxConnections() : -1;
+    }
+
+    /**
+     * The connection pool does not expose its queue of pending acquires, thus this is an estimate: the number of
+     * token endpoint requests in progress beyond the maximum number of pooled connections. Requests sent by other
+     * clients sharing the pool, and connections still being released, are not taken into account.
+     *
+     * @return An estimate of the number of requests waiting for a pooled connection, or 0 if the pool is unbounded.
+     */
+    public int getEstimatedPendingAcquires() {
+        int maxConnections = getMaxConnections();
+        return maxConnections > 0 ? Math.max(activeRequests.get() - maxConnections, 0) : 0;
+    }
+
+    /**
+     *
+     * @return The ratio of pooled connections in use, or 0 if the pool is unbounded.
+     */
+    public double getUtilization() {
+        int maxConnections = getMaxConnections();
+        return maxConnections > 0 ? Math.min(activeRequests.get(), maxConnections) / (double) maxConnections : 0;
+    }
+
+    /**
+     * Sets the token endpoint whose requests are measured.
+     * @param url The token endpoint URL
+     */
+    void monitor(@Nonnull URL url) {
+        try {
+            tokenEndpoint = url.toURI();
+        } catch (URISyntaxException e) {
+            tokenEndpoint = null;
+        }
+    }
+
+    /**
+     * @param request The HTTP request
+     * @return Whether the request targets the token endpoint
+     */
+    boolean isTokenEndpointRequest(@Nonnull HttpRequest<?> request) {
+        URI endpoint = tokenEndpoint;
+        if (endpoint == null) {
+            return false;
+        }
+        URI uri = request.getUri();
+        return endpoint.getPath().equals(uri.getPath()) &&
+                (uri.getHost() == null || (endpoint.getHost().equalsIgnoreCase(uri.getHost()) && endpoint.getPort() == uri.getPort()));
+    }
+
+    /**
+     * Records the start of a token endpoint request.
+     */
+    void requestStarted() {
+        totalRequests.increment();
+        int active = activeRequests.incrementAndGet();
+        peakActiveRequests.accumulateAndGet(active, Math::max);
+    }
+
+    /**
+     * Records a failed token endpoint request.
+     */
+    void requestFailed() {
+        failedRequests.increment();
+    }
+
+    /**
+     * Records the end of a token endpoint request.
+     */
+    void requestFinished() {
+        activeRequests.decrementAndGet();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes {@link TokenEndpointClientMetrics} through the management endpoint {@value #ID}. As any other management
+ * endpoint, it is sensitive by default and it can be disabled with {@code endpoints.oauth2tokenclient.enabled}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Endpoint(id = TokenEndpointClientMetricsEndpoint.ID)
+public class TokenEndpointClientMetricsEndpoint {
+
+    /**
+     * The management endpoint id.
+     */
+    public static final String ID = "oauth2tokenclient";
+
+    private final TokenEndpointClientMetrics tokenEndpointClientMetrics;
+
+    /**
+     *
+     * @param tokenEndpointClientMetrics Token endpoint client metrics
+     */
+    public TokenEndpointClientMetricsEndpoint(TokenEndpointClientMetrics tokenEndpointClientMetrics) {
+        this.tokenEndpointClientMetrics = tokenEndpointClientMetrics;
+    }
+
+    /**
+     *
+     * @return The token endpoint client metrics keyed by name.
+     */
+    @Read
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("activeRequests", tokenEndpointClientMetrics.getActiveRequests());
+        metrics.put("peakActiveRequests", tokenEndpointClientMetrics.getPeakActiveRequests());
+        metrics.put("totalRequests", tokenEndpointClientMetrics.getTotalRequests());
+        metrics.put("failedRequests", tokenEndpointClientMetrics.getFailedRequests());
+        metrics.put("maxConnections", tokenEndpointClientMetrics.getMaxConnections());
+        metrics.put("estimatedPendingAcquires", tokenEndpointClientMetrics.getEstimatedPendingAcquires());
+        metrics.put("utilization", tokenEndpointClientMetrics.getUtilization());
+        return metrics;
+    }
+}
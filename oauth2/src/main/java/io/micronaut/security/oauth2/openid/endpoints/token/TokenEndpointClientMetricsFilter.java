@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.ClientFilterChain;
+import io.micronaut.http.filter.HttpClientFilter;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+
+/**
+ * Records the token endpoint requests in {@link TokenEndpointClientMetrics}. The filter is bound to the
+ * {@value TokenClientFactory#SERVICE_ID} client; requests sent by clients without an identifier are only recorded
+ * when they target the token endpoint. Warm-up requests are not recorded.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Filter(serviceId = TokenClientFactory.SERVICE_ID)
+public class TokenEndpointClientMetricsFilter implements HttpClientFilter {
+
+    private final TokenEndpointClientMetrics tokenEndpointClientMetrics;
+
+    /**
+     *
+     * @param tokenEndpointClientMetrics Token endpoint client metrics
+     */
+    public TokenEndpointClientMetricsFilter(TokenEndpointClientMetrics tokenEndpointClientMetrics) {
+        this.tokenEndpointClientMetrics = tokenEndpointClientMetrics;
+    }
+
+    @Override
+    public Publisher<? extends HttpResponse<?>> doFilter(MutableHttpRequest<?> request, ClientFilterChain chain) {
+        if (request.getAttribute(TokenEndpointWarmUp.WARM_UP_ATTRIBUTE).isPresent() ||
+                !tokenEndpointClientMetrics.isTokenEndpointRequest(request)) {
+            return chain.proceed(request);
+        }
+        return Flowable.fromPublisher(chain.proceed(request))
+                .doOnSubscribe(subscription -> tokenEndpointClientMetrics.requestStarted())
+                .doOnError(throwable -> tokenEndpointClientMetrics.requestFailed())
+                .doFinally(tokenEndpointClientMetrics::requestFinished);
+    }
+}
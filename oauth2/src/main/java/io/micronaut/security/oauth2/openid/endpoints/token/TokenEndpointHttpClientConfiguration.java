@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.runtime.ApplicationConfiguration;
+import io.netty.channel.ChannelOption;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link HttpClientConfiguration} of the RxHttpClient used to call the token endpoint. It is independent of the
+ * generic {@code micronaut.http.client} configuration so that the connection pool can be sized for login peaks.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@ConfigurationProperties(TokenEndpointHttpClientConfiguration.PREFIX)
+public class TokenEndpointHttpClientConfiguration extends HttpClientConfiguration {
+
+    public static final String PREFIX = TokenEndpointConfigurationProperties.PREFIX + ".http-client";
+
+    /**
+     * The default connect timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * The default keep alive value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_KEEP_ALIVE = true;
+
+    private final TokenEndpointConnectionPoolConfiguration connectionPoolConfiguration;
+    private boolean keepAlive = DEFAULT_KEEP_ALIVE;
+
+    /**
+     *
+     * @param connectionPoolConfiguration Token endpoint connection pool configuration
+     * @param applicationConfiguration Application configuration
+     */
+    public TokenEndpointHttpClientConfiguration(TokenEndpointConnectionPoolConfiguration connectionPoolConfiguration,
+                                                ApplicationConfiguration applicationConfiguration) {
+        super(applicationConfiguration);
+        this.connectionPoolConfiguration = connectionPoolConfiguration;
+        setConnectTimeout(DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    @Override
+    public ConnectionPoolConfiguration getConnectionPoolConfiguration() {
+        return connectionPoolConfiguration;
+    }
+
+    /**
+     *
+     * @return Whether TCP keep alive is enabled on the token endpoint connections.
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Whether TCP keep alive is enabled on the token endpoint connections, unless the SO_KEEPALIVE channel option is set. Default value (true).
+     * @param keepAlive Whether TCP keep alive is enabled
+     */
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Map<ChannelOption, Object> getChannelOptions() {
+        Map<ChannelOption, Object> channelOptions = new HashMap<>(super.getChannelOptions());
+        channelOptions.putIfAbsent(ChannelOption.SO_KEEPALIVE, keepAlive);
+        return channelOptions;
+    }
+
+    /**
+     * Connection pool configuration of the token endpoint RxHttpClient. The pool is enabled by default.
+     */
+    @ConfigurationProperties(ConnectionPoolConfiguration.PREFIX)
+    public static class TokenEndpointConnectionPoolConfiguration extends ConnectionPoolConfiguration {
+
+        /**
+         * The default maximum number of connections.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final int DEFAULT_MAX_CONNECTIONS = 50;
+
+        /**
+         * The default maximum number of requests waiting for a connection.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final int DEFAULT_MAX_PENDING_ACQUIRES = 200;
+
+        /**
+         * The default time to wait for a connection.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(5);
+
+        /**
+         * Enables the pool with the token endpoint defaults.
+         */
+        public TokenEndpointConnectionPoolConfiguration() {
+            setEnabled(true);
+            setMaxConnections(DEFAULT_MAX_CONNECTIONS);
+            setMaxPendingAcquires(DEFAULT_MAX_PENDING_ACQUIRES);
+            setAcquireTimeout(DEFAULT_ACQUIRE_TIMEOUT);
+        }
+    }
+}
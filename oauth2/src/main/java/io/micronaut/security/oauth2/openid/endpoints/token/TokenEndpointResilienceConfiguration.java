@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Deadlines, retries and circuit breaker of the {@link DefaultTokenEndpointClient}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface TokenEndpointResilienceConfiguration {
+
+    /**
+     * Maximum time to wait for a response to each attempt.
+     * @return The per attempt timeout.
+     */
+    @Nonnull
+    Duration getTimeout();
+
+    /**
+     * Maximum number of retries after a connection error or a 503 Service Unavailable response.
+     * @return The maximum number of retries.
+     */
+    int getMaxRetries();
+
+    /**
+     * Delay before the first retry. The delay doubles for every subsequent retry.
+     * @return The retry delay.
+     */
+    @Nonnull
+    Duration getRetryDelay();
+
+    /**
+     * Upper bound of the delay between retries.
+     * @return The maximum retry delay.
+     */
+    @Nonnull
+    Duration getMaxRetryDelay();
+
+    /**
+     * Ratio, between 0 and 1, by which each retry delay is randomly shortened.
+     * @return The retry jitter.
+     */
+    double getRetryJitter();
+
+    /**
+     * Number of consecutive failed requests after which the circuit opens. A value lower than 1 disables the circuit breaker.
+     * @return The failure threshold.
+     */
+    int getFailureThreshold();
+
+    /**
+     * Time during which requests fail fast once the circuit opens.
+     * @return The open duration.
+     */
+    @Nonnull
+    Duration getOpenDuration();
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link TokenEndpointResilienceConfiguration}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@ConfigurationProperties(TokenEndpointResilienceConfigurationProperties.PREFIX)
+public class TokenEndpointResilienceConfigurationProperties implements TokenEndpointResilienceConfiguration {
+
+    public static final String PREFIX = TokenEndpointConfigurationProperties.PREFIX + ".resilience";
+
+    /**
+     * The default per attempt timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * The default maximum number of retries.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    /**
+     * The default retry delay.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofMillis(200);
+
+    /**
+     * The default maximum retry delay.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MAX_RETRY_DELAY = Duration.ofSeconds(2);
+
+    /**
+     * The default retry jitter.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_RETRY_JITTER = 0.5;
+
+    /**
+     * The default failure threshold.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * The default open duration.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private Duration retryDelay = DEFAULT_RETRY_DELAY;
+    private Duration maxRetryDelay = DEFAULT_MAX_RETRY_DELAY;
+    private double retryJitter = DEFAULT_RETRY_JITTER;
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private Duration openDuration = DEFAULT_OPEN_DURATION;
+
+    @Nonnull
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Maximum time to wait for a response to each attempt. Default value (10 seconds).
+     * @param timeout The per attempt timeout
+     */
+    public void setTimeout(@Nonnull Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Maximum number of retries after a connection error or a 503 response. Default value ({@value #DEFAULT_MAX_RETRIES}).
+     * @param maxRetries The maximum number of retries
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Delay before the first retry, doubled for every subsequent retry. Default value (200 milliseconds).
+     * @param retryDelay The retry delay
+     */
+    public void setRetryDelay(@Nonnull Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    /**
+     * Upper bound of the delay between retries. Default value (2 seconds).
+     * @param maxRetryDelay The maximum retry delay
+     */
+    public void setMaxRetryDelay(@Nonnull Duration maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    @Override
+    public double getRetryJitter() {
+        return retryJitter;
+    }
+
+    /**
+     * Ratio, between 0 and 1, by which each retry delay is randomly shortened. Default value ({@value #DEFAULT_RETRY_JITTER}).
+     * @param retryJitter The retry jitter
+     */
+    public void setRetryJitter(double retryJitter) {
+        this.retryJitter = retryJitter;
+    }
+
+    @Override
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Number of consecutive failed requests after which the circuit opens. A value lower than 1 disables the circuit breaker. Default value ({@value #DEFAULT_FAILURE_THRESHOLD}).
+     * @param failureThreshold The failure threshold
+     */
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Time during which requests fail fast once the circuit opens. Default value (30 seconds).
+     * @param openDuration The open duration
+     */
+    public void setOpenDuration(@Nonnull Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+}
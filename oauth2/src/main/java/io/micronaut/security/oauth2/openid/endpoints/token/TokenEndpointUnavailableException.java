@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import java.time.Duration;
+
+/**
+ * A runtime exception thrown when requests to the token endpoint are rejected without being sent, because the token
+ * endpoint failed repeatedly.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public class TokenEndpointUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructor.
+     *
+     * @param retryAfter Time after which the token endpoint is called again.
+     */
+    public TokenEndpointUnavailableException(Duration retryAfter) {
+        super("The token endpoint is temporarily unavailable");
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     *
+     * @return Time after which the token endpoint is called again.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
+import io.micronaut.security.oauth2.openid.endpoints.userinfo.UserInfoClientFactory;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens pooled connections to the token endpoint once the application starts so that the first logins do not pay for
+ * the TCP and TLS handshakes. Optionally, it opens pooled connections to the userinfo endpoint as well.
+ *
+ * The warm-up runs in the background and its failures are only logged.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Requires(property = TokenEndpointWarmUpConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = OpenIdEndpoints.class)
+@Singleton
+public class TokenEndpointWarmUp implements ApplicationEventListener<StartupEvent> {
+
+    /**
+     * Request attribute set on the warm-up requests, which are not recorded in {@link TokenEndpointClientMetrics}.
+     */
+    public static final String WARM_UP_ATTRIBUTE = "micronaut.security.oauth2.token.warm-up";
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenEndpointWarmUp.class);
+
+    private final BeanContext beanContext;
+    private final TokenEndpointWarmUpConfiguration tokenEndpointWarmUpConfiguration;
+    private final ExecutorService executorService;
+
+    /**
+     * The beans of the clients are resolved in the background, since their creation may wait for the OpenID configuration.
+     *
+     * @param beanContext Bean Context
+     * @param tokenEndpointWarmUpConfiguration Token endpoint warm-up configuration
+     * @param executorService Executor service used to run the warm-up
+     */
+    public TokenEndpointWarmUp(BeanContext beanContext,
+                               TokenEndpointWarmUpConfiguration tokenEndpointWarmUpConfiguration,
+                               @Named(TaskExecutors.IO) ExecutorService executorService) {
+        this.beanContext = beanContext;
+        this.tokenEndpointWarmUpConfiguration = tokenEndpointWarmUpConfiguration;
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        executorService.submit(this::warmUp);
+    }
+
+    /**
+     * Sends the warm-up requests and waits for them, up to the configured timeout.
+     *
+     * @return true if every warm-up request succeeded
+     */
+    protected boolean warmUp() {
+        List<Completable> warmUps = new ArrayList<>();
+        try {
+            OpenIdEndpoints openIdEndpoints = beanContext.getBean(OpenIdEndpoints.class);
+            warmUps.add(openConnections(TokenClientFactory.SERVICE_ID, openIdEndpoints.getToken()));
+            if (tokenEndpointWarmUpConfiguration.isUserinfo()) {
+                warmUps.add(openConnections(UserInfoClientFactory.SERVICE_ID, openIdEndpoints.getUserinfo()));
+            }
+            Completable.mergeDelayError(warmUps)
+                    .timeout(tokenEndpointWarmUpConfiguration.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .blockingAwait();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("warmed up {} connections to the token endpoint{}", tokenEndpointWarmUpConfiguration.getConnections(),
+                        tokenEndpointWarmUpConfiguration.isUserinfo() ? " and the userinfo endpoint" : "");
+            }
+            return true;
+        } catch (RuntimeException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("could not warm up the token endpoint connections", e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sends concurrent HEAD requests to an endpoint, each of them opening a pooled connection. The token and userinfo
+     * endpoints usually answer HEAD requests with {@code 405 Method Not Allowed} or {@code 401 Unauthorized}, thus any
+     * response but a server error is a successful warm-up. The requests carry the {@value #WARM_UP_ATTRIBUTE} attribute
+     * so that they are not recorded in the client metrics.
+     *
+     * @param serviceId The name of the RxHttpClient bean used to reach the endpoint
+     * @param endpoint The endpoint URL
+     * @return A completable which completes once every request got a response
+     */
+    private Completable openConnections(String serviceId, String endpoint) {
+        Optional<RxHttpClient> client = beanContext.findBean(RxHttpClient.class, Qualifiers.byName(serviceId));
+        if (!client.isPresent() || endpoint == null) {
+            return Completable.complete();
+        }
+        return Flowable.range(0, tokenEndpointWarmUpConfiguration.getConnections())
+                .flatMap(i -> client.get().exchange(HttpRequest.HEAD(endpoint).setAttribute(WARM_UP_ATTRIBUTE, true))
+                        .onErrorResumeNext((Throwable throwable) -> resumeOnClientError(throwable)), true)
+                .ignoreElements();
+    }
+
+    /**
+     * @param throwable The error of a warm-up request
+     * @param <T> The type of the response
+     * @return An empty flowable if the endpoint answered with a client error or the error otherwise
+     */
+    private <T> Flowable<T> resumeOnClientError(Throwable throwable) {
+        if (throwable instanceof HttpClientResponseException &&
+                ((HttpClientResponseException) throwable).getStatus().getCode() < HttpStatus.INTERNAL_SERVER_ERROR.getCode()) {
+            return Flowable.empty();
+        }
+        return Flowable.error(throwable);
+    }
+}
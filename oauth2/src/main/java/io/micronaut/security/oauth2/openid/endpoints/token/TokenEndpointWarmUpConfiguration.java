@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link TokenEndpointWarmUp}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface TokenEndpointWarmUpConfiguration extends Toggleable {
+
+    /**
+     * Number of pooled connections opened to the token endpoint once the application starts.
+     * @return The number of connections.
+     */
+    int getConnections();
+
+    /**
+     * Whether pooled connections are opened to the userinfo endpoint once the application starts as well.
+     * @return true if the userinfo endpoint should be warmed up.
+     */
+    boolean isUserinfo();
+
+    /**
+     * Maximum time to wait for the warm-up requests.
+     * @return The warm-up timeout.
+     */
+    @Nonnull
+    Duration getTimeout();
+}
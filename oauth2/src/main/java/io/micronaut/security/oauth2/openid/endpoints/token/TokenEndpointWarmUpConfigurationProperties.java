@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.token;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link TokenEndpointWarmUpConfiguration}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@ConfigurationProperties(TokenEndpointWarmUpConfigurationProperties.PREFIX)
+public class TokenEndpointWarmUpConfigurationProperties implements TokenEndpointWarmUpConfiguration {
+
+    public static final String PREFIX = TokenEndpointConfigurationProperties.PREFIX + ".warm-up";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default number of connections.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_CONNECTIONS = 4;
+
+    /**
+     * The default userinfo value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_USERINFO = false;
+
+    /**
+     * The default warm-up timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int connections = DEFAULT_CONNECTIONS;
+    private boolean userinfo = DEFAULT_USERINFO;
+    private Duration timeout = DEFAULT_TIMEOUT;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens connections to the token endpoint in the background once the application starts. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * Number of pooled connections opened to the token endpoint. Default value ({@value #DEFAULT_CONNECTIONS}).
+     * @param connections The number of connections
+     */
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public boolean isUserinfo() {
+        return userinfo;
+    }
+
+    /**
+     * Opens the same number of pooled connections to the userinfo endpoint as well. Default value ({@value #DEFAULT_USERINFO}).
+     * @param userinfo Whether to warm up the userinfo endpoint
+     */
+    public void setUserinfo(boolean userinfo) {
+        this.userinfo = userinfo;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Maximum time to wait for the warm-up requests. Default value (30 seconds).
+     * @param timeout The warm-up timeout
+     */
+    public void setTimeout(@Nonnull Duration timeout) {
+        this.timeout = timeout;
+    }
+}
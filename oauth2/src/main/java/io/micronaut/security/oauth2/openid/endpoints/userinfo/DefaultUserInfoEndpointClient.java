@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.userinfo;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdProviderMetadata;
+import io.micronaut.security.oauth2.openid.endpoints.OpenIdEndpoints;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default implementation of {@link UserInfoEndpointClient}.
+ *
+ * Claims are cached under the issuer of the OpenID provider and the {@code sub} claim of the userinfo response, which
+ * the provider issues for the user the access token belongs to. A subject is only unique within its issuer, thus claims
+ * are not cached if the issuer of the provider is unknown. The cache evicts the least recently used subject once it is
+ * full.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = UserInfoEndpointClientConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = OpenIdEndpoints.class)
+@Singleton
+public class DefaultUserInfoEndpointClient implements UserInfoEndpointClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultUserInfoEndpointClient.class);
+    private static final String KEY_SUB = "sub";
+
+    private final OpenIdEndpoints openIdEndpoints;
+    private final OpenIdProviderMetadata openIdProviderMetadata;
+    private final RxHttpClient userInfoClient;
+    private final UserInfoEndpointClientConfiguration configuration;
+    private final Map<SubjectKey, CachedClaims> cache;
+
+    /**
+     *
+     * @param openIdEndpoints Open ID endpoints
+     * @param openIdProviderMetadata OpenID provider metadata
+     * @param userInfoClient RxHttpClient pointing to the userinfo endpoint
+     * @param configuration Userinfo endpoint client configuration
+     */
+    public DefaultUserInfoEndpointClient(OpenIdEndpoints openIdEndpoints,
+                                         OpenIdProviderMetadata openIdProviderMetadata,
+                                         @Named(UserInfoClientFactory.SERVICE_ID) RxHttpClient userInfoClient,
+                                         UserInfoEndpointClientConfiguration configuration) {
+        this.openIdEndpoints = openIdEndpoints;
+        this.openIdProviderMetadata = openIdProviderMetadata;
+        this.userInfoClient = userInfoClient;
+        this.configuration = configuration;
+        int maximumSize = configuration.getMaximumSize();
+        this.cache = new LinkedHashMap<SubjectKey, CachedClaims>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SubjectKey, CachedClaims> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    public Single<Map<String, Object>> fetch(@Nonnull String accessToken) {
+        HttpRequest<?> request = HttpRequest.GET(Objects.requireNonNull(openIdEndpoints.getUserinfo()))
+                .bearerAuth(accessToken)
+                .accept(MediaType.APPLICATION_JSON_TYPE);
+        return userInfoClient.retrieve(request, Map.class)
+                .firstOrError()
+                .timeout(configuration.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .map(body -> {
+                    Map<String, Object> claims = Collections.unmodifiableMap((Map<String, Object>) body);
+                    Object sub = claims.get(KEY_SUB);
+                    String issuer = openIdProviderMetadata.getIssuer();
+                    if (sub instanceof String && issuer != null) {
+                        synchronized (cache) {
+                            cache.put(new SubjectKey(issuer, (String) sub), new CachedClaims(claims, System.currentTimeMillis() + configuration.getTimeToLive().toMillis()));
+                        }
+                    } else if (LOG.isWarnEnabled()) {
+                        LOG.warn("userinfo response without sub claim or OpenID provider without issuer, the claims are not cached");
+                    }
+                    return claims;
+                });
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Map<String, Object>> getCachedClaims(@Nonnull String issuer, @Nonnull String sub) {
+        SubjectKey key = new SubjectKey(issuer, sub);
+        synchronized (cache) {
+            CachedClaims cached = cache.get(key);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            if (cached.expiresAt <= System.currentTimeMillis()) {
+                cache.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(cached.claims);
+        }
+    }
+
+    /**
+     * A subject qualified by its issuer.
+     */
+    private static final class SubjectKey {
+        private final String issuer;
+        private final String sub;
+
+        SubjectKey(String issuer, String sub) {
+            this.issuer = issuer;
+            this.sub = sub;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SubjectKey)) {
+                return false;
+            }
+            SubjectKey that = (SubjectKey) o;
+            return issuer.equals(that.issuer) && sub.equals(that.sub);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * issuer.hashCode() + sub.hashCode();
+        }
+    }
+
+    /**
+     * Userinfo claims with the time at which they expire from the cache.
+     */
+    private static final class CachedClaims {
+        private final Map<String, Object> claims;
+        private final long expiresAt;
+
+        CachedClaims(Map<String, Object> claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
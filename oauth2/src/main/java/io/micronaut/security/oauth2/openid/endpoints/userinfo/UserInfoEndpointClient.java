@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.userinfo;
+
+import com.nimbusds.jwt.JWTParser;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import io.reactivex.Single;
+
+import javax.annotation.Nonnull;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fetches the claims of the userinfo endpoint and caches them per issuer and subject.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface UserInfoEndpointClient {
+
+    /**
+     * Request attribute which holds the userinfo claims fetched while handling a login or a refresh.
+     */
+    String CLAIMS_ATTRIBUTE = "micronaut.security.oauth2.user-info.claims";
+
+    /**
+     * Fetches the claims of the user the access token was issued to and caches them under the issuer of the OpenID
+     * provider and their {@code sub} claim.
+     *
+     * @param accessToken An access token which grants access to the userinfo endpoint
+     * @return The userinfo claims.
+     */
+    @Nonnull
+    Single<Map<String, Object>> fetch(@Nonnull String accessToken);
+
+    /**
+     * Fetches the claims of the user the access token was issued to, but only returns them if their {@code sub} claim
+     * matches the subject of the ID token issued along with the access token, as OpenID Connect requires.
+     *
+     * @param accessToken An access token which grants access to the userinfo endpoint
+     * @param idToken The ID token issued along with the access token
+     * @return The userinfo claims or an empty map if they belong to another subject.
+     */
+    @Nonnull
+    default Single<Map<String, Object>> fetch(@Nonnull String accessToken, @Nonnull String idToken) {
+        String sub;
+        try {
+            sub = JWTParser.parse(idToken).getJWTClaimsSet().getSubject();
+        } catch (ParseException e) {
+            return Single.error(e);
+        }
+        return fetch(accessToken).map(claims -> sub != null && sub.equals(claims.get(JwtClaims.SUBJECT)) ?
+                claims : Collections.emptyMap());
+    }
+
+    /**
+     *
+     * @param issuer The issuer of the subject
+     * @param sub The subject
+     * @return The cached claims of the subject or an empty optional if none are cached.
+     */
+    @Nonnull
+    Optional<Map<String, Object>> getCachedClaims(@Nonnull String issuer, @Nonnull String sub);
+}
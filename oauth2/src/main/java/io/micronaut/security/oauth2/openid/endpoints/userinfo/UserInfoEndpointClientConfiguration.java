@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.userinfo;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link UserInfoEndpointClient}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface UserInfoEndpointClientConfiguration extends Toggleable {
+
+    /**
+     * @return The maximum time to wait for the userinfo endpoint.
+     */
+    @Nonnull
+    Duration getTimeout();
+
+    /**
+     * @return The maximum number of subjects whose claims are cached.
+     */
+    int getMaximumSize();
+
+    /**
+     * @return How long the claims of a subject are cached.
+     */
+    @Nonnull
+    Duration getTimeToLive();
+}
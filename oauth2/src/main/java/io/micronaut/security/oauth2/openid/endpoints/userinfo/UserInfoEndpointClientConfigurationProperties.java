@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.userinfo;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link UserInfoEndpointClientConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(UserInfoEndpointClientConfigurationProperties.PREFIX)
+public class UserInfoEndpointClientConfigurationProperties implements UserInfoEndpointClientConfiguration {
+
+    public static final String PREFIX = UserInfoEndpointConfigurationProperties.PREFIX + ".client";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * The default maximum size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(15);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fetches the claims of the userinfo endpoint at login and adds them to the authentication attributes. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * The maximum time to wait for the userinfo endpoint. Default value (5 seconds).
+     * @param timeout The timeout
+     */
+    public void setTimeout(@Nonnull Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * The maximum number of subjects whose claims are cached. Default value ({@value #DEFAULT_MAXIMUM_SIZE}).
+     * @param maximumSize The maximum size
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * How long the claims of a subject are cached. Default value (15 minutes).
+     * @param timeToLive The time to live
+     */
+    public void setTimeToLive(@Nonnull Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
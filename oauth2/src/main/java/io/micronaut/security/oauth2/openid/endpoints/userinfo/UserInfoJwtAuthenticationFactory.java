@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.endpoints.userinfo;
+
+import com.nimbusds.jwt.JWT;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.authentication.DefaultAuthentication;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdProviderMetadata;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import io.micronaut.security.token.jwt.validator.DefaultJwtAuthenticationFactory;
+
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link io.micronaut.security.token.jwt.validator.JwtAuthenticationFactory} which adds the cached userinfo claims of the subject to the attributes of the
+ * authentication. Claims of the JWT take precedence over userinfo claims with the same name. The userinfo endpoint is
+ * never called while authenticating a request.
+ *
+ * Only JWTs issued by the configured OpenID provider are merged with userinfo claims, since a subject is only unique
+ * within its issuer. Any other JWT, such as the tokens the application issues itself, gets the authentication of
+ * {@link DefaultJwtAuthenticationFactory}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = UserInfoEndpointClient.class)
+@Replaces(DefaultJwtAuthenticationFactory.class)
+@Singleton
+public class UserInfoJwtAuthenticationFactory extends DefaultJwtAuthenticationFactory {
+
+    private final UserInfoEndpointClient userInfoEndpointClient;
+    private final OpenIdProviderMetadata openIdProviderMetadata;
+
+    /**
+     *
+     * @param userInfoEndpointClient Userinfo endpoint client
+     * @param openIdProviderMetadata OpenID provider metadata
+     */
+    public UserInfoJwtAuthenticationFactory(UserInfoEndpointClient userInfoEndpointClient,
+                                            OpenIdProviderMetadata openIdProviderMetadata) {
+        this.userInfoEndpointClient = userInfoEndpointClient;
+        this.openIdProviderMetadata = openIdProviderMetadata;
+    }
+
+    @Override
+    public Optional<Authentication> createAuthentication(JWT token) {
+        return super.createAuthentication(token).map(authentication -> {
+            Object issuer = authentication.getAttributes().get(JwtClaims.ISSUER);
+            if (!(issuer instanceof String) || !issuer.equals(openIdProviderMetadata.getIssuer())) {
+                return authentication;
+            }
+            return userInfoEndpointClient.getCachedClaims((String) issuer, authentication.getName())
+                    .map(claims -> merge(authentication, claims))
+                    .orElse(authentication);
+        });
+    }
+
+    /**
+     *
+     * @param authentication The authentication created from the JWT
+     * @param claims The userinfo claims of the subject
+     * @return An authentication with the userinfo claims added to its attributes.
+     */
+    protected Authentication merge(Authentication authentication, Map<String, Object> claims) {
+        Map<String, Object> attributes = new HashMap<>(claims);
+        attributes.putAll(authentication.getAttributes());
+        return new DefaultAuthentication(authentication.getName(), attributes);
+    }
+}
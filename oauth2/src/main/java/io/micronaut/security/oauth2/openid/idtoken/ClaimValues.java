@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the raw values of decoded ID token claims to the types exposed by {@link IdToken}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+final class ClaimValues {
+
+    static final String JSONKEY_FORMATTED = "formatted";
+
+    private ClaimValues() {
+    }
+
+    /**
+     * @param value The claim value
+     * @return The value if it is a string, otherwise null
+     */
+    static String stringValue(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * @param value The claim value
+     * @return The value if it is a string, the first string of a collection, otherwise null
+     */
+    static String firstStringValue(Object value) {
+        if (value instanceof Collection) {
+            for (Object item : (Collection) value) {
+                if (item instanceof String) {
+                    return (String) item;
+                }
+            }
+            return null;
+        }
+        return stringValue(value);
+    }
+
+    /**
+     * @param value The claim value
+     * @return The value if it is a boolean, otherwise null
+     */
+    static Boolean booleanValue(Object value) {
+        return value instanceof Boolean ? (Boolean) value : null;
+    }
+
+    /**
+     * Numeric claims are decoded as {@link Integer} or {@link Long} depending on their magnitude, and time claims
+     * as {@link Date} by some parsers.
+     *
+     * @param value The claim value
+     * @return The number of seconds, or null if the value is not numeric or does not fit an integer
+     */
+    static Integer integerValue(Object value) {
+        long number;
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value instanceof Number) {
+            number = ((Number) value).longValue();
+        } else if (value instanceof Date) {
+            number = ((Date) value).getTime() / 1000;
+        } else {
+            return null;
+        }
+        return number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE ? (int) number : null;
+    }
+
+    /**
+     * @param value The claim value
+     * @return The strings of the value if it is a collection, otherwise null
+     */
+    static List<String> stringListValue(Object value) {
+        if (!(value instanceof Collection)) {
+            return null;
+        }
+        Collection<?> items = (Collection<?>) value;
+        List<String> result = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (item instanceof String) {
+                result.add((String) item);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @param value The claim value
+     * @return The address if the value is an address or a JSON object, otherwise null
+     */
+    static Address addressValue(Object value) {
+        if (value instanceof Address) {
+            return (Address) value;
+        } else if (value instanceof Map) {
+            return address((Map<?, ?>) value);
+        }
+        return null;
+    }
+
+    /**
+     * @param m Map with built from a JSON payload
+     * @return An {@link Address} which represents an Address Claim.
+     */
+    static Address address(Map<?, ?> m) {
+        Address address = new Address();
+        address.setFormatted(stringValue(m.get(JSONKEY_FORMATTED)));
+        address.setCountry(stringValue(m.get(Address.JSONKEY_COUNTRY)));
+        address.setStreetAddress(stringValue(m.get(Address.JSONKEY_STREET_ADDRESS)));
+        address.setLocality(stringValue(m.get(Address.JSONKEY_LOCALITY)));
+        address.setPostalCode(stringValue(m.get(Address.JSONKEY_POSTAL_CODE)));
+        address.setRegion(stringValue(m.get(Address.JSONKEY_REGION)));
+        return address;
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken;
+
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable {@link IdToken} whose claims are decoded once, in a single pass over the claims, into typed fields.
+ * Getters return those fields without further lookups or allocations.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public class DefaultIdToken implements IdToken {
+
+    private final Map<String, Object> claims;
+    private String authorizedParty;
+    private List<String> authenticationMethodReferences;
+    private String authenticationContextClassReference;
+    private String issuer;
+    private String audience;
+    private Integer expirationTime;
+    private Integer issuedAt;
+    private String subject;
+    private Integer authenticationTime;
+    private String nonce;
+    private String name;
+    private String givenName;
+    private String familyName;
+    private String middleName;
+    private String nickname;
+    private String preferredUsername;
+    private String profile;
+    private String picture;
+    private String website;
+    private String email;
+    private Boolean emailVerified;
+    private String gender;
+    private String birthday;
+    private String zoneinfo;
+    private String locale;
+    private String phoneNumber;
+    private Boolean phoneNumberVerified;
+    private Address address;
+    private Integer updatedAt;
+
+    /**
+     * Decodes the given claims.
+     *
+     * @param claims The ID token claims
+     */
+    public DefaultIdToken(@Nullable Map<String, Object> claims) {
+        this.claims = claims == null ? Collections.emptyMap() : Collections.unmodifiableMap(claims);
+        for (Map.Entry<String, Object> claim : this.claims.entrySet()) {
+            decode(claim.getKey(), claim.getValue());
+        }
+    }
+
+    /**
+     * Decodes the claims held by the attributes of an authentication.
+     *
+     * @param authentication The authentication
+     * @return The ID token
+     */
+    public static DefaultIdToken of(@Nonnull Authentication authentication) {
+        return new DefaultIdToken(authentication.getAttributes());
+    }
+
+    /**
+     * @param claim The claim name
+     * @param value The claim value
+     */
+    private void decode(String claim, Object value) {
+        switch (claim) {
+            case IdToken.CLAIMS_AZP:
+                authorizedParty = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_AMR:
+                authenticationMethodReferences = ClaimValues.stringListValue(value);
+                break;
+            case IdToken.CLAIMS_ACR:
+                authenticationContextClassReference = ClaimValues.stringValue(value);
+                break;
+            case JwtClaims.ISSUER:
+                issuer = ClaimValues.stringValue(value);
+                break;
+            case JwtClaims.AUDIENCE:
+                audience = ClaimValues.firstStringValue(value);
+                break;
+            case JwtClaims.EXPIRATION_TIME:
+                expirationTime = ClaimValues.integerValue(value);
+                break;
+            case JwtClaims.ISSUED_AT:
+                issuedAt = ClaimValues.integerValue(value);
+                break;
+            case JwtClaims.SUBJECT:
+                subject = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_AUTH_TIME:
+                authenticationTime = ClaimValues.integerValue(value);
+                break;
+            case IdToken.CLAIMS_NONCE:
+                nonce = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_NAME:
+                name = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_GIVEN_NAME:
+                givenName = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_FAMILY_NAME:
+                familyName = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_MIDDLE_NAME:
+                middleName = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_NICKNAME:
+                nickname = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_PREFERRED_USERNAME:
+                preferredUsername = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_PROFILE:
+                profile = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_PICTURE:
+                picture = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_WEBSITE:
+                website = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_EMAIL:
+                email = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_EMAIL_VERIFIED:
+                emailVerified = ClaimValues.booleanValue(value);
+                break;
+            case IdToken.CLAIMS_GENDER:
+                gender = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_BIRTHDATE:
+                birthday = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_ZONEINFO:
+                zoneinfo = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_LOCALE:
+                locale = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_PHONE_NUMBER:
+                phoneNumber = ClaimValues.stringValue(value);
+                break;
+            case IdToken.CLAIMS_PHONE_NUMBER_VERIFIED:
+                phoneNumberVerified = ClaimValues.booleanValue(value);
+                break;
+            case IdToken.CLAIMS_ADDRESS:
+                address = ClaimValues.addressValue(value);
+                break;
+            case IdToken.CLAIMS_UPDATED_AT:
+                updatedAt = ClaimValues.integerValue(value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getAuthorizedParty() {
+        return authorizedParty;
+    }
+
+    @Nullable
+    @Override
+    public List<String> getAuthenticationMethodReferences() {
+        return authenticationMethodReferences;
+    }
+
+    @Nullable
+    @Override
+    public String getAuthenticationContextClassReference() {
+        return authenticationContextClassReference;
+    }
+
+    @Nonnull
+    @Override
+    public String getIssuer() {
+        return issuer;
+    }
+
+    @Nonnull
+    @Override
+    public String getAudience() {
+        return audience;
+    }
+
+    @Nonnull
+    @Override
+    public Integer getExpirationTime() {
+        return expirationTime;
+    }
+
+    @Nonnull
+    @Override
+    public Integer getIssuedAt() {
+        return issuedAt;
+    }
+
+    @Nonnull
+    @Override
+    public String getSubject() {
+        return subject;
+    }
+
+    @Nullable
+    @Override
+    public Integer getAuthenticationTime() {
+        return authenticationTime;
+    }
+
+    @Nullable
+    @Override
+    public String getNonce() {
+        return nonce;
+    }
+
+    @Override
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    @Override
+    public String getGivenName() {
+        return givenName;
+    }
+
+    @Nullable
+    @Override
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    @Nullable
+    @Override
+    public String getMiddleName() {
+        return middleName;
+    }
+
+    @Nullable
+    @Override
+    public String getNickname() {
+        return nickname;
+    }
+
+    @Override
+    @Nullable
+    public String getPreferredUsername() {
+        return preferredUsername;
+    }
+
+    @Nullable
+    @Override
+    public String getProfile() {
+        return profile;
+    }
+
+    @Nullable
+    @Override
+    public String getPicture() {
+        return picture;
+    }
+
+    @Nullable
+    @Override
+    public String getWebsite() {
+        return website;
+    }
+
+    @Nullable
+    @Override
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    @Nullable
+    public Boolean isEmailVerified() {
+        return emailVerified;
+    }
+
+    @Nullable
+    @Override
+    public String getGender() {
+        return gender;
+    }
+
+    @Nullable
+    @Override
+    public String getBirthday() {
+        return birthday;
+    }
+
+    @Nullable
+    @Override
+    public String getZoneinfo() {
+        return zoneinfo;
+    }
+
+    @Nullable
+    @Override
+    public String getLocale() {
+        return locale;
+    }
+
+    @Nullable
+    @Override
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    @Nullable
+    @Override
+    public Boolean isPhoneNumberVerified() {
+        return phoneNumberVerified;
+    }
+
+    @Nullable
+    @Override
+    public Address getAdress() {
+        return address;
+    }
+
+    @Nullable
+    @Override
+    public Integer getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+}
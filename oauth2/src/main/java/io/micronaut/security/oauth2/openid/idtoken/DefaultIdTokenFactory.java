@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken;
+
+import io.micronaut.security.authentication.Authentication;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+
+/**
+ * Default implementation of {@link IdTokenFactory}, which decodes the claims once into a {@link DefaultIdToken}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Singleton
+public class DefaultIdTokenFactory implements IdTokenFactory {
+
+    @Nonnull
+    @Override
+    public IdToken create(@Nonnull Authentication authentication) {
+        return DefaultIdToken.of(authentication);
+    }
+}
@@ -18,19 +18,16 @@ package io.micronaut.security.oauth2.openid.idtoken;
 
 import io.micronaut.core.bind.ArgumentBinder;
 import io.micronaut.core.convert.ArgumentConversionContext;
-import io.micronaut.core.convert.value.MutableConvertibleValues;
 import io.micronaut.core.type.Argument;
 import io.micronaut.http.HttpRequest;
-import io.micronaut.http.filter.OncePerRequestHttpServerFilter;
 import io.micronaut.http.bind.binders.TypedRequestArgumentBinder;
-import io.micronaut.security.authentication.Authentication;
-import io.micronaut.security.filters.SecurityFilter;
 
 import javax.inject.Singleton;
 import java.util.Optional;
 
 /**
- * Responsible for binding the IdToken object to a route argument.
+ * Responsible for binding the IdToken object to a route argument. The bound instance is shared with the rest of the
+ * request through {@link IdTokenForRequest}.
  *
  * @author Sergio del Amo
  * @since 1.0
@@ -38,6 +35,15 @@ import java.util.Optional;
 @Singleton
 public class IdTokenArgumentBinder implements TypedRequestArgumentBinder<IdToken> {
 
+    private final IdTokenForRequest idTokenForRequest;
+
+    /**
+     * @param idTokenForRequest Finds the ID token of a request
+     */
+    public IdTokenArgumentBinder(IdTokenForRequest idTokenForRequest) {
+        this.idTokenForRequest = idTokenForRequest;
+    }
+
     @Override
     public Argument<IdToken> argumentType() {
         return Argument.of(IdToken.class);
@@ -45,18 +51,10 @@ public class IdTokenArgumentBinder implements TypedRequestArgumentBinder<IdToken
 
     @Override
     public BindingResult<IdToken> bind(ArgumentConversionContext<IdToken> context, HttpRequest<?> source) {
-        if (source.getAttributes().contains(OncePerRequestHttpServerFilter.getKey(SecurityFilter.class))) {
-            MutableConvertibleValues<Object> attrs = source.getAttributes();
-            Optional<Authentication> existing = attrs.get(SecurityFilter.AUTHENTICATION, Authentication.class);
-
-            if (existing.isPresent()) {
-                return (BindingResult) () -> {
-                    IdToken idToken = new IdTokenAuthenticationAdapter(existing.get());
-                    return Optional.of(idToken);
-                };
-            }
+        Optional<IdToken> idToken = idTokenForRequest.find(source);
+        if (idToken.isPresent()) {
+            return () -> idToken;
         }
-
         return ArgumentBinder.BindingResult.EMPTY;
     }
 }
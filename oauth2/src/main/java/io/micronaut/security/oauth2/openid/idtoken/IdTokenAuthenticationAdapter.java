@@ -21,18 +21,12 @@ import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import static io.micronaut.security.oauth2.openid.idtoken.Address.JSONKEY_COUNTRY;
-import static io.micronaut.security.oauth2.openid.idtoken.Address.JSONKEY_LOCALITY;
-import static io.micronaut.security.oauth2.openid.idtoken.Address.JSONKEY_POSTAL_CODE;
-import static io.micronaut.security.oauth2.openid.idtoken.Address.JSONKEY_REGION;
-import static io.micronaut.security.oauth2.openid.idtoken.Address.JSONKEY_STREET_ADDRESS;
-
 /**
- * Adapts from {@link Authentication} to {@link IdToken}.
+ * Adapts from {@link Authentication} to {@link IdToken}. Every getter reads the authentication attributes again, use
+ * {@link DefaultIdToken} to decode the claims once.
  *
  * @author Sergio del Amo
  * @since 1.0.0
@@ -77,7 +71,7 @@ public class IdTokenAuthenticationAdapter implements IdToken {
     @Nonnull
     @Override
     public String getAudience() {
-        return getStringValue(JwtClaims.AUDIENCE);
+        return ClaimValues.firstStringValue(getValue(JwtClaims.AUDIENCE));
     }
 
     @Nonnull
@@ -229,47 +223,29 @@ public class IdTokenAuthenticationAdapter implements IdToken {
         return authentication.getAttributes();
     }
 
+    private Object getValue(String claim) {
+        Map<String, Object> attributes = authentication.getAttributes();
+        return attributes != null ? attributes.get(claim) : null;
+    }
+
     private String getStringValue(String claim) {
-        if (authentication.getAttributes() != null && authentication.getAttributes().containsKey(claim)) {
-            Object value = authentication.getAttributes().get(claim);
-            if (value instanceof String) {
-                return (String) value;
-            }
-        }
-        return null;
+        return ClaimValues.stringValue(getValue(claim));
     }
 
     private Boolean getBooleanValue(String claim) {
-        if (authentication.getAttributes() != null && authentication.getAttributes().containsKey(claim)) {
-            Object value = authentication.getAttributes().get(claim);
-            if (value instanceof Boolean) {
-                return (Boolean) value;
-            }
-        }
-        return null;
+        return ClaimValues.booleanValue(getValue(claim));
     }
 
     private Integer getIntegerValue(String claim) {
-        if (authentication.getAttributes() != null && authentication.getAttributes().containsKey(claim)) {
-            Object value = authentication.getAttributes().get(claim);
-            if (value instanceof Integer) {
-                return (Integer) value;
-            }
-        }
-        return null;
+        return ClaimValues.integerValue(getValue(claim));
     }
 
     private Address getAddressValue(String claim) {
-        if (authentication.getAttributes() != null && authentication.getAttributes().containsKey(claim)) {
-            Object value = authentication.getAttributes().get(claim);
-            if (value instanceof Map) {
-                Map m = (Map) value;
-                return instantiateAddressFromMap(m);
-            } else if (value instanceof Address) {
-                return (Address) value;
-            }
+        Object value = getValue(claim);
+        if (value instanceof Map) {
+            return instantiateAddressFromMap((Map) value);
         }
-        return null;
+        return ClaimValues.addressValue(value);
     }
 
     /**
@@ -278,54 +254,11 @@ public class IdTokenAuthenticationAdapter implements IdToken {
      * @return An {@link Address} which represents an Address Claim.
      */
     protected Address instantiateAddressFromMap(Map m) {
-        Address address = new Address();
-        String country = stringValueAtKey(m, JSONKEY_COUNTRY);
-        if (country != null) {
-            address.setCountry(country);
-        }
-        String streetAddress = stringValueAtKey(m, JSONKEY_STREET_ADDRESS);
-        if (streetAddress != null) {
-            address.setStreetAddress(streetAddress);
-        }
-        String locality = stringValueAtKey(m, JSONKEY_LOCALITY);
-        if (locality != null) {
-            address.setLocality(locality);
-        }
-        String postalCode = stringValueAtKey(m, JSONKEY_POSTAL_CODE);
-        if (postalCode != null) {
-            address.setPostalCode(postalCode);
-        }
-        String region = stringValueAtKey(m, JSONKEY_REGION);
-        if (region != null) {
-            address.setPostalCode(region);
-        }
-        return address;
-    }
-
-    private String stringValueAtKey(Map m, String keyName) {
-        if (m.containsKey(keyName)) {
-            Object countryObj = m.get(keyName);
-            if (countryObj instanceof String) {
-                return (String) countryObj;
-            }
-        }
-        return null;
+        return ClaimValues.address(m);
     }
 
     private List<String> getListOfStringsValue(String claim) {
-        if (authentication.getAttributes() != null && authentication.getAttributes().containsKey(claim)) {
-            Object value = authentication.getAttributes().get(claim);
-            if (value instanceof List) {
-                List<String> result = new ArrayList<>();
-                for (Object item : (List) value) {
-                    if (item instanceof String) {
-                        result.add((String) item);
-                    }
-                }
-                return result;
-            }
-        }
-        return null;
+        return ClaimValues.stringListValue(getValue(claim));
     }
 
 }
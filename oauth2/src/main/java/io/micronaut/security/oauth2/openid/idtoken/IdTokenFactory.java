@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken;
+
+import io.micronaut.security.authentication.Authentication;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Creates the {@link IdToken} of an authenticated user. Replace the default bean to return a custom implementation,
+ * for example a subclass of {@link IdTokenAuthenticationAdapter} which overrides
+ * {@link IdTokenAuthenticationAdapter#instantiateAddressFromMap(java.util.Map)}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface IdTokenFactory {
+
+    /**
+     * @param authentication The authentication of the user
+     * @return The ID token built from the authentication attributes
+     */
+    @Nonnull
+    IdToken create(@Nonnull Authentication authentication);
+}
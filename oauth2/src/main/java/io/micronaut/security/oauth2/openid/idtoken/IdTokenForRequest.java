@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken;
+
+import io.micronaut.core.convert.value.MutableConvertibleValues;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.context.ServerRequestContext;
+import io.micronaut.http.filter.OncePerRequestHttpServerFilter;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.filters.SecurityFilter;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.util.Optional;
+
+/**
+ * Finds the {@link IdToken} of the authenticated user of a request. The ID token is created by the {@link IdTokenFactory}
+ * the first time it is requested and kept in a request attribute, so that filters, controllers and services handling
+ * the same request share one instance.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Singleton
+public class IdTokenForRequest {
+
+    /**
+     * The request attribute under which the decoded ID token is kept.
+     */
+    public static final String ATTRIBUTE = "micronaut.security.oauth2.idtoken";
+
+    private final IdTokenFactory idTokenFactory;
+
+    /**
+     * @param idTokenFactory The ID token factory
+     */
+    public IdTokenForRequest(IdTokenFactory idTokenFactory) {
+        this.idTokenFactory = idTokenFactory;
+    }
+
+    /**
+     * @param request The request
+     * @return The ID token of the authenticated user of the request, if any
+     */
+    @Nonnull
+    public Optional<IdToken> find(@Nonnull HttpRequest<?> request) {
+        MutableConvertibleValues<Object> attributes = request.getAttributes();
+        Optional<IdToken> cached = attributes.get(ATTRIBUTE, IdToken.class);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        if (!attributes.contains(OncePerRequestHttpServerFilter.getKey(SecurityFilter.class))) {
+            return Optional.empty();
+        }
+        Optional<IdToken> idToken = attributes.get(SecurityFilter.AUTHENTICATION.toString(), Authentication.class)
+                .map(idTokenFactory::create);
+        idToken.ifPresent(token -> attributes.put(ATTRIBUTE, token));
+        return idToken;
+    }
+
+    /**
+     * @return The ID token of the authenticated user of the request being handled by the current thread, if any
+     */
+    @Nonnull
+    public Optional<IdToken> current() {
+        return ServerRequestContext.currentRequest().flatMap(this::find);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.cache;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+/**
+ * Cache of the authentications of validated JWTs, keyed by a digest of the token.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface AuthenticationCache {
+
+    /**
+     *
+     * @param key The digest of the token
+     * @param cachedAuthentication The authentication of the token
+     */
+    void put(@Nonnull String key, @Nonnull CachedAuthentication cachedAuthentication);
+
+    /**
+     *
+     * @param key The digest of the token
+     * @return The authentication of the token, empty if it is not cached or has expired
+     */
+    @Nonnull
+    Optional<CachedAuthentication> find(@Nonnull String key);
+
+    /**
+     *
+     * @param key The digest of the token
+     */
+    void invalidate(@Nonnull String key);
+}
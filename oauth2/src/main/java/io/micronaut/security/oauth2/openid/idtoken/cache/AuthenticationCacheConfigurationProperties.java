@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.cache;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.configuration.OauthConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link AuthenticationCacheConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(AuthenticationCacheConfigurationProperties.PREFIX)
+public class AuthenticationCacheConfigurationProperties implements AuthenticationCacheConfiguration {
+
+    public static final String PREFIX = OauthConfigurationProperties.PREFIX + ".authentication-cache";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default number of shards.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_SHARDS = 16;
+
+    /**
+     * The default maximum number of entries.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int shards = DEFAULT_SHARDS;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Caches the authentication of validated JWTs until they expire. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * The number of independently locked shards of the in-memory cache. Default value ({@value #DEFAULT_SHARDS}).
+     * @param shards The number of shards
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * The maximum number of authentications kept in the in-memory cache. The least recently used are evicted first. Default value ({@value #DEFAULT_MAX_ENTRIES}).
+     * @param maxEntries The maximum number of entries
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * The maximum time the authentication of a JWT is cached. Entries are dropped when the JWT expires or after this time, whichever comes first. Default value (5 minutes).
+     *
+     * @param timeToLive The time to live
+     */
+    public void setTimeToLive(@Nonnull Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
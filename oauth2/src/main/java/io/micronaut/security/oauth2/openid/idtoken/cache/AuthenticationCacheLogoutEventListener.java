@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.cache;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.http.context.ServerRequestContext;
+import io.micronaut.security.event.LogoutEvent;
+import io.micronaut.security.token.reader.TokenResolver;
+
+import javax.inject.Singleton;
+
+/**
+ * Drops the cached authentication of the token of the browser which logs out.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = {CachingJwtTokenValidator.class, TokenResolver.class})
+@Singleton
+public class AuthenticationCacheLogoutEventListener implements ApplicationEventListener<LogoutEvent> {
+
+    private final CachingJwtTokenValidator cachingJwtTokenValidator;
+    private final TokenResolver tokenResolver;
+
+    /**
+     *
+     * @param cachingJwtTokenValidator Caching JWT token validator
+     * @param tokenResolver Token resolver
+     */
+    public AuthenticationCacheLogoutEventListener(CachingJwtTokenValidator cachingJwtTokenValidator, TokenResolver tokenResolver) {
+        this.cachingJwtTokenValidator = cachingJwtTokenValidator;
+        this.tokenResolver = tokenResolver;
+    }
+
+    @Override
+    public void onApplicationEvent(LogoutEvent event) {
+        ServerRequestContext.currentRequest()
+                .flatMap(tokenResolver::resolveToken)
+                .ifPresent(cachingJwtTokenValidator::invalidate);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.cache;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaimsSetAdapter;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The authentication of a validated JWT, together with its claims and the time at which it leaves the cache.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public final class CachedAuthentication {
+
+    private final Authentication authentication;
+    private final JWTClaimsSet claimsSet;
+    private final JwtClaims claims;
+    private final long expiresAt;
+
+    /**
+     *
+     * @param authentication The authentication created from the JWT
+     * @param claimsSet The claims of the JWT
+     * @param expiresAt The time at which the entry leaves the cache in milliseconds since the epoch, at the latest the expiration of the JWT
+     */
+    public CachedAuthentication(@Nonnull Authentication authentication, @Nonnull JWTClaimsSet claimsSet, long expiresAt) {
+        this.authentication = authentication;
+        this.claimsSet = claimsSet;
+        this.claims = new JwtClaimsSetAdapter(claimsSet);
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return The authentication created from the JWT
+     */
+    @Nonnull
+    public Authentication getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     * @return The claims of the JWT
+     */
+    @Nonnull
+    public JwtClaims getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return The claims set of the JWT, checked again by the claims validators whenever the entry is used
+     */
+    @Nonnull
+    public JWTClaimsSet getClaimsSet() {
+        return claimsSet;
+    }
+
+    /**
+     * @return The time at which the entry leaves the cache in milliseconds since the epoch
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @param now The current time in milliseconds since the epoch
+     * @return true if the entry has expired
+     */
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
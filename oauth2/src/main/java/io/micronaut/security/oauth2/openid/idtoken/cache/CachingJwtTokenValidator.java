@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.cache;
+
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Secondary;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdProviderConfiguration;
+import io.micronaut.security.oauth2.openid.idtoken.denylist.TokenDenyList;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStore;
+import io.micronaut.security.oauth2.openid.jwks.JwksKeyStoreJwtTokenValidator;
+import io.micronaut.security.token.jwt.config.JwtConfigurationProperties;
+import io.micronaut.security.token.jwt.encryption.EncryptionConfiguration;
+import io.micronaut.security.token.jwt.signature.SignatureConfiguration;
+import io.micronaut.security.token.jwt.validator.GenericJwtClaimsValidator;
+import io.micronaut.security.token.jwt.validator.JwtAuthenticationFactory;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * {@link io.micronaut.security.token.jwt.validator.JwtTokenValidator} which caches the authentication of the JWTs issued
+ * by the configured Open ID Provider. A browser sending the same ID token cookie with every request pays the signature
+ * verification once per token instead of once per request. Entries expire with the token, or after the configured time
+ * to live if earlier. Cached tokens are still checked by the claims validators and against the {@link TokenDenyList},
+ * and are dropped on logout. Tokens without an expiration or from other issuers are not cached. Like the validator it
+ * replaces, it is a secondary bean.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = JwtConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = AuthenticationCache.class)
+@Replaces(JwksKeyStoreJwtTokenValidator.class)
+@Secondary
+@Singleton
+public class CachingJwtTokenValidator extends JwksKeyStoreJwtTokenValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingJwtTokenValidator.class);
+
+    private final AuthenticationCache authenticationCache;
+    private final AuthenticationCacheConfiguration authenticationCacheConfiguration;
+    private final OpenIdProviderConfiguration openIdProviderConfiguration;
+    private final TokenDenyList tokenDenyList;
+
+    /**
+     *
+     * @param signatureConfigurations List of Signature configurations which are used to attempt validation.
+     * @param encryptionConfigurations List of Encryption configurations which are used to attempt validation.
+     * @param genericJwtClaimsValidators Generic JWT Claims validators which should be used to validate any JWT.
+     * @param jwtAuthenticationFactory Utility to generate an Authentication given a JWT.
+     * @param jwksKeyStore JSON Web Key Set key store, present if an OpenID configuration is available
+     * @param authenticationCache The authentication cache
+     * @param authenticationCacheConfiguration The authentication cache configuration
+     * @param openIdProviderConfiguration Open ID Provider configuration
+     * @param tokenDenyList Token deny list, present if the deny list is enabled
+     */
+    public CachingJwtTokenValidator(Collection<SignatureConfiguration> signatureConfigurations,
+                                    Collection<EncryptionConfiguration> encryptionConfigurations,
+                                    Collection<GenericJwtClaimsValidator> genericJwtClaimsValidators,
+                                    JwtAuthenticationFactory jwtAuthenticationFactory,
+                                    @Nullable JwksKeyStore jwksKeyStore,
+                                    AuthenticationCache authenticationCache,
+                                    AuthenticationCacheConfiguration authenticationCacheConfiguration,
+                                    OpenIdProviderConfiguration openIdProviderConfiguration,
+                                    @Nullable TokenDenyList tokenDenyList) {
+        super(signatureConfigurations, encryptionConfigurations, genericJwtClaimsValidators, jwtAuthenticationFactory, jwksKeyStore);
+        this.authenticationCache = authenticationCache;
+        this.authenticationCacheConfiguration = authenticationCacheConfiguration;
+        this.openIdProviderConfiguration = openIdProviderConfiguration;
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    @Override
+    public Publisher<Authentication> validateToken(String token) {
+        String key = hash(token);
+        Optional<CachedAuthentication> cached = authenticationCache.find(key);
+        if (cached.isPresent()) {
+            if (!verifyClaims(cached.get().getClaimsSet(), genericJwtClaimsValidators)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("cached JWT no longer passes the claims validators");
+                }
+                authenticationCache.invalidate(key);
+                return Flowable.empty();
+            }
+            if (tokenDenyList != null && tokenDenyList.isDenied(cached.get().getClaims())) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("cached JWT is in the deny list");
+                }
+                authenticationCache.invalidate(key);
+                return Flowable.empty();
+            }
+            return Flowable.just(cached.get().getAuthentication());
+        }
+        return awaitKeys(token).andThen(Flowable.defer(() -> validateAndCache(key, token)));
+    }
+
+    private Publisher<Authentication> validateAndCache(String key, String token) {
+        Optional<JWT> jwt = validateJwtSignatureAndClaims(token, genericJwtClaimsValidators);
+        if (!jwt.isPresent()) {
+            return Flowable.empty();
+        }
+        Optional<Authentication> authentication = jwtAuthenticationFactory.createAuthentication(jwt.get());
+        if (!authentication.isPresent()) {
+            return Flowable.empty();
+        }
+        cache(key, jwt.get(), authentication.get());
+        return Flowable.just(authentication.get());
+    }
+
+    /**
+     * Removes the authentication of a token from the cache.
+     *
+     * @param token The JWT
+     */
+    public void invalidate(@Nonnull String token) {
+        authenticationCache.invalidate(hash(token));
+    }
+
+    private void cache(String key, JWT jwt, Authentication authentication) {
+        try {
+            JWTClaimsSet claimsSet = jwt.getJWTClaimsSet();
+            String issuer = openIdProviderConfiguration.getIssuer();
+            if (claimsSet.getExpirationTime() != null && issuer != null && issuer.equals(claimsSet.getIssuer())) {
+                long expiresAt = Math.min(claimsSet.getExpirationTime().getTime(),
+                        System.currentTimeMillis() + authenticationCacheConfiguration.getTimeToLive().toMillis());
+                authenticationCache.put(key, new CachedAuthentication(authentication, claimsSet, expiresAt));
+            }
+        } catch (ParseException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("could not read the claims of a validated JWT", e);
+            }
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.cache;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In memory implementation of {@link AuthenticationCache}. Keys are spread over independently locked shards, each of
+ * them bounded and evicting its least recently used authentication once full.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = AuthenticationCacheConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Singleton
+public class DefaultAuthenticationCache implements AuthenticationCache {
+
+    private final Shard[] shards;
+
+    /**
+     * @param configuration The authentication cache configuration
+     */
+    public DefaultAuthenticationCache(AuthenticationCacheConfiguration configuration) {
+        int shardCount = Math.max(1, configuration.getShards());
+        int shardCapacity = Math.max(1, (configuration.getMaxEntries() + shardCount - 1) / shardCount);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(shardCapacity);
+        }
+    }
+
+    @Override
+    public void put(@Nonnull String key, @Nonnull CachedAuthentication cachedAuthentication) {
+        shardFor(key).put(key, cachedAuthentication);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<CachedAuthentication> find(@Nonnull String key) {
+        return Optional.ofNullable(shardFor(key).get(key, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void invalidate(@Nonnull String key) {
+        shardFor(key).remove(key);
+    }
+
+    private Shard shardFor(String key) {
+        int hash = key.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    /**
+     * A portion of the cache guarded by its own lock, in access order.
+     */
+    private static final class Shard {
+        private final Map<String, CachedAuthentication> entries;
+
+        Shard(int capacity) {
+            this.entries = new LinkedHashMap<String, CachedAuthentication>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedAuthentication> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized void put(String key, CachedAuthentication cachedAuthentication) {
+            entries.put(key, cachedAuthentication);
+        }
+
+        synchronized CachedAuthentication get(String key, long now) {
+            CachedAuthentication cachedAuthentication = entries.get(key);
+            if (cachedAuthentication != null && cachedAuthentication.isExpired(now)) {
+                entries.remove(key);
+                return null;
+            }
+            return cachedAuthentication;
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+    }
+}
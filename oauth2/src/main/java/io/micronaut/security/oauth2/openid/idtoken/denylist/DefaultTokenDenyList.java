@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Default implementation of {@link TokenDenyList}.
+ *
+ * A Bloom filter sits in front of the {@link TokenDenyListStore}, so checking a token which was never denied costs a
+ * few hash operations and no lookup. The filter is rebuilt from the store periodically, which drops expired tokens
+ * from it and picks up tokens denied by other instances sharing a distributed store.
+ *
+ * Tokens are keyed by their jti claim. Tokens without one are keyed by their iss, sub and iat claims.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = TokenDenyListConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Singleton
+public class DefaultTokenDenyList implements TokenDenyList {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultTokenDenyList.class);
+
+    private final TokenDenyListStore store;
+    private final TokenDenyListConfiguration configuration;
+    private final ScheduledFuture<?> scheduledRebuild;
+    private volatile BloomFilter bloomFilter;
+
+    /**
+     *
+     * @param store Deny list store
+     * @param configuration Deny list configuration
+     * @param taskScheduler Task scheduler used to rebuild the Bloom filter
+     */
+    public DefaultTokenDenyList(TokenDenyListStore store,
+                                TokenDenyListConfiguration configuration,
+                                @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler) {
+        this.store = store;
+        this.configuration = configuration;
+        rebuild();
+        this.scheduledRebuild = taskScheduler.scheduleWithFixedDelay(configuration.getRebuildInterval(),
+                configuration.getRebuildInterval(),
+                this::rebuild);
+    }
+
+    @Override
+    public boolean deny(@Nonnull JwtClaims claims) {
+        Optional<String> key = key(claims);
+        Optional<Instant> expiration = instant(claims.get(JwtClaims.EXPIRATION_TIME));
+        if (!key.isPresent() || !expiration.isPresent()) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("token cannot be denied, it lacks the claims to identify it or its expiration");
+            }
+            return false;
+        }
+        synchronized (this) {
+            store.put(key.get(), expiration.get());
+            bloomFilter.put(key.get());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isDenied(@Nonnull JwtClaims claims) {
+        return key(claims)
+                .filter(key -> bloomFilter.mightContain(key))
+                .map(store::contains)
+                .orElse(false);
+    }
+
+    /**
+     * Rebuilds the Bloom filter with the tokens of the store which have not expired.
+     */
+    public synchronized void rebuild() {
+        Collection<String> keys = store.keys();
+        BloomFilter rebuilt = new BloomFilter(Math.max(configuration.getExpectedInsertions(), keys.size() * 2),
+                configuration.getFalsePositiveProbability());
+        keys.forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("rebuilt deny list Bloom filter with {} tokens", keys.size());
+        }
+    }
+
+    /**
+     * Stops rebuilding the Bloom filter.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledRebuild.cancel(false);
+    }
+
+    /**
+     *
+     * @param claims The claims of the token
+     * @return The key of the token in the deny list, or an empty optional if the token cannot be identified.
+     */
+    protected Optional<String> key(JwtClaims claims) {
+        Object jti = claims.get(JwtClaims.JWT_ID);
+        if (jti != null) {
+            return Optional.of("jti:" + jti);
+        }
+        return instant(claims.get(JwtClaims.ISSUED_AT))
+                .map(iat -> "iat:" + claims.get(JwtClaims.ISSUER) + ':' + claims.get(JwtClaims.SUBJECT) + ':' + iat.getEpochSecond());
+    }
+
+    private static Optional<Instant> instant(Object claim) {
+        if (claim instanceof Date) {
+            return Optional.of(((Date) claim).toInstant());
+        }
+        if (claim instanceof Number) {
+            return Optional.of(Instant.ofEpochSecond(((Number) claim).longValue()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory implementation of {@link TokenDenyListStore}. Replace this bean to share the deny list between several
+ * instances.
+ *
+ * The store holds at most {@link TokenDenyListConfiguration#getMaximumSize()} tokens. Once it is full, expired tokens
+ * are dropped and, if none has expired, the token which expires first.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = TokenDenyListConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Singleton
+public class DefaultTokenDenyListStore implements TokenDenyListStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultTokenDenyListStore.class);
+
+    private final Map<String, Long> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+
+    /**
+     *
+     * @param configuration Deny list configuration
+     */
+    public DefaultTokenDenyListStore(TokenDenyListConfiguration configuration) {
+        this.maximumSize = configuration.getMaximumSize();
+    }
+
+    @Override
+    public synchronized void put(@Nonnull String key, @Nonnull Instant expiration) {
+        if (!entries.containsKey(key) && entries.size() >= maximumSize) {
+            evict();
+        }
+        entries.merge(key, expiration.toEpochMilli(), Math::max);
+    }
+
+    @Override
+    public boolean contains(@Nonnull String key) {
+        Long expiresAt = entries.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    @Nonnull
+    @Override
+    public Collection<String> keys() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(expiresAt -> expiresAt <= now);
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Drops the expired tokens or, if none has expired, the token which expires first.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(expiresAt -> expiresAt <= now);
+        if (entries.size() < maximumSize) {
+            return;
+        }
+        entries.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .ifPresent(eldest -> {
+                    entries.remove(eldest.getKey());
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("deny list is full with {} tokens, dropping the token which expires first", maximumSize);
+                    }
+                });
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Local deny list of revoked ID tokens. Denied tokens are rejected without calling the provider until they expire.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface TokenDenyList {
+
+    /**
+     * Denies a token until its expiration.
+     *
+     * @param claims The claims of the token
+     * @return false if the token could not be denied because it has neither a jti nor an iat claim, or no exp claim
+     */
+    boolean deny(@Nonnull JwtClaims claims);
+
+    /**
+     *
+     * @param claims The claims of the token
+     * @return true if the token has been denied
+     */
+    boolean isDenied(@Nonnull JwtClaims claims);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link DefaultTokenDenyList}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface TokenDenyListConfiguration extends Toggleable {
+
+    /**
+     * @return The number of denied tokens the Bloom filter is sized for.
+     */
+    int getExpectedInsertions();
+
+    /**
+     * @return The false positive probability of the Bloom filter at the expected number of denied tokens.
+     */
+    double getFalsePositiveProbability();
+
+    /**
+     * @return The interval at which the Bloom filter is rebuilt from the deny list store.
+     */
+    @Nonnull
+    Duration getRebuildInterval();
+
+    /**
+     * @return The maximum number of denied tokens kept by the in memory deny list store.
+     */
+    int getMaximumSize();
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.configuration.OauthConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link TokenDenyListConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(TokenDenyListConfigurationProperties.PREFIX)
+public class TokenDenyListConfigurationProperties implements TokenDenyListConfiguration {
+
+    public static final String PREFIX = OauthConfigurationProperties.PREFIX + ".deny-list";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default number of expected insertions.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_EXPECTED_INSERTIONS = 100000;
+
+    /**
+     * The default false positive probability.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /**
+     * The default rebuild interval.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_REBUILD_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The default maximum number of denied tokens.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int expectedInsertions = DEFAULT_EXPECTED_INSERTIONS;
+    private double falsePositiveProbability = DEFAULT_FALSE_POSITIVE_PROBABILITY;
+    private Duration rebuildInterval = DEFAULT_REBUILD_INTERVAL;
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rejects ID tokens which are in the deny list. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * The number of denied tokens the Bloom filter is sized for. Default value ({@value #DEFAULT_EXPECTED_INSERTIONS}).
+     * @param expectedInsertions The expected number of denied tokens
+     */
+    public void setExpectedInsertions(int expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    @Override
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    /**
+     * The false positive probability of the Bloom filter. A false positive costs a lookup in the deny list store. Default value ({@value #DEFAULT_FALSE_POSITIVE_PROBABILITY}).
+     * @param falsePositiveProbability The false positive probability
+     */
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    /**
+     * The interval at which the Bloom filter is rebuilt from the deny list store, which drops expired tokens and picks up tokens denied by other instances. Default value (1 minute).
+     * @param rebuildInterval The rebuild interval
+     */
+    public void setRebuildInterval(@Nonnull Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * The maximum number of denied tokens kept by the in memory deny list store. Once it is reached, the tokens which expire first are dropped. Default value ({@value #DEFAULT_MAXIMUM_SIZE}).
+     * @param maximumSize The maximum number of denied tokens
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+import io.micronaut.security.token.jwt.validator.GenericJwtClaimsValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+
+/**
+ * Rejects tokens which are in the {@link TokenDenyList}. As a {@link GenericJwtClaimsValidator}, it runs when an ID token
+ * is received from the token endpoint and whenever a JWT authenticates a request.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = TokenDenyList.class)
+@Singleton
+public class TokenDenyListJwtClaimsValidator implements GenericJwtClaimsValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenDenyListJwtClaimsValidator.class);
+
+    private final TokenDenyList tokenDenyList;
+
+    /**
+     *
+     * @param tokenDenyList Token deny list
+     */
+    public TokenDenyListJwtClaimsValidator(TokenDenyList tokenDenyList) {
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    @Override
+    public boolean validate(JwtClaims claims) {
+        boolean denied = tokenDenyList.isDenied(claims);
+        if (denied && LOG.isDebugEnabled()) {
+            LOG.debug("JWT is in the deny list");
+        }
+        return !denied;
+    }
+}
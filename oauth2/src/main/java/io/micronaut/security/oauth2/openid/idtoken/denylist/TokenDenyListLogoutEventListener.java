@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.event.LogoutEvent;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaimsSetAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+
+/**
+ * Adds the ID token of the browser which logs out to the {@link TokenDenyList}, so that it cannot be replayed
+ * before it expires.
+ *
+ * The token is identified by the attributes of the {@link Authentication} the logout event is published with. Those
+ * are the claims of the token the request was authenticated with, once its signature and claims were validated. An
+ * anonymous logout, or one authenticated without a token, denies nothing.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = TokenDenyList.class)
+@Singleton
+public class TokenDenyListLogoutEventListener implements ApplicationEventListener<LogoutEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenDenyListLogoutEventListener.class);
+
+    private final TokenDenyList tokenDenyList;
+
+    /**
+     *
+     * @param tokenDenyList Token deny list
+     */
+    public TokenDenyListLogoutEventListener(TokenDenyList tokenDenyList) {
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    @Override
+    public void onApplicationEvent(LogoutEvent event) {
+        if (!(event.getSource() instanceof Authentication)) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("logout event without an authentication, no token is denied");
+            }
+            return;
+        }
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+        ((Authentication) event.getSource()).getAttributes().forEach(builder::claim);
+        tokenDenyList.deny(new JwtClaimsSetAdapter(builder.build()));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.idtoken.denylist;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Backend of the {@link TokenDenyList}. Implement it with a distributed store to share the deny list between
+ * several instances.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface TokenDenyListStore {
+
+    /**
+     * Denies a token until it expires.
+     *
+     * @param key The key of the token
+     * @param expiration The expiration of the token, after which the entry can be dropped
+     */
+    void put(@Nonnull String key, @Nonnull Instant expiration);
+
+    /**
+     *
+     * @param key The key of the token
+     * @return true if the token is denied and has not expired
+     */
+    boolean contains(@Nonnull String key);
+
+    /**
+     *
+     * @return The keys of the denied tokens which have not expired.
+     */
+    @Nonnull
+    Collection<String> keys();
+}
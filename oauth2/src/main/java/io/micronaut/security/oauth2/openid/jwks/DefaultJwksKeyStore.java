@@ -0,0 +1,327 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdConfiguration;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Default implementation of {@link JwksKeyStore}.
+ *
+ * Keys are looked up by key ID without network calls. The JSON Web Key Set is only fetched again if an unknown key ID is
+ * requested, at most once per minimum refetch interval, or in the background once the keys expire according to the
+ * {@code Cache-Control} or {@code Expires} headers of the JSON Web Key Set response. Concurrent fetches are coalesced
+ * into a single request whose result is shared by every caller. No method blocks the calling thread, which is usually
+ * an event loop thread.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Requires(beans = OpenIdConfiguration.class)
+@Singleton
+public class DefaultJwksKeyStore implements JwksKeyStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultJwksKeyStore.class);
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+
+    private final OpenIdConfiguration openIdConfiguration;
+    private final JwksKeyStoreConfiguration jwksKeyStoreConfiguration;
+    private final RxHttpClient jwksClient;
+
+    private volatile KeySet keySet;
+    private Single<KeySet> inFlight;
+    private long lastFetchAttempt;
+
+    /**
+     *
+     * @param openIdConfiguration Open ID Configuration
+     * @param jwksKeyStoreConfiguration JWKS Key Store configuration
+     * @param jwksClient RxHttpClient pointing to the JWKS endpoint
+     */
+    public DefaultJwksKeyStore(OpenIdConfiguration openIdConfiguration,
+                               JwksKeyStoreConfiguration jwksKeyStoreConfiguration,
+                               @Named("oauth2jwks") RxHttpClient jwksClient) {
+        this.openIdConfiguration = openIdConfiguration;
+        this.jwksKeyStoreConfiguration = jwksKeyStoreConfiguration;
+        this.jwksClient = jwksClient;
+    }
+
+    @Nonnull
+    @Override
+    public List<JWK> getKeys(@Nullable String keyId) {
+        KeySet current = keySet;
+        if (current == null || current.isExpired(System.currentTimeMillis()) || !current.contains(keyId)) {
+            refreshInBackground();
+        }
+        return find(current, keyId);
+    }
+
+    @Nonnull
+    @Override
+    public Single<List<JWK>> findKeys(@Nullable String keyId) {
+        long requestedAt = System.currentTimeMillis();
+        KeySet current = keySet;
+        if (current != null && current.contains(keyId)) {
+            if (current.isExpired(requestedAt)) {
+                refreshInBackground();
+            }
+            return Single.just(find(current, keyId));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("no JWK found for key ID {}, fetching the JWKS again", keyId);
+        }
+        return refetch(requestedAt)
+                .map(fetched -> find(fetched, keyId))
+                .onErrorReturn(throwable -> {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("could not wait for the JWKS from {}", openIdConfiguration.getJwksUri(), throwable);
+                    }
+                    return find(keySet, keyId);
+                });
+    }
+
+    @Nonnull
+    @Override
+    public Optional<JWSVerifier> getVerifier(@Nonnull JWK jwk) {
+        KeySet current = keySet;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.verifiersByKey.get(jwk));
+    }
+
+    /**
+     * Builds the verifier of a JSON Web Key. It is called once per key and fetch of the JSON Web Key Set.
+     *
+     * @param jwk The public JSON Web Key
+     * @return A verifier for RSA and EC signing keys, empty otherwise
+     */
+    protected Optional<JWSVerifier> createVerifier(@Nonnull JWK jwk) {
+        if (KeyUse.ENCRYPTION.equals(jwk.getKeyUse())) {
+            return Optional.empty();
+        }
+        try {
+            if (jwk instanceof RSAKey) {
+                return Optional.of(new RSASSAVerifier((RSAKey) jwk));
+            }
+            if (jwk instanceof ECKey) {
+                return Optional.of(new ECDSAVerifier((ECKey) jwk));
+            }
+        } catch (JOSEException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("could not create a verifier for JWK with key ID {}", jwk.getKeyID(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<JWK> find(@Nullable KeySet current, @Nullable String keyId) {
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        if (keyId == null) {
+            return current.keys;
+        }
+        JWK key = current.keysById.get(keyId);
+        return key != null ? Collections.singletonList(key) : Collections.emptyList();
+    }
+
+    @Nonnull
+    @Override
+    public Single<List<JWK>> refresh() {
+        return fetchShared().map(fetched -> fetched.keys);
+    }
+
+    /**
+     * Returns the JWKS once fetched. Concurrent callers share a single fetch and fetches are skipped within the minimum
+     * refetch interval.
+     *
+     * @param requestedAt The time at which the caller looked for a key
+     * @return The key set, which may be the current one if the fetch was skipped.
+     */
+    private Single<KeySet> refetch(long requestedAt) {
+        Single<KeySet> pending;
+        synchronized (this) {
+            KeySet current = keySet;
+            if (current != null && current.fetchedAt > requestedAt) {
+                return Single.just(current);
+            }
+            if (inFlight == null && isRateLimited()) {
+                return current != null ? Single.just(current) : Single.error(new IllegalStateException("JWKS fetch skipped"));
+            }
+            pending = fetchShared();
+        }
+        return pending.timeout(jwksKeyStoreConfiguration.getFetchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void refreshInBackground() {
+        if (inFlight == null && !isRateLimited()) {
+            fetchShared();
+        }
+    }
+
+    /**
+     * Returns the fetch in progress or starts a new one. Every subscriber receives the result of the same request.
+     *
+     * @return The shared fetch of the JWKS
+     */
+    private synchronized Single<KeySet> fetchShared() {
+        Single<KeySet> pending = inFlight;
+        if (pending == null) {
+            lastFetchAttempt = System.currentTimeMillis();
+            pending = fetch(lastFetchAttempt)
+                    .doOnSuccess(fetched -> keySet = fetched)
+                    .doOnError(throwable -> {
+                        if (LOG.isErrorEnabled()) {
+                            LOG.error("Exception loading JWKS from {}", openIdConfiguration.getJwksUri(), throwable);
+                        }
+                    })
+                    .doOnEvent((fetched, throwable) -> clearInFlight())
+                    .cache();
+            inFlight = pending;
+            pending.subscribe((fetched, throwable) -> { });
+        }
+        return pending;
+    }
+
+    private synchronized void clearInFlight() {
+        inFlight = null;
+    }
+
+    private boolean isRateLimited() {
+        Duration minRefetchInterval = jwksKeyStoreConfiguration.getMinRefetchInterval();
+        if (System.currentTimeMillis() - lastFetchAttempt < minRefetchInterval.toMillis()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("JWKS fetched less than {} ago, skipping fetch", minRefetchInterval);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private Single<KeySet> fetch(long startedAt) {
+        return jwksClient.exchange(HttpRequest.GET(openIdConfiguration.getJwksUri()), String.class)
+                .firstOrError()
+                .map(response -> parse(response, startedAt));
+    }
+
+    private KeySet parse(HttpResponse<String> response, long startedAt) throws ParseException {
+        String body = response.getBody().orElseThrow(() -> new ParseException("JWKS response without body", 0));
+        List<JWK> keys = JWKSet.parse(body).toPublicJWKSet().getKeys();
+        long now = System.currentTimeMillis();
+        Duration timeToLive = resolveTimeToLive(response);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("fetched {} JWKs, cached for {}", keys.size(), timeToLive);
+        }
+        return new KeySet(keys, this::createVerifier, startedAt, now + timeToLive.toMillis());
+    }
+
+    /**
+     * @param response The JWKS endpoint response
+     * @return The time during which the keys are considered fresh
+     */
+    protected Duration resolveTimeToLive(HttpResponse<?> response) {
+        HttpHeaders headers = response.getHeaders();
+        Optional<Duration> maxAge = headers.findFirst(HttpHeaders.CACHE_CONTROL).flatMap(this::parseMaxAge);
+        if (maxAge.isPresent()) {
+            return maxAge.get();
+        }
+        Optional<ZonedDateTime> expires = headers.findDate(HttpHeaders.EXPIRES);
+        if (expires.isPresent()) {
+            long millis = expires.get().toInstant().toEpochMilli() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(millis, 0));
+        }
+        return jwksKeyStoreConfiguration.getDefaultTimeToLive();
+    }
+
+    private Optional<Duration> parseMaxAge(String cacheControl) {
+        if (cacheControl.contains("no-cache") || cacheControl.contains("no-store")) {
+            return Optional.of(Duration.ZERO);
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        if (matcher.find()) {
+            return Optional.of(Duration.ofSeconds(Long.parseLong(matcher.group(1))));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Public keys of a fetched JWKS indexed by key ID, and their verifiers.
+     */
+    private static final class KeySet {
+        private final List<JWK> keys;
+        private final Map<String, JWK> keysById = new HashMap<>();
+        private final Map<JWK, JWSVerifier> verifiersByKey = new IdentityHashMap<>();
+        private final long fetchedAt;
+        private final long expiresAt;
+
+        KeySet(List<JWK> keys, Function<JWK, Optional<JWSVerifier>> verifierFactory, long fetchedAt, long expiresAt) {
+            this.keys = Collections.unmodifiableList(keys);
+            for (JWK key : keys) {
+                verifierFactory.apply(key).ifPresent(verifier -> verifiersByKey.put(key, verifier));
+                if (key.getKeyID() != null) {
+                    keysById.put(key.getKeyID(), key);
+                }
+            }
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean contains(@Nullable String keyId) {
+            return keyId == null || keysById.containsKey(keyId);
+        }
+
+        boolean isExpired(long now) {
+            return now > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.http.client.RxHttpClient;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdConfiguration;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdProviderConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Creates an RxHttpClient to fetch the Open ID Provider's JSON Web Key Set.
+ *
+ * The client is based on the statically configured JWKS URI or, failing that, on the issuer, so that creating it
+ * never waits for the OpenID configuration to be discovered. Requests are sent to the absolute JWKS URI.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@Requires(beans = OpenIdConfiguration.class)
+@Factory
+public class JwksClientFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JwksClientFactory.class);
+
+    private final OpenIdConfiguration openIdConfiguration;
+    private final OpenIdProviderConfiguration openIdProviderConfiguration;
+
+    /**
+     *
+     * @param openIdConfiguration Open ID Configuration
+     * @param openIdProviderConfiguration Open ID Provider configuration
+     */
+    public JwksClientFactory(OpenIdConfiguration openIdConfiguration,
+                             OpenIdProviderConfiguration openIdProviderConfiguration) {
+        this.openIdConfiguration = openIdConfiguration;
+        this.openIdProviderConfiguration = openIdProviderConfiguration;
+    }
+
+    /**
+     *
+     * @param context Bean Context
+     * @param configuration HttpClient configuration
+     * @return An RxHttpClient bean named oauth2jwks using the JWKS URL
+     */
+    @Named("oauth2jwks")
+    @Bean(preDestroy = "close")
+    public RxHttpClient jwksClient(@Nonnull BeanContext context, @Nullable HttpClientConfiguration configuration) {
+        String uri = baseUri();
+        URL url;
+        try {
+            url = new URL(uri);
+        } catch (MalformedURLException e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error("Malformed URL exception with JWKS uri: {}", uri, e);
+            }
+            return null;
+        }
+        return context.createBean(RxHttpClient.class, url, configuration);
+    }
+
+    /**
+     *
+     * @return The URI the client is based on, preferring values which are known without discovery.
+     */
+    private String baseUri() {
+        if (openIdProviderConfiguration.getJwksUri() != null) {
+            return openIdProviderConfiguration.getJwksUri();
+        }
+        if (openIdProviderConfiguration.getIssuer() != null) {
+            return openIdProviderConfiguration.getIssuer();
+        }
+        return openIdConfiguration.getJwksUri();
+    }
+}
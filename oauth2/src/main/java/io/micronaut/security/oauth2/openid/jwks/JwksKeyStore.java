@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.SignedJWT;
+import io.reactivex.Completable;
+import io.reactivex.Single;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the public keys of the Open ID Provider's JSON Web Key Set indexed by key ID.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface JwksKeyStore {
+
+    /**
+     * Returns the keys matching a key ID without waiting for the network. An unknown key ID, for example after the Open ID
+     * Provider rotated its signing keys, triggers a rate limited fetch of the JSON Web Key Set in the background.
+     *
+     * @param keyId The key ID (kid) of the JWT header or null if the JWT does not specify one.
+     * @return The key matching the key ID, every key if the key ID is null, or an empty list if no key matches.
+     */
+    @Nonnull
+    List<JWK> getKeys(@Nullable String keyId);
+
+    /**
+     * Returns the keys matching a key ID. An unknown key ID triggers a rate limited fetch of the JSON Web Key Set, whose
+     * result is emitted without blocking the calling thread.
+     *
+     * @param keyId The key ID (kid) of the JWT header or null if the JWT does not specify one.
+     * @return The key matching the key ID, every key if the key ID is null, or an empty list if no key matches once fetched.
+     */
+    @Nonnull
+    Single<List<JWK>> findKeys(@Nullable String keyId);
+
+    /**
+     * Returns the signature verifier of a key returned by {@link #getKeys(String)}. Verifiers are built once per key when
+     * the JSON Web Key Set is fetched and may be shared between threads.
+     *
+     * @param jwk A key returned by this key store
+     * @return The verifier of the key or an empty optional if the key was not fetched by this key store or cannot verify signatures.
+     */
+    @Nonnull
+    Optional<JWSVerifier> getVerifier(@Nonnull JWK jwk);
+
+    /**
+     * Fetches the JSON Web Key Set. If a fetch is already in progress, its result is returned instead of sending another request.
+     *
+     * @return The keys of the fetched JSON Web Key Set
+     */
+    @Nonnull
+    Single<List<JWK>> refresh();
+
+    /**
+     * Waits until the key identified by the header of a signed JWT is known, fetching the JSON Web Key Set if needed, for
+     * at most the fetch timeout. Call it before verifying a JWT synchronously, since signature verification only looks
+     * up the keys already fetched.
+     *
+     * @param token The JWT
+     * @return Completes once the key is known or could not be fetched, without blocking the calling thread.
+     */
+    @Nonnull
+    default Completable awaitKeys(@Nonnull String token) {
+        JWT jwt;
+        try {
+            jwt = JWTParser.parse(token);
+        } catch (ParseException e) {
+            return Completable.complete();
+        }
+        if (!(jwt instanceof SignedJWT)) {
+            return Completable.complete();
+        }
+        return findKeys(((SignedJWT) jwt).getHeader().getKeyID()).ignoreElement().onErrorComplete();
+    }
+}
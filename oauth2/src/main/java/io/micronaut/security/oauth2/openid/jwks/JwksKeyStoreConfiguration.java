@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link JwksKeyStore}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public interface JwksKeyStoreConfiguration {
+
+    /**
+     * Time during which the fetched keys are considered fresh if the JSON Web Key Set response does not include caching headers.
+     * @return The default time to live.
+     */
+    @Nonnull
+    Duration getDefaultTimeToLive();
+
+    /**
+     * Minimum time between two fetches of the JSON Web Key Set. Fetches triggered by unknown key IDs are skipped within this interval.
+     * @return The minimum refetch interval.
+     */
+    @Nonnull
+    Duration getMinRefetchInterval();
+
+    /**
+     * Maximum time to wait for the JSON Web Key Set when a key is missing.
+     * @return The fetch timeout.
+     */
+    @Nonnull
+    Duration getFetchTimeout();
+
+    /**
+     * Whether the JSON Web Key Set is fetched once the application starts, so that the first logins find the keys.
+     * @return true if the keys are fetched at startup.
+     */
+    boolean isFetchOnStartup();
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.openid.configuration.OpenIdProviderConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link JwksKeyStoreConfiguration}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+@ConfigurationProperties(JwksKeyStoreConfigurationProperties.PREFIX)
+public class JwksKeyStoreConfigurationProperties implements JwksKeyStoreConfiguration {
+
+    public static final String PREFIX = OpenIdProviderConfigurationProperties.PREFIX + ".jwks-key-store";
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+
+    /**
+     * The default minimum refetch interval.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MIN_REFETCH_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * The default fetch timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_FETCH_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * The default fetch on startup value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_FETCH_ON_STARTUP = true;
+
+    private Duration defaultTimeToLive = DEFAULT_TIME_TO_LIVE;
+    private Duration minRefetchInterval = DEFAULT_MIN_REFETCH_INTERVAL;
+    private Duration fetchTimeout = DEFAULT_FETCH_TIMEOUT;
+    private boolean fetchOnStartup = DEFAULT_FETCH_ON_STARTUP;
+
+    @Nonnull
+    @Override
+    public Duration getDefaultTimeToLive() {
+        return defaultTimeToLive;
+    }
+
+    /**
+     * Time during which the fetched keys are considered fresh if the JSON Web Key Set response does not include Cache-Control or Expires headers. Default value (1 hour).
+     * @param defaultTimeToLive The default time to live
+     */
+    public void setDefaultTimeToLive(@Nonnull Duration defaultTimeToLive) {
+        this.defaultTimeToLive = defaultTimeToLive;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getMinRefetchInterval() {
+        return minRefetchInterval;
+    }
+
+    /**
+     * Minimum time between two fetches of the JSON Web Key Set triggered by unknown key IDs. Default value (30 seconds).
+     * @param minRefetchInterval The minimum refetch interval
+     */
+    public void setMinRefetchInterval(@Nonnull Duration minRefetchInterval) {
+        this.minRefetchInterval = minRefetchInterval;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    /**
+     * Maximum time to wait for the JSON Web Key Set when a key is missing. Default value (10 seconds).
+     * @param fetchTimeout The fetch timeout
+     */
+    public void setFetchTimeout(@Nonnull Duration fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    @Override
+    public boolean isFetchOnStartup() {
+        return fetchOnStartup;
+    }
+
+    /**
+     * Fetches the JSON Web Key Set in the background once the application starts. Default value ({@value #DEFAULT_FETCH_ON_STARTUP}).
+     * @param fetchOnStartup Whether to fetch the keys at startup
+     */
+    public void setFetchOnStartup(boolean fetchOnStartup) {
+        this.fetchOnStartup = fetchOnStartup;
+    }
+}
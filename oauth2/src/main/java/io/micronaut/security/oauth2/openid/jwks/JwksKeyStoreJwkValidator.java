@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.security.token.jwt.signature.jwks.DefaultJwkValidator;
+
+import javax.inject.Singleton;
+import java.util.Optional;
+
+/**
+ * {@link DefaultJwkValidator} which reuses the verifiers built by the {@link JwksKeyStore} when it fetched the keys,
+ * instead of building a verifier for every JWT.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = JwksKeyStore.class)
+@Replaces(DefaultJwkValidator.class)
+@Singleton
+public class JwksKeyStoreJwkValidator extends DefaultJwkValidator {
+
+    private final JwksKeyStore jwksKeyStore;
+
+    /**
+     *
+     * @param jwksKeyStore JSON Web Key Set key store
+     */
+    public JwksKeyStoreJwkValidator(JwksKeyStore jwksKeyStore) {
+        this.jwksKeyStore = jwksKeyStore;
+    }
+
+    @Override
+    protected Optional<JWSVerifier> getVerifier(JWK jwk) {
+        Optional<JWSVerifier> verifier = jwksKeyStore.getVerifier(jwk);
+        return verifier.isPresent() ? verifier : super.getVerifier(jwk);
+    }
+}
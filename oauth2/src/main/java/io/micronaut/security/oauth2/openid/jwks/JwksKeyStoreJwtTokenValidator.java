@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Secondary;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.jwt.config.JwtConfigurationProperties;
+import io.micronaut.security.token.jwt.encryption.EncryptionConfiguration;
+import io.micronaut.security.token.jwt.signature.SignatureConfiguration;
+import io.micronaut.security.token.jwt.validator.GenericJwtClaimsValidator;
+import io.micronaut.security.token.jwt.validator.JwtAuthenticationFactory;
+import io.micronaut.security.token.jwt.validator.JwtTokenValidator;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.util.Collection;
+
+/**
+ * {@link JwtTokenValidator} which waits for the {@link JwksKeyStore} to fetch the key of a signed JWT before verifying
+ * its signature. Signature configurations verify JWTs synchronously, usually on an event loop thread, so the key store
+ * never blocks while looking up a key. This validator fetches unknown keys first, without blocking the calling thread.
+ * It is a secondary bean, so an application which replaces {@link JwtTokenValidator} keeps its own validator.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = JwtConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Replaces(JwtTokenValidator.class)
+@Secondary
+@Singleton
+public class JwksKeyStoreJwtTokenValidator extends JwtTokenValidator {
+
+    private final JwksKeyStore jwksKeyStore;
+
+    /**
+     *
+     * @param signatureConfigurations List of Signature configurations which are used to attempt validation.
+     * @param encryptionConfigurations List of Encryption configurations which are used to attempt validation.
+     * @param genericJwtClaimsValidators Generic JWT Claims validators which should be used to validate any JWT.
+     * @param jwtAuthenticationFactory Utility to generate an Authentication given a JWT.
+     * @param jwksKeyStore JSON Web Key Set key store, present if an OpenID configuration is available
+     */
+    public JwksKeyStoreJwtTokenValidator(Collection<SignatureConfiguration> signatureConfigurations,
+                                         Collection<EncryptionConfiguration> encryptionConfigurations,
+                                         Collection<GenericJwtClaimsValidator> genericJwtClaimsValidators,
+                                         JwtAuthenticationFactory jwtAuthenticationFactory,
+                                         @Nullable JwksKeyStore jwksKeyStore) {
+        super(signatureConfigurations, encryptionConfigurations, genericJwtClaimsValidators, jwtAuthenticationFactory);
+        this.jwksKeyStore = jwksKeyStore;
+    }
+
+    @Override
+    public Publisher<Authentication> validateToken(String token) {
+        return awaitKeys(token).andThen(Flowable.defer(() -> super.validateToken(token)));
+    }
+
+    /**
+     *
+     * @param token The JWT
+     * @return Completes once the key store knows the key identified by the JWT header or could not fetch it.
+     */
+    @Nonnull
+    protected Completable awaitKeys(String token) {
+        if (jwksKeyStore == null) {
+            return Completable.complete();
+        }
+        return jwksKeyStore.awaitKeys(token);
+    }
+}
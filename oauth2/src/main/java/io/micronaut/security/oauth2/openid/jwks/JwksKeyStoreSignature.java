@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jwt.SignedJWT;
+import io.micronaut.security.token.jwt.signature.SignatureConfiguration;
+import io.micronaut.security.token.jwt.signature.jwks.JwkValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link SignatureConfiguration} which verifies JWT signatures against the keys of a {@link JwksKeyStore}, selecting
+ * the keys by the key ID of the JWT header. Each candidate key is checked by the {@link JwkValidator}.
+ *
+ * @author Sergio del Amo
+ * @since 1.0.0
+ */
+public class JwksKeyStoreSignature implements SignatureConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JwksKeyStoreSignature.class);
+
+    private final JwksKeyStore jwksKeyStore;
+    private final KeyType keyType;
+    private final JwkValidator jwkValidator;
+    private final Set<JWSAlgorithm> supportedAlgorithms;
+
+    /**
+     *
+     * @param jwksKeyStore JSON Web Key Set key store
+     * @param keyType The key type of the keys used to verify signatures
+     * @param jwkValidator JSON Web Key Validator
+     */
+    public JwksKeyStoreSignature(@Nonnull JwksKeyStore jwksKeyStore,
+                                 @Nonnull KeyType keyType,
+                                 @Nonnull JwkValidator jwkValidator) {
+        this.jwksKeyStore = jwksKeyStore;
+        this.keyType = keyType;
+        this.jwkValidator = jwkValidator;
+        this.supportedAlgorithms = resolveSupportedAlgorithms(keyType);
+    }
+
+    @Override
+    public String supportedAlgorithmsMessage() {
+        String message = supportedAlgorithms.stream()
+                .map(JWSAlgorithm::getName)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return message.isEmpty() ? "No algorithms are supported" : "Only the " + message + " algorithms are supported";
+    }
+
+    @Override
+    public boolean supports(JWSAlgorithm algorithm) {
+        return supportedAlgorithms.contains(algorithm);
+    }
+
+    @Override
+    public boolean verify(SignedJWT jwt) throws JOSEException {
+        String keyId = jwt.getHeader().getKeyID();
+        JWSAlgorithm algorithm = jwt.getHeader().getAlgorithm();
+        if (!supports(algorithm)) {
+            return false;
+        }
+        for (JWK jwk : jwksKeyStore.getKeys(keyId)) {
+            if (isCandidate(jwk, algorithm) && jwkValidator.validate(jwt, jwk)) {
+                return true;
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("no JWK with key ID {} verified the JWT signature", keyId);
+        }
+        return false;
+    }
+
+    private boolean isCandidate(JWK jwk, JWSAlgorithm algorithm) {
+        return keyType.equals(jwk.getKeyType())
+                && !KeyUse.ENCRYPTION.equals(jwk.getKeyUse())
+                && (jwk.getAlgorithm() == null || jwk.getAlgorithm().equals(algorithm));
+    }
+
+    private static Set<JWSAlgorithm> resolveSupportedAlgorithms(KeyType keyType) {
+        if (KeyType.RSA.equals(keyType)) {
+            return JWSAlgorithm.Family.RSA;
+        }
+        if (KeyType.EC.equals(keyType)) {
+            return JWSAlgorithm.Family.EC;
+        }
+        return Collections.emptySet();
+    }
+}
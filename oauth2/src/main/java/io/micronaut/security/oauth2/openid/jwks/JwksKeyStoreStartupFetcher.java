@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.openid.jwks;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.scheduling.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Fetches the JSON Web Key Set once the application starts, so that the first logins do not wait for it.
+ *
+ * The fetch runs in the background and its failures are only logged. Logins still wait for the keys of the ID token
+ * if they are not known yet.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = JwksKeyStoreConfigurationProperties.PREFIX + ".fetch-on-startup", notEquals = StringUtils.FALSE)
+@Requires(beans = JwksKeyStore.class)
+@Singleton
+public class JwksKeyStoreStartupFetcher implements ApplicationEventListener<StartupEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JwksKeyStoreStartupFetcher.class);
+
+    private final BeanContext beanContext;
+    private final ExecutorService executorService;
+
+    /**
+     * The key store is resolved in the background, since fetching the keys may wait for the OpenID configuration.
+     *
+     * @param beanContext Bean Context
+     * @param executorService Executor service used to start the fetch
+     */
+    public JwksKeyStoreStartupFetcher(BeanContext beanContext,
+                                      @Named(TaskExecutors.IO) ExecutorService executorService) {
+        this.beanContext = beanContext;
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        executorService.submit(this::fetch);
+    }
+
+    private void fetch() {
+        try {
+            beanContext.findBean(JwksKeyStore.class).ifPresent(jwksKeyStore ->
+                    jwksKeyStore.refresh().subscribe(keys -> {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("fetched {} JWKs at startup", keys.size());
+                        }
+                    }, throwable -> {
+                        if (LOG.isWarnEnabled()) {
+                            LOG.warn("could not fetch the JWKS at startup", throwable);
+                        }
+                    }));
+        } catch (RuntimeException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("could not fetch the JWKS at startup", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In memory implementation of {@link TokenVault}. Handles are spread over independently locked shards, so a lookup
+ * only contends with requests of the same shard. Each shard is bounded and drops its expired entries while it is
+ * written to; once full, it evicts its oldest login.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = TokenVaultConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Singleton
+public class DefaultTokenVault implements TokenVault {
+
+    private final Shard[] shards;
+
+    /**
+     * @param configuration The token vault configuration
+     */
+    public DefaultTokenVault(TokenVaultConfiguration configuration) {
+        int shardCount = Math.max(1, configuration.getShards());
+        int shardCapacity = Math.max(1, (configuration.getMaxEntries() + shardCount - 1) / shardCount);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(shardCapacity);
+        }
+    }
+
+    @Override
+    public void store(@Nonnull String handle, @Nonnull TokenVaultEntry entry) {
+        shardFor(handle).put(handle, entry, System.currentTimeMillis());
+    }
+
+    @Nonnull
+    @Override
+    public Optional<TokenVaultEntry> find(@Nonnull String handle) {
+        return Optional.ofNullable(shardFor(handle).get(handle, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void remove(@Nonnull String handle) {
+        shardFor(handle).remove(handle);
+    }
+
+    private Shard shardFor(String handle) {
+        int hash = handle.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    /**
+     * A portion of the logins guarded by its own lock, in insertion order.
+     */
+    private static final class Shard {
+        private final Map<String, TokenVaultEntry> entries = new LinkedHashMap<>();
+        private final int capacity;
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void put(String handle, TokenVaultEntry entry, long now) {
+            Iterator<TokenVaultEntry> oldest = entries.values().iterator();
+            while (oldest.hasNext()) {
+                TokenVaultEntry existing = oldest.next();
+                if (!existing.isExpired(now) && entries.size() < capacity) {
+                    break;
+                }
+                oldest.remove();
+            }
+            entries.put(handle, entry);
+        }
+
+        synchronized TokenVaultEntry get(String handle, long now) {
+            TokenVaultEntry entry = entries.get(handle);
+            if (entry != null && entry.isExpired(now)) {
+                entries.remove(handle);
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized void remove(String handle) {
+            entries.remove(handle);
+        }
+    }
+}
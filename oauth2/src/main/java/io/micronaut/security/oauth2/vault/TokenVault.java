@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+/**
+ * Keeps the tokens of a login on the server, under an opaque handle which is the only value sent to the browser.
+ * Replace the default bean to share the logins between several instances.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface TokenVault {
+
+    /**
+     * Stores an entry under the given handle.
+     *
+     * @param handle The opaque handle
+     * @param entry The entry
+     */
+    void store(@Nonnull String handle, @Nonnull TokenVaultEntry entry);
+
+    /**
+     * @param handle The opaque handle
+     * @return The entry stored under the handle, if present and not expired
+     */
+    @Nonnull
+    Optional<TokenVaultEntry> find(@Nonnull String handle);
+
+    /**
+     * Removes the entry stored under the given handle.
+     *
+     * @param handle The opaque handle
+     */
+    void remove(@Nonnull String handle);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.core.util.Toggleable;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configuration for the token vault.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public interface TokenVaultConfiguration extends Toggleable {
+
+    /**
+     * @return The maximum time a login is kept in the vault, even if its ID token expires later.
+     */
+    @Nonnull
+    Duration getTimeToLive();
+
+    /**
+     * @return The number of shards of the in-memory vault.
+     */
+    int getShards();
+
+    /**
+     * @return The maximum number of logins kept in the in-memory vault.
+     */
+    int getMaxEntries();
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.security.oauth2.configuration.OauthConfigurationProperties;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * {@link ConfigurationProperties} implementation of {@link TokenVaultConfiguration}.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@ConfigurationProperties(TokenVaultConfigurationProperties.PREFIX)
+public class TokenVaultConfigurationProperties implements TokenVaultConfiguration {
+
+    public static final String PREFIX = OauthConfigurationProperties.PREFIX + ".vault";
+
+    /**
+     * The default enable value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(12);
+
+    /**
+     * The default number of shards.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_SHARDS = 16;
+
+    /**
+     * The default maximum number of logins.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+    private int shards = DEFAULT_SHARDS;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the tokens of a login are kept in the vault and the browser only receives an opaque handle. Default value ({@value #DEFAULT_ENABLED}).
+     * @param enabled The enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    @Override
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * The maximum time a login is kept in the vault. Logins are removed earlier when their ID token expires. Default value (12 hours).
+     * @param timeToLive The time to live of a login
+     */
+    public void setTimeToLive(@Nonnull Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * The number of independently locked shards of the in-memory vault. Default value ({@value #DEFAULT_SHARDS}).
+     * @param shards The number of shards
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * The maximum number of logins kept in the in-memory vault. Once reached, the oldest login of a shard is
+     * evicted. Default value ({@value #DEFAULT_MAX_ENTRIES}).
+     * @param maxEntries The maximum number of logins
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The tokens of a login kept in a {@link TokenVault}, together with the authentication they were validated into.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+public final class TokenVaultEntry {
+
+    private final IdTokenAccessTokenResponse idTokenAccessTokenResponse;
+    private final Authentication authentication;
+    private final long expiresAt;
+
+    /**
+     *
+     * @param idTokenAccessTokenResponse The ID, access and refresh tokens of the login
+     * @param authentication The authentication built from the validated ID token
+     * @param expiresAt The epoch millisecond at which the entry expires
+     */
+    public TokenVaultEntry(@Nonnull IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                           @Nonnull Authentication authentication,
+                           long expiresAt) {
+        this.idTokenAccessTokenResponse = idTokenAccessTokenResponse;
+        this.authentication = authentication;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     *
+     * @return The ID, access and refresh tokens of the login
+     */
+    @Nonnull
+    public IdTokenAccessTokenResponse getIdTokenAccessTokenResponse() {
+        return idTokenAccessTokenResponse;
+    }
+
+    /**
+     *
+     * @return The authentication built from the validated ID token
+     */
+    @Nonnull
+    public Authentication getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     *
+     * @return The epoch millisecond at which the entry expires
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @param now The current epoch millisecond
+     * @return Whether the entry has expired
+     */
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
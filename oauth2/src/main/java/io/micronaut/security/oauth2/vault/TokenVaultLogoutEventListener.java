@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.http.context.ServerRequestContext;
+import io.micronaut.security.event.LogoutEvent;
+import io.micronaut.security.token.reader.TokenResolver;
+
+import javax.inject.Singleton;
+
+/**
+ * Removes the login of the logout request from the {@link TokenVault}, so that its handle stops working even if the
+ * browser keeps the cookie.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = {TokenVault.class, TokenResolver.class})
+@Singleton
+public class TokenVaultLogoutEventListener implements ApplicationEventListener<LogoutEvent> {
+
+    private final TokenVault tokenVault;
+    private final TokenResolver tokenResolver;
+
+    /**
+     *
+     * @param tokenVault The token vault
+     * @param tokenResolver Token resolver
+     */
+    public TokenVaultLogoutEventListener(TokenVault tokenVault, TokenResolver tokenResolver) {
+        this.tokenVault = tokenVault;
+        this.tokenResolver = tokenResolver;
+    }
+
+    @Override
+    public void onApplicationEvent(LogoutEvent event) {
+        ServerRequestContext.currentRequest()
+                .flatMap(tokenResolver::resolveToken)
+                .ifPresent(tokenVault::remove);
+    }
+}
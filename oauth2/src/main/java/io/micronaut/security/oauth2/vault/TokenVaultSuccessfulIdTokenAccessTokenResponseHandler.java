@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenConfiguration;
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenManager;
+import io.micronaut.security.oauth2.handlers.CookieSuccessfulIdTokenAccessTokenResponseHandler;
+import io.micronaut.security.oauth2.handlers.CookieSuccessfulIdTokenAccessTokenResponseHandlerConfiguration;
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse;
+import io.micronaut.security.token.generator.TokenGenerator;
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Keeps the tokens of a successful login in the {@link TokenVault} and sets a cookie which only holds a random
+ * 128-bit handle. The cookie shares the name and flags of the ID token cookie, thus it is read and cleared on logout
+ * like the ID token would be, and {@link TokenVaultTokenValidator} resolves it with a single vault lookup.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(property = TokenVaultConfigurationProperties.PREFIX + ".enabled", value = StringUtils.TRUE)
+@Requires(beans = TokenVault.class)
+@Replaces(CookieSuccessfulIdTokenAccessTokenResponseHandler.class)
+@Singleton
+public class TokenVaultSuccessfulIdTokenAccessTokenResponseHandler extends CookieSuccessfulIdTokenAccessTokenResponseHandler {
+
+    private static final int HANDLE_BYTES = 16;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final TokenVault tokenVault;
+    private final TokenVaultConfiguration tokenVaultConfiguration;
+
+    /**
+     *
+     * @param configuration Cookie Successful IdToken-AccessToken Handler
+     * @param refreshTokenConfiguration Refresh token configuration
+     * @param refreshTokenManager Refresh token manager, present if refresh sessions are enabled
+     * @param tokenGenerator Token generator, present if a JWT signature generator is configured
+     * @param tokenVault The token vault
+     * @param tokenVaultConfiguration The token vault configuration
+     */
+    public TokenVaultSuccessfulIdTokenAccessTokenResponseHandler(
+            CookieSuccessfulIdTokenAccessTokenResponseHandlerConfiguration configuration,
+            RefreshTokenConfiguration refreshTokenConfiguration,
+            @Nullable RefreshTokenManager refreshTokenManager,
+            @Nullable TokenGenerator tokenGenerator,
+            TokenVault tokenVault,
+            TokenVaultConfiguration tokenVaultConfiguration) {
+        super(configuration, refreshTokenConfiguration, refreshTokenManager, tokenGenerator);
+        this.tokenVault = tokenVault;
+        this.tokenVaultConfiguration = tokenVaultConfiguration;
+    }
+
+    @Nonnull
+    @Override
+    protected String createCookieValue(IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                                       Authentication authentication) {
+        String handle = generateHandle();
+        tokenVault.store(handle, new TokenVaultEntry(idTokenAccessTokenResponse, authentication, expiresAt(authentication)));
+        return handle;
+    }
+
+    @Nonnull
+    @Override
+    protected Optional<String> createRenewedCookieValue(IdTokenAccessTokenResponse idTokenAccessTokenResponse,
+                                                        Authentication authentication) {
+        return Optional.of(createCookieValue(idTokenAccessTokenResponse, authentication));
+    }
+
+    /**
+     * @param authentication The authenticated user
+     * @return The time at which the login leaves the vault, the earliest of the ID token expiration and the time to live
+     */
+    protected long expiresAt(Authentication authentication) {
+        long expiresAt = System.currentTimeMillis() + tokenVaultConfiguration.getTimeToLive().toMillis();
+        Object expirationTime = authentication.getAttributes().get(JwtClaims.EXPIRATION_TIME);
+        if (expirationTime instanceof Date) {
+            return Math.min(expiresAt, ((Date) expirationTime).getTime());
+        }
+        return expiresAt;
+    }
+
+    /**
+     * @return A random opaque handle
+     */
+    @Nonnull
+    protected String generateHandle() {
+        byte[] bytes = new byte[HANDLE_BYTES];
+        secureRandom.nextBytes(bytes);
+        return encoder.encodeToString(bytes);
+    }
+}
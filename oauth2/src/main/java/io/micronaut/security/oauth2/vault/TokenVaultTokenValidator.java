@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2019 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.security.oauth2.vault;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.validator.TokenValidator;
+import io.reactivex.Flowable;
+import org.reactivestreams.Publisher;
+
+import javax.inject.Singleton;
+
+/**
+ * Resolves the handles issued by {@link TokenVaultSuccessfulIdTokenAccessTokenResponseHandler} into the
+ * authentication stored in the {@link TokenVault}. It runs before {@link io.micronaut.security.token.jwt.validator.JwtTokenValidator}, thus requests carrying a
+ * handle skip JWT parsing and signature verification.
+ *
+ * @author agent
+ * @since 1.0.0
+ */
+@Requires(beans = TokenVault.class)
+@Singleton
+public class TokenVaultTokenValidator implements TokenValidator {
+
+    /**
+     * The order of this validator, ahead of {@link io.micronaut.security.token.jwt.validator.JwtTokenValidator} which keeps the default order.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int ORDER = -100;
+
+    private final TokenVault tokenVault;
+
+    /**
+     * @param tokenVault The token vault
+     */
+    public TokenVaultTokenValidator(TokenVault tokenVault) {
+        this.tokenVault = tokenVault;
+    }
+
+    @Override
+    public Publisher<Authentication> validateToken(String token) {
+        return tokenVault.find(token)
+                .map(entry -> Flowable.just(entry.getAuthentication()))
+                .orElse(Flowable.empty());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,168 @@
+package io.micronaut.security.oauth2.grants.clientcredentials
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.MediaType
+import io.micronaut.http.annotation.Body
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.annotation.Post
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.http.client.annotation.Client
+import io.micronaut.http.client.exceptions.HttpClientResponseException
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.rules.SecurityRule
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class ClientCredentialsHttpClientFilterSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'ClientCredentialsHttpClientFilterSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run([
+            'spec.name': 'ClientCredentialsHttpClientFilterSpecClient',
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.client-secret': 'YYY',
+            'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+            'micronaut.security.oauth2.token.auth-method': 'client_secret_post',
+            'micronaut.security.oauth2.client-credentials.filter.enabled': true,
+            'micronaut.security.oauth2.client-credentials.filter.service-ids': ['resource'],
+            'micronaut.security.oauth2.client-credentials.filter.uri-patterns': ["${embeddedServer.URL}/api/.*".toString()],
+            'micronaut.security.oauth2.client-credentials.filter.scopes': ['read'],
+            'micronaut.http.services.resource.url': embeddedServer.URL.toString(),
+    ], Environment.TEST)
+
+    TokenController tokenController = embeddedServer.applicationContext.getBean(TokenController)
+
+    ResourceController resourceController = embeddedServer.applicationContext.getBean(ResourceController)
+
+    void setup() {
+        tokenController.called.set(0)
+        resourceController.accepted = 'token-1'
+        resourceController.authorizations.clear()
+        resourceController.authorizationHeaderCounts.clear()
+    }
+
+    void "requests of the configured services carry a cached access token"() {
+        given:
+        ResourceClient client = context.getBean(ResourceClient)
+
+        expect:
+        client.resource() == 'ok'
+        client.resource() == 'ok'
+        resourceController.authorizations == ['Bearer token-1', 'Bearer token-1']
+        tokenController.called.get() == 1
+        tokenController.form.scope == 'read'
+    }
+
+    void "requests matching an URI pattern carry an access token"() {
+        given:
+        RxHttpClient client = context.createBean(RxHttpClient, embeddedServer.URL)
+
+        when:
+        client.toBlocking().retrieve('/api/resource')
+
+        then:
+        resourceController.authorizations == ['Bearer token-1']
+
+        when:
+        client.toBlocking().retrieve('/other')
+
+        then:
+        resourceController.authorizations == ['Bearer token-1', null]
+
+        cleanup:
+        client.close()
+    }
+
+    void "a rejected token is discarded and the request is retried once"() {
+        given:
+        ResourceClient client = context.getBean(ResourceClient)
+        client.resource()
+        resourceController.accepted = 'token-2'
+        resourceController.authorizations.clear()
+        resourceController.authorizationHeaderCounts.clear()
+
+        when:
+        String body = client.resource()
+
+        then:
+        body == 'ok'
+        resourceController.authorizations == ['Bearer token-1', 'Bearer token-2']
+        resourceController.authorizationHeaderCounts == [1, 1]
+        tokenController.called.get() == 2
+
+        when:
+        resourceController.accepted = 'none'
+        resourceController.authorizations.clear()
+        resourceController.authorizationHeaderCounts.clear()
+        client.resource()
+
+        then:
+        HttpClientResponseException e = thrown()
+        e.status.code == 401
+        resourceController.authorizations == ['Bearer token-2', 'Bearer token-3']
+        resourceController.authorizationHeaderCounts == [1, 1]
+        tokenController.called.get() == 3
+    }
+
+    @Requires(property = 'spec.name', value = 'ClientCredentialsHttpClientFilterSpecClient')
+    @Client(id = 'resource')
+    static interface ResourceClient {
+        @Get('/api/resource')
+        String resource()
+    }
+
+    @Requires(property = 'spec.name', value = 'ClientCredentialsHttpClientFilterSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller
+    static class ResourceController {
+        String accepted
+        List<String> authorizations = Collections.synchronizedList([])
+        List<Integer> authorizationHeaderCounts = Collections.synchronizedList([])
+
+        @Get('/api/resource')
+        HttpResponse<String> resource(HttpRequest<?> request) {
+            String authorization = request.headers.get(HttpHeaders.AUTHORIZATION)
+            authorizations << authorization
+            authorizationHeaderCounts << request.headers.getAll(HttpHeaders.AUTHORIZATION).size()
+            authorization == "Bearer ${accepted}".toString() ? HttpResponse.ok('ok') : HttpResponse.unauthorized()
+        }
+
+        @Get('/other')
+        String other(HttpRequest<?> request) {
+            authorizations << request.headers.get(HttpHeaders.AUTHORIZATION)
+            'ok'
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'ClientCredentialsHttpClientFilterSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class TokenController {
+        AtomicInteger called = new AtomicInteger()
+        Map<String, String> form
+
+        @Post(value = '/token', consumes = MediaType.APPLICATION_FORM_URLENCODED)
+        Map token(@Body Map<String, String> form) {
+            this.form = form
+            int count = called.incrementAndGet()
+            [access_token: "token-${count}".toString(), token_type: 'Bearer', expires_in: 3600]
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.micronaut.security.oauth2.grants.clientcredentials
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.MediaType
+import io.micronaut.http.annotation.Body
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Post
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.oauth2.responses.AccessTokenResponse
+import io.micronaut.security.rules.SecurityRule
+import io.reactivex.Single
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ClientCredentialsTokenManagerSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'ClientCredentialsTokenManagerSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run([
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.client-secret': 'YYY',
+            'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+            'micronaut.security.oauth2.token.auth-method': 'client_secret_basic',
+            'micronaut.security.oauth2.client-credentials.refresh-ahead': '1s',
+            'micronaut.security.oauth2.client-credentials.refresh-jitter': '0s',
+    ], Environment.TEST)
+
+    TokenController controller = embeddedServer.applicationContext.getBean(TokenController)
+
+    ClientCredentialsTokenManager tokenManager = context.getBean(ClientCredentialsTokenManager)
+
+    void setup() {
+        controller.called.set(0)
+        controller.expiresIn = 3600
+        controller.delay = 0
+    }
+
+    void "tokens are cached per client and set of scopes"() {
+        when:
+        AccessTokenResponse first = tokenManager.getToken(['read', 'write']).blockingGet()
+
+        then:
+        first.accessToken == 'token-1'
+        controller.called.get() == 1
+        controller.form == [grant_type: 'client_credentials', scope: 'read write']
+        controller.authorization == "Basic ${'XXX:YYY'.bytes.encodeBase64()}"
+
+        expect:
+        tokenManager.getToken(['write', 'read']).blockingGet().accessToken == 'token-1'
+        tokenManager.getToken(['read']).blockingGet().accessToken == 'token-2'
+        tokenManager.getToken('other', 'secret', ['read']).blockingGet().accessToken == 'token-3'
+        tokenManager.getToken(['read']).blockingGet().accessToken == 'token-2'
+        controller.called.get() == 3
+    }
+
+    void "concurrent requests for the same key share a single fetch"() {
+        given:
+        controller.delay = 500
+
+        when:
+        List<String> tokens = Collections.synchronizedList([])
+        List<Thread> threads = (1..10).collect { Thread.start { tokens << tokenManager.getToken([]).blockingGet().accessToken } }
+        threads*.join()
+
+        then:
+        tokens.size() == 10
+        tokens.unique() == ['token-1']
+        controller.called.get() == 1
+    }
+
+    void "tokens are refreshed in the background ahead of their expiration"() {
+        given:
+        controller.expiresIn = 3
+
+        when:
+        tokenManager.getToken([]).blockingGet()
+        sleep(2000)
+
+        then: 'the cached token is returned while a new one is fetched'
+        tokenManager.getToken([]).blockingGet().accessToken == 'token-1'
+        new PollingConditions(timeout: 5).eventually {
+            assert controller.called.get() == 2
+            assert tokenManager.getToken([]).blockingGet().accessToken == 'token-2'
+        }
+    }
+
+    void "expired tokens are fetched again"() {
+        given:
+        controller.expiresIn = 1
+
+        when:
+        tokenManager.getToken([]).blockingGet()
+        sleep(1100)
+
+        then:
+        tokenManager.getToken([]).blockingGet().accessToken == 'token-2'
+        controller.called.get() == 2
+    }
+
+    @Requires(property = 'spec.name', value = 'ClientCredentialsTokenManagerSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class TokenController {
+        AtomicInteger called = new AtomicInteger()
+        int expiresIn
+        long delay
+        Map<String, String> form
+        String authorization
+
+        @Post(value = '/token', consumes = MediaType.APPLICATION_FORM_URLENCODED)
+        Single<Map> token(@Body Map<String, String> form, HttpRequest<?> request) {
+            this.form = form
+            this.authorization = request.headers.get(HttpHeaders.AUTHORIZATION)
+            int count = called.incrementAndGet()
+            Single.just([access_token: "token-${count}".toString(), token_type: 'Bearer', expires_in: expiresIn] as Map)
+                    .delay(delay, TimeUnit.MILLISECONDS)
+        }
+    }
+}
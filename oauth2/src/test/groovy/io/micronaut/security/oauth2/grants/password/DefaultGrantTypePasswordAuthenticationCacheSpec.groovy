@@ -0,0 +1,88 @@
+package io.micronaut.security.oauth2.grants.password
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.security.authentication.UserDetails
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+
+class DefaultGrantTypePasswordAuthenticationCacheSpec extends Specification {
+
+    void "the cache is disabled by default"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run([
+                'micronaut.security.oauth2.grant-type-password.enabled': true,
+        ])
+
+        expect:
+        !applicationContext.containsBean(GrantTypePasswordAuthenticationCache)
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "authentications are cached per identity and secret"() {
+        given:
+        DefaultGrantTypePasswordAuthenticationCache cache = new DefaultGrantTypePasswordAuthenticationCache(new GrantTypePasswordAuthenticationCacheConfigurationProperties())
+        UserDetails userDetails = new UserDetails('sherlock', ['ROLE_DETECTIVE'])
+
+        when:
+        cache.put('sherlock', 'elementary', userDetails, null)
+
+        then:
+        cache.get('sherlock', 'elementary').get().is(userDetails)
+        !cache.get('sherlock', 'wrong').isPresent()
+        !cache.get('sherlocke', 'lementary').isPresent()
+    }
+
+    void "keys do not contain the secret"() {
+        given:
+        DefaultGrantTypePasswordAuthenticationCache cache = new DefaultGrantTypePasswordAuthenticationCache(new GrantTypePasswordAuthenticationCacheConfigurationProperties())
+        DefaultGrantTypePasswordAuthenticationCache other = new DefaultGrantTypePasswordAuthenticationCache(new GrantTypePasswordAuthenticationCacheConfigurationProperties())
+
+        expect:
+        !cache.key('sherlock', 'elementary').contains('elementary')
+        cache.key('sherlock', 'elementary') == cache.key('sherlock', 'elementary')
+        cache.key('sherlock', 'elementary') != other.key('sherlock', 'elementary')
+    }
+
+    void "entries expire with their ID token or the time to live"() {
+        given:
+        GrantTypePasswordAuthenticationCacheConfigurationProperties configuration = new GrantTypePasswordAuthenticationCacheConfigurationProperties()
+        configuration.timeToLive = Duration.ofMillis(200)
+        DefaultGrantTypePasswordAuthenticationCache cache = new DefaultGrantTypePasswordAuthenticationCache(configuration)
+
+        when:
+        cache.put('sherlock', 'elementary', new UserDetails('sherlock', []), null)
+        cache.put('watson', 'doctor', new UserDetails('watson', []), Instant.now().minusSeconds(1))
+
+        then:
+        cache.get('sherlock', 'elementary').isPresent()
+        !cache.get('watson', 'doctor').isPresent()
+
+        when:
+        sleep(300)
+
+        then:
+        !cache.get('sherlock', 'elementary').isPresent()
+    }
+
+    void "the least recently used entry is evicted once the cache is full"() {
+        given:
+        GrantTypePasswordAuthenticationCacheConfigurationProperties configuration = new GrantTypePasswordAuthenticationCacheConfigurationProperties()
+        configuration.maximumSize = 2
+        DefaultGrantTypePasswordAuthenticationCache cache = new DefaultGrantTypePasswordAuthenticationCache(configuration)
+
+        when:
+        cache.put('a', 'a', new UserDetails('a', []), null)
+        cache.put('b', 'b', new UserDetails('b', []), null)
+        cache.get('a', 'a')
+        cache.put('c', 'c', new UserDetails('c', []), null)
+
+        then:
+        cache.get('a', 'a').isPresent()
+        !cache.get('b', 'b').isPresent()
+        cache.get('c', 'c').isPresent()
+    }
+}
@@ -0,0 +1,261 @@
+package io.micronaut.security.oauth2.grants.refreshtoken
+
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.JWTParser
+import com.nimbusds.jwt.PlainJWT
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Replaces
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.MediaType
+import io.micronaut.http.MutableHttpRequest
+import io.micronaut.http.annotation.Body
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Post
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.http.client.exceptions.HttpClientResponseException
+import io.micronaut.http.cookie.Cookie
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.authentication.DefaultAuthentication
+import io.micronaut.security.oauth2.openid.idtoken.DefaultIdTokenAccessTokenResponseValidator
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponseValidator
+import io.micronaut.security.oauth2.responses.AccessTokenResponse
+import io.micronaut.security.rules.SecurityRule
+import io.reactivex.Single
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.inject.Singleton
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class DefaultRefreshTokenManagerSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer authorizationServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'DefaultRefreshTokenManagerSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'DefaultRefreshTokenManagerSpecClient',
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.client-secret': 'YYY',
+            'micronaut.security.oauth2.token.url': "${authorizationServer.URL}/oauth2/token",
+            'micronaut.security.oauth2.token.auth-method': 'client_secret_post',
+            'micronaut.security.oauth2.refresh-token.enabled': true,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.token.jwt.signatures.secret.generator.secret': 'pleaseChangeThisSecretForANewOne',
+    ], Environment.TEST)
+
+    TokenController controller = authorizationServer.applicationContext.getBean(TokenController)
+
+    RefreshTokenManager refreshTokenManager = embeddedServer.applicationContext.getBean(RefreshTokenManager)
+
+    void setup() {
+        controller.called.set(0)
+        controller.valid = ['refresh-0'] as Set
+        controller.delay = 0
+        controller.omitIdToken = false
+    }
+
+    void "refresh tokens are rotated"() {
+        given:
+        String sessionId = refreshTokenManager.register(response('refresh-0')).get()
+
+        expect:
+        refreshTokenManager.findAccessToken(sessionId).get() == 'access'
+
+        when:
+        IdTokenAccessTokenResponse first = refreshTokenManager.refresh(sessionId).blockingGet()
+
+        then:
+        first.idToken == 'id-token-1'
+        refreshTokenManager.findAccessToken(sessionId).get() == first.accessToken
+        controller.form == [grant_type: 'refresh_token', refresh_token: 'refresh-0', client_id: 'XXX', client_secret: 'YYY']
+
+        when:
+        IdTokenAccessTokenResponse second = refreshTokenManager.refresh(sessionId).blockingGet()
+
+        then:
+        second.idToken == 'id-token-2'
+        controller.form.refresh_token == 'refresh-1'
+    }
+
+    void "concurrent refreshes of a session share a single request"() {
+        given:
+        String sessionId = refreshTokenManager.register(response('refresh-0')).get()
+        controller.delay = 500
+
+        when:
+        List<String> idTokens = Collections.synchronizedList([])
+        List<Thread> threads = (1..10).collect { Thread.start { idTokens << refreshTokenManager.refresh(sessionId).blockingGet().idToken } }
+        threads*.join()
+
+        then:
+        idTokens.size() == 10
+        idTokens.unique() == ['id-token-1']
+        controller.called.get() == 1
+    }
+
+    void "a rejected refresh token ends the session"() {
+        given:
+        String sessionId = refreshTokenManager.register(response('revoked')).get()
+
+        expect:
+        refreshTokenManager.refresh(sessionId).blockingGet() == null
+        controller.called.get() == 1
+
+        and: 'the token endpoint is not called again'
+        refreshTokenManager.refresh(sessionId).blockingGet() == null
+        controller.called.get() == 1
+    }
+
+    void "responses without refresh token do not start a session"() {
+        expect:
+        !refreshTokenManager.register(new AccessTokenResponse(accessToken: 'access')).isPresent()
+    }
+
+    void "the refresh token controller renews the ID token cookie"() {
+        given:
+        String sessionId = refreshTokenManager.register(response('refresh-0')).get()
+        RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL)
+
+        when:
+        HttpResponse<?> rsp = client.toBlocking().exchange(HttpRequest.POST('/authcode/refresh', '')
+                .header('Origin', embeddedServer.URL.toString())
+                .cookie(Cookie.of('OAUTH2_REFRESH_SESSION', sessionId)))
+
+        then:
+        rsp.status() == HttpStatus.NO_CONTENT
+        rsp.header('Set-Cookie').startsWith('JWT=id-token-1')
+
+        when:
+        client.toBlocking().exchange(HttpRequest.POST('/authcode/refresh', '')
+                .header('Origin', embeddedServer.URL.toString())
+                .cookie(Cookie.of('OAUTH2_REFRESH_SESSION', 'unknown')))
+
+        then:
+        HttpClientResponseException e = thrown()
+        e.status == HttpStatus.UNAUTHORIZED
+        e.response.header('Set-Cookie').startsWith('OAUTH2_REFRESH_SESSION=')
+
+        cleanup:
+        client.close()
+    }
+
+    void "the refresh token controller rejects requests from other origins"() {
+        given:
+        String sessionId = refreshTokenManager.register(response('refresh-0')).get()
+        RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL)
+
+        when:
+        MutableHttpRequest<?> request = HttpRequest.POST('/authcode/refresh', '')
+                .cookie(Cookie.of('OAUTH2_REFRESH_SESSION', sessionId))
+        headers.each { name, value -> request.header(name, value) }
+        client.toBlocking().exchange(request)
+
+        then:
+        HttpClientResponseException e = thrown()
+        e.status == HttpStatus.FORBIDDEN
+        controller.called.get() == 0
+
+        cleanup:
+        client.close()
+
+        where:
+        headers << [[:], [Origin: 'https://evil.example.com'], [Referer: 'https://evil.example.com/page'], [Origin: 'null']]
+    }
+
+    void "the refresh token controller keeps the claims of the session if the refresh response contains no ID token"() {
+        given:
+        Date issuedAt = new Date(System.currentTimeMillis() - 600_000)
+        String idToken = new PlainJWT(new JWTClaimsSet.Builder()
+                .issuer('https://issuer.example.com')
+                .subject('sherlock')
+                .audience('XXX')
+                .issueTime(issuedAt)
+                .expirationTime(new Date(issuedAt.time + 300_000))
+                .build()).serialize()
+        String sessionId = refreshTokenManager.register(new IdTokenAccessTokenResponse(accessToken: 'access', tokenType: 'Bearer',
+                refreshToken: 'refresh-0', idToken: idToken)).get()
+        controller.omitIdToken = true
+        RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL)
+
+        when:
+        HttpResponse<?> rsp = client.toBlocking().exchange(HttpRequest.POST('/authcode/refresh', '')
+                .header('Referer', "${embeddedServer.URL}/home".toString())
+                .cookie(Cookie.of('OAUTH2_REFRESH_SESSION', sessionId)))
+
+        then:
+        rsp.status() == HttpStatus.NO_CONTENT
+
+        when:
+        String cookie = rsp.header('Set-Cookie')
+        JWTClaimsSet claims = JWTParser.parse(cookie.substring('JWT='.length(), cookie.indexOf(';'))).JWTClaimsSet
+
+        then:
+        claims.subject == 'sherlock'
+        claims.issuer == 'https://issuer.example.com'
+        claims.expirationTime.time > System.currentTimeMillis() + 3_500_000
+
+        and: 'the session is kept'
+        refreshTokenManager.findIdToken(sessionId).get() == idToken
+
+        cleanup:
+        client.close()
+    }
+
+    private static IdTokenAccessTokenResponse response(String refreshToken) {
+        new IdTokenAccessTokenResponse(accessToken: 'access', tokenType: 'Bearer', refreshToken: refreshToken, idToken: 'id-token-0')
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultRefreshTokenManagerSpecClient')
+    @Replaces(DefaultIdTokenAccessTokenResponseValidator)
+    @Singleton
+    static class AcceptingIdTokenAccessTokenResponseValidator implements IdTokenAccessTokenResponseValidator {
+        @Override
+        Optional<Authentication> validate(IdTokenAccessTokenResponse idTokenAccessTokenResponse) {
+            Optional.of(new DefaultAuthentication('user', [:]))
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultRefreshTokenManagerSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class TokenController {
+        AtomicInteger called = new AtomicInteger()
+        Set<String> valid
+        long delay
+        Map<String, String> form
+        boolean omitIdToken
+
+        @Post(value = '/token', consumes = MediaType.APPLICATION_FORM_URLENCODED)
+        Single<HttpResponse<Map>> token(@Body Map<String, String> form) {
+            this.form = form
+            int count = called.incrementAndGet()
+            if (!valid.remove(form.refresh_token)) {
+                return Single.just(HttpResponse.badRequest([error: 'invalid_grant'] as Map))
+            }
+            String rotated = "refresh-${count}".toString()
+            valid << rotated
+            Map body = [access_token: "access-${count}".toString(), token_type: 'Bearer', expires_in: 3600, refresh_token: rotated]
+            if (!omitIdToken) {
+                body.id_token = "id-token-${count}".toString()
+            }
+            Single.just(HttpResponse.ok(body))
+                    .delay(delay, TimeUnit.MILLISECONDS)
+        }
+    }
+}
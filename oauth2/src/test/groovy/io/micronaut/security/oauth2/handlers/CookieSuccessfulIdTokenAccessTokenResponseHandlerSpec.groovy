@@ -1,6 +1,19 @@
 package io.micronaut.security.oauth2.handlers
 
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.JWTParser
+import com.nimbusds.jwt.PlainJWT
 import io.micronaut.context.ApplicationContext
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.cookie.Cookie
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.authentication.AuthenticationUserDetailsAdapter
+import io.micronaut.security.authentication.UserDetails
+import io.micronaut.security.oauth2.openid.endpoints.userinfo.UserInfoEndpointClient
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse
+import io.micronaut.security.token.jwt.validator.JwtTokenValidator
+import io.reactivex.Flowable
 import spock.lang.Specification
 
 class CookieSuccessfulIdTokenAccessTokenResponseHandlerSpec extends Specification {
@@ -18,4 +31,118 @@ class CookieSuccessfulIdTokenAccessTokenResponseHandlerSpec extends Specificatio
         applicationContext.close()
     }
 
+    def "compact cookies carry a signed token with the selected claims only"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+                'micronaut.security.token.jwt.signatures.secret.generator.secret': 'pleaseChangeThisSecretForANewOne',
+                'micronaut.security.token.jwt.claims-validators.issuer': false,
+                'micronaut.security.oauth2.client-id': 'XXX',
+                'micronaut.security.oauth2.openid.idtoken.cookie.compact': true,
+                'micronaut.security.oauth2.openid.idtoken.cookie.compact-claims': ['email'],
+        ], Environment.TEST)
+        CookieSuccessfulIdTokenAccessTokenResponseHandler handler = applicationContext.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler)
+        Date expiration = new Date(System.currentTimeMillis() + 3600000)
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer('https://accounts.example.com')
+                .subject('sherlock')
+                .audience('XXX')
+                .expirationTime(expiration)
+                .issueTime(new Date())
+                .claim('email', 'sherlock@example.com')
+                .claim('groups', (1..100).collect { "group-${it}-with-a-rather-long-name".toString() })
+                .build()
+        IdTokenAccessTokenResponse idTokenAccessTokenResponse = new IdTokenAccessTokenResponse()
+        idTokenAccessTokenResponse.idToken = new PlainJWT(claimsSet).serialize()
+        Authentication authentication = new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', [], [exp: expiration]))
+
+        when:
+        Cookie cookie = handler.createCookie(HttpRequest.GET('/'), idTokenAccessTokenResponse, authentication)
+        Map<String, Object> claims = JWTParser.parse(cookie.value).JWTClaimsSet.claims
+
+        then:
+        cookie.value.length() < idTokenAccessTokenResponse.idToken.length() / 4
+        claims.keySet() == ['iss', 'sub', 'aud', 'exp', 'iat', 'email'] as Set
+        claims.email == 'sherlock@example.com'
+
+        when:
+        Authentication validated = Flowable.fromPublisher(applicationContext.getBean(JwtTokenValidator).validateToken(cookie.value)).blockingFirst()
+
+        then:
+        validated.name == 'sherlock'
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    def "userinfo claims of the login are carried by a signed token along with every ID token claim"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+                'micronaut.security.token.jwt.signatures.secret.generator.secret': 'pleaseChangeThisSecretForANewOne',
+                'micronaut.security.token.jwt.claims-validators.issuer': false,
+                'micronaut.security.oauth2.client-id': 'XXX',
+        ], Environment.TEST)
+        CookieSuccessfulIdTokenAccessTokenResponseHandler handler = applicationContext.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler)
+        Date expiration = new Date(System.currentTimeMillis() + 3600000)
+        IdTokenAccessTokenResponse idTokenAccessTokenResponse = new IdTokenAccessTokenResponse()
+        idTokenAccessTokenResponse.idToken = new PlainJWT(new JWTClaimsSet.Builder()
+                .issuer('https://accounts.example.com')
+                .subject('sherlock')
+                .audience('XXX')
+                .expirationTime(expiration)
+                .issueTime(new Date())
+                .claim('name', 'Sherlock')
+                .build()).serialize()
+        Authentication authentication = new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', [], [exp: expiration]))
+        HttpRequest<?> request = HttpRequest.GET('/')
+        request.setAttribute(UserInfoEndpointClient.CLAIMS_ATTRIBUTE, [sub: 'sherlock', name: 'Holmes', email: 'sherlock@example.com'])
+
+        when:
+        Cookie cookie = handler.createCookie(request, idTokenAccessTokenResponse, authentication)
+        Map<String, Object> claims = JWTParser.parse(cookie.value).JWTClaimsSet.claims
+
+        then: 'ID token claims take precedence over userinfo claims'
+        claims.keySet() == ['iss', 'sub', 'aud', 'exp', 'iat', 'name', 'email'] as Set
+        claims.name == 'Sherlock'
+        claims.email == 'sherlock@example.com'
+
+        when:
+        Authentication validated = Flowable.fromPublisher(applicationContext.getBean(JwtTokenValidator).validateToken(cookie.value)).blockingFirst()
+
+        then:
+        validated.name == 'sherlock'
+        validated.attributes.email == 'sherlock@example.com'
+
+        when: 'the userinfo claims fetched on refresh are carried by the renewed cookie'
+        Authentication renewed = new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', [], [iss: 'https://accounts.example.com', sub: 'sherlock', exp: expiration]))
+        request.setAttribute(UserInfoEndpointClient.CLAIMS_ATTRIBUTE, [sub: 'sherlock', email: 'holmes@example.com'])
+        claims = JWTParser.parse(handler.createRenewedCookie(request, new IdTokenAccessTokenResponse(), renewed).get().value).JWTClaimsSet.claims
+
+        then:
+        claims.email == 'holmes@example.com'
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    def "without a signature generator the ID token is stored as is"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.openid.idtoken.cookie.compact': true,
+        ], Environment.TEST)
+        CookieSuccessfulIdTokenAccessTokenResponseHandler handler = applicationContext.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler)
+        IdTokenAccessTokenResponse idTokenAccessTokenResponse = new IdTokenAccessTokenResponse()
+        idTokenAccessTokenResponse.idToken = new PlainJWT(new JWTClaimsSet.Builder().subject('sherlock').build()).serialize()
+        Authentication authentication = new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', []))
+
+        expect:
+        handler.createCookie(HttpRequest.GET('/'), idTokenAccessTokenResponse, authentication).value == idTokenAccessTokenResponse.idToken
+
+        cleanup:
+        applicationContext.close()
+    }
 }
@@ -0,0 +1,208 @@
+package io.micronaut.security.oauth2.openid.configuration
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.env.Environment
+import io.micronaut.context.exceptions.NoSuchBeanException
+import io.micronaut.core.io.socket.SocketUtils
+import io.micronaut.http.HttpResponse
+import io.micronaut.runtime.server.EmbeddedServer
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+
+class OpenIdConfigurationCacheSpec extends Specification {
+    static final SPEC_NAME_PROPERTY = 'spec.name'
+
+    @Shared
+    int mockHttpServerPort = SocketUtils.findAvailableTcpPort()
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer mockHttpServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'MockHttpServer',
+            'micronaut.security.enabled': true,
+            'micronaut.server.port': mockHttpServerPort,
+            'openidconfigurationfile': 'src/test/resources/auth0-openid-configuration.json',
+    ])
+
+    void "OpenIdConfiguration is served from the cache and only fetched again when refreshed"() {
+        given:
+        FileOpenIdConfigurationController controller = mockHttpServer.applicationContext.getBean(FileOpenIdConfigurationController)
+        int calls = controller.called
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                     : getClass().simpleName,
+                'micronaut.security.enabled'             : true,
+                'micronaut.security.oauth2.openid.issuer': "http://localhost:${mockHttpServerPort}",
+        ], Environment.TEST)
+
+        when:
+        OpenIdConfiguration openIdConfiguration = context.getBean(OpenIdConfiguration)
+
+        then:
+        openIdConfiguration instanceof CachedOpenIdConfiguration
+        openIdConfiguration.issuer == "https://micronautguides.eu.auth0.com/"
+        openIdConfiguration.jwksUri == "https://micronautguides.eu.auth0.com/.well-known/jwks.json"
+        controller.called == calls + 1
+
+        when:
+        context.getBean(OpenIdConfigurationCache).refresh().blockingGet()
+
+        then:
+        openIdConfiguration.issuer == "https://micronautguides.eu.auth0.com/"
+        controller.called == calls + 2
+
+        cleanup:
+        context.close()
+    }
+
+    void "OpenIdConfigurationCache can be disabled"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                                            : getClass().simpleName,
+                'micronaut.security.enabled'                                    : true,
+                'micronaut.security.oauth2.openid.issuer'                       : "http://localhost:${mockHttpServerPort}",
+                'micronaut.security.oauth2.openid.configuration-cache.enabled'  : false,
+        ], Environment.TEST)
+
+        when:
+        context.getBean(OpenIdConfigurationCache)
+
+        then:
+        thrown(NoSuchBeanException)
+
+        when:
+        OpenIdConfiguration openIdConfiguration = context.getBean(OpenIdConfiguration)
+
+        then:
+        !(openIdConfiguration instanceof CachedOpenIdConfiguration)
+        openIdConfiguration.issuer == "https://micronautguides.eu.auth0.com/"
+
+        cleanup:
+        context.close()
+    }
+
+    void "the fetched OpenIdConfiguration is written to the snapshot file"() {
+        given:
+        File snapshot = File.createTempFile('openid-configuration', '.json')
+        snapshot.delete()
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                                            : getClass().simpleName,
+                'micronaut.security.enabled'                                    : true,
+                'micronaut.security.oauth2.openid.issuer'                       : "http://localhost:${mockHttpServerPort}",
+                'micronaut.security.oauth2.openid.configuration-cache.snapshot-file': snapshot.absolutePath,
+        ], Environment.TEST)
+
+        when:
+        context.getBean(OpenIdConfiguration).issuer
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert snapshot.exists()
+            assert snapshot.text.contains('"issuer":"https://micronautguides.eu.auth0.com/"')
+        }
+
+        cleanup:
+        context.close()
+        snapshot.delete()
+    }
+
+    void "OpenIdConfiguration is loaded from the snapshot file if the discovery endpoint is not reachable"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                                                : getClass().simpleName,
+                'micronaut.security.enabled'                                        : true,
+                'micronaut.security.oauth2.openid.issuer'                           : "http://localhost:${SocketUtils.findAvailableTcpPort()}",
+                'micronaut.security.oauth2.openid.configuration-cache.snapshot-file': 'src/test/resources/okta-openid-configuration.json',
+                'micronaut.security.oauth2.openid.configuration-cache.write-snapshot': false,
+        ], Environment.TEST)
+
+        when:
+        OpenIdConfiguration openIdConfiguration = context.getBean(OpenIdConfiguration)
+
+        then:
+        openIdConfiguration.issuer == "https://dev-265911.oktapreview.com/oauth2/default"
+        openIdConfiguration.jwksUri == "https://dev-265911.oktapreview.com/oauth2/default/v1/keys"
+
+        cleanup:
+        context.close()
+    }
+
+    void "an expired OpenIdConfiguration is served without waiting for the discovery endpoint"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                                                : getClass().simpleName,
+                'micronaut.security.enabled'                                        : true,
+                'micronaut.security.oauth2.openid.issuer'                           : "http://localhost:${SocketUtils.findAvailableTcpPort()}",
+                'micronaut.security.oauth2.openid.configuration-cache.snapshot-file': 'src/test/resources/okta-openid-configuration.json',
+                'micronaut.security.oauth2.openid.configuration-cache.write-snapshot': false,
+                'micronaut.security.oauth2.openid.configuration-cache.max-staleness': '1h',
+                'micronaut.security.oauth2.openid.configuration-cache.fetch-timeout': '5s',
+        ], Environment.TEST)
+        OpenIdConfigurationCache cache = context.getBean(OpenIdConfigurationCache)
+        sleep(10)
+
+        when:
+        long start = System.currentTimeMillis()
+        OpenIdConfiguration openIdConfiguration = cache.getConfiguration()
+
+        then:
+        openIdConfiguration.issuer == "https://dev-265911.oktapreview.com/oauth2/default"
+        System.currentTimeMillis() - start < 1000
+
+        cleanup:
+        context.close()
+    }
+
+    void "an OpenIdConfiguration older than the allowed staleness is no longer served"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                                                : getClass().simpleName,
+                'micronaut.security.enabled'                                        : true,
+                'micronaut.security.oauth2.openid.issuer'                           : "http://localhost:${SocketUtils.findAvailableTcpPort()}",
+                'micronaut.security.oauth2.openid.configuration-cache.snapshot-file': 'src/test/resources/okta-openid-configuration.json',
+                'micronaut.security.oauth2.openid.configuration-cache.write-snapshot': false,
+                'micronaut.security.oauth2.openid.configuration-cache.max-staleness': '0s',
+                'micronaut.security.oauth2.openid.configuration-cache.fetch-timeout': '1s',
+        ], Environment.TEST)
+        OpenIdConfigurationCache cache = context.getBean(OpenIdConfigurationCache)
+        sleep(10)
+
+        when:
+        cache.getConfiguration()
+
+        then:
+        thrown(RuntimeException)
+
+        cleanup:
+        context.close()
+    }
+
+    @Unroll
+    void "Cache-Control #cacheControl sets a time to live of #expected"(String cacheControl, Duration expected) {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                (SPEC_NAME_PROPERTY)                     : getClass().simpleName,
+                'micronaut.security.enabled'             : true,
+                'micronaut.security.oauth2.openid.issuer': "http://localhost:${mockHttpServerPort}",
+        ], Environment.TEST)
+        DefaultOpenIdConfigurationCache cache = context.getBean(DefaultOpenIdConfigurationCache)
+        HttpResponse response = cacheControl ? HttpResponse.ok().header('Cache-Control', cacheControl) : HttpResponse.ok()
+
+        expect:
+        cache.resolveTimeToLive(response) == expected
+
+        cleanup:
+        context.close()
+
+        where:
+        cacheControl                  | expected
+        null                          | Duration.ofHours(1)
+        'public, max-age=600'         | Duration.ofMinutes(10)
+        'max-age=5'                   | Duration.ofMinutes(1)
+        'no-cache'                    | Duration.ofMinutes(1)
+    }
+}
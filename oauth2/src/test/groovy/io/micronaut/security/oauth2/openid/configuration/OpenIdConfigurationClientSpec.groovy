@@ -61,11 +61,14 @@ class OpenIdConfigurationClientSpec extends Specification {
 
         // You need to attempt to retrieve a class bean created by the factory in order for factory method to kick off
         when:
-        context.getBean(OpenIdConfiguration)
+        OpenIdConfiguration openIdConfiguration = context.getBean(OpenIdConfiguration)
 
         then:
         noExceptionThrown()
 
+        and:
+        openIdConfiguration.issuer == "https://micronautguides.eu.auth0.com/"
+
         and:
         mockHttpServer.applicationContext.getBean(FileOpenIdConfigurationController).called == 1
 
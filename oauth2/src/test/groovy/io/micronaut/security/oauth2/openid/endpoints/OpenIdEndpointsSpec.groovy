@@ -37,11 +37,14 @@ class OpenIdEndpointsSpec extends Specification {
         ], Environment.TEST)
 
         when:
-        context.getBean(OpenIdEndpoints)
+        OpenIdEndpoints openIdEndpoints = context.getBean(OpenIdEndpoints)
 
         then:
         noExceptionThrown()
 
+        and:
+        openIdEndpoints.token == "https://dev-265911.oktapreview.com/oauth2/default/v1/token"
+
         and:
         mockHttpServer.applicationContext.getBean(FileOpenIdConfigurationController).called == 1
 
@@ -0,0 +1,92 @@
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.env.Environment
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class BinaryStateSerDesSpec extends Specification {
+
+    BinaryStateSerDes serDes = new BinaryStateSerDes()
+
+    void "BinaryStateSerDes replaces JacksonStateSerDes only when configured"() {
+        given:
+        Map<String, Object> config = [
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.client-id': 'XXX',
+        ]
+        ApplicationContext defaultContext = ApplicationContext.run(config, Environment.TEST)
+        ApplicationContext binaryContext = ApplicationContext.run(config + [(BinaryStateSerDes.PROPERTY): BinaryStateSerDes.BINARY], Environment.TEST)
+
+        expect:
+        defaultContext.getBean(StateSerDes) instanceof JacksonStateSerDes
+        binaryContext.getBean(StateSerDes) instanceof BinaryStateSerDes
+
+        cleanup:
+        defaultContext.close()
+        binaryContext.close()
+    }
+
+    @Unroll
+    void "state with nonce #nonce and original uri #uri survives a round trip"(String nonce, String uri) {
+        given:
+        DefaultState state = new DefaultState()
+        state.nonce = nonce
+        state.originalUri = uri ? new URI(uri) : null
+
+        when:
+        String serialized = serDes.serialize(state)
+        State deserialized = serDes.deserialize(serialized)
+
+        then:
+        serialized ==~ /[A-Za-z0-9_-]+/
+        deserialized.nonce == nonce
+        deserialized.originalUri == state.originalUri
+
+        where:
+        nonce                                  | uri
+        UUID.randomUUID().toString()           | null
+        UUID.randomUUID().toString()           | 'http://localhost:8080/books?sort=title&page=2'
+        'not-a-uuid-nonce-ü'                   | '/secured'
+        'A8F0E9B4-4C63-4D3F-9B2A-7D0C1E6F5A21' | null
+    }
+
+    void "the binary state parameter is shorter than the JSON one"() {
+        given:
+        DefaultState state = new DefaultState()
+        state.originalUri = new URI('http://localhost:8080/books?sort=title')
+        JacksonStateSerDes jackson = new JacksonStateSerDes(new ObjectMapper())
+
+        expect:
+        serDes.serialize(state).length() < URLEncoder.encode(jackson.serialize(state), 'UTF-8').length()
+    }
+
+    @Unroll
+    void "malformed state #value is rejected"(String value) {
+        expect:
+        serDes.deserialize(value) == null
+
+        where:
+        value << [
+                '',
+                'not base64!',
+                Base64.urlEncoder.withoutPadding().encodeToString([2, 0] as byte[]),
+                Base64.urlEncoder.withoutPadding().encodeToString([1, 1, 0, 0] as byte[]),
+                Base64.urlEncoder.withoutPadding().encodeToString([1, 0, 0, 9, 65] as byte[]),
+        ]
+    }
+
+    @Unroll
+    void "state with unknown flags #flags is rejected"(int flags) {
+        given:
+        String state = Base64.urlEncoder.withoutPadding().encodeToString([1, flags, 0, 1, 65] as byte[])
+
+        expect:
+        serDes.deserialize(Base64.urlEncoder.withoutPadding().encodeToString([1, 0, 0, 1, 65] as byte[])).nonce == 'A'
+        serDes.deserialize(state) == null
+
+        where:
+        flags << [4, 8, 0x80]
+    }
+}
@@ -0,0 +1,148 @@
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.MediaType
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.client.DefaultHttpClientConfiguration
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.http.cookie.Cookie
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.StatePersistence
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.cookie.CookieStatePersistence
+import io.micronaut.security.rules.SecurityRule
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CookieStatePersistenceSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'CookieStatePersistenceSpec',
+            'micronaut.security.enabled': true,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.redirect.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.authorization.url': 'https://auth.example.com/authorize',
+            'micronaut.security.oauth2.token.url': 'https://auth.example.com/token',
+            'micronaut.security.oauth2.openid.state.validation.persistence': 'cookie',
+            'micronaut.security.oauth2.openid.state.validation.cookie.secret': 'pleaseChangeThisSecretForANewOne',
+            'micronaut.security.oauth2.openid.state.validation.cookie.max-age': '2s',
+    ], Environment.TEST)
+
+    @Shared
+    @AutoCleanup
+    RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL, new DefaultHttpClientConfiguration(followRedirects: false))
+
+    void "cookie persistence is only enabled when configured with a secret"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.openid.state.validation.persistence': 'cookie',
+        ], Environment.TEST)
+
+        expect:
+        embeddedServer.applicationContext.getBean(StatePersistence) instanceof CookieStatePersistence
+        !context.containsBean(StatePersistence)
+
+        cleanup:
+        context.close()
+    }
+
+    void "unauthorized requests are redirected with the state sealed in a cookie"() {
+        when:
+        HttpResponse<?> response = client.exchange(HttpRequest.GET('/secured').accept(MediaType.TEXT_HTML_TYPE)).onErrorReturn({ t -> t.response }).blockingFirst()
+
+        then:
+        response.status == HttpStatus.SEE_OTHER
+        response.header(HttpHeaders.LOCATION).startsWith('https://auth.example.com/authorize')
+
+        when:
+        String setCookie = response.headers.getAll(HttpHeaders.SET_COOKIE).find { it.startsWith('OAUTH2_STATE=') }
+
+        then:
+        setCookie
+        setCookie.contains('HTTPOnly') || setCookie.contains('HttpOnly')
+        !setCookie.contains('secured')
+    }
+
+    void "the state is retrieved from the cookie only once"() {
+        given:
+        HttpResponse<String> persisted = client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst()
+        String nonce = persisted.body()
+        Cookie cookie = Cookie.of('OAUTH2_STATE', cookieValue(persisted))
+
+        when:
+        HttpResponse<String> retrieved = client.exchange(HttpRequest.GET('/state/retrieve').cookie(cookie), String).blockingFirst()
+
+        then:
+        retrieved.body() == "${nonce} /original".toString()
+        retrieved.headers.getAll(HttpHeaders.SET_COOKIE).any { it.startsWith('OAUTH2_STATE=;') && it.contains('Max-Age=0') }
+
+        expect:
+        client.retrieve(HttpRequest.GET('/state/retrieve').cookie(cookie)).blockingFirst() == 'none'
+    }
+
+    void "tampered and expired cookies are rejected"() {
+        given:
+        String value = cookieValue(client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst())
+        String tampered = value.reverse()
+
+        expect:
+        client.retrieve(HttpRequest.GET('/state/retrieve').cookie(Cookie.of('OAUTH2_STATE', tampered))).blockingFirst() == 'none'
+
+        when:
+        sleep(2100)
+
+        then:
+        client.retrieve(HttpRequest.GET('/state/retrieve').cookie(Cookie.of('OAUTH2_STATE', value))).blockingFirst() == 'none'
+    }
+
+    private static String cookieValue(HttpResponse<?> response) {
+        String setCookie = response.headers.getAll(HttpHeaders.SET_COOKIE).find { it.startsWith('OAUTH2_STATE=') }
+        setCookie.substring('OAUTH2_STATE='.length(), setCookie.indexOf(';'))
+    }
+
+    @Requires(property = 'spec.name', value = 'CookieStatePersistenceSpec')
+    @Secured(SecurityRule.IS_AUTHENTICATED)
+    @Controller('/secured')
+    static class SecuredController {
+        @Get
+        String index() {
+            'secured'
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'CookieStatePersistenceSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/state')
+    static class StateController {
+        private final StatePersistence statePersistence
+
+        StateController(StatePersistence statePersistence) {
+            this.statePersistence = statePersistence
+        }
+
+        @Get('/persist')
+        String persist(HttpRequest<?> request) {
+            DefaultState state = new DefaultState()
+            state.originalUri = URI.create('/original')
+            statePersistence.persistState(request, state)
+            state.nonce
+        }
+
+        @Get('/retrieve')
+        String retrieve(HttpRequest<?> request) {
+            statePersistence.retrieveState(request).map({ State state -> "${state.nonce} ${state.originalUri}".toString() }).orElse('none')
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package io.micronaut.security.oauth2.openid.endpoints.authorization.state
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.MutableHttpHeaders
+import io.micronaut.http.MutableHttpRequest
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.http.cookie.Cookie
+import io.micronaut.http.cookie.Cookies
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.StateValidator
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.StatePersistence
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store.DefaultStateStore
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store.StateStore
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store.StateStoreMetrics
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store.StoreStatePersistence
+import io.micronaut.security.oauth2.openid.endpoints.authorization.state.validation.persistence.store.StoreStatePersistenceConfigurationProperties
+import io.micronaut.security.rules.SecurityRule
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+class StoreStatePersistenceSpec extends Specification {
+
+    static final String BINDING_COOKIE = StoreStatePersistenceConfigurationProperties.DEFAULT_COOKIE_NAME
+
+    @Shared
+    Map<String, Object> config = [
+            'spec.name': 'StoreStatePersistenceSpec',
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.openid.state.validation.persistence': 'store',
+    ]
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, config, Environment.TEST)
+
+    @Shared
+    ApplicationContext context = embeddedServer.applicationContext
+
+    @Shared
+    @AutoCleanup
+    RxHttpClient client = context.createBean(RxHttpClient, embeddedServer.URL)
+
+    void "store state persistence is only enabled when configured"() {
+        given:
+        ApplicationContext sessionless = ApplicationContext.run(config - ['micronaut.security.oauth2.openid.state.validation.persistence': 'store'], Environment.TEST)
+
+        expect:
+        context.getBean(StatePersistence) instanceof StoreStatePersistence
+        context.getBean(StateStore) instanceof DefaultStateStore
+        !sessionless.containsBean(StatePersistence)
+        !sessionless.containsBean(StateStore)
+
+        cleanup:
+        sessionless.close()
+    }
+
+    void "a persisted state is validated once with the state of the authorization response"() {
+        given:
+        HttpResponse<String> persisted = client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst()
+        HttpRequest<?> validate = HttpRequest.GET("/state/validate?state=${encode(persisted.body())}").cookie(bindingCookie(persisted))
+
+        expect:
+        client.retrieve(validate).blockingFirst() == 'valid'
+        client.retrieve(validate).blockingFirst() == 'invalid'
+    }
+
+    void "the state is read from the state parameter"() {
+        given:
+        HttpResponse<String> persisted = client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst()
+        Cookie cookie = bindingCookie(persisted)
+        String nonce = context.getBean(StateSerDes).deserialize(persisted.body()).nonce
+
+        expect:
+        client.retrieve(HttpRequest.GET('/state/retrieve').cookie(cookie)).blockingFirst() == 'none'
+        client.retrieve(HttpRequest.GET("/state/retrieve?state=${encode(persisted.body())}").cookie(cookie)).blockingFirst() == nonce
+        client.retrieve(HttpRequest.GET("/state/retrieve?state=${encode(persisted.body())}").cookie(cookie)).blockingFirst() == 'none'
+    }
+
+    void "a state is only found by the browser which started the login"() {
+        given:
+        HttpResponse<String> attackerLogin = client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst()
+        HttpResponse<String> victimLogin = client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst()
+        String callback = "/state/retrieve?state=${encode(attackerLogin.body())}"
+
+        expect: 'the state issued to the attacker is neither found without a binding cookie nor with the one of the victim'
+        client.retrieve(HttpRequest.GET(callback)).blockingFirst() == 'none'
+        client.retrieve(HttpRequest.GET(callback).cookie(bindingCookie(victimLogin))).blockingFirst() == 'none'
+        client.retrieve(HttpRequest.GET(callback).cookie(Cookie.of(BINDING_COOKIE, 'short'))).blockingFirst() == 'none'
+        client.retrieve(HttpRequest.GET(callback).cookie(bindingCookie(attackerLogin))).blockingFirst() != 'none'
+    }
+
+    void "a browser keeps its binding cookie for concurrent logins"() {
+        given:
+        HttpResponse<String> firstTab = client.exchange(HttpRequest.GET('/state/persist'), String).blockingFirst()
+        Cookie cookie = bindingCookie(firstTab)
+        HttpResponse<String> secondTab = client.exchange(HttpRequest.GET('/state/persist').cookie(cookie), String).blockingFirst()
+
+        expect:
+        setCookie(firstTab).toLowerCase().contains('httponly')
+        bindingCookie(secondTab).value == cookie.value
+        client.retrieve(HttpRequest.GET("/state/retrieve?state=${encode(firstTab.body())}").cookie(cookie)).blockingFirst() != 'none'
+        client.retrieve(HttpRequest.GET("/state/retrieve?state=${encode(secondTab.body())}").cookie(cookie)).blockingFirst() != 'none'
+    }
+
+    void "expired states are not returned and are swept from their shard"() {
+        given:
+        StateStoreMetrics metrics = new StateStoreMetrics()
+        DefaultStateStore store = new DefaultStateStore(new StoreStatePersistenceConfigurationProperties(shards: 1), metrics)
+
+        when:
+        store.put('a', new DefaultState(), Duration.ofMillis(1))
+        Thread.sleep(10)
+
+        then:
+        !store.take('a').isPresent()
+
+        when:
+        store.put('b', new DefaultState(), Duration.ofMillis(1))
+        Thread.sleep(10)
+        store.put('c', new DefaultState(), Duration.ofMinutes(1))
+
+        then:
+        store.size() == 1
+        metrics.expirations == 2
+        store.take('c').isPresent()
+        metrics.pendingStates == 0
+    }
+
+    void "a full store evicts its oldest pending logins"() {
+        given:
+        StateStoreMetrics metrics = new StateStoreMetrics()
+        DefaultStateStore store = new DefaultStateStore(new StoreStatePersistenceConfigurationProperties(shards: 1, maxEntries: 3), metrics)
+
+        when:
+        (1..5).each { store.put("key${it}", new DefaultState(), Duration.ofMinutes(1), "10.0.0.${it}") }
+
+        then:
+        store.size() == 3
+        metrics.pendingStates == 3
+        metrics.capacityEvictions == 2
+        !store.take('key1').isPresent()
+        !store.take('key2').isPresent()
+        store.take('key5').isPresent()
+    }
+
+    void "a client flooding the store only evicts its own pending logins"() {
+        given:
+        StateStoreMetrics metrics = new StateStoreMetrics()
+        DefaultStateStore store = new DefaultStateStore(new StoreStatePersistenceConfigurationProperties(maxEntries: 1000, maxEntriesPerClient: 5), metrics)
+        store.put('victim', new DefaultState(), Duration.ofMinutes(1), '192.168.0.1')
+
+        when:
+        (1..10000).each { store.put("crawler${it}", new DefaultState(), Duration.ofMinutes(1), '10.0.0.1') }
+
+        then:
+        store.size() == 6
+        metrics.pendingStates == 6
+        metrics.clientQuotaEvictions == 9995
+        metrics.capacityEvictions == 0
+        store.take('victim').isPresent()
+        store.take('crawler10000').isPresent()
+        !store.take('crawler1').isPresent()
+    }
+
+    void "the client IP address is counted against the quota"() {
+        given:
+        StateStore stateStore = Mock(StateStore)
+        StoreStatePersistence persistence = new StoreStatePersistence(stateStore, context.getBean(StateSerDes), new StoreStatePersistenceConfigurationProperties())
+        MutableHttpRequest<?> request = request([:], new InetSocketAddress(InetAddress.getByName('10.1.2.3'), 4321))
+        DefaultState state = new DefaultState()
+
+        when:
+        persistence.persistState(request, state)
+
+        then:
+        1 * stateStore.put(_, state, StoreStatePersistenceConfigurationProperties.DEFAULT_TIME_TO_LIVE, '10.1.2.3')
+    }
+
+    void "the value of the configured client header appended by the trusted proxies is counted against the quota"() {
+        given:
+        StateStore stateStore = Mock(StateStore)
+        StoreStatePersistence persistence = new StoreStatePersistence(stateStore, context.getBean(StateSerDes), new StoreStatePersistenceConfigurationProperties(clientHeader: 'X-Forwarded-For', clientHeaderTrustedProxies: trustedProxies))
+        DefaultState state = new DefaultState()
+
+        when:
+        persistence.persistState(request('X-Forwarded-For': header), state)
+
+        then:
+        1 * stateStore.put(_, state, StoreStatePersistenceConfigurationProperties.DEFAULT_TIME_TO_LIVE, expected)
+
+        where:
+        trustedProxies | header                                  | expected
+        1              | '203.0.113.7'                           | '203.0.113.7'
+        1              | '198.51.100.66, 203.0.113.7'            | '203.0.113.7'
+        2              | '198.51.100.66, 203.0.113.7, 10.0.0.1'  | '203.0.113.7'
+        2              | '203.0.113.7'                           | '203.0.113.7'
+    }
+
+    void "concurrent puts and takes of a client leave no pending login tracked"() {
+        given:
+        DefaultStateStore store = new DefaultStateStore(new StoreStatePersistenceConfigurationProperties(maxEntriesPerClient: 1000), new StateStoreMetrics())
+        def executor = Executors.newFixedThreadPool(8)
+        def takers = Executors.newFixedThreadPool(8)
+        CountDownLatch start = new CountDownLatch(1)
+
+        when:
+        List<Future<?>> results = (1..8).collect { int thread ->
+            executor.submit({
+                start.await()
+                (1..500).each {
+                    String key = "key-${thread}-${it}".toString()
+                    Future<Boolean> take = takers.submit({ store.take(key).isPresent() } as Callable<Boolean>)
+                    store.put(key, new DefaultState(), Duration.ofMinutes(1), '10.0.0.1')
+                    take.get()
+                    store.take(key)
+                }
+            } as Callable<Object>)
+        }
+        start.countDown()
+        results*.get()
+
+        then:
+        store.size() == 0
+        store.trackedClientKeys() == 0
+
+        cleanup:
+        executor.shutdown()
+        takers.shutdown()
+    }
+
+    void "concurrent takes of the same key return the state once"() {
+        given:
+        DefaultStateStore store = new DefaultStateStore(new StoreStatePersistenceConfigurationProperties(), new StateStoreMetrics())
+        store.put('nonce', new DefaultState(), Duration.ofMinutes(1))
+        def executor = Executors.newFixedThreadPool(8)
+        CountDownLatch start = new CountDownLatch(1)
+
+        when:
+        List<Future<Boolean>> results = (1..8).collect {
+            executor.submit({ start.await(); store.take('nonce').isPresent() } as Callable<Boolean>)
+        }
+        start.countDown()
+
+        then:
+        results.count { it.get() } == 1
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    private static String setCookie(HttpResponse<?> response) {
+        response.headers.getAll(HttpHeaders.SET_COOKIE).find { it.startsWith("${BINDING_COOKIE}=") }
+    }
+
+    private static Cookie bindingCookie(HttpResponse<?> response) {
+        String setCookie = setCookie(response)
+        Cookie.of(BINDING_COOKIE, setCookie.substring(BINDING_COOKIE.length() + 1, setCookie.indexOf(';')))
+    }
+
+    private static String encode(String state) {
+        URLEncoder.encode(state, 'UTF-8')
+    }
+
+    private MutableHttpRequest<?> request(Map<String, String> headers = [:], InetSocketAddress remoteAddress = null) {
+        Stub(MutableHttpRequest) {
+            getCookies() >> Stub(Cookies) {
+                findCookie(_) >> Optional.empty()
+            }
+            getHeaders() >> Stub(MutableHttpHeaders) {
+                get(_) >> { String name -> headers[name] }
+            }
+            getRemoteAddress() >> (remoteAddress ?: new InetSocketAddress(InetAddress.getLoopbackAddress(), 4321))
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'StoreStatePersistenceSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/state')
+    static class StateController {
+        private final StatePersistence statePersistence
+        private final StateSerDes stateSerDes
+        private final StateValidator stateValidator
+
+        StateController(StatePersistence statePersistence, StateSerDes stateSerDes, StateValidator stateValidator) {
+            this.statePersistence = statePersistence
+            this.stateSerDes = stateSerDes
+            this.stateValidator = stateValidator
+        }
+
+        @Get('/persist')
+        String persist(HttpRequest<?> request) {
+            DefaultState state = new DefaultState()
+            statePersistence.persistState(request, state)
+            stateSerDes.serialize(state)
+        }
+
+        @Get('/retrieve')
+        String retrieve(HttpRequest<?> request) {
+            statePersistence.retrieveState(request).map({ State state -> state.nonce }).orElse('none')
+        }
+
+        @Get('/validate')
+        String validate(HttpRequest<?> request) {
+            try {
+                stateValidator.validate(request, stateSerDes.deserialize(request.parameters.get('state')))
+                'valid'
+            } catch (InvalidStateException e) {
+                'invalid'
+            }
+        }
+    }
+}
@@ -45,10 +45,11 @@ class EndSessionUrlProviderSpec extends Specification {
         noExceptionThrown()
 
         when:
-        context.getBean(OpenIdEndpoints)
+        OpenIdEndpoints openIdEndpoints = context.getBean(OpenIdEndpoints)
 
         then:
         noExceptionThrown()
+        openIdEndpoints.token == "https://dev-265911.oktapreview.com/oauth2/default/v1/token"
 
         when:
         context.getBean(OauthConfiguration)
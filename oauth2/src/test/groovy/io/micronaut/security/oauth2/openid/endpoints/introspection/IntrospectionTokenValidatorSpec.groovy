@@ -0,0 +1,177 @@
+package io.micronaut.security.oauth2.openid.endpoints.introspection
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.MediaType
+import io.micronaut.http.annotation.Body
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.annotation.Post
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.http.client.exceptions.HttpClientResponseException
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.rules.SecurityRule
+import io.micronaut.security.token.validator.TokenValidator
+import io.reactivex.Single
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.security.Principal
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class IntrospectionTokenValidatorSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer authorizationServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'IntrospectionTokenValidatorSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'IntrospectionTokenValidatorSpecResourceServer',
+            'micronaut.security.enabled': true,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.client-secret': 'YYY',
+            'micronaut.security.oauth2.introspection.url': "${authorizationServer.URL}/oauth2/introspect",
+            'micronaut.security.oauth2.introspection.token-validator.enabled': true,
+            'micronaut.security.oauth2.introspection.token-validator.inactive-time-to-live': '1s',
+    ], Environment.TEST)
+
+    @AutoCleanup
+    RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL)
+
+    IntrospectionController controller = authorizationServer.applicationContext.getBean(IntrospectionController)
+
+    void setup() {
+        controller.called.set(0)
+        controller.delay = 0
+        controller.exp = System.currentTimeMillis().intdiv(1000) + 3600
+    }
+
+    void "the introspection token validator is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.introspection.url': "${authorizationServer.URL}/oauth2/introspect",
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(IntrospectionTokenValidator)
+
+        cleanup:
+        context.close()
+    }
+
+    void "active tokens are authenticated and cached"() {
+        expect:
+        embeddedServer.applicationContext.getBeansOfType(TokenValidator).any { it instanceof IntrospectionTokenValidator }
+
+        when:
+        String name = client.toBlocking().retrieve(HttpRequest.GET('/resource').bearerAuth('active-token'))
+
+        then:
+        name == 'sherlock'
+        controller.called.get() == 1
+        controller.form.token == 'active-token'
+        controller.authorization == "Basic ${'XXX:YYY'.bytes.encodeBase64()}"
+
+        when:
+        client.toBlocking().retrieve(HttpRequest.GET('/resource').bearerAuth('active-token'))
+
+        then:
+        controller.called.get() == 1
+    }
+
+    void "active tokens are not cached beyond their expiration"() {
+        given:
+        controller.exp = System.currentTimeMillis().intdiv(1000) + 1
+
+        when:
+        client.toBlocking().retrieve(HttpRequest.GET('/resource').bearerAuth('active-token'))
+        sleep(2000)
+        client.toBlocking().retrieve(HttpRequest.GET('/resource').bearerAuth('active-token'))
+
+        then:
+        controller.called.get() == 2
+    }
+
+    void "inactive tokens are rejected and cached briefly"() {
+        when:
+        client.toBlocking().retrieve(HttpRequest.GET('/resource').bearerAuth('revoked-token'))
+
+        then:
+        HttpClientResponseException e = thrown()
+        e.status == HttpStatus.UNAUTHORIZED
+
+        when:
+        IntrospectionEndpointClient introspectionEndpointClient = embeddedServer.applicationContext.getBean(IntrospectionEndpointClient)
+
+        then:
+        !introspectionEndpointClient.introspect('revoked-token').blockingGet().active
+        controller.called.get() == 1
+
+        when:
+        sleep(1100)
+
+        then:
+        !introspectionEndpointClient.introspect('revoked-token').blockingGet().active
+        controller.called.get() == 2
+    }
+
+    void "concurrent introspections of the same token share a single request"() {
+        given:
+        controller.delay = 500
+        IntrospectionEndpointClient introspectionEndpointClient = embeddedServer.applicationContext.getBean(IntrospectionEndpointClient)
+
+        when:
+        List<Boolean> results = Collections.synchronizedList([])
+        List<Thread> threads = (1..10).collect { Thread.start { results << introspectionEndpointClient.introspect('active-token').blockingGet().active } }
+        threads*.join()
+
+        then:
+        results == [true] * 10
+        controller.called.get() == 1
+    }
+
+    @Requires(property = 'spec.name', value = 'IntrospectionTokenValidatorSpecResourceServer')
+    @Secured(SecurityRule.IS_AUTHENTICATED)
+    @Controller
+    static class ResourceController {
+        @Get('/resource')
+        String resource(Principal principal) {
+            principal.name
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'IntrospectionTokenValidatorSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class IntrospectionController {
+        AtomicInteger called = new AtomicInteger()
+        long delay
+        long exp
+        Map<String, String> form
+        String authorization
+
+        @Post(value = '/introspect', consumes = MediaType.APPLICATION_FORM_URLENCODED)
+        Single<Map> introspect(@Body Map<String, String> form, HttpRequest<?> request) {
+            this.form = form
+            this.authorization = request.headers.get(HttpHeaders.AUTHORIZATION)
+            called.incrementAndGet()
+            Map response = form.token == 'active-token' ?
+                    [active: true, username: 'sherlock', scope: 'read', exp: exp] :
+                    [active: false]
+            Single.just(response).delay(delay, TimeUnit.MILLISECONDS)
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package io.micronaut.security.oauth2.openid.endpoints.revocation
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.MediaType
+import io.micronaut.http.annotation.Body
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Post
+import io.micronaut.http.client.DefaultHttpClientConfiguration
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.http.context.ServerRequestContext
+import io.micronaut.http.cookie.Cookie
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.authentication.AuthenticationProvider
+import io.micronaut.security.authentication.AuthenticationRequest
+import io.micronaut.security.authentication.AuthenticationResponse
+import io.micronaut.security.authentication.AuthenticationUserDetailsAdapter
+import io.micronaut.security.authentication.UserDetails
+import io.micronaut.security.event.LogoutEvent
+import io.micronaut.security.oauth2.grants.refreshtoken.RefreshTokenStore
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse
+import io.micronaut.security.oauth2.vault.TokenVault
+import io.micronaut.security.oauth2.vault.TokenVaultEntry
+import io.micronaut.security.rules.SecurityRule
+import io.reactivex.Flowable
+import org.reactivestreams.Publisher
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.inject.Singleton
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+class DefaultRevocationEndpointClientSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer authorizationServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'DefaultRevocationEndpointClientSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run([
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.client-secret': 'YYY',
+            'micronaut.security.oauth2.token.url': "${authorizationServer.URL}/oauth2/token",
+            'micronaut.security.oauth2.revocation.url': "${authorizationServer.URL}/oauth2/revoke",
+            'micronaut.security.oauth2.revocation.client.enabled': true,
+            'micronaut.security.oauth2.revocation.client.retry-delay': '10ms',
+            'micronaut.security.oauth2.refresh-token.enabled': true,
+    ], Environment.TEST)
+
+    RevocationController controller = authorizationServer.applicationContext.getBean(RevocationController)
+
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+
+    void setup() {
+        controller.revoked.clear()
+        controller.tokenTypeHints.clear()
+        controller.failures.clear()
+    }
+
+    void "the revocation endpoint client is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.revocation.url': "${authorizationServer.URL}/oauth2/revoke",
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(RevocationEndpointClient)
+
+        cleanup:
+        context.close()
+    }
+
+    void "revocations are sent in the background"() {
+        given:
+        RevocationEndpointClient revocationEndpointClient = context.getBean(RevocationEndpointClient)
+
+        when:
+        boolean queued = revocationEndpointClient.revoke('refresh-token', RevocationEndpointClient.REFRESH_TOKEN)
+
+        then:
+        queued
+        conditions.eventually {
+            assert controller.revoked == ['refresh-token']
+        }
+        controller.tokenTypeHint == 'refresh_token'
+        controller.authorization == "Basic ${'XXX:YYY'.bytes.encodeBase64()}"
+    }
+
+    void "server errors are retried"() {
+        given:
+        controller.failures['flaky-token'] = 2
+
+        when:
+        context.getBean(RevocationEndpointClient).revoke('flaky-token', RevocationEndpointClient.REFRESH_TOKEN)
+
+        then:
+        conditions.eventually {
+            assert controller.revoked == ['flaky-token']
+        }
+    }
+
+    void "thousands of tokens can be revoked at once"() {
+        given:
+        List<String> tokens = (1..2000).collect { "token-${it}".toString() }
+
+        when:
+        int queued = context.getBean(RevocationEndpointClient).revokeAll(tokens, RevocationEndpointClient.ACCESS_TOKEN)
+
+        then:
+        queued == 2000
+        new PollingConditions(timeout: 30).eventually {
+            assert controller.revoked.size() == 2000
+        }
+        controller.revoked as Set == tokens as Set
+    }
+
+    void "logout ends the refresh session and revokes its access and refresh tokens"() {
+        given:
+        EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+                'spec.name': 'DefaultRevocationEndpointClientSpecLogout',
+                'micronaut.security.enabled': true,
+                'micronaut.security.endpoints.logout.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+                'micronaut.security.token.jwt.cookie.enabled': true,
+                'micronaut.security.oauth2.client-id': 'XXX',
+                'micronaut.security.oauth2.token.url': "${authorizationServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.revocation.url': "${authorizationServer.URL}/oauth2/revoke",
+                'micronaut.security.oauth2.revocation.client.enabled': true,
+                'micronaut.security.oauth2.refresh-token.enabled': true,
+        ], Environment.TEST)
+        RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL, new DefaultHttpClientConfiguration(followRedirects: false))
+        RefreshTokenStore refreshTokenStore = embeddedServer.applicationContext.getBean(RefreshTokenStore)
+        refreshTokenStore.save('session', 'session-refresh-token')
+        refreshTokenStore.saveAccessToken('session', 'session-access-token')
+
+        when:
+        HttpResponse<?> response = client.exchange(HttpRequest.POST('/logout', '').basicAuth('sherlock', 'password').cookie(Cookie.of('OAUTH2_REFRESH_SESSION', 'session'))).blockingFirst()
+
+        then:
+        response.status == HttpStatus.SEE_OTHER
+        !refreshTokenStore.find('session').isPresent()
+        conditions.eventually {
+            assert controller.revoked as Set == ['session-access-token', 'session-refresh-token'] as Set
+        }
+        controller.tokenTypeHints == ['session-access-token': 'access_token', 'session-refresh-token': 'refresh_token']
+
+        cleanup:
+        client.close()
+        embeddedServer.close()
+    }
+
+    void "logout revokes the tokens held by the vault without refresh sessions"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+                'micronaut.security.oauth2.client-id': 'XXX',
+                'micronaut.security.oauth2.token.url': "${authorizationServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.revocation.url': "${authorizationServer.URL}/oauth2/revoke",
+                'micronaut.security.oauth2.revocation.client.enabled': true,
+                'micronaut.security.oauth2.vault.enabled': true,
+        ], Environment.TEST)
+        TokenVault tokenVault = context.getBean(TokenVault)
+        IdTokenAccessTokenResponse idTokenAccessTokenResponse = new IdTokenAccessTokenResponse()
+        idTokenAccessTokenResponse.accessToken = 'vault-access-token'
+        idTokenAccessTokenResponse.refreshToken = 'vault-refresh-token'
+        Authentication authentication = new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', []))
+        tokenVault.store('handle', new TokenVaultEntry(idTokenAccessTokenResponse, authentication, System.currentTimeMillis() + 60000))
+        HttpRequest<?> request = HttpRequest.POST('/logout', '').header(HttpHeaders.AUTHORIZATION, 'Bearer handle')
+
+        expect:
+        !context.containsBean(RefreshTokenStore)
+
+        when:
+        ServerRequestContext.with(request) {
+            context.publishEvent(new LogoutEvent(authentication))
+        }
+
+        then:
+        !tokenVault.find('handle').isPresent()
+        conditions.eventually {
+            assert controller.revoked as Set == ['vault-access-token', 'vault-refresh-token'] as Set
+        }
+        controller.tokenTypeHints == ['vault-access-token': 'access_token', 'vault-refresh-token': 'refresh_token']
+
+        cleanup:
+        context.close()
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultRevocationEndpointClientSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class RevocationController {
+        List<String> revoked = new CopyOnWriteArrayList<>()
+        Map<String, Integer> failures = new ConcurrentHashMap<>()
+        String tokenTypeHint
+        Map<String, String> tokenTypeHints = new ConcurrentHashMap<>()
+        String authorization
+
+        @Post(value = '/revoke', consumes = MediaType.APPLICATION_FORM_URLENCODED)
+        HttpResponse<?> revoke(@Body Map<String, String> form, HttpRequest<?> request) {
+            Integer remaining = failures[form.token]
+            if (remaining) {
+                failures[form.token] = remaining - 1
+                return HttpResponse.serverError()
+            }
+            tokenTypeHint = form.token_type_hint
+            tokenTypeHints[form.token] = form.token_type_hint
+            authorization = request.headers.get(HttpHeaders.AUTHORIZATION)
+            revoked << form.token
+            HttpResponse.ok()
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultRevocationEndpointClientSpecLogout')
+    @Singleton
+    static class SherlockAuthenticationProvider implements AuthenticationProvider {
+        @Override
+        Publisher<AuthenticationResponse> authenticate(AuthenticationRequest authenticationRequest) {
+            Flowable.just(new UserDetails(authenticationRequest.identity as String, []))
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.micronaut.security.oauth2.openid.endpoints.token
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Post
+import io.micronaut.http.client.exceptions.HttpClientResponseException
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.oauth2.handlers.TokenEndpointUnavailableExceptionHandler
+import io.micronaut.security.rules.SecurityRule
+import io.reactivex.Single
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class DefaultTokenEndpointClientSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'DefaultTokenEndpointClientSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run([
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+            'micronaut.security.oauth2.token.resilience.timeout': '1s',
+            'micronaut.security.oauth2.token.resilience.retry-delay': '10ms',
+            'micronaut.security.oauth2.token.resilience.failure-threshold': 2,
+            'micronaut.security.oauth2.token.resilience.open-duration': '500ms',
+    ], Environment.TEST)
+
+    TokenController controller = embeddedServer.applicationContext.getBean(TokenController)
+
+    TokenEndpointClient tokenEndpointClient = context.getBean(TokenEndpointClient)
+
+    void setup() {
+        controller.called = 0
+        controller.statuses = []
+        controller.delay = 0
+    }
+
+    void "a 503 response is retried"() {
+        given:
+        controller.statuses = [HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE]
+
+        when:
+        HttpResponse<String> response = exchange()
+
+        then:
+        response.status() == HttpStatus.OK
+        controller.called == 3
+    }
+
+    void "other errors are not retried"() {
+        given:
+        controller.statuses = [status]
+
+        when:
+        exchange()
+
+        then:
+        HttpClientResponseException e = thrown()
+        e.status == status
+        controller.called == 1
+
+        where:
+        status << [HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.BAD_REQUEST]
+    }
+
+    void "each attempt has a deadline"() {
+        given:
+        controller.delay = 3000
+
+        when:
+        exchange()
+
+        then:
+        Exception e = thrown()
+        e.cause instanceof TimeoutException || e instanceof TimeoutException
+        controller.called == 1
+    }
+
+    void "the circuit opens after consecutive failures and closes once a trial request succeeds"() {
+        given:
+        controller.statuses = [HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.BAD_GATEWAY]
+
+        when:
+        2.times {
+            try {
+                exchange()
+            } catch (HttpClientResponseException ignored) {
+            }
+        }
+        exchange()
+
+        then:
+        TokenEndpointUnavailableException e = thrown()
+        e.retryAfter <= Duration.ofMillis(500)
+        controller.called == 2
+
+        when:
+        sleep(600)
+
+        then:
+        exchange().status() == HttpStatus.OK
+        exchange().status() == HttpStatus.OK
+        controller.called == 4
+    }
+
+    void "client errors do not open the circuit"() {
+        given:
+        controller.statuses = [HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST]
+
+        when:
+        3.times {
+            try {
+                exchange()
+            } catch (HttpClientResponseException ignored) {
+            }
+        }
+
+        then:
+        exchange().status() == HttpStatus.OK
+        controller.called == 4
+    }
+
+    void "an open circuit is answered with 503 and a temporarily_unavailable error"() {
+        when:
+        HttpResponse response = new TokenEndpointUnavailableExceptionHandler().handle(null, new TokenEndpointUnavailableException(Duration.ofMillis(4500)))
+
+        then:
+        response.status() == HttpStatus.SERVICE_UNAVAILABLE
+        response.header(HttpHeaders.RETRY_AFTER) == '5'
+        response.body().error == 'temporarily_unavailable'
+    }
+
+    private HttpResponse<String> exchange() {
+        tokenEndpointClient.exchange(HttpRequest.POST("${embeddedServer.URL}/oauth2/token", ''), String).blockingFirst()
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultTokenEndpointClientSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class TokenController {
+        int called
+        List<HttpStatus> statuses = []
+        long delay
+
+        @Post('/token')
+        Single<HttpResponse<String>> token() {
+            called++
+            HttpStatus status = statuses ? statuses.remove(0) : HttpStatus.OK
+            Single.just(HttpResponse.<String>status(status).body('{"access_token":"SlAV32hkKG","token_type":"Bearer"}'))
+                    .delay(delay, TimeUnit.MILLISECONDS)
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.micronaut.security.oauth2.openid.endpoints.token
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Post
+import io.micronaut.http.client.DefaultHttpClient
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.rules.SecurityRule
+import io.netty.channel.ChannelOption
+import spock.lang.Specification
+
+import java.time.Duration
+
+class TokenEndpointHttpClientConfigurationSpec extends Specification {
+
+    void "the token endpoint HTTP client has its own pooled configuration"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.http-client.read-timeout': '3s',
+                'micronaut.security.oauth2.token.http-client.read-idle-timeout': '30s',
+                'micronaut.security.oauth2.token.http-client.keep-alive': false,
+                'micronaut.security.oauth2.token.http-client.pool.max-connections': 10,
+                'micronaut.security.oauth2.token.http-client.pool.max-pending-acquires': 20,
+        ], Environment.TEST)
+
+        when:
+        TokenEndpointHttpClientConfiguration configuration = context.getBean(TokenEndpointHttpClientConfiguration)
+
+        then:
+        configuration.readTimeout.get() == Duration.ofSeconds(3)
+        configuration.readIdleTimeout.get() == Duration.ofSeconds(30)
+        configuration.connectTimeout.get() == TokenEndpointHttpClientConfiguration.DEFAULT_CONNECT_TIMEOUT
+        configuration.channelOptions[ChannelOption.SO_KEEPALIVE] == false
+        configuration.connectionPoolConfiguration.enabled
+        configuration.connectionPoolConfiguration.maxConnections == 10
+        configuration.connectionPoolConfiguration.maxPendingAcquires == 20
+        configuration.connectionPoolConfiguration.acquireTimeout.get() == TokenEndpointHttpClientConfiguration.TokenEndpointConnectionPoolConfiguration.DEFAULT_ACQUIRE_TIMEOUT
+
+        cleanup:
+        context.close()
+    }
+
+    void "only token endpoint requests are recorded in the client metrics"() {
+        given:
+        EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+                'spec.name': getClass().simpleName,
+                'micronaut.security.enabled': true,
+        ], Environment.TEST)
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.token.http-client.pool.max-connections': 4,
+        ], Environment.TEST)
+        RxHttpClient tokenClient = context.getBean(RxHttpClient, Qualifiers.byName('oauth2tokenendpoint'))
+        RxHttpClient otherClient = context.createBean(RxHttpClient, embeddedServer.URL)
+        DefaultHttpClient identifiedClient = context.createBean(DefaultHttpClient, embeddedServer.URL)
+        identifiedClient.setClientIdentifiers('other')
+        TokenEndpointClientMetrics metrics = context.getBean(TokenEndpointClientMetrics)
+
+        when:
+        tokenClient.exchange(HttpRequest.POST("${embeddedServer.URL}/oauth2/token", ''), String).blockingFirst()
+        tokenClient.exchange(HttpRequest.POST("${embeddedServer.URL}/oauth2/token", ''), String).blockingFirst()
+        otherClient.exchange(HttpRequest.POST('/oauth2/other', ''), String).blockingFirst()
+        identifiedClient.exchange(HttpRequest.POST('/oauth2/token', ''), String).blockingFirst()
+
+        then:
+        metrics.totalRequests == 2
+        metrics.failedRequests == 0
+        metrics.activeRequests == 0
+        metrics.peakActiveRequests == 1
+        metrics.maxConnections == 4
+        metrics.estimatedPendingAcquires == 0
+        metrics.utilization == 0
+
+        cleanup:
+        identifiedClient.close()
+        otherClient.close()
+        context.close()
+        embeddedServer.close()
+    }
+
+    void "the client metrics are published through a management endpoint"() {
+        given:
+        EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+                'spec.name': getClass().simpleName,
+                'micronaut.security.enabled': true,
+        ], Environment.TEST)
+        EmbeddedServer application = ApplicationContext.run(EmbeddedServer, [
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.token.http-client.pool.max-connections': 4,
+                'endpoints.oauth2tokenclient.sensitive': false,
+        ], Environment.TEST)
+        RxHttpClient tokenClient = application.applicationContext.getBean(RxHttpClient, Qualifiers.byName('oauth2tokenendpoint'))
+        RxHttpClient client = application.applicationContext.createBean(RxHttpClient, application.URL)
+
+        when:
+        tokenClient.exchange(HttpRequest.POST("${embeddedServer.URL}/oauth2/token", ''), String).blockingFirst()
+        Map metrics = client.retrieve(HttpRequest.GET("/${TokenEndpointClientMetricsEndpoint.ID}"), Map).blockingFirst()
+
+        then:
+        metrics.totalRequests == 1
+        metrics.activeRequests == 0
+        metrics.maxConnections == 4
+        metrics.estimatedPendingAcquires == 0
+
+        cleanup:
+        client.close()
+        application.close()
+        embeddedServer.close()
+    }
+
+    @Requires(property = 'spec.name', value = 'TokenEndpointHttpClientConfigurationSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class TokenController {
+
+        @Post('/token')
+        String token() {
+            '{"access_token":"SlAV32hkKG","token_type":"Bearer"}'
+        }
+
+        @Post('/other')
+        String other() {
+            '{}'
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.micronaut.security.oauth2.openid.endpoints.token
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Head
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.rules.SecurityRule
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class TokenEndpointWarmUpSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'TokenEndpointWarmUpSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    void "the token endpoint is not warmed up by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(TokenEndpointWarmUp)
+
+        cleanup:
+        context.close()
+    }
+
+    void "connections to the token endpoint are opened once the application starts"() {
+        given:
+        TokenController controller = embeddedServer.applicationContext.getBean(TokenController)
+        controller.called.set(0)
+        controller.status = HttpStatus.OK
+
+        when:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.token.warm-up.enabled': true,
+                'micronaut.security.oauth2.token.warm-up.connections': 3,
+        ], Environment.TEST)
+
+        then:
+        new PollingConditions(timeout: 10).eventually {
+            assert controller.called.get() == 3
+        }
+
+        and: 'warm-up requests are not recorded in the client metrics'
+        context.getBean(TokenEndpointClientMetrics).totalRequests == 0
+
+        cleanup:
+        context.close()
+    }
+
+    void "connections to the userinfo endpoint are opened as well if enabled"() {
+        given:
+        TokenController controller = embeddedServer.applicationContext.getBean(TokenController)
+        controller.called.set(0)
+        controller.userinfoCalled.set(0)
+        controller.status = HttpStatus.OK
+
+        when:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.user-info.url': "${embeddedServer.URL}/oauth2/userinfo",
+                'micronaut.security.oauth2.user-info.client.enabled': true,
+                'micronaut.security.oauth2.token.warm-up.enabled': true,
+                'micronaut.security.oauth2.token.warm-up.connections': 2,
+                'micronaut.security.oauth2.token.warm-up.userinfo': true,
+        ], Environment.TEST)
+
+        then: 'the userinfo endpoint answers 401 Unauthorized, which is a successful warm-up'
+        new PollingConditions(timeout: 10).eventually {
+            assert controller.called.get() == 2
+            assert controller.userinfoCalled.get() == 2
+        }
+        context.getBean(TokenEndpointWarmUp).warmUp()
+
+        cleanup:
+        context.close()
+    }
+
+    void "a client error response is a successful warm-up but a server error is not"() {
+        given:
+        TokenController controller = embeddedServer.applicationContext.getBean(TokenController)
+        controller.status = HttpStatus.OK
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.token.url': "${embeddedServer.URL}/oauth2/token",
+                'micronaut.security.oauth2.token.warm-up.enabled': true,
+                'micronaut.security.oauth2.token.warm-up.connections': 2,
+        ], Environment.TEST)
+        TokenEndpointWarmUp warmUp = context.getBean(TokenEndpointWarmUp)
+
+        when:
+        controller.status = status
+
+        then:
+        warmUp.warmUp() == success
+        context.getBean(TokenEndpointClientMetrics).failedRequests == 0
+
+        cleanup:
+        context.close()
+
+        where:
+        status                            | success
+        HttpStatus.METHOD_NOT_ALLOWED     | true
+        HttpStatus.UNAUTHORIZED           | true
+        HttpStatus.SERVICE_UNAVAILABLE    | false
+    }
+
+    @Requires(property = 'spec.name', value = 'TokenEndpointWarmUpSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class TokenController {
+        AtomicInteger called = new AtomicInteger()
+        AtomicInteger userinfoCalled = new AtomicInteger()
+        HttpStatus status = HttpStatus.OK
+
+        @Head('/token')
+        HttpResponse token() {
+            called.incrementAndGet()
+            HttpResponse.status(status)
+        }
+
+        @Head('/userinfo')
+        HttpResponse userinfo() {
+            userinfoCalled.incrementAndGet()
+            HttpResponse.unauthorized()
+        }
+    }
+}
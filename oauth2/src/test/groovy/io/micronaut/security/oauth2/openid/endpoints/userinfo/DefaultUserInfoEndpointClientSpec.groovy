@@ -0,0 +1,156 @@
+package io.micronaut.security.oauth2.openid.endpoints.userinfo
+
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.PlainJWT
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.rules.SecurityRule
+import io.micronaut.security.token.jwt.validator.JwtAuthenticationFactory
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class DefaultUserInfoEndpointClientSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer authorizationServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'DefaultUserInfoEndpointClientSpec',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run([
+            'micronaut.security.enabled': true,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.openid.issuer': authorizationServer.URL.toString(),
+            'micronaut.security.oauth2.user-info.url': "${authorizationServer.URL}/oauth2/userinfo",
+            'micronaut.security.oauth2.user-info.client.enabled': true,
+            'micronaut.security.oauth2.user-info.client.time-to-live': '1s',
+    ], Environment.TEST)
+
+    UserInfoController controller = authorizationServer.applicationContext.getBean(UserInfoController)
+
+    String issuer = authorizationServer.URL.toString()
+
+    void setup() {
+        controller.called.set(0)
+    }
+
+    void "the userinfo endpoint client is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+                'micronaut.security.oauth2.user-info.url': "${authorizationServer.URL}/oauth2/userinfo",
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(UserInfoEndpointClient)
+        !(context.getBean(JwtAuthenticationFactory) instanceof UserInfoJwtAuthenticationFactory)
+
+        cleanup:
+        context.close()
+    }
+
+    void "userinfo claims are cached under the issuer and subject until they expire"() {
+        given:
+        UserInfoEndpointClient userInfoEndpointClient = context.getBean(UserInfoEndpointClient)
+
+        expect:
+        !userInfoEndpointClient.getCachedClaims(issuer, 'sherlock').isPresent()
+
+        when:
+        Map<String, Object> claims = userInfoEndpointClient.fetch('access-token').blockingGet()
+
+        then:
+        claims.sub == 'sherlock'
+        claims.email == 'sherlock@example.com'
+        controller.called.get() == 1
+        controller.authorization == 'Bearer access-token'
+        userInfoEndpointClient.getCachedClaims(issuer, 'sherlock').get() == claims
+        !userInfoEndpointClient.getCachedClaims('https://other.example.com', 'sherlock').isPresent()
+
+        when:
+        sleep(1100)
+
+        then:
+        !userInfoEndpointClient.getCachedClaims(issuer, 'sherlock').isPresent()
+    }
+
+    void "userinfo claims of another subject than the one of the ID token are not returned"() {
+        given:
+        UserInfoEndpointClient userInfoEndpointClient = context.getBean(UserInfoEndpointClient)
+
+        expect:
+        userInfoEndpointClient.fetch('access-token', new PlainJWT(new JWTClaimsSet.Builder().subject('sherlock').build()).serialize()).blockingGet().email == 'sherlock@example.com'
+        userInfoEndpointClient.fetch('access-token', new PlainJWT(new JWTClaimsSet.Builder().subject('moriarty').build()).serialize()).blockingGet().isEmpty()
+    }
+
+    void "cached userinfo claims are added to the authentication attributes"() {
+        given:
+        JwtAuthenticationFactory jwtAuthenticationFactory = context.getBean(JwtAuthenticationFactory)
+        PlainJWT jwt = new PlainJWT(new JWTClaimsSet.Builder().issuer(issuer).subject('sherlock').claim('name', 'Sherlock').build())
+
+        expect:
+        jwtAuthenticationFactory instanceof UserInfoJwtAuthenticationFactory
+        !jwtAuthenticationFactory.createAuthentication(jwt).get().attributes.containsKey('email')
+
+        when:
+        context.getBean(UserInfoEndpointClient).fetch('access-token').blockingGet()
+        Authentication authentication = jwtAuthenticationFactory.createAuthentication(jwt).get()
+
+        then:
+        authentication.name == 'sherlock'
+        authentication.attributes.email == 'sherlock@example.com'
+        authentication.attributes.name == 'Sherlock'
+        controller.called.get() == 1
+    }
+
+    void "userinfo claims are not added to JWTs of other issuers with the same subject"() {
+        given:
+        JwtAuthenticationFactory jwtAuthenticationFactory = context.getBean(JwtAuthenticationFactory)
+        context.getBean(UserInfoEndpointClient).fetch('access-token').blockingGet()
+
+        expect:
+        !jwtAuthenticationFactory.createAuthentication(new PlainJWT(new JWTClaimsSet.Builder().issuer('https://other.example.com').subject('sherlock').build())).get().attributes.containsKey('email')
+        !jwtAuthenticationFactory.createAuthentication(new PlainJWT(new JWTClaimsSet.Builder().subject('sherlock').build())).get().attributes.containsKey('email')
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultUserInfoEndpointClientSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/.well-known')
+    static class DiscoveryController {
+        @Get('/openid-configuration')
+        Map configuration(HttpRequest<?> request) {
+            String issuer = "http://localhost:${request.serverAddress.port}".toString()
+            [issuer: issuer, userinfo_endpoint: "${issuer}/oauth2/userinfo".toString()]
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'DefaultUserInfoEndpointClientSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/oauth2')
+    static class UserInfoController {
+        AtomicInteger called = new AtomicInteger()
+        String authorization
+
+        @Get('/userinfo')
+        Map userinfo(HttpRequest<?> request) {
+            called.incrementAndGet()
+            authorization = request.headers.get(HttpHeaders.AUTHORIZATION)
+            [sub: 'sherlock', email: 'sherlock@example.com', name: 'Sherlock Holmes']
+        }
+    }
+}
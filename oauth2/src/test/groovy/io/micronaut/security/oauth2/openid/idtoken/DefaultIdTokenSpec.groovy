@@ -0,0 +1,84 @@
+package io.micronaut.security.oauth2.openid.idtoken
+
+import io.micronaut.security.authentication.AuthenticationUserDetailsAdapter
+import io.micronaut.security.authentication.UserDetails
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DefaultIdTokenSpec extends Specification {
+
+    static final Map<String, Object> CLAIMS = [
+            iss: 'https://accounts.example.com',
+            sub: '248289761001',
+            aud: ['s6BhdRkqt3', 'other'],
+            exp: 1311281970L,
+            iat: new Date(1311280970000L),
+            auth_time: 1311280969,
+            nonce: 'n-0S6_WzA2Mj',
+            amr: ['pwd', 'otp', 3],
+            email: 'janedoe@example.com',
+            email_verified: true,
+            address: [street_address: '1234 Hollywood Blvd.', locality: 'Los Angeles', region: 'CA', postal_code: '90210', country: 'US'],
+            custom: 'value',
+    ]
+
+    void "claims are decoded into typed values"() {
+        when:
+        IdToken idToken = new DefaultIdToken(CLAIMS)
+
+        then:
+        idToken.issuer == 'https://accounts.example.com'
+        idToken.subject == '248289761001'
+        idToken.audience == 's6BhdRkqt3'
+        idToken.expirationTime == 1311281970
+        idToken.issuedAt == 1311280970
+        idToken.authenticationTime == 1311280969
+        idToken.nonce == 'n-0S6_WzA2Mj'
+        idToken.authenticationMethodReferences == ['pwd', 'otp']
+        idToken.email == 'janedoe@example.com'
+        idToken.emailVerified
+        idToken.adress.region == 'CA'
+        idToken.adress.postalCode == '90210'
+        idToken.name == null
+        idToken.claims.custom == 'value'
+    }
+
+    void "getters return the instances decoded once"() {
+        when:
+        IdToken idToken = new DefaultIdToken(CLAIMS)
+
+        then:
+        idToken.adress.is(idToken.adress)
+        idToken.authenticationMethodReferences.is(idToken.authenticationMethodReferences)
+
+        when:
+        idToken.claims.put('sub', 'other')
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    @Unroll
+    void "the adapter and the decoded id token agree on #claim"(String claim) {
+        given:
+        UserDetails userDetails = new UserDetails('248289761001', [], CLAIMS)
+        IdToken adapter = new IdTokenAuthenticationAdapter(new AuthenticationUserDetailsAdapter(userDetails))
+        IdToken decoded = DefaultIdToken.of(new AuthenticationUserDetailsAdapter(userDetails))
+
+        expect:
+        adapter."$claim" == decoded."$claim"
+
+        where:
+        claim << ['issuer', 'subject', 'audience', 'expirationTime', 'issuedAt', 'authenticationTime',
+                  'authenticationMethodReferences', 'emailVerified']
+    }
+
+    void "an empty authentication decodes to an empty id token"() {
+        when:
+        IdToken idToken = new DefaultIdToken(null)
+
+        then:
+        idToken.subject == null
+        idToken.claims.isEmpty()
+    }
+}
@@ -0,0 +1,125 @@
+package io.micronaut.security.oauth2.openid.idtoken
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Replaces
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.authentication.AuthenticationProvider
+import io.micronaut.security.authentication.AuthenticationRequest
+import io.micronaut.security.authentication.AuthenticationResponse
+import io.micronaut.security.authentication.UserDetails
+import io.micronaut.security.rules.SecurityRule
+import io.reactivex.Flowable
+import org.reactivestreams.Publisher
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.inject.Singleton
+
+class IdTokenForRequestSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'IdTokenForRequestSpec',
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+    ], Environment.TEST)
+
+    @Shared
+    @AutoCleanup
+    RxHttpClient client = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL)
+
+    void "the id token is decoded once per request and shared"() {
+        when:
+        Map result = client.retrieve(HttpRequest.GET('/idtoken').basicAuth('sherlock', 'password'), Map).blockingFirst()
+
+        then:
+        result.subject == 'sherlock'
+        result.expirationTime == 1311281970
+        result.sameArgument
+        result.sameCurrent
+    }
+
+    void "the id token is created by the IdTokenFactory bean"() {
+        when:
+        Map result = client.retrieve(HttpRequest.GET('/idtoken').basicAuth('sherlock', 'password'), Map).blockingFirst()
+
+        then:
+        result.type == 'UppercaseAddressIdToken'
+        result.locality == 'LONDON'
+    }
+
+    void "a request without authentication has no id token"() {
+        given:
+        IdTokenForRequest idTokenForRequest = embeddedServer.applicationContext.getBean(IdTokenForRequest)
+
+        expect:
+        !idTokenForRequest.find(HttpRequest.GET('/idtoken')).isPresent()
+        !idTokenForRequest.current().isPresent()
+    }
+
+    @Requires(property = 'spec.name', value = 'IdTokenForRequestSpec')
+    @Secured(SecurityRule.IS_AUTHENTICATED)
+    @Controller('/idtoken')
+    static class IdTokenController {
+
+        private final IdTokenForRequest idTokenForRequest
+
+        IdTokenController(IdTokenForRequest idTokenForRequest) {
+            this.idTokenForRequest = idTokenForRequest
+        }
+
+        @Get
+        Map<String, Object> index(IdToken idToken, IdToken again) {
+            [
+                    subject: idToken.subject,
+                    expirationTime: idToken.expirationTime,
+                    sameArgument: idToken.is(again),
+                    sameCurrent: idToken.is(idTokenForRequest.current().get()),
+                    type: idToken.class.simpleName,
+                    locality: idToken.adress?.locality,
+            ]
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'IdTokenForRequestSpec')
+    @Replaces(DefaultIdTokenFactory)
+    @Singleton
+    static class UppercaseAddressIdTokenFactory implements IdTokenFactory {
+        @Override
+        IdToken create(Authentication authentication) {
+            new UppercaseAddressIdToken(authentication)
+        }
+    }
+
+    static class UppercaseAddressIdToken extends IdTokenAuthenticationAdapter {
+        UppercaseAddressIdToken(Authentication authentication) {
+            super(authentication)
+        }
+
+        @Override
+        protected Address instantiateAddressFromMap(Map m) {
+            Address address = new Address()
+            address.locality = (m.locality as String)?.toUpperCase()
+            address
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'IdTokenForRequestSpec')
+    @Singleton
+    static class SherlockAuthenticationProvider implements AuthenticationProvider {
+        @Override
+        Publisher<AuthenticationResponse> authenticate(AuthenticationRequest authenticationRequest) {
+            Flowable.just(new UserDetails(authenticationRequest.identity as String, [], [sub: authenticationRequest.identity, exp: 1311281970L, address: [locality: 'London']]))
+        }
+    }
+}
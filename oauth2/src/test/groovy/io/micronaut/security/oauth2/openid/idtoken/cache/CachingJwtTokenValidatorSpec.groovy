@@ -0,0 +1,233 @@
+package io.micronaut.security.oauth2.openid.idtoken.cache
+
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.JWTParser
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.context.ServerRequestContext
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.authentication.DefaultAuthentication
+import io.micronaut.security.event.LogoutEvent
+import io.micronaut.security.oauth2.openid.idtoken.denylist.TokenDenyList
+import io.micronaut.security.rules.SecurityRule
+import io.micronaut.security.token.generator.TokenGenerator
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims
+import io.micronaut.security.token.jwt.generator.claims.JwtClaimsSetAdapter
+import io.micronaut.security.token.jwt.validator.GenericJwtClaimsValidator
+import io.micronaut.security.token.jwt.validator.JwtTokenValidator
+import io.reactivex.Flowable
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.inject.Singleton
+import java.nio.charset.StandardCharsets
+import java.security.MessageDigest
+
+class CachingJwtTokenValidatorSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer authorizationServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'CachingJwtTokenValidatorSpecServer',
+            'micronaut.security.enabled': true,
+    ], Environment.TEST)
+
+    @Shared
+    String issuer = authorizationServer.URL.toString()
+
+    @Shared
+    @AutoCleanup
+    ApplicationContext applicationContext = ApplicationContext.run([
+            'spec.name': 'CachingJwtTokenValidatorSpec',
+            'micronaut.security.enabled': true,
+            'micronaut.security.oauth2.openid.issuer': issuer,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.token.jwt.signatures.secret.generator.secret': 'pleaseChangeThisSecretForANewOne',
+            'micronaut.security.oauth2.authentication-cache.enabled': true,
+            'micronaut.security.oauth2.deny-list.enabled': true,
+    ], Environment.TEST)
+
+    def "the authentication cache is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(AuthenticationCache)
+        !(context.getBean(JwtTokenValidator) instanceof CachingJwtTokenValidator)
+
+        cleanup:
+        context.close()
+    }
+
+    def "a token is verified once and then served from the cache"() {
+        given:
+        JwtTokenValidator validator = applicationContext.getBean(JwtTokenValidator)
+        String token = token('sherlock', new Date(System.currentTimeMillis() + 3600000))
+
+        when:
+        Authentication first = validate(token)
+
+        then:
+        validator instanceof CachingJwtTokenValidator
+        first.name == 'sherlock'
+        validate(token).is(first)
+
+        and:
+        validate(token.substring(0, token.length() - 2)) == null
+    }
+
+    def "tokens without an expiration are not cached"() {
+        given:
+        String token = token('watson', null)
+
+        expect:
+        !validate(token).is(validate(token))
+    }
+
+    def "tokens of other issuers are not cached"() {
+        given:
+        String token = token('irene', new Date(System.currentTimeMillis() + 3600000), 'https://other.example.com')
+
+        expect:
+        validate(token).name == 'irene'
+        !validate(token).is(validate(token))
+    }
+
+    def "entries are kept for the time to live at most"() {
+        given:
+        String token = token('hudson', new Date(System.currentTimeMillis() + 3600000))
+
+        when:
+        validate(token)
+
+        then:
+        applicationContext.getBean(AuthenticationCache).find(sha256(token)).get().expiresAt <= System.currentTimeMillis() + 300000
+    }
+
+    def "cached tokens are checked by the claims validators"() {
+        given:
+        String token = token('lestrade', new Date(System.currentTimeMillis() + 3600000))
+        TogglingClaimsValidator claimsValidator = applicationContext.getBean(TogglingClaimsValidator)
+
+        expect:
+        validate(token).is(validate(token))
+
+        when:
+        claimsValidator.reject = true
+
+        then:
+        validate(token) == null
+
+        cleanup:
+        claimsValidator.reject = false
+    }
+
+    def "denied tokens are rejected even if they are cached"() {
+        given:
+        String token = token('moriarty', new Date(System.currentTimeMillis() + 3600000))
+
+        expect:
+        validate(token)
+
+        when:
+        applicationContext.getBean(TokenDenyList).deny(new JwtClaimsSetAdapter(JWTParser.parse(token).JWTClaimsSet))
+
+        then:
+        validate(token) == null
+    }
+
+    def "logout drops the cached authentication"() {
+        given:
+        String token = token('mycroft', new Date(System.currentTimeMillis() + 3600000))
+        Authentication cached = validate(token)
+        HttpRequest<?> request = HttpRequest.POST('/logout', '').header(HttpHeaders.AUTHORIZATION, "Bearer ${token}")
+
+        when:
+        ServerRequestContext.with(request) {
+            applicationContext.getBean(AuthenticationCacheLogoutEventListener).onApplicationEvent(new LogoutEvent(cached))
+        }
+
+        then:
+        !validate(token).is(cached)
+    }
+
+    def "a full shard evicts its least recently used authentication"() {
+        given:
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(new AuthenticationCacheConfigurationProperties(shards: 1, maxEntries: 2))
+        long expiresAt = System.currentTimeMillis() + 60000
+
+        when:
+        ['a', 'b'].each { cache.put(it, cachedAuthentication(it, expiresAt)) }
+        cache.find('a')
+        cache.put('c', cachedAuthentication('c', expiresAt))
+
+        then:
+        cache.find('a').isPresent()
+        !cache.find('b').isPresent()
+        cache.find('c').isPresent()
+
+        when:
+        cache.put('d', cachedAuthentication('d', System.currentTimeMillis() - 1))
+
+        then:
+        !cache.find('d').isPresent()
+    }
+
+    private String token(String subject, Date expiration, String tokenIssuer = issuer) {
+        Map<String, Object> claims = [iss: tokenIssuer, sub: subject, iat: new Date(), jti: UUID.randomUUID().toString()]
+        if (expiration) {
+            claims.exp = expiration
+        }
+        applicationContext.getBean(TokenGenerator).generateToken(claims).get()
+    }
+
+    private Authentication validate(String token) {
+        Flowable.fromPublisher(applicationContext.getBean(JwtTokenValidator).validateToken(token)).blockingFirst(null)
+    }
+
+    private static CachedAuthentication cachedAuthentication(String name, long expiresAt) {
+        new CachedAuthentication(new DefaultAuthentication(name, [:]), new JWTClaimsSet.Builder().subject(name).build(), expiresAt)
+    }
+
+    private static String sha256(String token) {
+        Base64.encoder.encodeToString(MessageDigest.getInstance('SHA-256').digest(token.getBytes(StandardCharsets.UTF_8)))
+    }
+
+    @Requires(property = 'spec.name', value = 'CachingJwtTokenValidatorSpecServer')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller
+    static class DiscoveryController {
+        @Get('/.well-known/openid-configuration')
+        Map configuration(HttpRequest<?> request) {
+            String issuer = "http://localhost:${request.serverAddress.port}".toString()
+            [issuer: issuer, jwks_uri: "${issuer}/keys".toString()]
+        }
+
+        @Get('/keys')
+        Map keys() {
+            [keys: []]
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'CachingJwtTokenValidatorSpec')
+    @Singleton
+    static class TogglingClaimsValidator implements GenericJwtClaimsValidator {
+        volatile boolean reject
+
+        @Override
+        boolean validate(JwtClaims claims) {
+            !reject
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.micronaut.security.oauth2.openid.idtoken.denylist
+
+import com.nimbusds.jwt.JWTClaimsSet
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.env.Environment
+import io.micronaut.security.authentication.AuthenticationUserDetailsAdapter
+import io.micronaut.security.authentication.UserDetails
+import io.micronaut.security.event.LogoutEvent
+import io.micronaut.security.oauth2.openid.idtoken.DefaultIdTokenAccessTokenResponseValidator
+import io.micronaut.security.token.jwt.generator.claims.JwtClaims
+import io.micronaut.security.token.jwt.generator.claims.JwtClaimsSetAdapter
+import io.micronaut.security.token.jwt.validator.JwtTokenValidator
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Instant
+
+class DefaultTokenDenyListSpec extends Specification {
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run([
+            'micronaut.security.enabled': true,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.oauth2.deny-list.enabled': true,
+            'micronaut.security.oauth2.deny-list.expected-insertions': 100,
+            'micronaut.security.oauth2.deny-list.maximum-size': 3,
+    ], Environment.TEST)
+
+    void "the deny list is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.token.jwt.enabled': true,
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(TokenDenyList)
+        !context.containsBean(TokenDenyListJwtClaimsValidator)
+
+        cleanup:
+        context.close()
+    }
+
+    void "the deny list validator runs for ID tokens and for JWTs authenticating requests"() {
+        given:
+        TokenDenyListJwtClaimsValidator validator = context.getBean(TokenDenyListJwtClaimsValidator)
+
+        expect:
+        context.getBean(JwtTokenValidator).genericJwtClaimsValidators.contains(validator)
+        context.getBean(DefaultIdTokenAccessTokenResponseValidator).jwtClaimsValidators.contains(validator)
+    }
+
+    void "denied tokens are rejected until they expire"() {
+        given:
+        TokenDenyList tokenDenyList = context.getBean(TokenDenyList)
+        TokenDenyListJwtClaimsValidator validator = context.getBean(TokenDenyListJwtClaimsValidator)
+        JwtClaims revoked = claims('revoked', Instant.now().plusSeconds(3600))
+        JwtClaims other = claims('other', Instant.now().plusSeconds(3600))
+
+        expect:
+        validator.validate(revoked)
+
+        when:
+        boolean denied = tokenDenyList.deny(revoked)
+
+        then:
+        denied
+        !validator.validate(revoked)
+        validator.validate(other)
+
+        when:
+        JwtClaims expired = claims('expired', Instant.now().minusSeconds(1))
+        tokenDenyList.deny(expired)
+
+        then:
+        validator.validate(expired)
+    }
+
+    void "tokens without a jti are keyed by their issuer, subject and issue time"() {
+        given:
+        TokenDenyList tokenDenyList = context.getBean(TokenDenyList)
+        Date iat = new Date()
+        Date exp = new Date(iat.time + 3600000)
+        JwtClaims token = new JwtClaimsSetAdapter(new JWTClaimsSet.Builder().issuer('https://issuer').subject('sherlock').issueTime(iat).expirationTime(exp).build())
+        JwtClaims later = new JwtClaimsSetAdapter(new JWTClaimsSet.Builder().issuer('https://issuer').subject('sherlock').issueTime(new Date(iat.time + 5000)).expirationTime(exp).build())
+
+        when:
+        tokenDenyList.deny(token)
+
+        then:
+        tokenDenyList.isDenied(token)
+        !tokenDenyList.isDenied(later)
+    }
+
+    void "tokens denied by another instance are picked up when the Bloom filter is rebuilt"() {
+        given:
+        DefaultTokenDenyList tokenDenyList = context.getBean(DefaultTokenDenyList)
+        JwtClaims token = claims('shared', Instant.now().plusSeconds(3600))
+        context.getBean(TokenDenyListStore).put('jti:shared', Instant.now().plusSeconds(3600))
+
+        expect:
+        !tokenDenyList.isDenied(token)
+
+        when:
+        tokenDenyList.rebuild()
+
+        then:
+        tokenDenyList.isDenied(token)
+    }
+
+    void "logging out denies the token of the authentication of the request"() {
+        given:
+        TokenDenyListLogoutEventListener listener = context.getBean(TokenDenyListLogoutEventListener)
+        Date exp = new Date(System.currentTimeMillis() + 3600000)
+
+        when:
+        listener.onApplicationEvent(new LogoutEvent(new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', [], [jti: 'logged-out', exp: exp]))))
+
+        then:
+        context.getBean(TokenDenyList).isDenied(claims('logged-out', exp.toInstant()))
+
+        when: 'the logout is not authenticated'
+        listener.onApplicationEvent(new LogoutEvent('anonymous'))
+
+        then:
+        context.getBean(TokenDenyListStore).keys() == ['jti:logged-out']
+    }
+
+    void "the in memory store drops the token which expires first once it is full"() {
+        given:
+        TokenDenyListStore store = context.getBean(TokenDenyListStore)
+        Instant now = Instant.now()
+
+        when:
+        store.put('expired', now.minusSeconds(1))
+        store.put('first', now.plusSeconds(60))
+        store.put('second', now.plusSeconds(120))
+        store.put('third', now.plusSeconds(180))
+
+        then: 'the expired token is dropped first'
+        store.keys() as Set == ['first', 'second', 'third'] as Set
+
+        when:
+        store.put('fourth', now.plusSeconds(240))
+
+        then:
+        store.keys() as Set == ['second', 'third', 'fourth'] as Set
+        !store.contains('first')
+    }
+
+    void "the Bloom filter has no false negatives"() {
+        given:
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01)
+        List<String> values = (1..1000).collect { "value-${it}".toString() }
+
+        when:
+        values.each { bloomFilter.put(it) }
+
+        then:
+        values.every { bloomFilter.mightContain(it) }
+        (1..10000).count { bloomFilter.mightContain("absent-${it}".toString()) } < 300
+    }
+
+    private static JwtClaims claims(String jti, Instant exp) {
+        new JwtClaimsSetAdapter(new JWTClaimsSet.Builder().jwtID(jti).subject('sherlock').expirationTime(Date.from(exp)).build())
+    }
+}
@@ -0,0 +1,340 @@
+package io.micronaut.security.oauth2.openid.jwks
+
+import com.nimbusds.jose.JWSAlgorithm
+import com.nimbusds.jose.JWSHeader
+import com.nimbusds.jose.JWSVerifier
+import com.nimbusds.jose.crypto.RSASSASigner
+import com.nimbusds.jose.crypto.RSASSAVerifier
+import com.nimbusds.jose.jwk.JWK
+import com.nimbusds.jose.jwk.JWKSet
+import com.nimbusds.jose.jwk.KeyType
+import com.nimbusds.jose.jwk.RSAKey
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.PlainJWT
+import com.nimbusds.jwt.SignedJWT
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.HttpResponse
+import io.micronaut.http.annotation.Controller
+import io.micronaut.http.annotation.Get
+import io.micronaut.http.client.RxHttpClient
+import io.micronaut.runtime.server.EmbeddedServer
+import io.micronaut.security.annotation.Secured
+import io.micronaut.security.oauth2.openid.configuration.OpenIdConfiguration
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.rules.SecurityRule
+import io.micronaut.security.token.jwt.signature.jwks.JwkValidator
+import io.micronaut.security.token.jwt.validator.DefaultJwtAuthenticationFactory
+import io.reactivex.Flowable
+import io.reactivex.Single
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+class JwksKeyStoreSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    EmbeddedServer embeddedServer = ApplicationContext.run(EmbeddedServer, [
+            'spec.name': 'JwksKeyStoreSpec',
+            'micronaut.security.enabled': true,
+    ])
+
+    @Shared
+    @AutoCleanup
+    RxHttpClient jwksClient = embeddedServer.applicationContext.createBean(RxHttpClient, embeddedServer.URL)
+
+    JwksController controller = embeddedServer.applicationContext.getBean(JwksController)
+
+    RSAKey first = new RSAKeyGenerator(2048).keyID('first').generate()
+
+    RSAKey second = new RSAKeyGenerator(2048).keyID('second').generate()
+
+    void setup() {
+        controller.called = 0
+        controller.cacheControl = null
+        controller.delay = 0
+        controller.jwkSet = new JWKSet(first)
+    }
+
+    void "keys are looked up by key ID without fetching the JWKS again"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ofSeconds(30))
+
+        expect:
+        find(jwksKeyStore, 'first')*.keyID == ['first']
+        jwksKeyStore.getKeys('first')*.keyID == ['first']
+        jwksKeyStore.getKeys(null)*.keyID == ['first']
+        find(jwksKeyStore, 'first')*.keyID == ['first']
+        controller.called == 1
+
+        and: 'only public keys are kept'
+        !jwksKeyStore.getKeys('first').first().isPrivate()
+    }
+
+    void "an unknown key ID fetches the JWKS again to pick up rotated keys"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+
+        when:
+        find(jwksKeyStore, 'first')
+        controller.jwkSet = new JWKSet([first, second])
+
+        then:
+        find(jwksKeyStore, 'second')*.keyID == ['second']
+        jwksKeyStore.getKeys('first')*.keyID == ['first']
+        controller.called == 2
+    }
+
+    void "fetches triggered by unknown key IDs are rate limited"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ofMinutes(1))
+
+        when:
+        find(jwksKeyStore, 'first')
+        controller.jwkSet = new JWKSet([first, second])
+
+        then:
+        find(jwksKeyStore, 'unknown').isEmpty()
+        find(jwksKeyStore, 'second').isEmpty()
+        jwksKeyStore.getKeys('second').isEmpty()
+        controller.called == 1
+    }
+
+    void "expired keys are still used while the JWKS is fetched in the background"() {
+        given:
+        controller.cacheControl = 'max-age=0'
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+
+        when:
+        find(jwksKeyStore, 'first')
+        sleep(10)
+
+        then:
+        jwksKeyStore.getKeys('first')*.keyID == ['first']
+
+        and:
+        new PollingConditions(timeout: 5).eventually {
+            assert controller.called >= 2
+        }
+    }
+
+    void "concurrent fetches share a single request"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+        find(jwksKeyStore, 'first')
+        controller.jwkSet = new JWKSet([first, second])
+        controller.delay = 500
+
+        when:
+        List<Thread> threads = (1..10).collect { Thread.start { assert find(jwksKeyStore, 'second')*.keyID == ['second'] } }
+        threads*.join()
+
+        then:
+        controller.called == 2
+
+        when:
+        Single<List<JWK>> refresh = jwksKeyStore.refresh()
+
+        then:
+        jwksKeyStore.refresh().blockingGet()*.keyID == ['first', 'second']
+        refresh.blockingGet()*.keyID == ['first', 'second']
+        controller.called == 3
+    }
+
+    void "verifiers are built once per key and reused"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+
+        when:
+        JWK key = find(jwksKeyStore, 'first').first()
+        JWSVerifier verifier = jwksKeyStore.getVerifier(key).get()
+
+        then:
+        verifier instanceof RSASSAVerifier
+        jwksKeyStore.getVerifier(jwksKeyStore.getKeys('first').first()).get().is(verifier)
+        jwksKeyStore.getVerifier(jwksKeyStore.getKeys(null).first()).get().is(verifier)
+        new JwksKeyStoreJwkValidator(jwksKeyStore).getVerifier(key).get().is(verifier)
+
+        when:
+        controller.jwkSet = new JWKSet([first, second])
+
+        then:
+        jwksKeyStore.getVerifier(find(jwksKeyStore, 'second').first()).isPresent()
+        !jwksKeyStore.getVerifier(jwksKeyStore.getKeys('first').first()).get().is(verifier)
+        !jwksKeyStore.getVerifier(key).isPresent()
+        new JwksKeyStoreJwkValidator(jwksKeyStore).getVerifier(key).isPresent()
+    }
+
+    void "JwksKeyStoreSignature verifies signatures with the key identified by the JWT header"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+        JwksKeyStoreSignature signature = new JwksKeyStoreSignature(jwksKeyStore, KeyType.RSA, new JwksKeyStoreJwkValidator(jwksKeyStore))
+        find(jwksKeyStore, null)
+
+        expect:
+        signature.supports(JWSAlgorithm.RS256)
+        !signature.supports(JWSAlgorithm.ES256)
+        signature.verify(sign(first))
+        !signature.verify(sign(second))
+
+        when: 'the keys rotate, the key of the token is awaited before verifying it'
+        controller.jwkSet = new JWKSet([first, second])
+        jwksKeyStore.awaitKeys(sign(second).serialize()).blockingAwait()
+
+        then:
+        signature.verify(sign(second))
+        controller.called == 2
+    }
+
+    void "awaiting the keys of a token which is not a signed JWT completes at once"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+
+        expect:
+        jwksKeyStore.awaitKeys('not a JWT').blockingGet() == null
+        jwksKeyStore.awaitKeys(new PlainJWT(new JWTClaimsSet.Builder().subject('sherlock').build()).serialize()).blockingGet() == null
+        controller.called == 0
+    }
+
+    void "the JWKS is fetched once the application starts"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.openid.issuer': embeddedServer.URL.toString(),
+        ], Environment.TEST)
+
+        expect:
+        context.containsBean(JwksKeyStoreStartupFetcher)
+        new PollingConditions(timeout: 5).eventually {
+            assert controller.called == 1
+        }
+
+        cleanup:
+        context.close()
+    }
+
+    void "fetching the JWKS at startup can be disabled"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+                'micronaut.security.oauth2.openid.issuer': embeddedServer.URL.toString(),
+                'micronaut.security.oauth2.openid.jwks-key-store.fetch-on-startup': false,
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(JwksKeyStoreStartupFetcher)
+        context.containsBean(JwksKeyStore)
+
+        cleanup:
+        context.close()
+    }
+
+    void "looking up a key does not wait for the JWKS"() {
+        given:
+        controller.delay = 2000
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+
+        when:
+        long start = System.currentTimeMillis()
+        List<JWK> keys = jwksKeyStore.getKeys('first')
+
+        then:
+        keys.isEmpty()
+        System.currentTimeMillis() - start < 1000
+
+        and:
+        new PollingConditions(timeout: 5).eventually {
+            assert jwksKeyStore.getKeys('first')*.keyID == ['first']
+        }
+        controller.called == 1
+    }
+
+    void "JwksKeyStoreJwtTokenValidator waits for the key of a token without blocking"() {
+        given:
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+        JwksKeyStoreSignature signature = new JwksKeyStoreSignature(jwksKeyStore, KeyType.RSA, new JwksKeyStoreJwkValidator(jwksKeyStore))
+        JwksKeyStoreJwtTokenValidator validator = new JwksKeyStoreJwtTokenValidator([signature], [], [], new DefaultJwtAuthenticationFactory(), jwksKeyStore)
+        find(jwksKeyStore, 'first')
+        controller.jwkSet = new JWKSet([first, second])
+        controller.delay = 500
+
+        when:
+        long start = System.currentTimeMillis()
+        Flowable<Authentication> authentication = Flowable.fromPublisher(validator.validateToken(sign(second).serialize()))
+
+        then:
+        System.currentTimeMillis() - start < 500
+        authentication.blockingFirst().name == 'sherlock'
+        controller.called == 2
+    }
+
+    void "JwksKeyStoreSignature delegates to the JwkValidator for each candidate key"() {
+        given:
+        List<String> validated = []
+        JwkValidator jwkValidator = { SignedJWT jwt, JWK jwk -> validated << jwk.keyID; false } as JwkValidator
+        controller.jwkSet = new JWKSet([first, second])
+        JwksKeyStore jwksKeyStore = keyStore(Duration.ZERO)
+        JwksKeyStoreSignature signature = new JwksKeyStoreSignature(jwksKeyStore, KeyType.RSA, jwkValidator)
+        find(jwksKeyStore, 'first')
+
+        expect:
+        !signature.verify(sign(first))
+        validated == ['first']
+    }
+
+    private static List<JWK> find(JwksKeyStore jwksKeyStore, String keyId) {
+        jwksKeyStore.findKeys(keyId).blockingGet()
+    }
+
+    private JwksKeyStore keyStore(Duration minRefetchInterval) {
+        JwksKeyStoreConfigurationProperties configuration = new JwksKeyStoreConfigurationProperties()
+        configuration.minRefetchInterval = minRefetchInterval
+        new DefaultJwksKeyStore(new OpenIdConfiguration(jwksUri: "${embeddedServer.URL}/keys"), configuration, jwksClient)
+    }
+
+    private static SignedJWT sign(RSAKey key) {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.keyID).build(),
+                new JWTClaimsSet.Builder().subject('sherlock').build())
+        jwt.sign(new RSASSASigner(key))
+        jwt
+    }
+
+    @Requires(property = 'spec.name', value = 'JwksKeyStoreSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/.well-known/openid-configuration')
+    static class DiscoveryController {
+        @Get
+        Map configuration(HttpRequest<?> request) {
+            String issuer = "http://localhost:${request.serverAddress.port}".toString()
+            [issuer: issuer, jwks_uri: "${issuer}/keys".toString()]
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'JwksKeyStoreSpec')
+    @Secured(SecurityRule.IS_ANONYMOUS)
+    @Controller('/keys')
+    static class JwksController {
+        int called = 0
+        String cacheControl
+        JWKSet jwkSet
+        long delay = 0
+
+        @Get
+        Single<HttpResponse<String>> index() {
+            called++
+            HttpResponse<String> response = HttpResponse.ok(jwkSet.toJSONObject(false).toJSONString())
+            if (cacheControl) {
+                response.header('Cache-Control', cacheControl)
+            }
+            Single.just(response).delay(delay, TimeUnit.MILLISECONDS)
+        }
+    }
+}
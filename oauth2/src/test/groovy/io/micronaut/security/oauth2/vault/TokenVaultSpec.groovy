@@ -0,0 +1,128 @@
+package io.micronaut.security.oauth2.vault
+
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.PlainJWT
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.env.Environment
+import io.micronaut.http.HttpHeaders
+import io.micronaut.http.HttpRequest
+import io.micronaut.http.context.ServerRequestContext
+import io.micronaut.http.cookie.Cookie
+import io.micronaut.security.authentication.Authentication
+import io.micronaut.security.authentication.AuthenticationUserDetailsAdapter
+import io.micronaut.security.authentication.UserDetails
+import io.micronaut.security.event.LogoutEvent
+import io.micronaut.security.oauth2.handlers.CookieSuccessfulIdTokenAccessTokenResponseHandler
+import io.micronaut.security.oauth2.openid.idtoken.IdTokenAccessTokenResponse
+import io.micronaut.security.token.validator.TokenValidator
+import io.reactivex.Flowable
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class TokenVaultSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    ApplicationContext applicationContext = ApplicationContext.run([
+            'micronaut.security.enabled': true,
+            'micronaut.security.token.jwt.enabled': true,
+            'micronaut.security.oauth2.client-id': 'XXX',
+            'micronaut.security.oauth2.vault.enabled': true,
+    ], Environment.TEST)
+
+    def "the vault is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run([
+                'micronaut.security.enabled': true,
+        ], Environment.TEST)
+
+        expect:
+        !context.containsBean(TokenVault)
+        !context.containsBean(TokenVaultTokenValidator)
+        !(context.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler) instanceof TokenVaultSuccessfulIdTokenAccessTokenResponseHandler)
+
+        cleanup:
+        context.close()
+    }
+
+    def "the cookie holds an opaque handle which resolves to the authentication"() {
+        given:
+        CookieSuccessfulIdTokenAccessTokenResponseHandler handler = applicationContext.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler)
+        TokenVaultTokenValidator validator = applicationContext.getBean(TokenVaultTokenValidator)
+        IdTokenAccessTokenResponse idTokenAccessTokenResponse = idTokenAccessTokenResponse()
+        Authentication authentication = authentication(new Date(System.currentTimeMillis() + 3600000))
+
+        when:
+        Cookie cookie = handler.createCookie(HttpRequest.GET('/'), idTokenAccessTokenResponse, authentication)
+
+        then:
+        handler instanceof TokenVaultSuccessfulIdTokenAccessTokenResponseHandler
+        cookie.value.length() == 22
+        Flowable.fromPublisher(validator.validateToken(cookie.value)).blockingFirst().is(authentication)
+        applicationContext.getBean(TokenVault).find(cookie.value).get().idTokenAccessTokenResponse.is(idTokenAccessTokenResponse)
+
+        and:
+        Flowable.fromPublisher(validator.validateToken('unknown')).toList().blockingGet().isEmpty()
+    }
+
+    def "the vault validator runs before the JWT validator"() {
+        expect:
+        applicationContext.getBeansOfType(TokenValidator).first() instanceof TokenVaultTokenValidator
+    }
+
+    def "a handle stops resolving once the ID token expires"() {
+        given:
+        CookieSuccessfulIdTokenAccessTokenResponseHandler handler = applicationContext.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler)
+        Authentication authentication = authentication(new Date(System.currentTimeMillis() - 1000))
+
+        when:
+        Cookie cookie = handler.createCookie(HttpRequest.GET('/'), idTokenAccessTokenResponse(), authentication)
+
+        then:
+        !applicationContext.getBean(TokenVault).find(cookie.value).isPresent()
+    }
+
+    def "a full shard evicts its oldest login"() {
+        given:
+        DefaultTokenVault vault = new DefaultTokenVault(new TokenVaultConfigurationProperties(shards: 1, maxEntries: 2))
+        long expiresAt = System.currentTimeMillis() + 60000
+
+        when:
+        ['a', 'b', 'c'].each { vault.store(it, new TokenVaultEntry(idTokenAccessTokenResponse(), authentication(null), expiresAt)) }
+
+        then:
+        !vault.find('a').isPresent()
+        vault.find('b').isPresent()
+        vault.find('c').isPresent()
+    }
+
+    def "logout removes the login from the vault"() {
+        given:
+        CookieSuccessfulIdTokenAccessTokenResponseHandler handler = applicationContext.getBean(CookieSuccessfulIdTokenAccessTokenResponseHandler)
+        TokenVault vault = applicationContext.getBean(TokenVault)
+        Cookie cookie = handler.createCookie(HttpRequest.GET('/'), idTokenAccessTokenResponse(), authentication(null))
+        HttpRequest<?> request = HttpRequest.POST('/logout', '').header(HttpHeaders.AUTHORIZATION, "Bearer ${cookie.value}")
+
+        expect:
+        vault.find(cookie.value).isPresent()
+
+        when:
+        ServerRequestContext.with(request) {
+            applicationContext.publishEvent(new LogoutEvent(authentication(null)))
+        }
+
+        then:
+        !vault.find(cookie.value).isPresent()
+    }
+
+    private static IdTokenAccessTokenResponse idTokenAccessTokenResponse() {
+        IdTokenAccessTokenResponse idTokenAccessTokenResponse = new IdTokenAccessTokenResponse()
+        idTokenAccessTokenResponse.idToken = new PlainJWT(new JWTClaimsSet.Builder().subject('sherlock').build()).serialize()
+        idTokenAccessTokenResponse
+    }
+
+    private static Authentication authentication(Date expiration) {
+        new AuthenticationUserDetailsAdapter(new UserDetails('sherlock', [], expiration ? [exp: expiration] : [:]))
+    }
+}